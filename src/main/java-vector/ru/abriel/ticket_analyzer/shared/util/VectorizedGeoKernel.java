@@ -0,0 +1,68 @@
+package ru.abriel.ticket_analyzer.shared.util;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * The Vector API implementation of the batch great-circle distance of {@link GeoCalculator}.
+ * <p>
+ * The class links against the incubating {@code jdk.incubator.vector} module, so it lives in the
+ * separately compiled {@code src/main/java-vector} root, the only sources built with that module.
+ * {@link GeoCalculator} instantiates it by name only after confirming that the module is part of
+ * the boot layer, so the application runs unchanged on JVMs started without
+ * {@code --add-modules jdk.incubator.vector}.
+ */
+final class VectorizedGeoKernel implements BatchDistanceKernel {
+
+    /**
+     * Computes the distances of the leading pairs that fill whole vectors.
+     *
+     * @return The number of pairs computed; the caller handles the remaining tail.
+     */
+    @Override
+    public int distancesMeters(final double[] originLatitudes, final double[] originLongitudes,
+                               final double[] destinationLatitudes, final double[] destinationLongitudes,
+                               final double[] distances, final int count, final double earthRadiusMeters) {
+        return Kernel.distancesMeters(originLatitudes, originLongitudes, destinationLatitudes, destinationLongitudes,
+                distances, count, earthRadiusMeters);
+    }
+
+    /**
+     * Holds every reference to the Vector API, so it is resolved only on first use.
+     */
+    private static final class Kernel {
+
+        private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+        private static final double DEGREES_TO_RADIANS = Math.PI / 180.0;
+
+        private static int distancesMeters(final double[] originLatitudes, final double[] originLongitudes,
+                                           final double[] destinationLatitudes, final double[] destinationLongitudes,
+                                           final double[] distances, final int count, final double earthRadiusMeters) {
+            final int upperBound = SPECIES.loopBound(count);
+            for (int i = 0; i < upperBound; i += SPECIES.length()) {
+                final DoubleVector lat1 = DoubleVector.fromArray(SPECIES, originLatitudes, i).mul(DEGREES_TO_RADIANS);
+                final DoubleVector lon1 = DoubleVector.fromArray(SPECIES, originLongitudes, i).mul(DEGREES_TO_RADIANS);
+                final DoubleVector lat2 = DoubleVector.fromArray(SPECIES, destinationLatitudes, i).mul(DEGREES_TO_RADIANS);
+                final DoubleVector lon2 = DoubleVector.fromArray(SPECIES, destinationLongitudes, i).mul(DEGREES_TO_RADIANS);
+
+                final DoubleVector cosLat1 = lat1.lanewise(VectorOperators.COS);
+                final DoubleVector cosLat2 = lat2.lanewise(VectorOperators.COS);
+                final DoubleVector sinLat1 = lat1.lanewise(VectorOperators.SIN);
+                final DoubleVector sinLat2 = lat2.lanewise(VectorOperators.SIN);
+
+                final DoubleVector deltaLon = lon2.sub(lon1);
+                final DoubleVector cosDeltaLon = deltaLon.lanewise(VectorOperators.COS);
+                final DoubleVector sinDeltaLon = deltaLon.lanewise(VectorOperators.SIN);
+
+                final DoubleVector a = cosLat2.mul(sinDeltaLon);
+                final DoubleVector b = cosLat1.mul(sinLat2).sub(sinLat1.mul(cosLat2).mul(cosDeltaLon));
+                final DoubleVector y = a.mul(a).add(b.mul(b)).sqrt();
+                final DoubleVector x = sinLat1.mul(sinLat2).add(cosLat1.mul(cosLat2).mul(cosDeltaLon));
+
+                y.lanewise(VectorOperators.ATAN2, x).mul(earthRadiusMeters).intoArray(distances, i);
+            }
+            return upperBound;
+        }
+    }
+}
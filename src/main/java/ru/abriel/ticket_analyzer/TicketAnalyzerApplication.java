@@ -6,24 +6,47 @@ import org.springframework.boot.ExitCodeGenerator;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import picocli.CommandLine;
+import java.util.Arrays;
 import ru.abriel.ticket_analyzer.command.AnalyzeTicketsCommand;
+import ru.abriel.ticket_analyzer.command.GenerateTicketsCommand;
+import ru.abriel.ticket_analyzer.command.ScalingHarnessCommand;
+import ru.abriel.ticket_analyzer.service.WriteBehindPersistence;
 
 /**
  * The main entry point for the Spring Boot application.
  * This class is responsible for initializing the Spring context and delegating the
  * command-line execution to the Picocli framework. It also ensures that the
  * application's exit code is correctly propagated from the command's execution result.
+ * Persistence that runs behind the analysis is flushed and reported before it returns.
  */
 @SpringBootApplication
 @RequiredArgsConstructor
 public class TicketAnalyzerApplication implements CommandLineRunner, ExitCodeGenerator {
 
+	private static final String GENERATE_COMMAND = "generate";
+	private static final String HARNESS_COMMAND = "harness";
+
 	/**
 	 * The main Picocli command bean, injected by Spring.
 	 * This is the root of all command-line logic.
 	 */
 	private final AnalyzeTicketsCommand analyzeCommand;
 
+	/**
+	 * The synthetic data generator, run when the first argument is {@code generate}.
+	 */
+	private final GenerateTicketsCommand generateCommand;
+
+	/**
+	 * The end-to-end scaling harness, run when the first argument is {@code harness}.
+	 */
+	private final ScalingHarnessCommand harnessCommand;
+
+	/**
+	 * The background persistence queue, flushed after the command has finished.
+	 */
+	private final WriteBehindPersistence writeBehind;
+
 	/**
 	 * Stores the exit code returned by the Picocli command execution.
 	 */
@@ -40,13 +63,26 @@ public class TicketAnalyzerApplication implements CommandLineRunner, ExitCodeGen
 
 	/**
 	 * The core execution logic that runs after the Spring application context is fully loaded.
-	 * It hands over control to the Picocli command-line parser.
+	 * It hands over control to the Picocli command-line parser. The first argument selects the
+	 * {@code generate} or {@code harness} tool; anything else is an analysis.
 	 *
 	 * @param args The command line arguments.
 	 */
 	@Override
 	public void run(String... args) throws Exception {
-		new CommandLine(this.analyzeCommand).execute(args);
+		final Object command = switch (args.length > 0 ? args[0] : "") {
+			case GENERATE_COMMAND -> this.generateCommand;
+			case HARNESS_COMMAND -> this.harnessCommand;
+			default -> this.analyzeCommand;
+		};
+		final String[] commandArgs = command == this.analyzeCommand ? args : Arrays.copyOfRange(args, 1, args.length);
+		this.exitCode = new CommandLine(command).execute(commandArgs);
+
+		// Results are already printed; wait for the write-behind queue before the process may exit.
+		final WriteBehindPersistence.PersistenceReport report = this.writeBehind.flush();
+		if (!report.isSuccessful() && this.exitCode == CommandLine.ExitCode.OK) {
+			this.exitCode = CommandLine.ExitCode.SOFTWARE;
+		}
 	}
 
 	/**
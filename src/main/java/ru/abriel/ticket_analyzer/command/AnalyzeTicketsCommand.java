@@ -6,12 +6,26 @@ import org.springframework.boot.ExitCodeGenerator;
 import org.springframework.stereotype.Component;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.ExitCode;
+import picocli.CommandLine.Model.CommandSpec;
+import picocli.CommandLine.Option;
+import picocli.CommandLine.ParameterException;
 import picocli.CommandLine.Parameters;
+import picocli.CommandLine.Spec;
+import ru.abriel.ticket_analyzer.presentation.AnalysisServer;
 import ru.abriel.ticket_analyzer.service.FlightAnalysisService;
+import ru.abriel.ticket_analyzer.service.aggregation.RouteQuery;
+import ru.abriel.ticket_analyzer.service.itinerary.ItineraryCriterion;
+import ru.abriel.ticket_analyzer.service.itinerary.ItineraryService;
 import ru.abriel.ticket_analyzer.shared.exception.DataSourceNotFoundException;
 import ru.abriel.ticket_analyzer.shared.exception.JsonParsingException;
+import ru.abriel.ticket_analyzer.shared.util.RouteListReader;
 
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.UnixDomainSocketAddress;
 import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.Callable;
 
@@ -29,23 +43,90 @@ import java.util.concurrent.Callable;
 public class AnalyzeTicketsCommand implements Callable<Integer>, ExitCodeGenerator {
 
     private final FlightAnalysisService analysisService;
+    private final AnalysisServer analysisServer;
+    private final ItineraryService itineraryService;
     private int exitCode;
 
-    @Parameters(index = "0", description = "Path to the tickets JSON file. If omitted, uses the default data source pipeline.", arity = "0..1")
+    @Spec
+    private CommandSpec spec;
+
+    @Parameters(index = "0", description = "Path to the tickets JSON or NDJSON file (optionally gzip-compressed), a directory of such files or a quoted glob such as 'feeds/*/tickets-*.json'. "
+            + "If omitted, uses the default data source pipeline.", arity = "0..1")
     private Path filePath;
 
-    @Parameters(index = "1", description = "Origin city name.")
+    @Parameters(index = "1", description = "Origin city name. Required unless --routes-file or --all-routes is used.", arity = "0..1")
     private String originCity;
 
-    @Parameters(index = "2", description = "Destination city name.")
+    @Parameters(index = "2", description = "Destination city name. Required unless --routes-file or --all-routes is used.", arity = "0..1")
     private String destinationCity;
 
+    @Option(names = "--routes-file", description = "Analyze every route listed in this file (one 'origin;destination' per line) in a single run.")
+    private Path routesFile;
+
+    @Option(names = "--all-routes", description = "Analyze every route found in the data in a single run.")
+    private boolean allRoutes;
+
+    @Option(names = "--export", description = "Also write the multi-route results to this CSV file.")
+    private Path exportPath;
+
+    @Option(names = "--air-time-ratio", description = "Also report the share of journey time spent in the air per carrier "
+            + "(the rest is lost to stops and time on the ground).")
+    private boolean airTimeRatio;
+
+    @Option(names = "--approximate", description = "Estimate the median with bounded-memory quantile sketches instead of "
+            + "sorting all prices, and also report p50/p90/p99 price and journey time per carrier "
+            + "(rank error about 1.7%% at the default app.analysis.sketch-k).")
+    private boolean approximate;
+
+    @Option(names = "--itinerary", description = "Instead of the route metrics, find the ${COMPLETION-CANDIDATES} itinerary "
+            + "between the cities, with connections over several tickets if needed.")
+    private ItineraryCriterion itinerary;
+
+    @Option(names = "--depart-after", description = "With --itinerary: the earliest first departure, e.g. 2018-05-12T00:00:00Z.")
+    private Instant departAfter;
+
+    @Option(names = "--serve", description = "Keep running: load the data once and answer 'analyze <origin>;<destination>' requests "
+            + "from standard input, or from --port/--socket if given.")
+    private boolean serve;
+
+    @Option(names = "--port", description = "With --serve: listen on this TCP port on the loopback interface.")
+    private Integer port;
+
+    @Option(names = "--socket", description = "With --serve: listen on this Unix domain socket.")
+    private Path socketPath;
+
     @Override
     public Integer call() {
+        this.validateOptions();
         try {
-            log.info("Analysis command initiated for route: {} -> {}", originCity, destinationCity);
             // This class's only job is to delegate. It knows nothing about how the data is retrieved or processed.
-            analysisService.analyzeAndPrintResults(Optional.ofNullable(filePath), originCity, destinationCity);
+            if (serve) {
+                log.info("Server mode initiated.");
+                if (port != null) {
+                    analysisServer.serveSocket(Optional.ofNullable(filePath), new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+                } else if (socketPath != null) {
+                    analysisServer.serveSocket(Optional.ofNullable(filePath), UnixDomainSocketAddress.of(socketPath));
+                } else {
+                    analysisServer.serveStdin(Optional.ofNullable(filePath));
+                }
+            } else if (routesFile != null || allRoutes) {
+                final List<RouteQuery> routes = allRoutes ? List.of() : RouteListReader.read(routesFile);
+                log.info("Multi-route analysis command initiated ({}).", allRoutes ? "all routes" : routes.size() + " routes");
+                analysisService.analyzeRoutesAndPrintResults(Optional.ofNullable(filePath), routes, Optional.ofNullable(exportPath));
+            } else if (originCity == null || destinationCity == null) {
+                System.err.println("ERROR: Origin and destination cities are required unless --routes-file or --all-routes is used.");
+                this.exitCode = ExitCode.USAGE;
+                return this.exitCode;
+            } else if (itinerary != null) {
+                log.info("Itinerary command initiated for route: {} -> {}", originCity, destinationCity);
+                itineraryService.findAndPrintItinerary(Optional.ofNullable(filePath), originCity, destinationCity, itinerary, departAfter);
+            } else if (approximate) {
+                log.info("Approximate analysis command initiated for route: {} -> {}", originCity, destinationCity);
+                analysisService.analyzeApproximateAndPrintResults(Optional.ofNullable(filePath), originCity, destinationCity);
+            } else {
+                log.info("Analysis command initiated for route: {} -> {}", originCity, destinationCity);
+                analysisService.analyzeAndPrintResults(Optional.ofNullable(filePath), originCity, destinationCity, airTimeRatio);
+            }
             log.info("Analysis command completed successfully.");
             this.exitCode = ExitCode.OK;
         } catch (DataSourceNotFoundException e) {
@@ -68,4 +149,46 @@ public class AnalyzeTicketsCommand implements Callable<Integer>, ExitCodeGenerat
     public int getExitCode() {
         return this.exitCode;
     }
+
+    /**
+     * Rejects options that the selected mode would otherwise silently ignore. Picocli prints the
+     * message with the usage help and exits with {@link ExitCode#USAGE}.
+     *
+     * @throws ParameterException if two options cannot be combined or an option lacks the mode it belongs to.
+     */
+    private void validateOptions() {
+        final boolean multiRoute = routesFile != null || allRoutes;
+        final boolean cities = originCity != null || destinationCity != null;
+        this.rejectCombined(port != null, "--port", socketPath != null, "--socket");
+        this.rejectCombined(routesFile != null, "--routes-file", allRoutes, "--all-routes");
+        this.rejectCombined(serve, "--serve", multiRoute, "--routes-file/--all-routes");
+        this.rejectCombined(serve, "--serve", cities, "origin and destination cities");
+        this.rejectCombined(serve, "--serve", exportPath != null, "--export");
+        this.rejectCombined(serve, "--serve", itinerary != null, "--itinerary");
+        this.rejectCombined(serve, "--serve", approximate, "--approximate");
+        this.rejectCombined(serve, "--serve", airTimeRatio, "--air-time-ratio");
+        this.rejectCombined(multiRoute, "--routes-file/--all-routes", cities, "origin and destination cities");
+        this.rejectCombined(multiRoute, "--routes-file/--all-routes", itinerary != null, "--itinerary");
+        this.rejectCombined(multiRoute, "--routes-file/--all-routes", approximate, "--approximate");
+        this.rejectCombined(multiRoute, "--routes-file/--all-routes", airTimeRatio, "--air-time-ratio");
+        this.rejectCombined(itinerary != null, "--itinerary", approximate, "--approximate");
+        this.rejectCombined(itinerary != null, "--itinerary", airTimeRatio, "--air-time-ratio");
+        this.rejectCombined(approximate, "--approximate", airTimeRatio, "--air-time-ratio");
+        this.requireWith(port != null, "--port", serve, "--serve");
+        this.requireWith(socketPath != null, "--socket", serve, "--serve");
+        this.requireWith(exportPath != null, "--export", multiRoute, "--routes-file or --all-routes");
+        this.requireWith(departAfter != null, "--depart-after", itinerary != null, "--itinerary");
+    }
+
+    private void rejectCombined(final boolean first, final String firstName, final boolean second, final String secondName) {
+        if (first && second) {
+            throw new ParameterException(spec.commandLine(), firstName + " cannot be combined with " + secondName + ".");
+        }
+    }
+
+    private void requireWith(final boolean option, final String optionName, final boolean mode, final String modeName) {
+        if (option && !mode) {
+            throw new ParameterException(spec.commandLine(), optionName + " can only be used with " + modeName + ".");
+        }
+    }
 }
\ No newline at end of file
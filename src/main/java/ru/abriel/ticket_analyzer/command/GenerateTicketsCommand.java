@@ -0,0 +1,43 @@
+package ru.abriel.ticket_analyzer.command;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.ExitCode;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Option;
+import ru.abriel.ticket_analyzer.shared.util.TicketDataGenerator;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Callable;
+
+/**
+ * Writes a synthetic ticket file for load and scaling tests. Invoked as {@code generate [options]}.
+ */
+@Slf4j
+@Component
+@Command(name = "generate",
+        mixinStandardHelpOptions = true,
+        description = "Writes a synthetic ticket file in the input schema.")
+public class GenerateTicketsCommand implements Callable<Integer> {
+
+    @Option(names = {"-o", "--output"}, required = true, description = "The file to write.")
+    private Path output;
+
+    @Option(names = {"-n", "--count"}, defaultValue = "100000", description = "Number of tickets (default: ${DEFAULT-VALUE}).")
+    private long count;
+
+    @Mixin
+    private GeneratorOptions generatorOptions;
+
+    @Override
+    public Integer call() throws Exception {
+        final Path target = output.toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        final long started = System.nanoTime();
+        final long malformed = new TicketDataGenerator(generatorOptions.settings(count)).write(target);
+        log.info("Generated {} tickets ({} malformed) into {} ({} bytes) in {} ms.",
+                count, malformed, target, Files.size(target), (System.nanoTime() - started) / 1_000_000);
+        return ExitCode.OK;
+    }
+}
@@ -0,0 +1,60 @@
+package ru.abriel.ticket_analyzer.command;
+
+import picocli.CommandLine.Option;
+import ru.abriel.ticket_analyzer.shared.util.TicketDataGenerator;
+import ru.abriel.ticket_analyzer.shared.util.TicketDataGenerator.PriceDistribution;
+import ru.abriel.ticket_analyzer.shared.util.TicketDataGenerator.Route;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * The shape of generated ticket data, shared as a mixin by the {@code generate} and {@code harness} commands.
+ */
+public class GeneratorOptions {
+
+    private static final List<String> DEFAULT_ROUTES = List.of(
+            "VVO;Владивосток;TLV;Тель-Авив",
+            "UFA;Уфа;TLV;Тель-Авив",
+            "LRN;Ларнака;TLV;Тель-Авив",
+            "VVO;Владивосток;UFA;Уфа");
+
+    private static final LocalDate FIRST_DEPARTURE = LocalDate.of(2018, 5, 1);
+    private static final int DEPARTURE_DAYS = 30;
+
+    @Option(names = "--route", description = "A route as 'CODE;City;CODE;City'. Repeatable. Default: four routes around VVO and TLV.")
+    private List<String> routes;
+
+    @Option(names = "--carriers", split = ",", defaultValue = "TK,S7,SU,BA", description = "Carrier codes (default: ${DEFAULT-VALUE}).")
+    private List<String> carriers;
+
+    @Option(names = "--max-stops", defaultValue = "3", description = "Maximum number of stops (default: ${DEFAULT-VALUE}).")
+    private int maxStops;
+
+    @Option(names = "--price-distribution", defaultValue = "LOGNORMAL",
+            description = "Price distribution: ${COMPLETION-CANDIDATES} (default: ${DEFAULT-VALUE}).")
+    private PriceDistribution priceDistribution;
+
+    @Option(names = "--price-mean", defaultValue = "15000", description = "Mean price (default: ${DEFAULT-VALUE}).")
+    private double priceMean;
+
+    @Option(names = "--price-spread", defaultValue = "4000", description = "Price half-width or standard deviation (default: ${DEFAULT-VALUE}).")
+    private double priceSpread;
+
+    @Option(names = "--malformed-rate", defaultValue = "0", description = "Share of malformed records, 0..1 (default: ${DEFAULT-VALUE}).")
+    private double malformedRate;
+
+    @Option(names = "--seed", defaultValue = "42", description = "Random seed (default: ${DEFAULT-VALUE}).")
+    private long seed;
+
+    /**
+     * @param count The number of tickets to generate.
+     * @return The generator settings of the parsed options.
+     */
+    public TicketDataGenerator.Settings settings(final long count) {
+        final List<Route> parsedRoutes = (routes == null || routes.isEmpty() ? DEFAULT_ROUTES : routes).stream()
+                .map(Route::parse)
+                .toList();
+        return new TicketDataGenerator.Settings(count, parsedRoutes, carriers, maxStops, priceDistribution,
+                priceMean, priceSpread, malformedRate, seed, FIRST_DEPARTURE, DEPARTURE_DAYS);
+    }
+}
@@ -0,0 +1,172 @@
+package ru.abriel.ticket_analyzer.command;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import picocli.CommandLine;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.ExitCode;
+import picocli.CommandLine.Mixin;
+import picocli.CommandLine.Option;
+import ru.abriel.ticket_analyzer.domain.model.ticket.DataProviderService;
+import ru.abriel.ticket_analyzer.domain.model.ticket.TicketDataset;
+import ru.abriel.ticket_analyzer.service.FlightAnalysisService;
+import ru.abriel.ticket_analyzer.service.TicketStorageService;
+import ru.abriel.ticket_analyzer.service.WriteBehindPersistence;
+import ru.abriel.ticket_analyzer.shared.exception.TicketAnalyzerException;
+import ru.abriel.ticket_analyzer.shared.util.TicketDataGenerator;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+
+/**
+ * Runs the analysis pipeline over growing synthetic data sets and reports, for every stage, the
+ * wall time, the throughput in tickets per second and the peak heap. Invoked as {@code harness [options]}.
+ * <p>
+ * The stages of every size are: {@code generate} the file, {@code parse} it into an indexed
+ * dataset, {@code analyze} one route, {@code persist} the batch to MongoDB and finally the whole
+ * {@link AnalyzeTicketsCommand} run {@code end-to-end}, including its persistence. The two MongoDB
+ * stages can be skipped with {@code --skip-mongo}.
+ * <p>
+ * The peak heap is the sum of the peak usage of all heap pools during the stage, reset after a
+ * GC before the stage starts. It is an upper bound, as pools may peak at different moments.
+ */
+@Slf4j
+@Component
+@Command(name = "harness",
+        mixinStandardHelpOptions = true,
+        description = "Measures every pipeline stage over growing synthetic data sets.")
+@RequiredArgsConstructor
+public class ScalingHarnessCommand implements Callable<Integer> {
+
+    private static final double BYTES_PER_MB = 1024.0 * 1024.0;
+
+    private final DataProviderService dataProvider;
+    private final FlightAnalysisService analysisService;
+    private final TicketStorageService ticketStorage;
+    private final WriteBehindPersistence writeBehind;
+    private final AnalyzeTicketsCommand analyzeCommand;
+
+    @Option(names = "--sizes", split = ",", defaultValue = "1000,10000,100000,1000000",
+            description = "Ticket counts to run, in order (default: ${DEFAULT-VALUE}).")
+    private List<Long> sizes;
+
+    @Option(names = "--work-dir", description = "Directory for the generated files (default: a temporary directory).")
+    private Path workDir;
+
+    @Option(names = "--origin", defaultValue = "Владивосток", description = "Origin city of the analyzed route (default: ${DEFAULT-VALUE}).")
+    private String origin;
+
+    @Option(names = "--destination", defaultValue = "Тель-Авив", description = "Destination city of the analyzed route (default: ${DEFAULT-VALUE}).")
+    private String destination;
+
+    @Option(names = "--skip-mongo", description = "Skip the stages that need MongoDB (persist and end-to-end).")
+    private boolean skipMongo;
+
+    @Option(names = "--keep-files", description = "Keep the generated files.")
+    private boolean keepFiles;
+
+    @Mixin
+    private GeneratorOptions generatorOptions;
+
+    @Option(names = "--report", description = "Also write the measurements to this CSV file.")
+    private Path reportPath;
+
+    @Override
+    public Integer call() throws Exception {
+        final Path directory = workDir != null ? Files.createDirectories(workDir) : Files.createTempDirectory("ticket-harness");
+        final List<StageResult> results = new ArrayList<>();
+        for (long size : sizes) {
+            log.info("[Harness]: Running {} tickets.", size);
+            final Path file = directory.resolve("tickets-" + size + ".json").toAbsolutePath();
+            final TicketDataGenerator generator = new TicketDataGenerator(generatorOptions.settings(size));
+            try {
+                results.add(measure(size, "generate", () -> generator.write(file)));
+                final TicketDataset[] dataset = new TicketDataset[1];
+                results.add(measure(size, "parse", () -> dataset[0] = dataProvider.parseFile(file)));
+                results.add(measure(size, "analyze", () -> analysisService.analyze(dataset[0], origin, destination)));
+                if (!skipMongo) {
+                    results.add(measure(size, "persist", () -> ticketStorage.saveBatch(dataset[0].tickets(), dataset[0].routeAggregates())));
+                    dataset[0] = null;
+                    results.add(measure(size, "end-to-end", () -> this.runAnalyzeCommand(file)));
+                    dataProvider.releaseDataset(Optional.of(file));
+                }
+            } finally {
+                if (!keepFiles) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        this.report(results);
+        return ExitCode.OK;
+    }
+
+    private void runAnalyzeCommand(final Path file) {
+        final int exitCode = new CommandLine(analyzeCommand).execute(file.toString(), origin, destination);
+        final WriteBehindPersistence.PersistenceReport persistence = writeBehind.flush();
+        if (exitCode != ExitCode.OK || !persistence.isSuccessful()) {
+            throw new TicketAnalyzerException("Analyze command failed with exit code " + exitCode
+                    + (persistence.isSuccessful() ? "" : " and persistence errors " + persistence.failures()));
+        }
+    }
+
+    private static StageResult measure(final long size, final String stage, final Stage action) throws Exception {
+        final List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .toList();
+        System.gc();
+        heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        final long started = System.nanoTime();
+        action.run();
+        final long elapsedNanos = System.nanoTime() - started;
+
+        final long peakHeapBytes = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+        final StageResult result = new StageResult(size, stage, elapsedNanos / 1_000_000.0,
+                size / Math.max(elapsedNanos / 1e9, 1e-9), peakHeapBytes / BYTES_PER_MB);
+        log.info("[Harness]: {}", result.format());
+        return result;
+    }
+
+    private void report(final List<StageResult> results) throws IOException {
+        log.info("[Harness]: {}", "%12s  %-10s  %12s  %14s  %12s".formatted("tickets", "stage", "wall ms", "tickets/s", "peak heap MB"));
+        results.forEach(result -> log.info("[Harness]: {}", result.format()));
+        if (reportPath == null) {
+            return;
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(reportPath, StandardCharsets.UTF_8)) {
+            writer.write("tickets,stage,wall_ms,tickets_per_second,peak_heap_mb");
+            writer.newLine();
+            for (StageResult result : results) {
+                writer.write("%d,%s,%.3f,%.1f,%.1f".formatted(result.tickets(), result.stage(), result.wallMillis(),
+                        result.ticketsPerSecond(), result.peakHeapMb()));
+                writer.newLine();
+            }
+        }
+        log.info("[Harness]: Report written to {}.", reportPath);
+    }
+
+    /**
+     * One measured stage of one data set size.
+     */
+    private record StageResult(long tickets, String stage, double wallMillis, double ticketsPerSecond, double peakHeapMb) {
+
+        String format() {
+            return "%12d  %-10s  %12.1f  %14.0f  %12.1f".formatted(tickets, stage, wallMillis, ticketsPerSecond, peakHeapMb);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Stage {
+        void run() throws Exception;
+    }
+}
@@ -2,10 +2,12 @@ package ru.abriel.ticket_analyzer.configuration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.convert.converter.Converter;
 import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import ru.abriel.ticket_analyzer.service.aggregation.ParallelAggregator;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.util.Arrays;
@@ -39,6 +41,23 @@ public class ApplicationConfig {
         return mapper;
     }
 
+    /**
+     * Creates the aggregator that partitions in-memory analysis across a dedicated fork-join pool.
+     * With {@code app.analysis.parallel.enabled=false} every analysis runs on the calling thread.
+     * The pool is shut down together with the context.
+     *
+     * @param enabled       Whether analysis may use more than the calling thread.
+     * @param parallelism   The number of worker threads; zero or less means one per available core.
+     * @param partitionSize The number of tickets or rows aggregated by one task.
+     * @return The aggregator.
+     */
+    @Bean
+    public ParallelAggregator parallelAggregator(@Value("${app.analysis.parallel.enabled:true}") final boolean enabled,
+                                                 @Value("${app.analysis.parallel.parallelism:0}") final int parallelism,
+                                                 @Value("${app.analysis.parallel.partition-size:65536}") final int partitionSize) {
+        return enabled ? new ParallelAggregator(parallelism, partitionSize) : ParallelAggregator.sequential();
+    }
+
     /**
      * Creates a MongoCustomConversions bean to teach Spring Data MongoDB how to handle
      * complex or unsupported types like {@link ZonedDateTime}.
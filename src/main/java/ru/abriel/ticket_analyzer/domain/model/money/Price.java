@@ -8,4 +8,28 @@ import java.math.BigDecimal;
  * @param amount The monetary amount.
  * @param currency The three-letter currency code (e.g., "RUB", "USD").
  */
-public record Price(BigDecimal amount, String currency) {}
+public record Price(BigDecimal amount, String currency) {
+
+    /**
+     * The number of decimal places of a minor currency unit (kopecks, cents).
+     */
+    public static final int MINOR_UNIT_SCALE = 2;
+
+    /**
+     * Converts the amount to a whole number of minor units, e.g. {@code 12400.5} to {@code 1240050}.
+     * @return The amount in minor units.
+     * @throws ArithmeticException if the amount has more than two decimal places or does not fit into a long.
+     */
+    public long toMinorUnits() {
+        return amount.movePointRight(MINOR_UNIT_SCALE).longValueExact();
+    }
+
+    /**
+     * Converts a number of minor units back to a decimal amount with two decimal places.
+     * @param minorUnits The amount in minor units.
+     * @return The equivalent {@link BigDecimal}.
+     */
+    public static BigDecimal fromMinorUnits(final long minorUnits) {
+        return BigDecimal.valueOf(minorUnits, MINOR_UNIT_SCALE);
+    }
+}
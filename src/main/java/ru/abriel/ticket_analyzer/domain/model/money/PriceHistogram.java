@@ -0,0 +1,205 @@
+package ru.abriel.ticket_analyzer.domain.model.money;
+
+import java.util.Arrays;
+
+/**
+ * An exact, mergeable distribution of prices in minor units: every distinct price with the number
+ * of times it occurred.
+ * <p>
+ * Prices are appended to an unsorted buffer, which is sorted and folded into the sorted distinct
+ * values whenever it grows as large as them, so adding is amortized {@code O(log n)}. Since
+ * prices repeat a lot, the histogram is usually far smaller than the list of prices. Any order
+ * statistic, such as the median, is answered exactly from the counts, and two histograms merge in
+ * linear time, so partial histograms of a route can be kept apart and combined when queried.
+ * <p>
+ * Reads sort pending prices in, so every method takes the histogram's lock; a histogram of a loaded
+ * dataset can therefore be queried from several threads.
+ */
+public final class PriceHistogram {
+
+    private static final int MIN_BUFFER = 64;
+
+    private long[] values;
+    private long[] counts;
+    private int distinct;
+    private long total;
+
+    private long[] buffer = new long[MIN_BUFFER];
+    private int buffered;
+
+    /**
+     * Creates an empty histogram.
+     */
+    public PriceHistogram() {
+        this.values = new long[0];
+        this.counts = new long[0];
+    }
+
+    /**
+     * Restores a histogram from its sorted distinct values and their counts, e.g. from storage.
+     *
+     * @param values The distinct prices in minor units, in ascending order.
+     * @param counts The positive number of occurrences of each price.
+     * @return The histogram.
+     * @throws IllegalArgumentException if the arrays differ in length, the values are not strictly
+     *                                  ascending or a count is not positive.
+     */
+    public static PriceHistogram of(final long[] values, final long[] counts) {
+        if (values.length != counts.length) {
+            throw new IllegalArgumentException("Histogram values and counts differ in length.");
+        }
+        final PriceHistogram histogram = new PriceHistogram();
+        for (int i = 0; i < values.length; i++) {
+            if (counts[i] <= 0 || i > 0 && values[i] <= values[i - 1]) {
+                throw new IllegalArgumentException("Histogram values must be ascending with positive counts.");
+            }
+            histogram.total += counts[i];
+        }
+        histogram.values = values.clone();
+        histogram.counts = counts.clone();
+        histogram.distinct = values.length;
+        return histogram;
+    }
+
+    /**
+     * Adds one occurrence of a price.
+     *
+     * @param minorUnits The price in minor units.
+     */
+    public synchronized void add(final long minorUnits) {
+        if (buffered == buffer.length) {
+            this.flush();
+            if (buffer.length < distinct) {
+                buffer = new long[distinct];
+            }
+        }
+        buffer[buffered++] = minorUnits;
+        total++;
+    }
+
+    /**
+     * Adds all occurrences of another histogram. The other histogram is not modified.
+     *
+     * @param other The histogram to add.
+     * @return This histogram.
+     */
+    public PriceHistogram merge(final PriceHistogram other) {
+        // Copied under the other lock first, so two histograms are never locked at once.
+        final long[] otherValues;
+        final long[] otherCounts;
+        final long otherTotal;
+        synchronized (other) {
+            otherValues = other.values();
+            otherCounts = other.counts();
+            otherTotal = other.total;
+        }
+        synchronized (this) {
+            this.flush();
+            this.mergeSorted(otherValues, otherCounts, otherValues.length);
+            total += otherTotal;
+        }
+        return this;
+    }
+
+    /**
+     * @return The number of prices added.
+     */
+    public synchronized long count() {
+        return total;
+    }
+
+    /**
+     * @return The number of distinct prices.
+     */
+    public synchronized int distinctCount() {
+        this.flush();
+        return distinct;
+    }
+
+    /**
+     * Finds the price at a rank of the sorted prices.
+     *
+     * @param rank The zero-based rank, below {@link #count()}.
+     * @return The price in minor units.
+     * @throws IndexOutOfBoundsException if the rank is out of range.
+     */
+    public synchronized long valueAt(final long rank) {
+        if (rank < 0 || rank >= total) {
+            throw new IndexOutOfBoundsException("Rank " + rank + " of " + total + " prices.");
+        }
+        this.flush();
+        long seen = 0;
+        for (int i = 0; i < distinct; i++) {
+            seen += counts[i];
+            if (rank < seen) {
+                return values[i];
+            }
+        }
+        throw new IllegalStateException("Histogram counts do not add up to its size.");
+    }
+
+    /**
+     * @return The distinct prices in ascending order.
+     */
+    public synchronized long[] values() {
+        this.flush();
+        return Arrays.copyOf(values, distinct);
+    }
+
+    /**
+     * @return The number of occurrences of each price of {@link #values()}.
+     */
+    public synchronized long[] counts() {
+        this.flush();
+        return Arrays.copyOf(counts, distinct);
+    }
+
+    /**
+     * Sorts the buffer, collapses equal prices and merges them into the distinct values.
+     */
+    private void flush() {
+        if (buffered == 0) {
+            return;
+        }
+        Arrays.sort(buffer, 0, buffered);
+        final long[] runValues = new long[buffered];
+        final long[] runCounts = new long[buffered];
+        int runs = 0;
+        for (int i = 0; i < buffered; i++) {
+            if (runs > 0 && runValues[runs - 1] == buffer[i]) {
+                runCounts[runs - 1]++;
+            } else {
+                runValues[runs] = buffer[i];
+                runCounts[runs++] = 1;
+            }
+        }
+        buffered = 0;
+        this.mergeSorted(runValues, runCounts, runs);
+    }
+
+    private void mergeSorted(final long[] otherValues, final long[] otherCounts, final int otherDistinct) {
+        if (otherDistinct == 0) {
+            return;
+        }
+        final long[] mergedValues = new long[distinct + otherDistinct];
+        final long[] mergedCounts = new long[distinct + otherDistinct];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < distinct || j < otherDistinct) {
+            if (j == otherDistinct || i < distinct && values[i] < otherValues[j]) {
+                mergedValues[size] = values[i];
+                mergedCounts[size++] = counts[i++];
+            } else if (i == distinct || otherValues[j] < values[i]) {
+                mergedValues[size] = otherValues[j];
+                mergedCounts[size++] = otherCounts[j++];
+            } else {
+                mergedValues[size] = values[i];
+                mergedCounts[size++] = counts[i++] + otherCounts[j++];
+            }
+        }
+        values = mergedValues;
+        counts = mergedCounts;
+        distinct = size;
+    }
+}
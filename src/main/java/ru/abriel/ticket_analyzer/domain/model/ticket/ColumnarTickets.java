@@ -0,0 +1,72 @@
+package ru.abriel.ticket_analyzer.domain.model.ticket;
+
+/**
+ * A read-only, column-oriented view of routable tickets.
+ * <p>
+ * Every row is one ticket reduced to what a route analysis needs: the first origin and last
+ * destination airport, the first departure and last arrival instant, the carrier and the price.
+ * Strings are dictionary-encoded, so rows hold only primitive ids, and implementations are free
+ * to keep the columns off-heap.
+ */
+public interface ColumnarTickets {
+
+    /**
+     * @return The number of rows.
+     */
+    int size();
+
+    /**
+     * @return The price of the row in minor currency units (see {@link ru.abriel.ticket_analyzer.domain.model.money.Price#toMinorUnits()}).
+     */
+    long priceMinorUnits(int row);
+
+    /**
+     * @return The departure of the first segment, in seconds since the epoch.
+     */
+    long departureEpochSecond(int row);
+
+    /**
+     * @return The arrival of the last segment, in seconds since the epoch.
+     */
+    long arrivalEpochSecond(int row);
+
+    /**
+     * @return The id of the row's carrier in the carrier dictionary.
+     */
+    int carrierId(int row);
+
+    /**
+     * @return The id of the first origin airport in the airport dictionary.
+     */
+    int originAirportId(int row);
+
+    /**
+     * @return The id of the last destination airport in the airport dictionary.
+     */
+    int destinationAirportId(int row);
+
+    /**
+     * @return The number of entries in the carrier dictionary.
+     */
+    int carrierCount();
+
+    /**
+     * @return The carrier name of a dictionary id. May be null if the source had no name.
+     */
+    String carrierName(int carrierId);
+
+    /**
+     * @return The number of entries in the airport dictionary.
+     */
+    int airportCount();
+
+    /**
+     * @return The IATA code of a dictionary id.
+     */
+    String airportCode(int airportId);
+
+    /**
+     * @return The city name of a dictionary id.
+     */
+    String airportCity(int airportId);
+}
@@ -1,5 +1,6 @@
 package ru.abriel.ticket_analyzer.domain.model.ticket;
 
+import ru.abriel.ticket_analyzer.service.aggregation.AirTimeEstimates;
 import java.util.List;
 import java.nio.file.Path;
 import java.util.Optional;
@@ -25,5 +26,99 @@ public interface DataProviderService {
      *                 If empty, the service will proceed to check MongoDB and internal resources.
      * @return A list of {@link Ticket} objects ready for analysis. Returns an empty list if no data can be found.
      */
-    List<Ticket> getData(final Optional<Path> filePath);
+    default List<Ticket> getData(final Optional<Path> filePath) {
+        return this.getDataset(filePath).tickets();
+    }
+
+    /**
+     * Retrieves ticket data using the same strategy as {@link #getData(Optional)}, wrapped in a
+     * {@link TicketDataset} with a route index built while the data was loaded.
+     * <p>
+     * Datasets are cached for the lifetime of the process, so repeated queries against the same
+     * source neither reload the data nor rebuild the index.
+     *
+     * @param filePath An {@link Optional} containing the user-provided {@link Path} to a JSON file.
+     * @return The indexed dataset. Empty if no data can be found.
+     */
+    TicketDataset getDataset(final Optional<Path> filePath);
+
+    /**
+     * Retrieves the data of a source as a columnar {@link TicketStore}, loaded through the same strategy
+     * as {@link #getDataset(Optional)}. The store is cached next to the dataset, so later calls for
+     * either reuse the loaded data; {@link #releaseDataset(Optional)} frees both.
+     *
+     * @param filePath An {@link Optional} containing the user-provided {@link Path} to a JSON file.
+     * @return The store, or empty if the tickets cannot be represented exactly in columns.
+     */
+    default Optional<TicketStore> getTicketStore(final Optional<Path> filePath) {
+        return TicketStore.of(this.getDataset(filePath).tickets());
+    }
+
+    /**
+     * Retrieves the per-(route, carrier) aggregates of a source, which answer route queries without
+     * its tickets. Implementations may read them from storage instead of loading the data.
+     *
+     * @param filePath An {@link Optional} containing the user-provided {@link Path} to a JSON file.
+     * @return The aggregates, or empty if none are available without loading the tickets.
+     */
+    default Optional<RouteAggregates> findRouteAggregates(final Optional<Path> filePath) {
+        return Optional.of(this.getDataset(filePath).routeAggregates());
+    }
+
+    /**
+     * Retrieves the air time estimates of a source, cached next to its dataset and ticket store, so
+     * repeated air-time analyses of the source evaluate each airport pair once.
+     * {@link #releaseDataset(Optional)} frees them with the data.
+     *
+     * @param filePath An {@link Optional} containing the user-provided {@link Path} to a JSON file.
+     * @return The estimates of the source. Never null.
+     */
+    AirTimeEstimates getAirTimeEstimates(final Optional<Path> filePath);
+
+    /**
+     * Drops the cached dataset of a source and loads it again through the same strategy, e.g. after
+     * the file changed or a newer batch arrived in MongoDB. Callers holding the previous dataset can
+     * keep using it; it is not modified.
+     *
+     * @param filePath An {@link Optional} containing the user-provided {@link Path} to a JSON file.
+     * @return The freshly loaded dataset.
+     */
+    TicketDataset reloadDataset(final Optional<Path> filePath);
+
+    /**
+     * Drops the cached dataset, ticket store, route aggregates and air time estimates of a source, so their memory can be reclaimed once no caller holds it.
+     *
+     * @param filePath An {@link Optional} containing the user-provided {@link Path} to a JSON file.
+     */
+    void releaseDataset(final Optional<Path> filePath);
+
+    /**
+     * Parses a user-provided file into an indexed dataset exactly as the file strategy does, but
+     * without consulting any cache and without persisting the result.
+     *
+     * @param filePath The path to a JSON file.
+     * @return The indexed dataset.
+     */
+    TicketDataset parseFile(final Path filePath);
+
+    /**
+     * Identifies the current version of a data source cheaply, without loading it.
+     *
+     * @param filePath An {@link Optional} containing the user-provided {@link Path} to a JSON file.
+     * @return A value that changes whenever the source data changes, or empty if it cannot be determined.
+     */
+    default Optional<String> sourceFingerprint(final Optional<Path> filePath) {
+        return Optional.empty();
+    }
+
+    /**
+     * Looks for a current binary snapshot of the data {@link #getDataset(Optional)} would load.
+     * A snapshot is memory-mapped and analyzed in place, without parsing or building tickets.
+     *
+     * @param filePath An {@link Optional} containing the user-provided {@link Path} to a JSON file.
+     * @return The columnar snapshot, or empty if there is none or the source has changed since.
+     */
+    default Optional<ColumnarTickets> findSnapshot(final Optional<Path> filePath) {
+        return Optional.empty();
+    }
 }
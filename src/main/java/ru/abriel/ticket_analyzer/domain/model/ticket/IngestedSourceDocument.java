@@ -0,0 +1,47 @@
+package ru.abriel.ticket_analyzer.domain.model.ticket;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.Instant;
+
+/**
+ * Records that the content of a source file has already been parsed and persisted.
+ * <p>
+ * One document is kept per content and path. The indexed SHA-256 of the content means a
+ * byte-identical file is never ingested twice, whatever its name, and every path it was seen
+ * at keeps its own record. Path, size and modification time allow an even cheaper check that
+ * skips hashing when the very same file is passed again unchanged.
+ *
+ * @param id           The content hash and path, see {@link #of}.
+ * @param contentHash  The hex-encoded SHA-256 of the file content. Indexed.
+ * @param path         The absolute path the content was seen at.
+ * @param size         The file size in bytes.
+ * @param lastModified The file's last modification time.
+ * @param batchId      The id of the persisted batch holding the parsed tickets.
+ * @param ingestedAt   The timestamp of the ingest.
+ */
+@Document(collection = "ingested_sources")
+@CompoundIndex(name = "path_size_mtime", def = "{'path': 1, 'size': 1, 'lastModified': 1}")
+public record IngestedSourceDocument(
+        @Id String id,
+        @Indexed String contentHash,
+        String path,
+        long size,
+        Instant lastModified,
+        String batchId,
+        Instant ingestedAt
+) {
+
+    /**
+     * Builds the record of a content seen at a path. Saving it again for the same content and
+     * path replaces the earlier record; a different path gets a record of its own.
+     *
+     * @return The new document.
+     */
+    public static IngestedSourceDocument of(final String contentHash, final String path, final long size,
+                                            final Instant lastModified, final String batchId, final Instant ingestedAt) {
+        return new IngestedSourceDocument(contentHash + '|' + path, contentHash, path, size, lastModified, batchId, ingestedAt);
+    }
+}
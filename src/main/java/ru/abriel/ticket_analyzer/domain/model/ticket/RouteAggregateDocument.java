@@ -0,0 +1,82 @@
+package ru.abriel.ticket_analyzer.domain.model.ticket;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import ru.abriel.ticket_analyzer.domain.model.money.PriceHistogram;
+import java.time.Duration;
+
+/**
+ * The stored {@link RouteCarrierAggregate} of one carrier on one route of a batch.
+ * <p>
+ * Aggregates are written before the batch manifest, so a complete batch always has its
+ * aggregates, and a route query against it never has to read the tickets.
+ *
+ * @param id                 The unique identifier of the document, generated by MongoDB.
+ * @param batchId            The id of the batch the aggregate was computed from. Indexed.
+ * @param originCity         The city of the first origin, as in the data.
+ * @param destinationCity    The city of the last destination, as in the data.
+ * @param originCode         The IATA code of the first origin.
+ * @param destinationCode    The IATA code of the last destination.
+ * @param carrierName        The carrier name.
+ * @param count              The number of tickets.
+ * @param minJourneySeconds  The seconds of the shortest journey.
+ * @param minJourneyNanos    The nanosecond adjustment of the shortest journey.
+ * @param priceSumMinorUnits The sum of the prices in minor units.
+ * @param priceValues        The distinct prices in minor units, ascending.
+ * @param priceCounts        The number of occurrences of each price.
+ * @param exact              Whether the prices are fully represented.
+ */
+@Document(collection = "route_aggregates")
+public record RouteAggregateDocument(
+        @Id String id,
+        @Indexed String batchId,
+        String originCity,
+        String destinationCity,
+        String originCode,
+        String destinationCode,
+        String carrierName,
+        long count,
+        long minJourneySeconds,
+        int minJourneyNanos,
+        long priceSumMinorUnits,
+        long[] priceValues,
+        long[] priceCounts,
+        boolean exact
+) {
+
+    /**
+     * Builds the document for an aggregate.
+     *
+     * @param batchId   The id of the batch the aggregate belongs to.
+     * @param aggregate The aggregate to store.
+     * @return The new document, without an id.
+     */
+    public static RouteAggregateDocument of(final String batchId, final RouteCarrierAggregate aggregate) {
+        final PriceHistogram prices = aggregate.prices();
+        return new RouteAggregateDocument(
+                null,
+                batchId,
+                aggregate.originCity(),
+                aggregate.destinationCity(),
+                aggregate.originCode(),
+                aggregate.destinationCode(),
+                aggregate.carrierName(),
+                aggregate.count(),
+                aggregate.minJourney().getSeconds(),
+                aggregate.minJourney().getNano(),
+                aggregate.priceSumMinorUnits(),
+                prices.values(),
+                prices.counts(),
+                aggregate.isExact());
+    }
+
+    /**
+     * @return The aggregate this document stores.
+     */
+    public RouteCarrierAggregate toAggregate() {
+        return RouteCarrierAggregate.restore(originCity, destinationCity, originCode, destinationCode, carrierName, count,
+                Duration.ofSeconds(minJourneySeconds, minJourneyNanos), priceSumMinorUnits,
+                exact ? PriceHistogram.of(priceValues, priceCounts) : null, exact);
+    }
+}
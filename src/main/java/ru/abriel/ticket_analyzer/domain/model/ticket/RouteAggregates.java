@@ -0,0 +1,126 @@
+package ru.abriel.ticket_analyzer.domain.model.ticket;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-(route, carrier) metrics of a {@link TicketDataset}, maintained while tickets are added, so a
+ * route query costs {@code O(carriers)} instead of a pass over its tickets.
+ * <p>
+ * Aggregates are grouped by the route exactly as it appears in the data, which needs no
+ * normalization per ticket. The lookup by normalized city or code pair, as in {@link RouteIndex},
+ * is built over the groups on the first query after a change. Like the dataset, the aggregates
+ * are not safe for concurrent modification, but can be shared for reads once loading is finished.
+ */
+public class RouteAggregates {
+
+    private final Map<GroupKey, RouteCarrierAggregate> groups = new LinkedHashMap<>();
+
+    /**
+     * The lookup by normalized route, {@code null} until first needed and after every change.
+     */
+    private volatile Lookup lookup;
+
+    /**
+     * Restores aggregates, e.g. from storage.
+     *
+     * @param aggregates The aggregates of distinct (route, carrier) groups.
+     * @return The aggregates.
+     */
+    public static RouteAggregates of(final Collection<RouteCarrierAggregate> aggregates) {
+        final RouteAggregates restored = new RouteAggregates();
+        aggregates.forEach(aggregate -> restored.groups.put(GroupKey.of(aggregate), aggregate));
+        return restored;
+    }
+
+    /**
+     * Folds a ticket into the aggregate of its route and carrier. Tickets without segments are not
+     * routable and are ignored.
+     *
+     * @param ticket The ticket to add.
+     */
+    public void add(final Ticket ticket) {
+        if (ticket.segments().isEmpty()) {
+            return;
+        }
+        final var first = ticket.segments().get(0);
+        final var last = ticket.segments().get(ticket.segments().size() - 1);
+        final GroupKey key = new GroupKey(first.origin().city(), last.destination().city(),
+                first.origin().code(), last.destination().code(), ticket.carrierName());
+        RouteCarrierAggregate aggregate = groups.get(key);
+        if (aggregate == null) {
+            aggregate = RouteCarrierAggregate.forTicket(ticket);
+            groups.put(key, aggregate);
+        }
+        aggregate.accept(ticket);
+        if (lookup != null) {
+            lookup = null;
+        }
+    }
+
+    /**
+     * @return All aggregates, in the order their groups were first met.
+     */
+    public Collection<RouteCarrierAggregate> all() {
+        return Collections.unmodifiableCollection(groups.values());
+    }
+
+    /**
+     * @return The number of (route, carrier) groups.
+     */
+    public int size() {
+        return groups.size();
+    }
+
+    /**
+     * Finds the aggregates of a route the way {@link TicketDataset#findRoute} finds its tickets: the
+     * arguments are first treated as city names; if no group matches, as IATA airport codes.
+     *
+     * @param origin      The origin city name or IATA code.
+     * @param destination The destination city name or IATA code.
+     * @return The matching aggregates in first-seen order. Empty if none match.
+     */
+    public List<RouteCarrierAggregate> findRoute(final String origin, final String destination) {
+        final Lookup current = this.lookup();
+        final List<RouteCarrierAggregate> byCity = current.byCity().get(RouteIndex.RouteKey.of(origin, destination));
+        if (byCity != null) {
+            return Collections.unmodifiableList(byCity);
+        }
+        return Collections.unmodifiableList(
+                current.byCode().getOrDefault(RouteIndex.RouteKey.of(origin, destination), List.of()));
+    }
+
+    private Lookup lookup() {
+        Lookup current = lookup;
+        if (current == null) {
+            final Map<RouteIndex.RouteKey, List<RouteCarrierAggregate>> byCity = new HashMap<>();
+            final Map<RouteIndex.RouteKey, List<RouteCarrierAggregate>> byCode = new HashMap<>();
+            for (RouteCarrierAggregate aggregate : groups.values()) {
+                byCity.computeIfAbsent(RouteIndex.RouteKey.of(aggregate.originCity(), aggregate.destinationCity()),
+                        key -> new ArrayList<>()).add(aggregate);
+                byCode.computeIfAbsent(RouteIndex.RouteKey.of(aggregate.originCode(), aggregate.destinationCode()),
+                        key -> new ArrayList<>()).add(aggregate);
+            }
+            current = new Lookup(byCity, byCode);
+            lookup = current;
+        }
+        return current;
+    }
+
+    private record GroupKey(String originCity, String destinationCity, String originCode, String destinationCode,
+                            String carrierName) {
+
+        static GroupKey of(final RouteCarrierAggregate aggregate) {
+            return new GroupKey(aggregate.originCity(), aggregate.destinationCity(), aggregate.originCode(),
+                    aggregate.destinationCode(), aggregate.carrierName());
+        }
+    }
+
+    private record Lookup(Map<RouteIndex.RouteKey, List<RouteCarrierAggregate>> byCity,
+                          Map<RouteIndex.RouteKey, List<RouteCarrierAggregate>> byCode) {}
+}
@@ -0,0 +1,155 @@
+package ru.abriel.ticket_analyzer.domain.model.ticket;
+
+import ru.abriel.ticket_analyzer.domain.model.flight.FlightSegment;
+import ru.abriel.ticket_analyzer.domain.model.money.PriceHistogram;
+import java.time.Duration;
+
+/**
+ * The running metrics of the tickets of one carrier between one pair of airports: count, minimum
+ * journey duration, price sum and the exact price distribution, all in minor units.
+ * <p>
+ * The route is kept as it appears in the data (city names and IATA codes of the first origin and
+ * the last destination), so a query can match it by city or by code like {@link RouteIndex}.
+ * A ticket whose price cannot be held in minor units, or a price sum that would overflow, makes
+ * the aggregate inexact; queries touching it must then fall back to the tickets.
+ */
+public final class RouteCarrierAggregate {
+
+    private final String originCity;
+    private final String destinationCity;
+    private final String originCode;
+    private final String destinationCode;
+    private final String carrierName;
+    private long count;
+    private Duration minJourney;
+    private long priceSumMinorUnits;
+    private final PriceHistogram prices;
+    private boolean exact;
+
+    private RouteCarrierAggregate(final String originCity, final String destinationCity, final String originCode,
+                                  final String destinationCode, final String carrierName, final long count,
+                                  final Duration minJourney, final long priceSumMinorUnits, final PriceHistogram prices,
+                                  final boolean exact) {
+        this.originCity = originCity;
+        this.destinationCity = destinationCity;
+        this.originCode = originCode;
+        this.destinationCode = destinationCode;
+        this.carrierName = carrierName;
+        this.count = count;
+        this.minJourney = minJourney;
+        this.priceSumMinorUnits = priceSumMinorUnits;
+        this.prices = prices;
+        this.exact = exact;
+    }
+
+    /**
+     * Creates an empty aggregate for the route and carrier of a ticket with at least one segment.
+     */
+    static RouteCarrierAggregate forTicket(final Ticket ticket) {
+        final FlightSegment first = ticket.segments().get(0);
+        final FlightSegment last = ticket.segments().get(ticket.segments().size() - 1);
+        return new RouteCarrierAggregate(first.origin().city(), last.destination().city(), first.origin().code(),
+                last.destination().code(), ticket.carrierName(), 0, null, 0, new PriceHistogram(), true);
+    }
+
+    /**
+     * Restores a stored aggregate.
+     *
+     * @param originCity         The city of the first origin, as in the data.
+     * @param destinationCity    The city of the last destination, as in the data.
+     * @param originCode         The IATA code of the first origin.
+     * @param destinationCode    The IATA code of the last destination.
+     * @param carrierName        The carrier name.
+     * @param count              The number of tickets.
+     * @param minJourney         The shortest journey, from the first departure to the last arrival.
+     * @param priceSumMinorUnits The sum of the prices in minor units.
+     * @param prices             The price distribution; ignored if the aggregate is inexact.
+     * @param exact              Whether the prices are fully represented.
+     * @return The aggregate.
+     */
+    public static RouteCarrierAggregate restore(final String originCity, final String destinationCity, final String originCode,
+                                                final String destinationCode, final String carrierName, final long count,
+                                                final Duration minJourney, final long priceSumMinorUnits,
+                                                final PriceHistogram prices, final boolean exact) {
+        return new RouteCarrierAggregate(originCity, destinationCity, originCode, destinationCode, carrierName, count,
+                minJourney, priceSumMinorUnits, exact ? prices : new PriceHistogram(), exact);
+    }
+
+    /**
+     * Folds a ticket of this route and carrier into the metrics.
+     */
+    void accept(final Ticket ticket) {
+        final FlightSegment first = ticket.segments().get(0);
+        final FlightSegment last = ticket.segments().get(ticket.segments().size() - 1);
+        final Duration journey = Duration.between(first.departure(), last.arrival());
+        if (minJourney == null || journey.compareTo(minJourney) < 0) {
+            minJourney = journey;
+        }
+        count++;
+        if (!exact) {
+            return;
+        }
+        try {
+            final long price = ticket.price().toMinorUnits();
+            priceSumMinorUnits = Math.addExact(priceSumMinorUnits, price);
+            prices.add(price);
+        } catch (ArithmeticException e) {
+            exact = false;
+        }
+    }
+
+    public String originCity() {
+        return originCity;
+    }
+
+    public String destinationCity() {
+        return destinationCity;
+    }
+
+    public String originCode() {
+        return originCode;
+    }
+
+    public String destinationCode() {
+        return destinationCode;
+    }
+
+    public String carrierName() {
+        return carrierName;
+    }
+
+    /**
+     * @return The number of tickets.
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @return The shortest journey, from the first departure to the last arrival.
+     */
+    public Duration minJourney() {
+        return minJourney;
+    }
+
+    /**
+     * @return The sum of the prices in minor units. Meaningless if the aggregate is not {@link #isExact() exact}.
+     */
+    public long priceSumMinorUnits() {
+        return priceSumMinorUnits;
+    }
+
+    /**
+     * @return The live price distribution. Empty if the aggregate is not {@link #isExact() exact}.
+     */
+    public PriceHistogram prices() {
+        return prices;
+    }
+
+    /**
+     * @return {@code false} if a price did not fit into minor units or the sum overflowed.
+     */
+    public boolean isExact() {
+        return exact;
+    }
+}
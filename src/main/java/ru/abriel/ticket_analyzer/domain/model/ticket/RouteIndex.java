@@ -0,0 +1,120 @@
+package ru.abriel.ticket_analyzer.domain.model.ticket;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An in-memory inverted index from a route to the positions of its tickets in a {@link TicketDataset}.
+ * <p>
+ * Every ticket is indexed twice: by the normalized (origin city, destination city) pair and by the
+ * (origin IATA code, destination IATA code) pair of its first and last segments. A lookup costs
+ * {@code O(matches)} instead of a scan over all tickets. The index is append-only and is updated
+ * incrementally as tickets are added.
+ */
+public class RouteIndex {
+
+    private static final int[] NO_POSITIONS = new int[0];
+
+    private final Map<RouteKey, PositionList> byCity = new HashMap<>();
+    private final Map<RouteKey, PositionList> byCode = new HashMap<>();
+
+    /**
+     * Indexes a ticket. Tickets without segments are not routable and are ignored.
+     *
+     * @param position The position of the ticket in the owning dataset.
+     * @param ticket   The ticket to index.
+     */
+    public void add(final int position, final Ticket ticket) {
+        if (ticket.segments().isEmpty()) {
+            return;
+        }
+        final var first = ticket.segments().get(0);
+        final var last = ticket.segments().get(ticket.segments().size() - 1);
+        append(byCity, RouteKey.of(first.origin().city(), last.destination().city()), position);
+        append(byCode, RouteKey.of(first.origin().code(), last.destination().code()), position);
+    }
+
+    /**
+     * @return The positions of tickets between the two cities, compared case-insensitively.
+     */
+    public int[] findByCities(final String originCity, final String destinationCity) {
+        return positions(byCity, RouteKey.of(originCity, destinationCity));
+    }
+
+    /**
+     * @return The positions of tickets between the two airports, compared case-insensitively.
+     */
+    public int[] findByCodes(final String originCode, final String destinationCode) {
+        return positions(byCode, RouteKey.of(originCode, destinationCode));
+    }
+
+    /**
+     * @return All distinct city routes present in the index.
+     */
+    public Iterable<RouteKey> cityRoutes() {
+        return byCity.keySet();
+    }
+
+    /**
+     * Normalizes a name so that two names are equal exactly when {@link String#equalsIgnoreCase}
+     * would consider them equal: every character is mapped to lower case of its upper case.
+     *
+     * @param value The name to normalize. May be null.
+     * @return The normalized name, or an empty string for null.
+     */
+    public static String normalize(final String value) {
+        if (value == null) {
+            return "";
+        }
+        final char[] chars = value.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = Character.toLowerCase(Character.toUpperCase(chars[i]));
+        }
+        return new String(chars);
+    }
+
+    private static void append(final Map<RouteKey, PositionList> index, final RouteKey key, final int position) {
+        index.computeIfAbsent(key, k -> new PositionList()).add(position);
+    }
+
+    private static int[] positions(final Map<RouteKey, PositionList> index, final RouteKey key) {
+        final PositionList list = index.get(key);
+        return list == null ? NO_POSITIONS : list.toArray();
+    }
+
+    /**
+     * A normalized (origin, destination) pair.
+     *
+     * @param origin      The normalized origin name or code.
+     * @param destination The normalized destination name or code.
+     */
+    public record RouteKey(String origin, String destination) {
+
+        /**
+         * Creates a key from raw, not yet normalized names.
+         */
+        public static RouteKey of(final String origin, final String destination) {
+            return new RouteKey(normalize(origin), normalize(destination));
+        }
+    }
+
+    /**
+     * A growable list of primitive positions, avoiding one boxed Integer per ticket.
+     */
+    private static final class PositionList {
+        private int[] positions = new int[4];
+        private int size;
+
+        void add(final int position) {
+            if (size == positions.length) {
+                positions = Arrays.copyOf(positions, size * 2);
+            }
+            positions[size++] = position;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(positions, size);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package ru.abriel.ticket_analyzer.domain.model.ticket;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.Instant;
+
+/**
+ * The manifest of one uploaded batch (dataset version) stored in the per-ticket layout.
+ * <p>
+ * The tickets themselves live in {@link TicketRecordDocument}s tagged with the batch id.
+ * The manifest is written only after all of its tickets, so a batch becomes visible as
+ * "latest" only once it is complete.
+ *
+ * @param id          The batch id, shared by all tickets of the batch.
+ * @param uploadedAt  The timestamp indicating when the batch was saved. Indexed for "latest batch" lookups.
+ * @param ticketCount The number of ticket documents in the batch.
+ */
+@Document(collection = "ticket_batch_manifests")
+public record TicketBatchDocument(@Id String id, @Indexed Instant uploadedAt, long ticketCount) {}
@@ -0,0 +1,111 @@
+package ru.abriel.ticket_analyzer.domain.model.ticket;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A loaded set of tickets together with its {@link RouteIndex} and {@link RouteAggregates}.
+ * <p>
+ * The dataset is built once when data is loaded and can then answer any number of route queries
+ * without rescanning all tickets. Tickets are appended incrementally during ingest and the index
+ * and the aggregates are kept in step. The dataset is not safe for concurrent modification; once
+ * loading is finished it can be shared for reads.
+ */
+public class TicketDataset {
+
+    private final List<Ticket> tickets;
+    private final RouteIndex routeIndex = new RouteIndex();
+    private final RouteAggregates routeAggregates = new RouteAggregates();
+
+    /**
+     * Creates an empty dataset.
+     */
+    public TicketDataset() {
+        this.tickets = new ArrayList<>();
+    }
+
+    /**
+     * Creates a dataset from already loaded tickets and indexes them.
+     *
+     * @param tickets The tickets to include.
+     */
+    public TicketDataset(final Collection<Ticket> tickets) {
+        this.tickets = new ArrayList<>(tickets.size());
+        this.addAll(tickets);
+    }
+
+    /**
+     * Appends a ticket, indexes its route and folds it into the route aggregates.
+     *
+     * @param ticket The ticket to add.
+     */
+    public void add(final Ticket ticket) {
+        routeIndex.add(tickets.size(), ticket);
+        routeAggregates.add(ticket);
+        tickets.add(ticket);
+    }
+
+    /**
+     * Appends several tickets and indexes their routes.
+     *
+     * @param newTickets The tickets to add.
+     */
+    public void addAll(final Collection<Ticket> newTickets) {
+        newTickets.forEach(this::add);
+    }
+
+    /**
+     * @return A read-only view of all tickets in load order.
+     */
+    public List<Ticket> tickets() {
+        return Collections.unmodifiableList(tickets);
+    }
+
+    /**
+     * @return The route index over this dataset.
+     */
+    public RouteIndex routeIndex() {
+        return routeIndex;
+    }
+
+    /**
+     * @return The per-(route, carrier) aggregates over this dataset.
+     */
+    public RouteAggregates routeAggregates() {
+        return routeAggregates;
+    }
+
+    public int size() {
+        return tickets.size();
+    }
+
+    public boolean isEmpty() {
+        return tickets.isEmpty();
+    }
+
+    /**
+     * Finds all tickets for a route. The arguments are first treated as city names; if no ticket
+     * matches, they are treated as IATA airport codes.
+     *
+     * @param origin      The origin city name or IATA code.
+     * @param destination The destination city name or IATA code.
+     * @return The matching tickets in load order. Empty if none match.
+     */
+    public List<Ticket> findRoute(final String origin, final String destination) {
+        int[] positions = routeIndex.findByCities(origin, destination);
+        if (positions.length == 0) {
+            positions = routeIndex.findByCodes(origin, destination);
+        }
+        return this.resolve(positions);
+    }
+
+    private List<Ticket> resolve(final int[] positions) {
+        final List<Ticket> result = new ArrayList<>(positions.length);
+        for (int position : positions) {
+            result.add(tickets.get(position));
+        }
+        return result;
+    }
+}
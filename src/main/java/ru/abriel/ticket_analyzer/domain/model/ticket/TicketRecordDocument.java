@@ -0,0 +1,74 @@
+package ru.abriel.ticket_analyzer.domain.model.ticket;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+import org.springframework.data.mongodb.core.mapping.FieldType;
+import java.math.BigDecimal;
+import java.time.Duration;
+
+/**
+ * Represents a single ticket stored in MongoDB in the per-ticket layout.
+ * <p>
+ * Besides the embedded {@link Ticket}, the document carries denormalized route, carrier, price and
+ * duration fields, so that the route indexes and server-side queries never have to look inside
+ * the embedded ticket.
+ *
+ * @param id                 The unique identifier of the document, generated by MongoDB.
+ * @param batchId            The id of the {@link TicketBatchDocument} this ticket belongs to.
+ * @param sequence           The position of the ticket within its batch, used to restore input order.
+ * @param originCityKey      The normalized origin city of the first segment (see {@link RouteIndex#normalize}).
+ * @param destinationCityKey The normalized destination city of the last segment.
+ * @param originCode         The IATA code of the first origin airport.
+ * @param destinationCode    The IATA code of the last destination airport.
+ * @param carrierName        The carrier name, the key of the per-carrier metrics.
+ * @param price              The ticket price, stored as Decimal128 so it can be aggregated server-side.
+ * @param journeySeconds     The journey duration from the first departure to the last arrival.
+ * @param ticket             The full ticket domain model.
+ */
+@Document(collection = "tickets")
+@CompoundIndex(name = "batch_city_route_carrier", def = "{'batchId': 1, 'originCityKey': 1, 'destinationCityKey': 1, 'carrierName': 1}")
+@CompoundIndex(name = "batch_code_route_carrier", def = "{'batchId': 1, 'originCode': 1, 'destinationCode': 1, 'carrierName': 1}")
+@CompoundIndex(name = "batch_city_route_price", def = "{'batchId': 1, 'originCityKey': 1, 'destinationCityKey': 1, 'price': 1}")
+@CompoundIndex(name = "batch_code_route_price", def = "{'batchId': 1, 'originCode': 1, 'destinationCode': 1, 'price': 1}")
+@CompoundIndex(name = "batch_sequence", def = "{'batchId': 1, 'sequence': 1}")
+public record TicketRecordDocument(
+        @Id String id,
+        String batchId,
+        long sequence,
+        String originCityKey,
+        String destinationCityKey,
+        String originCode,
+        String destinationCode,
+        String carrierName,
+        @Field(targetType = FieldType.DECIMAL128) BigDecimal price,
+        long journeySeconds,
+        Ticket ticket
+) {
+
+    /**
+     * Builds the document for a ticket with at least one segment.
+     *
+     * @param batchId  The id of the batch the ticket belongs to.
+     * @param sequence The position of the ticket within the batch.
+     * @param ticket   The ticket to store.
+     * @return The new document, without an id.
+     */
+    public static TicketRecordDocument of(final String batchId, final long sequence, final Ticket ticket) {
+        final var first = ticket.segments().get(0);
+        final var last = ticket.segments().get(ticket.segments().size() - 1);
+        return new TicketRecordDocument(
+                null,
+                batchId,
+                sequence,
+                RouteIndex.normalize(first.origin().city()),
+                RouteIndex.normalize(last.destination().city()),
+                RouteIndex.normalize(first.origin().code()),
+                RouteIndex.normalize(last.destination().code()),
+                ticket.carrierName(),
+                ticket.price().amount(),
+                Duration.between(first.departure(), last.arrival()).getSeconds(),
+                ticket);
+    }
+}
@@ -0,0 +1,228 @@
+package ru.abriel.ticket_analyzer.domain.model.ticket;
+
+import ru.abriel.ticket_analyzer.domain.model.flight.FlightSegment;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * An in-memory, struct-of-arrays store of routable tickets.
+ * <p>
+ * Instead of a {@link Ticket} object graph (price, segments, airports, zoned date-times and
+ * coordinates) every ticket is one row across primitive columns: price in minor units, first
+ * departure and last arrival in epoch seconds, carrier, first origin and last destination airport
+ * ids, and the number of stops. That is about 40 bytes per ticket. Carrier names and airports
+ * (code and city) are dictionary-encoded in the order they are first met.
+ * <p>
+ * Rows are appended while loading; the store is not safe for concurrent modification, but can be
+ * shared for reads once loading is finished.
+ */
+public final class TicketStore implements ColumnarTickets {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private long[] prices;
+    private long[] departures;
+    private long[] arrivals;
+    private int[] carrierIds;
+    private int[] originIds;
+    private int[] destinationIds;
+    private int[] stops;
+    private int size;
+
+    private final Map<String, Integer> carrierDictionary = new HashMap<>();
+    private final List<String> carriers = new ArrayList<>();
+    private final Map<AirportKey, Integer> airportDictionary = new HashMap<>();
+    private final List<AirportKey> airports = new ArrayList<>();
+
+    /**
+     * Creates an empty store.
+     */
+    public TicketStore() {
+        this(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Creates an empty store with room for the given number of rows.
+     *
+     * @param capacity The expected number of rows.
+     */
+    public TicketStore(final int capacity) {
+        final int initial = Math.max(1, capacity);
+        this.prices = new long[initial];
+        this.departures = new long[initial];
+        this.arrivals = new long[initial];
+        this.carrierIds = new int[initial];
+        this.originIds = new int[initial];
+        this.destinationIds = new int[initial];
+        this.stops = new int[initial];
+    }
+
+    /**
+     * Builds a store of the given tickets.
+     *
+     * @param tickets The tickets, in load order.
+     * @return The store, or empty if any ticket cannot be represented exactly (see {@link #add(Ticket)}).
+     */
+    public static Optional<TicketStore> of(final Collection<Ticket> tickets) {
+        final TicketStore store = new TicketStore(tickets.size());
+        for (Ticket ticket : tickets) {
+            if (!store.add(ticket)) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(store.trimToSize());
+    }
+
+    /**
+     * Appends a ticket as one row. Tickets without segments are not routable and are skipped.
+     *
+     * @param ticket The ticket to add.
+     * @return {@code false} if the ticket cannot be represented exactly (a price with more than two
+     *         decimal places, or times with sub-second precision); the store is then left unchanged.
+     */
+    public boolean add(final Ticket ticket) {
+        if (ticket.segments().isEmpty()) {
+            return true;
+        }
+        final FlightSegment first = ticket.segments().get(0);
+        final FlightSegment last = ticket.segments().get(ticket.segments().size() - 1);
+        if (first.departure().getNano() != 0 || last.arrival().getNano() != 0) {
+            return false;
+        }
+        final long price;
+        try {
+            price = ticket.price().toMinorUnits();
+        } catch (ArithmeticException e) {
+            return false;
+        }
+        if (size == prices.length) {
+            this.grow();
+        }
+        prices[size] = price;
+        departures[size] = first.departure().toEpochSecond();
+        arrivals[size] = last.arrival().toEpochSecond();
+        carrierIds[size] = carrierDictionary.computeIfAbsent(ticket.carrierName(), name -> {
+            carriers.add(name);
+            return carriers.size() - 1;
+        });
+        originIds[size] = this.airportId(first.origin().code(), first.origin().city());
+        destinationIds[size] = this.airportId(last.destination().code(), last.destination().city());
+        stops[size] = ticket.segments().size() - 1;
+        size++;
+        return true;
+    }
+
+    /**
+     * Shrinks the columns to the number of rows, once loading is finished.
+     *
+     * @return This store.
+     */
+    public TicketStore trimToSize() {
+        if (size < prices.length) {
+            this.resize(size);
+        }
+        return this;
+    }
+
+    /**
+     * @return The number of stops of the row, i.e. the number of segments minus one.
+     */
+    public int stops(final int row) {
+        return stops[row];
+    }
+
+    /**
+     * @return The approximate heap footprint of the columns, without the dictionaries.
+     */
+    public long columnBytes() {
+        return (long) prices.length * (3 * Long.BYTES + 4 * Integer.BYTES);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long priceMinorUnits(final int row) {
+        return prices[row];
+    }
+
+    @Override
+    public long departureEpochSecond(final int row) {
+        return departures[row];
+    }
+
+    @Override
+    public long arrivalEpochSecond(final int row) {
+        return arrivals[row];
+    }
+
+    @Override
+    public int carrierId(final int row) {
+        return carrierIds[row];
+    }
+
+    @Override
+    public int originAirportId(final int row) {
+        return originIds[row];
+    }
+
+    @Override
+    public int destinationAirportId(final int row) {
+        return destinationIds[row];
+    }
+
+    @Override
+    public int carrierCount() {
+        return carriers.size();
+    }
+
+    @Override
+    public String carrierName(final int carrierId) {
+        return carriers.get(carrierId);
+    }
+
+    @Override
+    public int airportCount() {
+        return airports.size();
+    }
+
+    @Override
+    public String airportCode(final int airportId) {
+        return airports.get(airportId).code();
+    }
+
+    @Override
+    public String airportCity(final int airportId) {
+        return airports.get(airportId).city();
+    }
+
+    private int airportId(final String code, final String city) {
+        return airportDictionary.computeIfAbsent(new AirportKey(code, city), key -> {
+            airports.add(key);
+            return airports.size() - 1;
+        });
+    }
+
+    private void grow() {
+        this.resize(prices.length + (prices.length >> 1) + 1);
+    }
+
+    private void resize(final int capacity) {
+        prices = Arrays.copyOf(prices, capacity);
+        departures = Arrays.copyOf(departures, capacity);
+        arrivals = Arrays.copyOf(arrivals, capacity);
+        carrierIds = Arrays.copyOf(carrierIds, capacity);
+        originIds = Arrays.copyOf(originIds, capacity);
+        destinationIds = Arrays.copyOf(destinationIds, capacity);
+        stops = Arrays.copyOf(stops, capacity);
+    }
+
+    private record AirportKey(String code, String city) {}
+}
@@ -2,6 +2,7 @@ package ru.abriel.ticket_analyzer.dto;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.math.BigDecimal;
+import java.util.List;
 
 public record TicketInputDto(
     String origin,
@@ -14,6 +15,7 @@ public record TicketInputDto(
     @JsonProperty("arrival_time") String arrivalTime,
     String carrier,
     int stops,
-    BigDecimal price
+    BigDecimal price,
+    List<TicketSegmentInputDto> segments // Optional legs of a connecting ticket, in flight order
         )
 {}
@@ -0,0 +1,15 @@
+package ru.abriel.ticket_analyzer.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record TicketSegmentInputDto(
+    String origin,
+    @JsonProperty("origin_name") String originName,
+    String destination,
+    @JsonProperty("destination_name") String destinationName,
+    @JsonProperty("departure_date") String departureDate,
+    @JsonProperty("departure_time") String departureTime,
+    @JsonProperty("arrival_date") String arrivalDate,
+    @JsonProperty("arrival_time") String arrivalTime
+        )
+{}
@@ -0,0 +1,323 @@
+package ru.abriel.ticket_analyzer.presentation;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.abriel.ticket_analyzer.domain.model.ticket.DataProviderService;
+import ru.abriel.ticket_analyzer.domain.model.ticket.TicketDataset;
+import ru.abriel.ticket_analyzer.service.FlightAnalysisService;
+import ru.abriel.ticket_analyzer.service.aggregation.RouteAnalysisResult;
+import ru.abriel.ticket_analyzer.service.aggregation.RouteQuery;
+import ru.abriel.ticket_analyzer.service.itinerary.FlightGraph;
+import ru.abriel.ticket_analyzer.service.itinerary.Itinerary;
+import ru.abriel.ticket_analyzer.service.itinerary.ItineraryCriterion;
+import ru.abriel.ticket_analyzer.service.itinerary.ItineraryService;
+import ru.abriel.ticket_analyzer.shared.util.RouteListReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A resident server that loads the data once and answers route queries from memory.
+ * <p>
+ * The server speaks a line protocol, either on standard input/output or on a local TCP or Unix
+ * domain socket. Every request is one line; every response starts with {@code OK <n>} followed by
+ * {@code n} lines of payload, or with a single {@code ERR <message>} line:
+ * <pre>
+ *   analyze &lt;origin&gt;;&lt;destination&gt;   analyzes one route (separators as in a routes file)
+ *   itinerary fastest|cheapest &lt;origin&gt;;&lt;destination&gt;
+ *                                   finds the best itinerary, possibly over several tickets
+ *   reload                          loads the source again and swaps it in
+ *   status                          reports the loaded dataset
+ *   quit                            ends the session
+ *   shutdown                        stops the server
+ * </pre>
+ * The flight graph for itinerary queries is built with every load, next to the dataset.
+ * Reloads build the new dataset next to the current one and swap it in atomically, so queries in
+ * flight finish on the data they started with. The source is also checked every
+ * {@code app.server.reload-check-seconds} and reloaded when its fingerprint changes.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AnalysisServer {
+
+    private final DataProviderService dataProvider;
+    private final FlightAnalysisService analysisService;
+    private final ItineraryService itineraryService;
+    private final ConsoleWriter consoleWriter;
+
+    /**
+     * The number of socket sessions served at the same time. Configured by {@code app.server.max-clients}.
+     */
+    @Value("${app.server.max-clients:4}")
+    private int maxClients;
+
+    /**
+     * The interval of the automatic source change check; zero disables it.
+     * Configured by {@code app.server.reload-check-seconds}.
+     */
+    @Value("${app.server.reload-check-seconds:30}")
+    private long reloadCheckSeconds;
+
+    private final AtomicReference<LoadedData> loaded = new AtomicReference<>();
+    private final Object reloadLock = new Object();
+    private volatile ServerSocketChannel listener;
+    private volatile boolean stopped;
+
+    /**
+     * Loads the source and serves requests from standard input until {@code quit}, {@code shutdown} or end of input.
+     * <p>
+     * Standard output carries nothing but response frames meanwhile: {@code System.out} is pointed
+     * at standard error for the session, so console logging and any other console output land there.
+     *
+     * @param source The optional user-provided data file.
+     */
+    public void serveStdin(final Optional<Path> source) {
+        final PrintStream protocol = System.out;
+        System.setOut(System.err);
+        try {
+            this.runServer(source, () -> {
+                log.info("[Server]: Ready. Reading requests from standard input.");
+                this.serveSession(System.in, protocol);
+            });
+        } finally {
+            System.setOut(protocol);
+        }
+    }
+
+    /**
+     * Loads the source and serves requests on a local socket until a client sends {@code shutdown}.
+     *
+     * @param source  The optional user-provided data file.
+     * @param address An {@link java.net.InetSocketAddress} or a {@link UnixDomainSocketAddress} to listen on.
+     */
+    public void serveSocket(final Optional<Path> source, final SocketAddress address) {
+        this.runServer(source, () -> {
+            final ExecutorService sessions = Executors.newFixedThreadPool(maxClients);
+            try (ServerSocketChannel channel = this.bind(address)) {
+                this.listener = channel;
+                log.info("[Server]: Ready. Listening on {}.", address);
+                while (!stopped) {
+                    final SocketChannel client = channel.accept();
+                    sessions.execute(() -> this.serveClient(client));
+                }
+            } catch (AsynchronousCloseException e) {
+                log.info("[Server]: Listener closed.");
+            } finally {
+                sessions.shutdownNow();
+                if (address instanceof UnixDomainSocketAddress unixAddress) {
+                    Files.deleteIfExists(unixAddress.getPath());
+                }
+            }
+        });
+    }
+
+    private void runServer(final Optional<Path> source, final ServerLoop loop) {
+        this.reload(source);
+        final ScheduledExecutorService watcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "source-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (reloadCheckSeconds > 0) {
+            watcher.scheduleWithFixedDelay(() -> this.reloadIfChanged(source),
+                    reloadCheckSeconds, reloadCheckSeconds, TimeUnit.SECONDS);
+        }
+        try {
+            loop.run();
+        } catch (IOException e) {
+            consoleWriter.printError("Server stopped: " + e.getMessage());
+        } finally {
+            watcher.shutdownNow();
+            log.info("[Server]: Stopped.");
+        }
+    }
+
+    private ServerSocketChannel bind(final SocketAddress address) throws IOException {
+        if (address instanceof UnixDomainSocketAddress unixAddress) {
+            Files.deleteIfExists(unixAddress.getPath());
+            return ServerSocketChannel.open(StandardProtocolFamily.UNIX).bind(address);
+        }
+        return ServerSocketChannel.open().bind(address);
+    }
+
+    private void serveClient(final SocketChannel client) {
+        try (client) {
+            this.serveSession(Channels.newInputStream(client), Channels.newOutputStream(client));
+        } catch (IOException e) {
+            log.warn("[Server]: Session failed: {}", e.getMessage());
+        }
+    }
+
+    private void serveSession(final InputStream input, final OutputStream output) throws IOException {
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        final PrintWriter writer = new PrintWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), true);
+        String line;
+        while (!stopped && (line = reader.readLine()) != null) {
+            if (!line.isBlank() && !this.handle(line.strip(), writer)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Executes one request and writes its response.
+     *
+     * @return {@code false} if the session should end.
+     */
+    private boolean handle(final String request, final PrintWriter writer) {
+        final String[] parts = request.split("\\s+", 2);
+        final String argument = parts.length > 1 ? parts[1] : "";
+        try {
+            switch (parts[0].toLowerCase()) {
+                case "analyze" -> this.analyze(argument, writer);
+                case "itinerary" -> this.itinerary(argument, writer);
+                case "reload" -> {
+                    final LoadedData data = this.reload(loaded.get().source());
+                    respond(writer, List.of("Loaded %d tickets.".formatted(data.dataset().size())));
+                }
+                case "status" -> {
+                    final LoadedData data = loaded.get();
+                    respond(writer, List.of(
+                            "source: " + data.source().map(Path::toString).orElse("default pipeline"),
+                            "tickets: " + data.dataset().size(),
+                            "loaded-at: " + data.loadedAt()));
+                }
+                case "quit" -> {
+                    respond(writer, List.of());
+                    return false;
+                }
+                case "shutdown" -> {
+                    respond(writer, List.of());
+                    this.stop();
+                    return false;
+                }
+                default -> writer.println("ERR Unknown command: " + parts[0]);
+            }
+        } catch (Exception e) {
+            log.error("[Server]: Request '{}' failed.", request, e);
+            writer.println("ERR " + e.getMessage());
+        }
+        return true;
+    }
+
+    private void analyze(final String argument, final PrintWriter writer) {
+        final Optional<RouteQuery> route = RouteListReader.parse(argument);
+        if (route.isEmpty()) {
+            writer.println("ERR Usage: analyze <origin>;<destination>");
+            return;
+        }
+        final TicketDataset dataset = loaded.get().dataset();
+        final RouteAnalysisResult result = analysisService.analyze(dataset, route.get().origin(), route.get().destination());
+        if (result.isEmpty()) {
+            writer.println("ERR No flights found for the specified route.");
+            return;
+        }
+        respond(writer, consoleWriter.formatResults(result.minJourneyTimes(), result.priceDifference()));
+    }
+
+    private void itinerary(final String argument, final PrintWriter writer) {
+        final String[] parts = argument.split("\\s+", 2);
+        final Optional<ItineraryCriterion> criterion = parseCriterion(parts[0]);
+        final Optional<RouteQuery> route = parts.length > 1 ? RouteListReader.parse(parts[1]) : Optional.empty();
+        if (criterion.isEmpty() || route.isEmpty()) {
+            writer.println("ERR Usage: itinerary fastest|cheapest <origin>;<destination>");
+            return;
+        }
+        final Optional<Itinerary> itinerary = loaded.get().graph()
+                .find(criterion.get(), route.get().origin(), route.get().destination(), null);
+        if (itinerary.isEmpty()) {
+            writer.println("ERR No itinerary found for the specified route.");
+            return;
+        }
+        respond(writer, consoleWriter.formatItinerary(itinerary.get()));
+    }
+
+    private static Optional<ItineraryCriterion> parseCriterion(final String name) {
+        try {
+            return Optional.of(ItineraryCriterion.valueOf(name.toUpperCase(Locale.ROOT)));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    private LoadedData reload(final Optional<Path> source) {
+        synchronized (reloadLock) {
+            // Taken before loading, so a change during the load is picked up by the next check.
+            final Optional<String> fingerprint = dataProvider.sourceFingerprint(source);
+            final TicketDataset dataset = loaded.get() == null
+                    ? dataProvider.getDataset(source)
+                    : dataProvider.reloadDataset(source);
+            final LoadedData data = new LoadedData(source, dataset, itineraryService.buildGraph(dataset), fingerprint, Instant.now());
+            loaded.set(data);
+            log.info("[Server]: Serving {} tickets.", dataset.size());
+            return data;
+        }
+    }
+
+    private void reloadIfChanged(final Optional<Path> source) {
+        try {
+            final Optional<String> fingerprint = dataProvider.sourceFingerprint(source);
+            if (fingerprint.isPresent() && !fingerprint.equals(loaded.get().fingerprint())) {
+                log.info("[Server]: Source changed. Reloading.");
+                this.reload(source);
+            }
+        } catch (Exception e) {
+            log.warn("[Server]: Automatic reload failed, still serving the previous data: {}", e.getMessage());
+        }
+    }
+
+    private void stop() {
+        stopped = true;
+        final ServerSocketChannel channel = listener;
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("[Server]: Failed to close listener: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static void respond(final PrintWriter writer, final List<String> lines) {
+        writer.println("OK " + lines.size());
+        lines.forEach(writer::println);
+    }
+
+    /**
+     * The dataset currently served and its flight graph, with the source version it was loaded from.
+     */
+    private record LoadedData(Optional<Path> source, TicketDataset dataset, FlightGraph graph, Optional<String> fingerprint,
+                              Instant loadedAt) {}
+
+    @FunctionalInterface
+    private interface ServerLoop {
+        void run() throws IOException;
+    }
+}
@@ -5,7 +5,13 @@ import org.springframework.stereotype.Component;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import ru.abriel.ticket_analyzer.service.aggregation.CarrierPercentiles;
+import ru.abriel.ticket_analyzer.service.aggregation.RouteReport;
+import ru.abriel.ticket_analyzer.service.itinerary.Itinerary;
+import ru.abriel.ticket_analyzer.shared.util.TicketDateTimeParser;
 
 /**
  * A utility component responsible for printing all application output to the console.
@@ -38,15 +44,112 @@ public class ConsoleWriter {
      *                        Cannot be null.
      */
     public void printResults(final Map<String, Duration> minFlightTimes, final BigDecimal priceDifference) {
+        this.formatResults(minFlightTimes, priceDifference).forEach(line -> log.info("%s%n".formatted(line)));
+    }
+
+    /**
+     * Formats the analysis results as the text lines {@link #printResults} prints, for callers
+     * that write them somewhere other than the log, e.g. a server session.
+     *
+     * @param minFlightTimes  The minimum flight duration per carrier name. Cannot be null.
+     * @param priceDifference The difference between the average and median ticket prices. Cannot be null.
+     * @return The price difference line followed by one line per carrier.
+     */
+    public List<String> formatResults(final Map<String, Duration> minFlightTimes, final BigDecimal priceDifference) {
+        final List<String> lines = new ArrayList<>(minFlightTimes.size() + 1);
 
         BigDecimal displayDifference = priceDifference.setScale(2, RoundingMode.HALF_UP);
 
-        log.info("Разница - %s%n".formatted(displayDifference));
+        lines.add("Разница - %s".formatted(displayDifference));
 
         minFlightTimes.forEach((carrier, duration) -> {
             long hours = duration.toHours();
             long minutes = duration.toMinutesPart();
-            log.info("%s - %dч %dм%n".formatted(carrier, hours, minutes));
+            lines.add("%s - %dч %dм".formatted(carrier, hours, minutes));
+        });
+        return lines;
+    }
+
+    /**
+     * Logs the share of journey time spent in the air, one line per carrier.
+     *
+     * @param ratios The ratio of estimated air time to journey time per carrier name. Cannot be null.
+     */
+    public void printAirTimeRatios(final Map<String, Double> ratios) {
+        ratios.forEach((carrier, ratio) -> log.info("%s - в воздухе %.1f%%%n".formatted(carrier, ratio * 100)));
+    }
+
+    /**
+     * Logs the estimated price and journey-time percentiles, one line per carrier.
+     *
+     * @param percentiles The percentiles per carrier name. Cannot be null.
+     */
+    public void printPercentiles(final Map<String, CarrierPercentiles> percentiles) {
+        this.formatPercentiles(percentiles).forEach(line -> log.info("%s%n".formatted(line)));
+    }
+
+    /**
+     * Formats estimated percentiles as the text lines {@link #printPercentiles} prints.
+     *
+     * @param percentiles The percentiles per carrier name. Cannot be null.
+     * @return One line per carrier with its p50/p90/p99 price and journey time.
+     */
+    public List<String> formatPercentiles(final Map<String, CarrierPercentiles> percentiles) {
+        final List<String> lines = new ArrayList<>(percentiles.size());
+        percentiles.forEach((carrier, p) -> lines.add("%s - цена p50/p90/p99: %s / %s / %s, время p50/p90/p99: %s / %s / %s".formatted(
+                carrier, p.priceP50(), p.priceP90(), p.priceP99(),
+                formatDuration(p.journeyP50()), formatDuration(p.journeyP90()), formatDuration(p.journeyP99()))));
+        return lines;
+    }
+
+    private static String formatDuration(final Duration duration) {
+        return "%dч %dм".formatted(duration.toHours(), duration.toMinutesPart());
+    }
+
+    /**
+     * Logs an itinerary: the total journey time and price, then its tickets and their flight segments.
+     *
+     * @param itinerary The itinerary. Cannot be null.
+     */
+    public void printItinerary(final Itinerary itinerary) {
+        this.formatItinerary(itinerary).forEach(line -> log.info("%s%n".formatted(line)));
+    }
+
+    /**
+     * Formats an itinerary as the text lines {@link #printItinerary} prints. Times are local to
+     * their airports, as in the input files.
+     *
+     * @param itinerary The itinerary. Cannot be null.
+     * @return The summary line, then per ticket its carrier and price followed by one line per flight segment.
+     */
+    public List<String> formatItinerary(final Itinerary itinerary) {
+        final List<String> lines = new ArrayList<>();
+        final Duration duration = itinerary.duration();
+        lines.add("Итого - %dч %dм, %s, пересадок: %d".formatted(duration.toHours(), duration.toMinutesPart(),
+                itinerary.totalPrice().setScale(2, RoundingMode.HALF_UP), itinerary.segments().size() - 1));
+        itinerary.tickets().forEach(ticket -> {
+            lines.add("%s - %s".formatted(ticket.carrierCode(), ticket.price().amount()));
+            ticket.segments().forEach(segment -> lines.add("  %s %s -> %s %s".formatted(
+                    segment.origin().code(), segment.departure().format(TicketDateTimeParser.FORMATTER),
+                    segment.destination().code(), segment.arrival().format(TicketDateTimeParser.FORMATTER))));
+        });
+        return lines;
+    }
+
+    /**
+     * Logs the results of a multi-route analysis, one block per route in the given order.
+     * Routes without matching tickets are reported as such instead of being skipped silently.
+     *
+     * @param reports The per-route results. Cannot be null.
+     */
+    public void printRouteReports(final List<RouteReport> reports) {
+        reports.forEach(report -> {
+            log.info("%s -> %s (%d)%n".formatted(report.route().origin(), report.route().destination(), report.result().ticketCount()));
+            if (report.result().isEmpty()) {
+                this.printError("No flights found for route " + report.route().origin() + " -> " + report.route().destination());
+            } else {
+                this.printResults(report.result().minJourneyTimes(), report.result().priceDifference());
+            }
         });
     }
 }
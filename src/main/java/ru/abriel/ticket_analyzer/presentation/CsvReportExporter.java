@@ -0,0 +1,70 @@
+package ru.abriel.ticket_analyzer.presentation;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.abriel.ticket_analyzer.service.aggregation.RouteReport;
+import ru.abriel.ticket_analyzer.shared.exception.TicketAnalyzerException;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Writes multi-route analysis results to a CSV file for downstream reporting jobs.
+ * <p>
+ * The file has one row per route and carrier:
+ * {@code origin,destination,tickets,price_difference,carrier,min_journey_minutes}.
+ * Routes without tickets get a single row with empty carrier columns.
+ */
+@Slf4j
+@Component
+public class CsvReportExporter {
+
+    private static final String HEADER = "origin,destination,tickets,price_difference,carrier,min_journey_minutes";
+
+    /**
+     * Writes the reports to the given file, replacing it if it exists.
+     *
+     * @param reports The per-route results.
+     * @param target  The CSV file to write.
+     * @throws TicketAnalyzerException if the file cannot be written.
+     */
+    public void export(final List<RouteReport> reports, final Path target) {
+        try (BufferedWriter writer = Files.newBufferedWriter(target, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (RouteReport report : reports) {
+                final String prefix = String.join(",",
+                        escape(report.route().origin()),
+                        escape(report.route().destination()),
+                        Long.toString(report.result().ticketCount()),
+                        report.result().priceDifference().setScale(2, RoundingMode.HALF_UP).toPlainString());
+                if (report.result().isEmpty()) {
+                    writer.write(prefix + ",,");
+                    writer.newLine();
+                    continue;
+                }
+                for (var entry : report.result().minJourneyTimes().entrySet()) {
+                    writer.write(prefix + "," + escape(entry.getKey()) + "," + entry.getValue().toMinutes());
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            throw new TicketAnalyzerException("Failed to export report to " + target, e);
+        }
+        log.info("Exported {} route reports to {}", reports.size(), target);
+    }
+
+    private static String escape(final String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
+    }
+}
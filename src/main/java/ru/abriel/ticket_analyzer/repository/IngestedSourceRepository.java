@@ -0,0 +1,33 @@
+package ru.abriel.ticket_analyzer.repository;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import ru.abriel.ticket_analyzer.domain.model.ticket.IngestedSourceDocument;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Spring Data repository interface for the {@link IngestedSourceDocument} fingerprints of
+ * already ingested source files.
+ */
+@Repository
+public interface IngestedSourceRepository extends MongoRepository<IngestedSourceDocument, String> {
+
+    /**
+     * Finds a fingerprint by file identity, without hashing the content.
+     *
+     * @param path         The absolute path of the file.
+     * @param size         The file size in bytes.
+     * @param lastModified The file's last modification time.
+     * @return The matching fingerprint, if the same unchanged file was ingested before.
+     */
+    Optional<IngestedSourceDocument> findFirstByPathAndSizeAndLastModified(String path, long size, Instant lastModified);
+
+    /**
+     * Finds a fingerprint by content, whatever path the content was seen at.
+     *
+     * @param contentHash The hex-encoded SHA-256 of the content, or the fingerprint of a file listing.
+     * @return Any matching fingerprint, if the same content was ingested before.
+     */
+    Optional<IngestedSourceDocument> findFirstByContentHash(String contentHash);
+}
@@ -0,0 +1,28 @@
+package ru.abriel.ticket_analyzer.repository;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import ru.abriel.ticket_analyzer.domain.model.ticket.RouteAggregateDocument;
+import java.util.List;
+
+/**
+ * Spring Data repository interface for the per-(route, carrier) aggregates of stored batches.
+ */
+@Repository
+public interface RouteAggregateRepository extends MongoRepository<RouteAggregateDocument, String> {
+
+    /**
+     * Finds all aggregates of a batch, using the {@code batchId} index.
+     *
+     * @param batchId The id of the batch.
+     * @return The aggregates. Empty if the batch was stored without them.
+     */
+    List<RouteAggregateDocument> findByBatchId(String batchId);
+
+    /**
+     * Deletes all aggregates of a batch, using the {@code batchId} index.
+     *
+     * @param batchId The id of the batch.
+     */
+    void deleteByBatchId(String batchId);
+}
@@ -0,0 +1,131 @@
+package ru.abriel.ticket_analyzer.repository;
+
+import lombok.RequiredArgsConstructor;
+import com.mongodb.client.MongoCollection;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Decimal128;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Repository;
+import ru.abriel.ticket_analyzer.domain.model.ticket.RouteIndex;
+import ru.abriel.ticket_analyzer.domain.model.ticket.TicketRecordDocument;
+import ru.abriel.ticket_analyzer.service.aggregation.RouteAnalysisResult;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Computes route metrics inside MongoDB with an aggregation pipeline over the per-ticket layout.
+ * <p>
+ * The route {@code $match} runs on the {@code batchId + route + carrier} compound index. A single
+ * {@code $facet} then produces the per-carrier minimum journey time and the price sum and count.
+ * The median is read by a second query that skips to the middle of the route's prices in the
+ * {@code batchId + route + price} index and returns at most two of them, so no stage ever holds
+ * the prices of a whole route, however many tickets it has. Only a handful of values cross the
+ * wire. The final rounding is done in Java with exactly the same rules as the in-JVM path, which
+ * keeps both paths' results identical.
+ */
+@Slf4j
+@Repository
+@RequiredArgsConstructor
+public class TicketAnalyticsRepository {
+
+    private final MongoTemplate mongoTemplate;
+
+    /**
+     * Analyzes a route of a stored batch. The arguments are first matched as city names and,
+     * if nothing matches, as IATA codes, like {@code TicketDataset.findRoute}.
+     *
+     * @param batchId     The id of the per-ticket batch to analyze.
+     * @param origin      The origin city name or IATA code.
+     * @param destination The destination city name or IATA code.
+     * @return The metrics of the route. Empty (zero tickets) if nothing matched.
+     */
+    public RouteAnalysisResult analyzeRoute(final String batchId, final String origin, final String destination) {
+        final String originKey = RouteIndex.normalize(origin);
+        final String destinationKey = RouteIndex.normalize(destination);
+        return this.aggregate(new Document("batchId", batchId)
+                        .append("originCityKey", originKey)
+                        .append("destinationCityKey", destinationKey))
+                .or(() -> this.aggregate(new Document("batchId", batchId)
+                        .append("originCode", originKey)
+                        .append("destinationCode", destinationKey)))
+                .orElseGet(() -> new RouteAnalysisResult(0, Map.of(), BigDecimal.ZERO));
+    }
+
+    private Optional<RouteAnalysisResult> aggregate(final Document routeMatch) {
+        final MongoCollection<Document> collection = this.collection();
+        final List<Document> pipeline = List.of(
+                new Document("$match", routeMatch),
+                new Document("$facet", new Document()
+                        .append("carriers", List.of(
+                                new Document("$group", new Document("_id", "$carrierName")
+                                        .append("minSeconds", new Document("$min", "$journeySeconds")))))
+                        .append("prices", List.of(
+                                new Document("$group", new Document("_id", null)
+                                        .append("count", new Document("$sum", 1))
+                                        .append("sum", new Document("$sum", "$price")))))));
+
+        final Document facets = collection.aggregate(pipeline).allowDiskUse(true).first();
+        final List<Document> prices = facets == null ? List.of() : facets.getList("prices", Document.class);
+        if (prices.isEmpty()) {
+            return Optional.empty();
+        }
+
+        final Map<String, Duration> minJourneyTimes = new HashMap<>();
+        for (Document carrier : facets.getList("carriers", Document.class)) {
+            minJourneyTimes.put(carrier.getString("_id"), Duration.ofSeconds(((Number) carrier.get("minSeconds")).longValue()));
+        }
+
+        final Document stats = prices.get(0);
+        final long count = ((Number) stats.get("count")).longValue();
+        log.debug("Server-side aggregation matched {} tickets.", count);
+        final List<BigDecimal> middle = this.middlePrices(collection, routeMatch, count);
+        return Optional.of(new RouteAnalysisResult(count, minJourneyTimes, priceDifference(
+                decimal(stats, "sum"), count, middle.get(0), middle.get(middle.size() - 1))));
+    }
+
+    /**
+     * Reads the middle price of an odd-sized route, or the two middle prices of an even-sized one,
+     * by skipping to them in price order. The skip walks the route's entries of the price index
+     * without fetching any document.
+     */
+    private List<BigDecimal> middlePrices(final MongoCollection<Document> collection, final Document routeMatch, final long count) {
+        final List<BigDecimal> middle = new ArrayList<>(2);
+        collection.find(routeMatch)
+                .projection(new Document("_id", 0).append("price", 1))
+                .sort(new Document("price", 1))
+                .skip(Math.toIntExact((count - 1) / 2))
+                .limit(count % 2 == 0 ? 2 : 1)
+                .forEach(document -> middle.add(decimal(document, "price")));
+        if (middle.isEmpty()) {
+            throw new IllegalStateException("Route prices changed while computing the median.");
+        }
+        return middle;
+    }
+
+    private MongoCollection<Document> collection() {
+        return mongoTemplate.getCollection(mongoTemplate.getCollectionName(TicketRecordDocument.class));
+    }
+
+    private static BigDecimal decimal(final Document document, final String field) {
+        return document.get(field, Decimal128.class).bigDecimalValue();
+    }
+
+    /**
+     * The same rounding rules as {@code PriceStatisticsAccumulator}: the average and an even-sized
+     * median are rounded to two decimal places, HALF_UP.
+     */
+    private static BigDecimal priceDifference(final BigDecimal sum, final long count, final BigDecimal lower, final BigDecimal upper) {
+        final BigDecimal average = sum.divide(BigDecimal.valueOf(count), 2, RoundingMode.HALF_UP);
+        final BigDecimal median = count % 2 == 0
+                ? lower.add(upper).divide(BigDecimal.valueOf(2), 2, RoundingMode.HALF_UP)
+                : upper;
+        return average.subtract(median).abs();
+    }
+}
@@ -0,0 +1,21 @@
+package ru.abriel.ticket_analyzer.repository;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import ru.abriel.ticket_analyzer.domain.model.ticket.TicketBatchDocument;
+import java.util.Optional;
+
+/**
+ * Spring Data repository interface for the {@link TicketBatchDocument} manifests of the
+ * per-ticket storage layout.
+ */
+@Repository
+public interface TicketBatchRepository extends MongoRepository<TicketBatchDocument, String> {
+
+    /**
+     * Finds the manifest of the most recently uploaded batch. Served by the index on {@code uploadedAt}.
+     *
+     * @return An {@link Optional} containing the latest manifest, or an empty Optional if there is none.
+     */
+    Optional<TicketBatchDocument> findTopByOrderByUploadedAtDesc();
+}
@@ -0,0 +1,29 @@
+package ru.abriel.ticket_analyzer.repository;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+import ru.abriel.ticket_analyzer.domain.model.ticket.TicketRecordDocument;
+import java.util.stream.Stream;
+
+/**
+ * Spring Data repository interface for single tickets stored in the per-ticket layout.
+ */
+@Repository
+public interface TicketRecordRepository extends MongoRepository<TicketRecordDocument, String> {
+
+    /**
+     * Streams all tickets of a batch in their original input order, using the
+     * {@code batchId + sequence} index. The caller must close the stream.
+     *
+     * @param batchId The id of the batch.
+     * @return A lazily fetched stream of ticket documents.
+     */
+    Stream<TicketRecordDocument> streamByBatchIdOrderBySequenceAsc(String batchId);
+
+    /**
+     * Deletes all tickets of a batch, using the {@code batchId + sequence} index.
+     *
+     * @param batchId The id of the batch.
+     */
+    void deleteByBatchId(String batchId);
+}
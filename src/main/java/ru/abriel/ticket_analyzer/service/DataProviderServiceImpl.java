@@ -2,22 +2,39 @@ package ru.abriel.ticket_analyzer.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
+import ru.abriel.ticket_analyzer.domain.model.ticket.ColumnarTickets;
 import ru.abriel.ticket_analyzer.domain.model.ticket.DataProviderService;
+import ru.abriel.ticket_analyzer.domain.model.ticket.IngestedSourceDocument;
+import ru.abriel.ticket_analyzer.domain.model.ticket.RouteAggregates;
 import ru.abriel.ticket_analyzer.domain.model.ticket.Ticket;
-import ru.abriel.ticket_analyzer.domain.model.ticket.TicketDocument;
-import ru.abriel.ticket_analyzer.repository.TicketDocumentRepository;
+import ru.abriel.ticket_analyzer.domain.model.ticket.TicketDataset;
+import ru.abriel.ticket_analyzer.domain.model.ticket.TicketStore;
+import ru.abriel.ticket_analyzer.repository.IngestedSourceRepository;
+import ru.abriel.ticket_analyzer.service.aggregation.AirTimeEstimates;
+import ru.abriel.ticket_analyzer.service.snapshot.TicketSnapshotStore;
 import ru.abriel.ticket_analyzer.shared.exception.DataSourceNotFoundException;
+import ru.abriel.ticket_analyzer.shared.exception.JsonParsingException;
+import ru.abriel.ticket_analyzer.shared.util.ContentHasher;
+import ru.abriel.ticket_analyzer.shared.util.GeoCalculator;
 import ru.abriel.ticket_analyzer.shared.util.JsonParserWorker;
+import ru.abriel.ticket_analyzer.shared.util.ParallelTicketFileParser;
+import ru.abriel.ticket_analyzer.shared.util.TicketSourceFiles;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 /**
  * The default implementation of the {@link DataProviderService}.
@@ -28,39 +45,293 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class DataProviderServiceImpl implements DataProviderService {
 
-    private final TicketDocumentRepository ticketRepository;
+    private final TicketStorageService ticketStorage;
+    private final IngestedSourceRepository ingestedSources;
     private final JsonParserWorker jsonParser;
+    private final ParallelTicketFileParser parallelParser;
     private final ResourceLoader resourceLoader;
+    private final TicketSnapshotStore snapshotStore;
+    private final WriteBehindPersistence writeBehind;
+    private final MultiFileIngestor multiFileIngestor;
+    private final GeoCalculator geoCalculator;
     private static final String DEFAULT_RESOURCE_PATH = "classpath:input_data/base_data.json";
+
+    /**
+     * Enables the memory-mapped, multi-core parser for large user-provided files.
+     */
+    @Value("${app.ingest.parallel.enabled:true}")
+    private boolean parallelIngestEnabled;
+
+    /**
+     * Files smaller than this are parsed sequentially, where thread start-up would outweigh the gain.
+     */
+    @Value("${app.ingest.parallel.threshold-bytes:67108864}")
+    private long parallelThresholdBytes;
+
+    /**
+     * Whether the parallel parser must keep tickets in the order of the input file.
+     */
+    @Value("${app.ingest.parallel.preserve-order:true}")
+    private boolean parallelPreserveOrder;
+
+    /**
+     * Datasets loaded by this process, keyed by their normalized source path.
+     * The empty key stands for the "no file" pipeline (MongoDB cache or cold start).
+     */
+    private final Map<Optional<Path>, TicketDataset> loadedDatasets = new ConcurrentHashMap<>();
+
+    /**
+     * Columnar stores built by this process, keyed like {@link #loadedDatasets}.
+     */
+    private final Map<Optional<Path>, TicketStore> loadedStores = new ConcurrentHashMap<>();
+
+    /**
+     * Route aggregates known to this process, keyed like {@link #loadedDatasets}. They outlive the
+     * dataset they came from when only its columnar store is kept.
+     */
+    private final Map<Optional<Path>, RouteAggregates> loadedAggregates = new ConcurrentHashMap<>();
+
+    /**
+     * Air time estimates of the sources analyzed by this process, keyed like {@link #loadedDatasets}.
+     */
+    private final Map<Optional<Path>, AirTimeEstimates> loadedAirTimeEstimates = new ConcurrentHashMap<>();
+
     @Override
-    public List<Ticket> getData(final Optional<Path> filePathOpt) {
-        return filePathOpt
+    public TicketDataset getDataset(final Optional<Path> filePathOpt) {
+        final Optional<Path> sourceKey = sourceKey(filePathOpt);
+        final TicketDataset cached = loadedDatasets.get(sourceKey);
+        if (cached != null) {
+            log.info("Strategy: Reusing dataset already loaded in this process ({} tickets).", cached.size());
+            return cached;
+        }
+        final LoadedDataset loaded = sourceKey
                 .map(this::loadFromFileAndSaveToMongo)
-                .or(this::loadFromMongo)
+                .or(() -> this.loadFromMongo().map(dataset -> new LoadedDataset(dataset, false)))
                 .orElseGet(this::loadFromDefaultResourceAndSaveToMongo);
+        final TicketDataset dataset = loaded.dataset();
+        if (loaded.savedAsNewBatch() && sourceKey.isPresent()) {
+            // The file is now the newest batch in MongoDB, so a cached "no file" dataset is stale.
+            loadedDatasets.remove(Optional.<Path>empty());
+            loadedStores.remove(Optional.<Path>empty());
+            loadedAggregates.remove(Optional.<Path>empty());
+            loadedAirTimeEstimates.remove(Optional.<Path>empty());
+        }
+        loadedDatasets.put(sourceKey, dataset);
+        loadedAggregates.put(sourceKey, dataset.routeAggregates());
+        if (loaded.savedAsNewBatch()) {
+            // The snapshot of the "no file" pipeline is keyed by the newest batch, so it waits for the save.
+            writeBehind.afterPendingWrites("write snapshot", () -> snapshotStore.save(sourceKey, dataset));
+        }
+        return dataset;
+    }
+
+    @Override
+    public Optional<TicketStore> getTicketStore(final Optional<Path> filePathOpt) {
+        final Optional<Path> sourceKey = sourceKey(filePathOpt);
+        final TicketStore cached = loadedStores.get(sourceKey);
+        if (cached != null) {
+            log.info("Strategy: Reusing ticket store already built in this process ({} tickets).", cached.size());
+            return Optional.of(cached);
+        }
+        final Optional<TicketStore> store = TicketStore.of(this.getDataset(sourceKey).tickets());
+        store.ifPresent(built -> {
+            loadedStores.put(sourceKey, built);
+            // The dataset stays cached too: dropping it would make the next getDataset parse and ingest the source again.
+            log.info("Strategy: Built columnar ticket store ({} tickets, {} KB of columns).",
+                    built.size(), built.columnBytes() / 1024);
+        });
+        return store;
+    }
+
+    @Override
+    public Optional<RouteAggregates> findRouteAggregates(final Optional<Path> filePathOpt) {
+        final Optional<Path> sourceKey = sourceKey(filePathOpt);
+        final RouteAggregates cached = loadedAggregates.get(sourceKey);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        final Optional<RouteAggregates> stored = this.findStoredAggregates(sourceKey);
+        stored.ifPresent(aggregates -> {
+            log.info("Strategy: Using {} route aggregates stored in MongoDB.", aggregates.size());
+            loadedAggregates.put(sourceKey, aggregates);
+        });
+        return stored;
+    }
+
+    /**
+     * Finds the aggregates of the batch {@link #getDataset(Optional)} would load, without loading it:
+     * the batch of the unchanged file, or the newest batch if no file is given.
+     */
+    private Optional<RouteAggregates> findStoredAggregates(final Optional<Path> sourceKey) {
+        try {
+            final Optional<String> batchId;
+            if (sourceKey.isPresent() && TicketSourceFiles.isMultiFile(sourceKey.get())) {
+                batchId = ingestedSources.findFirstByContentHash(TicketSourceFiles.list(sourceKey.get()).fingerprint())
+                        .map(IngestedSourceDocument::batchId);
+            } else if (sourceKey.isPresent()) {
+                final Path path = sourceKey.get();
+                batchId = ingestedSources.findFirstByPathAndSizeAndLastModified(path.toString(), Files.size(path),
+                        Files.getLastModifiedTime(path).toInstant()).map(IngestedSourceDocument::batchId);
+            } else {
+                batchId = ticketStorage.latestBatchId();
+            }
+            return batchId.flatMap(ticketStorage::findAggregates);
+        } catch (Exception e) {
+            log.warn("Stored route aggregates are unavailable: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public AirTimeEstimates getAirTimeEstimates(final Optional<Path> filePathOpt) {
+        return loadedAirTimeEstimates.computeIfAbsent(sourceKey(filePathOpt), sourceKey -> new AirTimeEstimates(geoCalculator));
+    }
+
+    @Override
+    public TicketDataset reloadDataset(final Optional<Path> filePathOpt) {
+        this.releaseDataset(filePathOpt);
+        return this.getDataset(filePathOpt);
+    }
+
+    @Override
+    public void releaseDataset(final Optional<Path> filePathOpt) {
+        loadedDatasets.remove(sourceKey(filePathOpt));
+        loadedStores.remove(sourceKey(filePathOpt));
+        loadedAggregates.remove(sourceKey(filePathOpt));
+        loadedAirTimeEstimates.remove(sourceKey(filePathOpt));
+    }
+
+    @Override
+    public Optional<String> sourceFingerprint(final Optional<Path> filePathOpt) {
+        return snapshotStore.fingerprint(sourceKey(filePathOpt));
+    }
+
+    @Override
+    public Optional<ColumnarTickets> findSnapshot(final Optional<Path> filePathOpt) {
+        return snapshotStore.find(sourceKey(filePathOpt));
     }
 
-    private Optional<List<Ticket>> loadFromMongo() {
+    private static Optional<Path> sourceKey(final Optional<Path> filePathOpt) {
+        return filePathOpt.map(path -> path.toAbsolutePath().normalize());
+    }
+
+    private Optional<TicketDataset> loadFromMongo() {
         log.info("Strategy: No file provided. Checking for cached data in MongoDB.");
-        return ticketRepository.findTopByOrderByUploadedAtDesc()
-                .map(ticketDocument -> {
-                    log.info("Strategy: Data found in MongoDB. Using cached version.");
-                    return ticketDocument.tickets();
-                });
+        final Optional<TicketDataset> cached = ticketStorage.loadLatest();
+        cached.ifPresent(dataset -> log.info("Strategy: Data found in MongoDB. Using cached version."));
+        return cached;
     }
 
-    private List<Ticket> loadFromFileAndSaveToMongo(final Path path) {
+    private LoadedDataset loadFromFileAndSaveToMongo(final Path path) {
+        if (TicketSourceFiles.isMultiFile(path)) {
+            return this.loadFromFilesAndSaveToMongo(path);
+        }
         log.info("Strategy: Loading data from user-provided file: {}", path);
-        try (InputStream stream = Files.newInputStream(path)) {
-           final List<Ticket> tickets = jsonParser.parse(stream);
-            this.saveToMongo(tickets);
-            return tickets;
+        try {
+            final long size = Files.size(path);
+            final Instant lastModified = Files.getLastModifiedTime(path).toInstant();
+            final Optional<TicketDataset> unchanged = ingestedSources
+                    .findFirstByPathAndSizeAndLastModified(path.toString(), size, lastModified)
+                    .flatMap(this::loadIngested);
+            if (unchanged.isPresent()) {
+                log.info("Strategy: File is unchanged since its last ingest. Skipping parse and save.");
+                return new LoadedDataset(unchanged.get(), false);
+            }
+
+            final String contentHash = ContentHasher.sha256(path);
+            final Optional<IngestedSourceDocument> sameContent = ingestedSources.findFirstByContentHash(contentHash);
+            final Optional<TicketDataset> reused = sameContent.flatMap(this::loadIngested);
+            if (reused.isPresent()) {
+                log.info("Strategy: File content was already ingested (sha256 {}). Skipping parse and save.", contentHash);
+                // Remember the new file identity so the next run of this file skips hashing too.
+                ingestedSources.save(IngestedSourceDocument.of(contentHash, path.toString(), size, lastModified,
+                        sameContent.get().batchId(), Instant.now()));
+                return new LoadedDataset(reused.get(), false);
+            }
+
+            final TicketDataset dataset = this.parseFileContent(path);
+            final boolean saved = this.saveToMongo(dataset, batchId -> ingestedSources.save(
+                    IngestedSourceDocument.of(contentHash, path.toString(), size, lastModified, batchId, Instant.now())));
+            return new LoadedDataset(dataset, saved);
         } catch (Exception e) {
             throw new DataSourceNotFoundException("Failed to process user-provided file: " + path + e.getMessage());
         }
     }
 
-    private List<Ticket> loadFromDefaultResourceAndSaveToMongo() {
+    /**
+     * Ingests all files of a directory or glob source as one batch. The source is recognized as
+     * unchanged by the fingerprint of its file listing, so re-running over the same feed skips parsing.
+     */
+    private LoadedDataset loadFromFilesAndSaveToMongo(final Path source) {
+        log.info("Strategy: Loading data from the files of: {}", source);
+        try {
+            final TicketSourceFiles.Listing listing = TicketSourceFiles.list(source);
+            if (listing.files().isEmpty()) {
+                throw new DataSourceNotFoundException("No ticket files match " + source);
+            }
+            final Optional<TicketDataset> unchanged = ingestedSources.findFirstByContentHash(listing.fingerprint())
+                    .flatMap(this::loadIngested);
+            if (unchanged.isPresent()) {
+                log.info("Strategy: The {} files are unchanged since their last ingest. Skipping parse and save.", listing.files().size());
+                return new LoadedDataset(unchanged.get(), false);
+            }
+
+            final TicketDataset dataset = this.parseFiles(listing);
+            final boolean saved = this.saveToMongo(dataset, batchId -> ingestedSources.save(IngestedSourceDocument.of(
+                    listing.fingerprint(), source.toString(), listing.totalBytes(), listing.lastModified(), batchId, Instant.now())));
+            return new LoadedDataset(dataset, saved);
+        } catch (Exception e) {
+            throw new DataSourceNotFoundException("Failed to process user-provided files: " + source + e.getMessage());
+        }
+    }
+
+    private TicketDataset parseFiles(final TicketSourceFiles.Listing listing) {
+        log.info("Parsing {} files ({} bytes) concurrently.", listing.files().size(), listing.totalBytes());
+        // Concurrency comes from the files, so each file is parsed by a single streaming parser.
+        return multiFileIngestor.ingest(listing.files(), file -> {
+            final List<Ticket> tickets = new ArrayList<>();
+            try (InputStream stream = Files.newInputStream(file)) {
+                jsonParser.parseStreaming(stream, tickets::add);
+            } catch (IOException e) {
+                throw new JsonParsingException("Failed to read ticket file: " + file, e);
+            }
+            return tickets;
+        });
+    }
+
+    @Override
+    public TicketDataset parseFile(final Path filePath) {
+        if (TicketSourceFiles.isMultiFile(filePath)) {
+            return this.parseFiles(TicketSourceFiles.list(filePath.toAbsolutePath().normalize()));
+        }
+        try {
+            return this.parseFileContent(filePath);
+        } catch (IOException e) {
+            throw new JsonParsingException("Failed to read ticket file: " + filePath, e);
+        }
+    }
+
+    private TicketDataset parseFileContent(final Path path) throws IOException {
+        // A gzip stream can only be decoded front to back, so compressed files are always streamed.
+        if (parallelIngestEnabled && Files.size(path) >= parallelThresholdBytes && !JsonParserWorker.isCompressed(path)) {
+            log.info("File exceeds {} bytes. Using parallel memory-mapped parser.", parallelThresholdBytes);
+            return new TicketDataset(parallelParser.parse(path, parallelPreserveOrder));
+        }
+        try (InputStream stream = Files.newInputStream(path)) {
+            return this.parseStream(stream);
+        }
+    }
+
+    /**
+     * Streams tickets straight into a dataset, so the route index grows as each ticket is parsed.
+     */
+    private TicketDataset parseStream(final InputStream stream) {
+        final TicketDataset dataset = new TicketDataset();
+        jsonParser.parseStreaming(stream, dataset::add);
+        return dataset;
+    }
+
+    private LoadedDataset loadFromDefaultResourceAndSaveToMongo() {
         log.warn("Strategy: No data in MongoDB. Performing cold start from default resource.");
         try {
            final Resource resource = resourceLoader.getResource(DEFAULT_RESOURCE_PATH);
@@ -68,22 +339,52 @@ public class DataProviderServiceImpl implements DataProviderService {
                 throw new FileNotFoundException("Default resource file not found in build: " + DEFAULT_RESOURCE_PATH);
             }
             try (InputStream stream = resource.getInputStream()) {
-                List<Ticket> tickets = jsonParser.parse(stream);
-                this.saveToMongo(tickets);
-                return tickets;
+                final TicketDataset dataset = this.parseStream(stream);
+                return new LoadedDataset(dataset, this.saveToMongo(dataset, batchId -> { }));
             }
         } catch (Exception e) {
             throw new DataSourceNotFoundException("Critical error during cold start from resource" + e.getMessage());
         }
     }
 
-    private void saveToMongo(final List<Ticket> tickets) {
+    /**
+     * Persists the tickets and their route aggregates through the write-behind queue, so the caller
+     * can analyze them right away.
+     *
+     * @param dataset The parsed dataset. It must not be modified afterwards.
+     * @param onSaved Receives the new batch id once the save succeeded, on the writer thread.
+     * @return {@code true} if a new batch was queued, {@code false} if there was nothing to save.
+     */
+    private boolean saveToMongo(final TicketDataset dataset, final Consumer<String> onSaved) {
+        final List<Ticket> tickets = dataset.tickets();
         if (tickets == null || tickets.isEmpty()) {
             log.warn("Parsed ticket list is empty. Skipping save to MongoDB.");
-            return;
+            return false;
         }
-        log.info("Saving {} parsed tickets to MongoDB...", tickets.size());
-        ticketRepository.save(new TicketDocument(null, Instant.now(), tickets));
-        log.info("Data successfully saved to MongoDB.");
+        log.info("Queueing {} parsed tickets for saving to MongoDB...", tickets.size());
+        writeBehind.submit("save " + tickets.size() + " tickets", () -> {
+            final String batchId = ticketStorage.saveBatch(tickets, dataset.routeAggregates());
+            log.info("Data successfully saved to MongoDB as batch {}.", batchId);
+            onSaved.accept(batchId);
+        });
+        return true;
     }
+
+    /**
+     * Loads the batch a fingerprint points to. Returns empty if the batch was deleted since,
+     * in which case the file is simply ingested again.
+     */
+    private Optional<TicketDataset> loadIngested(final IngestedSourceDocument source) {
+        final Optional<TicketDataset> dataset = ticketStorage.findBatch(source.batchId());
+        if (dataset.isEmpty()) {
+            log.warn("Batch {} of an already ingested source is missing. Re-ingesting.", source.batchId());
+        }
+        return dataset;
+    }
+
+    /**
+     * A dataset together with whether loading it queued a new batch, which is what makes the
+     * "no file" caches stale and the dataset worth a snapshot.
+     */
+    private record LoadedDataset(TicketDataset dataset, boolean savedAsNewBatch) {}
 }
\ No newline at end of file
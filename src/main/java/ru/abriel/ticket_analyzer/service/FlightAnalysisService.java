@@ -2,22 +2,39 @@ package ru.abriel.ticket_analyzer.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import ru.abriel.ticket_analyzer.domain.model.flight.AirportInfo;
 import ru.abriel.ticket_analyzer.domain.model.geography.GeoPoint;
-import ru.abriel.ticket_analyzer.domain.model.money.Price;
+import ru.abriel.ticket_analyzer.domain.model.ticket.ColumnarTickets;
 import ru.abriel.ticket_analyzer.domain.model.ticket.DataProviderService;
 import ru.abriel.ticket_analyzer.domain.model.ticket.Ticket;
+import ru.abriel.ticket_analyzer.domain.model.ticket.TicketDataset;
+import ru.abriel.ticket_analyzer.domain.model.ticket.TicketStore;
 import ru.abriel.ticket_analyzer.presentation.ConsoleWriter;
-import ru.abriel.ticket_analyzer.shared.util.GeoCalculator;
-import java.math.BigDecimal;
-import java.math.RoundingMode;
+import ru.abriel.ticket_analyzer.presentation.CsvReportExporter;
+import ru.abriel.ticket_analyzer.repository.TicketAnalyticsRepository;
+import ru.abriel.ticket_analyzer.service.aggregation.AggregatedRouteAnalyzer;
+import ru.abriel.ticket_analyzer.service.aggregation.AirTimeEstimates;
+import ru.abriel.ticket_analyzer.service.aggregation.ApproximateRouteAccumulator;
+import ru.abriel.ticket_analyzer.service.aggregation.ApproximateRouteResult;
+import ru.abriel.ticket_analyzer.service.aggregation.AirTimeRatioAccumulator;
+import ru.abriel.ticket_analyzer.service.aggregation.CarrierMinDurationAccumulator;
+import ru.abriel.ticket_analyzer.service.aggregation.ColumnarRouteAnalyzer;
+import ru.abriel.ticket_analyzer.service.aggregation.MultiRouteAccumulator;
+import ru.abriel.ticket_analyzer.service.aggregation.ParallelAggregator;
+import ru.abriel.ticket_analyzer.service.aggregation.RouteAnalysisAccumulator;
+import ru.abriel.ticket_analyzer.service.aggregation.RouteAnalysisResult;
+import ru.abriel.ticket_analyzer.service.aggregation.RouteQuery;
+import ru.abriel.ticket_analyzer.service.aggregation.RouteReport;
+import ru.abriel.ticket_analyzer.shared.util.AirportRegistry;
+import ru.abriel.ticket_analyzer.shared.util.KllLongSketch;
 import java.nio.file.Path;
 import java.time.Duration;
-import java.time.ZonedDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -26,96 +43,382 @@ public class FlightAnalysisService {
 
     private final DataProviderService dataProvider;
 
-    private final GeoCalculator geoCalculator;
-
     private final ConsoleWriter consoleWriter;
 
+    private final CsvReportExporter csvReportExporter;
+
+    private final TicketStorageService ticketStorage;
+
+    private final TicketAnalyticsRepository analyticsRepository;
+
+    private final ParallelAggregator parallelAggregator;
+
+    /**
+     * Whether runs without a file answer route queries with a MongoDB aggregation pipeline
+     * instead of loading the whole batch into the JVM. Configured by {@code app.analysis.pushdown}.
+     */
+    @Value("${app.analysis.pushdown:true}")
+    private boolean pushdownEnabled;
+
+    /**
+     * Whether single-route runs load the data into a columnar {@link TicketStore} and aggregate over
+     * its primitive columns instead of ticket objects. Configured by {@code app.analysis.columnar}.
+     */
+    @Value("${app.analysis.columnar:true}")
+    private boolean columnarEnabled;
+
+    /**
+     * Whether single-route runs are answered from the per-(route, carrier) aggregates computed at
+     * ingest time, before any ticket is loaded. Configured by {@code app.analysis.aggregates}.
+     */
+    @Value("${app.analysis.aggregates:true}")
+    private boolean aggregatesEnabled;
+
+    /**
+     * The accuracy parameter of the quantile sketches used by approximate analysis. Configured by
+     * {@code app.analysis.sketch-k}; see {@link KllLongSketch} for the resulting error.
+     */
+    @Value("${app.analysis.sketch-k:" + KllLongSketch.DEFAULT_K + "}")
+    private int sketchK;
+
     public void analyzeAndPrintResults(final Optional<Path> filePath, final String originCity, final String destinationCity) {
+        this.analyzeAndPrintResults(filePath, originCity, destinationCity, false);
+    }
+
+    /**
+     * Analyzes one route with bounded-memory quantile sketches and prints the results together with
+     * the estimated price and journey-time percentiles of every carrier.
+     *
+     * @param filePath        The optional user-provided data file.
+     * @param originCity      The origin city name or IATA code.
+     * @param destinationCity The destination city name or IATA code.
+     */
+    public void analyzeApproximateAndPrintResults(final Optional<Path> filePath, final String originCity,
+                                                  final String destinationCity) {
+        log.info("Approximate analysis process started (sketch k = {}).", sketchK);
+
+        final ApproximateRouteResult result;
+        final Optional<ColumnarTickets> snapshot = dataProvider.findSnapshot(filePath);
+        if (snapshot.isPresent()) {
+            result = this.analyzeApproximate(snapshot.get(), originCity, destinationCity);
+        } else {
+            final TicketDataset dataset = dataProvider.getDataset(filePath);
+            if (dataset.isEmpty()) {
+                consoleWriter.printError("No data available for analysis. Terminating.");
+                return;
+            }
+            result = this.analyzeApproximate(dataset, originCity, destinationCity);
+        }
+        if (result.isEmpty()) {
+            consoleWriter.printError("No flights found for the specified route.");
+            return;
+        }
+        log.info("Found {} relevant tickets. Median and percentiles are estimated.", result.ticketCount());
+        consoleWriter.printResults(result.minJourneyTimes(), result.priceDifference());
+        consoleWriter.printPercentiles(result.percentiles());
+        log.info("Analysis process finished successfully.");
+    }
+
+    /**
+     * Computes the route metrics of an indexed dataset with quantile sketches.
+     *
+     * @param dataset     The loaded dataset.
+     * @param origin      The origin city name or IATA code.
+     * @param destination The destination city name or IATA code.
+     * @return The metrics with estimated median and percentiles. Empty if no ticket matched the route.
+     */
+    public ApproximateRouteResult analyzeApproximate(final TicketDataset dataset, final String origin, final String destination) {
+        final ApproximateRouteAccumulator accumulator = new ApproximateRouteAccumulator(sketchK);
+        dataset.findRoute(origin, destination).forEach(accumulator::accept);
+        return accumulator.result();
+    }
+
+    /**
+     * Computes the route metrics of columnar tickets with quantile sketches.
+     *
+     * @param tickets     The columnar tickets.
+     * @param origin      The origin city name or IATA code.
+     * @param destination The destination city name or IATA code.
+     * @return The metrics with estimated median and percentiles. Empty if no row matched the route.
+     */
+    public ApproximateRouteResult analyzeApproximate(final ColumnarTickets tickets, final String origin, final String destination) {
+        final ApproximateRouteAccumulator accumulator = new ApproximateRouteAccumulator(sketchK);
+        for (int row : ColumnarRouteAnalyzer.findRoute(tickets, origin, destination)) {
+            accumulator.accept(tickets.carrierName(tickets.carrierId(row)),
+                    Duration.ofSeconds(tickets.arrivalEpochSecond(row) - tickets.departureEpochSecond(row)),
+                    tickets.priceMinorUnits(row));
+        }
+        return accumulator.result();
+    }
+
+    /**
+     * Analyzes one route and prints the results.
+     *
+     * @param filePath        The optional user-provided data file.
+     * @param originCity      The origin city name or IATA code.
+     * @param destinationCity The destination city name or IATA code.
+     * @param airTimeRatio    Whether to also compute and print the share of journey time spent in the
+     *                        air per carrier. It needs the individual tickets, so it disables the
+     *                        route aggregates and the MongoDB pushdown for this run.
+     */
+    public void analyzeAndPrintResults(final Optional<Path> filePath, final String originCity, final String destinationCity,
+                                       final boolean airTimeRatio) {
         log.info("Analysis process started.");
 
-        final List<Ticket> tickets = dataProvider.getData(filePath);
-        if (tickets.isEmpty()) {
+        final Optional<ColumnarTickets> snapshot = dataProvider.findSnapshot(filePath);
+        if (snapshot.isPresent()) {
+            final RouteAnalysisResult result = ColumnarRouteAnalyzer.analyze(snapshot.get(), originCity, destinationCity, parallelAggregator);
+            this.printResult(result);
+            if (airTimeRatio && !result.isEmpty()) {
+                this.printAirTimeRatios(this.airTimeRatios(snapshot.get(), originCity, destinationCity,
+                        dataProvider.getAirTimeEstimates(filePath)));
+            }
+            return;
+        }
+
+        if (aggregatesEnabled && !airTimeRatio) {
+            final Optional<RouteAnalysisResult> aggregated = dataProvider.findRouteAggregates(filePath)
+                    .filter(aggregates -> aggregates.size() > 0)
+                    .flatMap(aggregates -> AggregatedRouteAnalyzer.analyze(aggregates, originCity, destinationCity));
+            if (aggregated.isPresent()) {
+                log.info("Strategy: Answering from route aggregates without reading tickets.");
+                this.printResult(aggregated.get());
+                return;
+            }
+        }
+
+        if (filePath.isEmpty() && pushdownEnabled && !airTimeRatio) {
+            final Optional<RouteAnalysisResult> serverSide = this.analyzeInMongo(originCity, destinationCity);
+            if (serverSide.isPresent()) {
+                this.printResult(serverSide.get());
+                return;
+            }
+        }
+
+        if (columnarEnabled) {
+            final Optional<TicketStore> store = dataProvider.getTicketStore(filePath);
+            if (store.isPresent()) {
+                if (store.get().size() == 0) {
+                    consoleWriter.printError("No data available for analysis. Terminating.");
+                    return;
+                }
+                log.info("Data received. Scanning ticket store columns: {} -> {}", originCity, destinationCity);
+                final RouteAnalysisResult result = this.analyze(store.get(), originCity, destinationCity);
+                this.printResult(result);
+                if (airTimeRatio && !result.isEmpty()) {
+                    this.printAirTimeRatios(this.airTimeRatios(store.get(), originCity, destinationCity,
+                            dataProvider.getAirTimeEstimates(filePath)));
+                }
+                return;
+            }
+            log.info("Tickets cannot be stored in columns exactly. Falling back to ticket objects.");
+        }
+
+        final TicketDataset dataset = dataProvider.getDataset(filePath);
+        if (dataset.isEmpty()) {
             consoleWriter.printError("No data available for analysis. Terminating.");
             return;
         }
-        log.info("Data received. Filtering for route: {} -> {}", originCity, destinationCity);
+        log.info("Data received. Looking up route in index: {} -> {}", originCity, destinationCity);
 
-        final List<Ticket> relevantTickets = tickets.stream()
-                .filter(t -> !t.segments().isEmpty() &&
-                        originCity.equalsIgnoreCase(t.segments().get(0).origin().city()) &&
-                        destinationCity.equalsIgnoreCase(t.segments().get(t.segments().size() - 1).destination().city()))
-                .collect(Collectors.toList());
+        final RouteAnalysisResult result = this.analyze(dataset, originCity, destinationCity);
+        this.printResult(result);
+        if (airTimeRatio && !result.isEmpty()) {
+            this.printAirTimeRatios(this.airTimeRatios(dataset.findRoute(originCity, destinationCity),
+                    dataProvider.getAirTimeEstimates(filePath)));
+        }
+    }
 
-        if (relevantTickets.isEmpty()) {
+    private void printAirTimeRatios(final Map<String, Double> ratios) {
+        if (ratios.isEmpty()) {
+            consoleWriter.printError("Air time cannot be estimated: the route's airport coordinates are unknown.");
+            return;
+        }
+        consoleWriter.printAirTimeRatios(ratios);
+    }
+
+    /**
+     * Runs the route analysis as a MongoDB aggregation pipeline against the newest stored batch.
+     *
+     * @return The server-side result, or empty if the newest batch cannot be queried server-side
+     *         or the query failed, in which case the caller falls back to the in-JVM path.
+     */
+    private Optional<RouteAnalysisResult> analyzeInMongo(final String origin, final String destination) {
+        try {
+            return ticketStorage.latestPerTicketBatchId().map(batchId -> {
+                log.info("Strategy: Pushing route analysis down to MongoDB for batch {}.", batchId);
+                return analyticsRepository.analyzeRoute(batchId, origin, destination);
+            });
+        } catch (Exception e) {
+            log.warn("Server-side analysis failed, falling back to in-JVM analysis: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void printResult(final RouteAnalysisResult result) {
+        if (result.isEmpty()) {
             consoleWriter.printError("No flights found for the specified route.");
             return;
         }
-        log.info("Found {} relevant tickets. Calculating metrics...", relevantTickets.size());
+        log.info("Found {} relevant tickets. Metrics calculated in a single pass.", result.ticketCount());
 
-        final Map<String, Duration> minJourneyTimes = calculateMinJourneyTimes(relevantTickets);
-        final BigDecimal priceDifference = calculatePriceDifference(relevantTickets);
-        consoleWriter.printResults(minJourneyTimes, priceDifference);
+        consoleWriter.printResults(result.minJourneyTimes(), result.priceDifference());
 
         log.info("Analysis process finished successfully.");
     }
 
-    private Map<String, Duration> calculateMinJourneyTimes(final List<Ticket> tickets) {
-        return tickets.stream()
-                .collect(Collectors.groupingBy(
-                        Ticket::carrierName,
-                        Collectors.mapping(
-                                this::calculateAndLogDurations,
-                                Collectors.minBy(Duration::compareTo)
-                        )
-                ))
-                .entrySet().stream()
-                .filter(entry -> entry.getValue().isPresent())
-                .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().get()));
-    }
+    /**
+     * Analyzes many routes against one loaded dataset and prints, and optionally exports, all results.
+     * Every route's metrics come out of a single grouped pass over the tickets.
+     *
+     * @param filePath   The optional user-provided data file.
+     * @param routes     The routes to analyze. If empty, every route found in the data is analyzed.
+     * @param exportPath An optional CSV file to write the results to.
+     */
+    public void analyzeRoutesAndPrintResults(final Optional<Path> filePath, final List<RouteQuery> routes, final Optional<Path> exportPath) {
+        log.info("Multi-route analysis started for {}.", routes.isEmpty() ? "all routes" : routes.size() + " routes");
+
+        final TicketDataset dataset = dataProvider.getDataset(filePath);
+        if (dataset.isEmpty()) {
+            consoleWriter.printError("No data available for analysis. Terminating.");
+            return;
+        }
 
-    private Duration calculateAndLogDurations(final Ticket ticket) {
-        final ZonedDateTime departure = ticket.segments().get(0).departure();
-        final ZonedDateTime arrival = ticket.segments().get(ticket.segments().size() - 1).arrival();
-        final Duration journeyDuration = Duration.between(departure, arrival);
+        final List<RouteReport> reports = this.analyzeRoutes(dataset.tickets(), routes);
+        log.info("Computed metrics for {} routes in a single pass on {} threads.", reports.size(), parallelAggregator.parallelism());
 
-        logEstimatedAirTime(ticket, journeyDuration);
+        consoleWriter.printRouteReports(reports);
+        exportPath.ifPresent(path -> csvReportExporter.export(reports, path));
 
-        return journeyDuration;
+        log.info("Multi-route analysis finished successfully.");
     }
 
-    private void logEstimatedAirTime(final Ticket ticket, final Duration journeyDuration) {
-        final GeoPoint originPoint = ticket.segments().get(0).origin().location();
-        final GeoPoint destinationPoint = ticket.segments().get(ticket.segments().size() - 1).destination().location();
+    /**
+     * Computes the metrics of many routes in one grouped pass over an in-memory ticket list, split
+     * into partitions that are aggregated in parallel. The reports are identical to a sequential pass.
+     *
+     * @param tickets The tickets.
+     * @param routes  The routes to analyze. If empty, every route found in the data is analyzed.
+     * @return One report per route.
+     */
+    public List<RouteReport> analyzeRoutes(final List<Ticket> tickets, final List<RouteQuery> routes) {
+        return parallelAggregator.aggregate(tickets, () -> routes.isEmpty()
+                ? MultiRouteAccumulator.allRoutes()
+                : MultiRouteAccumulator.forRoutes(routes)).results();
+    }
 
-        if (originPoint != null && originPoint.isValid() && destinationPoint != null && destinationPoint.isValid()) {
-            final Duration estimatedAirTime = geoCalculator.estimateFlightTime(originPoint, destinationPoint);
-            log.debug("Ticket from carrier '{}': Journey time = {}, Estimated pure air time = {}",
-                    ticket.carrierName(), journeyDuration, estimatedAirTime);
-        } else {
-            log.debug("Ticket from carrier '{}': Journey time = {}. Cannot estimate air time (missing coordinates).",
-                    ticket.carrierName(), journeyDuration);
-        }
+    /**
+     * Computes the metrics of many routes in one grouped pass over a sequential ticket source.
+     *
+     * @param tickets A sequential stream of tickets. It is consumed but not closed.
+     * @param routes  The routes to analyze. If empty, every route found in the data is analyzed.
+     * @return One report per route.
+     */
+    public List<RouteReport> analyzeRoutes(final Stream<Ticket> tickets, final List<RouteQuery> routes) {
+        final MultiRouteAccumulator accumulator = routes.isEmpty()
+                ? MultiRouteAccumulator.allRoutes()
+                : MultiRouteAccumulator.forRoutes(routes);
+        tickets.forEachOrdered(accumulator::accept);
+        return accumulator.results();
     }
 
-    private BigDecimal calculatePriceDifference(final List<Ticket> tickets) {
-        final List<BigDecimal> prices = tickets.stream()
-                .map(Ticket::price)
-                .map(Price::amount)
-                .sorted()
-                .collect(Collectors.toList());
-        if (prices.isEmpty()) return BigDecimal.ZERO;
+    /**
+     * Computes all metrics for a route of an indexed dataset from its route aggregates, in time
+     * proportional to the route's carriers. If the aggregates cannot represent the route's prices
+     * exactly, only the tickets returned by the route index are visited instead, in parallel partitions.
+     *
+     * @param dataset     The loaded dataset.
+     * @param origin      The origin city name or IATA code.
+     * @param destination The destination city name or IATA code.
+     * @return The computed metrics. Empty if no ticket matched the route.
+     */
+    public RouteAnalysisResult analyze(final TicketDataset dataset, final String origin, final String destination) {
+        return AggregatedRouteAnalyzer.analyze(dataset.routeAggregates(), origin, destination)
+                .orElseGet(() -> parallelAggregator.aggregate(dataset.findRoute(origin, destination),
+                        RouteAnalysisAccumulator::unfiltered).result());
+    }
 
-        final BigDecimal sum = prices.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
-        final BigDecimal average = sum.divide(new BigDecimal(prices.size()), 2, RoundingMode.HALF_UP);
+    /**
+     * Computes all metrics for a route of a columnar store, scanning partitions of the primitive
+     * columns in parallel. The result is identical to {@link #analyze(TicketDataset, String, String)}
+     * over the same tickets.
+     *
+     * @param store       The ticket store.
+     * @param origin      The origin city name or IATA code.
+     * @param destination The destination city name or IATA code.
+     * @return The computed metrics. Empty if no ticket matched the route.
+     */
+    public RouteAnalysisResult analyze(final TicketStore store, final String origin, final String destination) {
+        return ColumnarRouteAnalyzer.analyze(store, origin, destination, parallelAggregator);
+    }
 
-        final BigDecimal median;
-        final int size = prices.size();
-        if (size % 2 == 0) {
-            median = prices.get(size / 2 - 1).add(prices.get(size / 2)).divide(new BigDecimal(2), 2, RoundingMode.HALF_UP);
-        } else {
-            median = prices.get(size / 2);
+    /**
+     * Filters the route and computes all metrics in one pass over a sequential ticket source.
+     * The source may be an in-memory list or a lazily parsed stream; no intermediate list is built.
+     *
+     * @param tickets         A sequential stream of tickets. It is consumed but not closed.
+     * @param originCity      The origin city of the route.
+     * @param destinationCity The destination city of the route.
+     * @return The computed metrics. Empty if no ticket matched the route.
+     */
+    public RouteAnalysisResult analyze(final Stream<Ticket> tickets, final String originCity, final String destinationCity) {
+        return this.aggregate(tickets, new RouteAnalysisAccumulator(originCity, destinationCity));
+    }
+
+    private RouteAnalysisResult aggregate(final Stream<Ticket> tickets, final RouteAnalysisAccumulator accumulator) {
+        tickets.forEachOrdered(accumulator::acceptIfMatches);
+        return accumulator.result();
+    }
+
+    /**
+     * Computes the share of journey time spent in the air per carrier, for tickets already matched
+     * to a route. The air time is estimated from the first origin and the last destination; each
+     * distinct airport pair is evaluated once per set of estimates.
+     *
+     * @param routeTickets The tickets of one route, e.g. from {@link TicketDataset#findRoute}.
+     * @param estimates    The estimates of the tickets' source, from {@link DataProviderService#getAirTimeEstimates}.
+     * @return The ratio of air time to journey time per carrier, in first-seen order. Carriers whose
+     *         airports have no coordinates are left out.
+     */
+    public Map<String, Double> airTimeRatios(final List<Ticket> routeTickets, final AirTimeEstimates estimates) {
+        final AirTimeRatioAccumulator ratios = new AirTimeRatioAccumulator();
+        for (Ticket ticket : routeTickets) {
+            final GeoPoint origin = ticket.segments().get(0).origin().location();
+            final GeoPoint destination = ticket.segments().get(ticket.segments().size() - 1).destination().location();
+            estimates.estimate(origin, destination).ifPresent(airTime ->
+                    ratios.accept(ticket.carrierName(), CarrierMinDurationAccumulator.journeyDuration(ticket), airTime));
         }
+        log.info("Estimated air time for {} tickets ({} airport pairs evaluated for this source).", routeTickets.size(),
+                estimates.evaluatedPairs());
+        return ratios.result();
+    }
 
-        return average.subtract(median).abs();
+    /**
+     * Computes the share of journey time spent in the air per carrier on columnar tickets. Columns
+     * hold no coordinates, so airports are located through the {@link AirportRegistry} by code.
+     *
+     * @param tickets     The columnar tickets.
+     * @param origin      The origin city name or IATA code.
+     * @param destination The destination city name or IATA code.
+     * @param estimates   The estimates of the tickets' source, from {@link DataProviderService#getAirTimeEstimates}.
+     * @return The ratio of air time to journey time per carrier, in first-seen order.
+     */
+    public Map<String, Double> airTimeRatios(final ColumnarTickets tickets, final String origin, final String destination,
+                                             final AirTimeEstimates estimates) {
+        final AirportRegistry airports = AirportRegistry.defaultRegistry();
+        final GeoPoint[] locations = new GeoPoint[tickets.airportCount()];
+        for (int id = 0; id < locations.length; id++) {
+            locations[id] = airports.find(tickets.airportCode(id)).map(AirportInfo::location).orElse(null);
+        }
+        final AirTimeRatioAccumulator ratios = new AirTimeRatioAccumulator();
+        final int[] rows = ColumnarRouteAnalyzer.findRoute(tickets, origin, destination);
+        for (int row : rows) {
+            final Duration journey = Duration.ofSeconds(tickets.arrivalEpochSecond(row) - tickets.departureEpochSecond(row));
+            estimates.estimate(locations[tickets.originAirportId(row)], locations[tickets.destinationAirportId(row)])
+                    .ifPresent(airTime -> ratios.accept(tickets.carrierName(tickets.carrierId(row)), journey, airTime));
+        }
+        log.info("Estimated air time for {} tickets ({} airport pairs evaluated for this source).", rows.length,
+                estimates.evaluatedPairs());
+        return ratios.result();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,109 @@
+package ru.abriel.ticket_analyzer.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.abriel.ticket_analyzer.domain.model.ticket.Ticket;
+import ru.abriel.ticket_analyzer.domain.model.ticket.TicketDataset;
+import ru.abriel.ticket_analyzer.shared.exception.JsonParsingException;
+import ru.abriel.ticket_analyzer.shared.exception.TicketAnalyzerException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Parses many ticket files concurrently into a single dataset, e.g. a day of per-agency feeds.
+ * <p>
+ * Files are parsed on a bounded pool of {@code app.ingest.multi.max-files-in-flight} threads. A file
+ * is only submitted once its size fits into {@code app.ingest.multi.max-bytes-in-flight} together
+ * with the files still being parsed, so the memory held by parsers stays bounded however many files
+ * a source has; a single file larger than the limit is parsed alone. Parsed files are appended to
+ * the dataset in listing order as soon as all files before them are done, which keeps the result
+ * identical to parsing the files one after another.
+ */
+@Slf4j
+@Component
+public class MultiFileIngestor {
+
+    private static final AtomicInteger POOL_SEQUENCE = new AtomicInteger();
+
+    /**
+     * The number of files parsed at the same time. Configured by {@code app.ingest.multi.max-files-in-flight}.
+     */
+    @Value("${app.ingest.multi.max-files-in-flight:4}")
+    private int maxFilesInFlight;
+
+    /**
+     * The total size of the files parsed at the same time. Configured by {@code app.ingest.multi.max-bytes-in-flight}.
+     */
+    @Value("${app.ingest.multi.max-bytes-in-flight:268435456}")
+    private long maxBytesInFlight;
+
+    /**
+     * Parses the files and merges their tickets into one dataset.
+     *
+     * @param files  The files in the order their tickets should appear.
+     * @param parser Parses one file into its tickets. Called concurrently from several threads.
+     * @return The dataset holding the tickets of all files.
+     * @throws JsonParsingException if a file cannot be read or parsed.
+     */
+    public TicketDataset ingest(final List<Path> files, final Function<Path, List<Ticket>> parser) {
+        final int threads = Math.max(1, Math.min(maxFilesInFlight, files.size()));
+        // Permits count KiB, so the limit can exceed Integer.MAX_VALUE bytes.
+        final int kibibytePermits = (int) Math.max(1, Math.min(Integer.MAX_VALUE, maxBytesInFlight / 1024));
+        final Semaphore bytesInFlight = new Semaphore(kibibytePermits);
+        final Semaphore filesInFlight = new Semaphore(threads);
+        final int poolId = POOL_SEQUENCE.incrementAndGet();
+        final AtomicInteger threadSequence = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(threads,
+                runnable -> new Thread(runnable, "ingest-" + poolId + "-" + threadSequence.incrementAndGet()));
+
+        final TicketDataset dataset = new TicketDataset();
+        final Deque<Future<List<Ticket>>> pending = new ArrayDeque<>();
+        try {
+            for (Path file : files) {
+                final int permits = (int) Math.min(kibibytePermits, Math.max(1, Files.size(file) / 1024));
+                filesInFlight.acquire();
+                bytesInFlight.acquire(permits);
+                pending.add(executor.submit(() -> {
+                    try {
+                        return parser.apply(file);
+                    } finally {
+                        bytesInFlight.release(permits);
+                        filesInFlight.release();
+                    }
+                }));
+                while (!pending.isEmpty() && pending.peek().isDone()) {
+                    dataset.addAll(pending.poll().get());
+                }
+            }
+            while (!pending.isEmpty()) {
+                dataset.addAll(pending.poll().get());
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof TicketAnalyzerException analyzerException) {
+                throw analyzerException;
+            }
+            throw new JsonParsingException("Failed to parse ticket files concurrently.", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JsonParsingException("Concurrent ingest was interrupted.", e);
+        } catch (IOException e) {
+            throw new JsonParsingException("Failed to read ticket file size: " + e.getMessage(), e);
+        } finally {
+            executor.shutdownNow();
+        }
+        log.info("[MultiFileIngest]: Parsed {} tickets from {} files on {} threads.", dataset.size(), files.size(), threads);
+        return dataset;
+    }
+}
@@ -0,0 +1,261 @@
+package ru.abriel.ticket_analyzer.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.stereotype.Service;
+import ru.abriel.ticket_analyzer.domain.model.ticket.IngestedSourceDocument;
+import ru.abriel.ticket_analyzer.domain.model.ticket.RouteAggregateDocument;
+import ru.abriel.ticket_analyzer.domain.model.ticket.RouteAggregates;
+import ru.abriel.ticket_analyzer.domain.model.ticket.Ticket;
+import ru.abriel.ticket_analyzer.domain.model.ticket.TicketBatchDocument;
+import ru.abriel.ticket_analyzer.domain.model.ticket.TicketDataset;
+import ru.abriel.ticket_analyzer.domain.model.ticket.TicketDocument;
+import ru.abriel.ticket_analyzer.domain.model.ticket.TicketRecordDocument;
+import ru.abriel.ticket_analyzer.repository.RouteAggregateRepository;
+import ru.abriel.ticket_analyzer.repository.TicketBatchRepository;
+import ru.abriel.ticket_analyzer.repository.TicketDocumentRepository;
+import ru.abriel.ticket_analyzer.repository.TicketRecordRepository;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Persists ticket batches to MongoDB and reads them back.
+ * <p>
+ * Two layouts are supported, selected by {@code app.storage.layout}:
+ * <ul>
+ *     <li>{@code per-ticket} (default): one {@link TicketRecordDocument} per ticket tagged with a batch id,
+ *     written with unordered bulk inserts of {@code app.storage.batch-size} documents, plus a
+ *     {@link TicketBatchDocument} manifest. There is no limit on batch size and single routes can be
+ *     queried through the compound indexes.</li>
+ *     <li>{@code embedded}: the legacy single {@link TicketDocument} holding the whole list, which is
+ *     bounded by MongoDB's 16 MB document limit.</li>
+ * </ul>
+ * Reading always prefers the newest per-ticket batch and falls back to the legacy collection.
+ * Either layout can carry {@link RouteAggregateDocument}s, which answer route queries without the tickets.
+ * <p>
+ * The annotated indexes of the stored documents are created once, right before the first write,
+ * so commands that never touch MongoDB do not need a reachable server.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TicketStorageService {
+
+    private static final String PER_TICKET_LAYOUT = "per-ticket";
+
+    private static final List<Class<?>> INDEXED_DOCUMENTS = List.of(TicketRecordDocument.class, TicketBatchDocument.class,
+            TicketDocument.class, IngestedSourceDocument.class, RouteAggregateDocument.class);
+
+    private final MongoTemplate mongoTemplate;
+    private final TicketBatchRepository batchRepository;
+    private final TicketRecordRepository recordRepository;
+    private final TicketDocumentRepository ticketRepository;
+    private final RouteAggregateRepository aggregateRepository;
+
+    /**
+     * The storage layout for new batches: {@code per-ticket} or {@code embedded}.
+     */
+    @Value("${app.storage.layout:per-ticket}")
+    private String layout;
+
+    /**
+     * The number of ticket documents sent to MongoDB in one unordered bulk insert.
+     */
+    @Value("${app.storage.batch-size:1000}")
+    private int bulkBatchSize;
+
+    private volatile boolean indexesEnsured;
+
+    /**
+     * Saves the tickets as a new batch using the configured layout.
+     *
+     * @param tickets The tickets to persist. Must not be empty.
+     * @return The id of the new batch.
+     */
+    public String saveBatch(final List<Ticket> tickets) {
+        return this.saveBatch(tickets, null);
+    }
+
+    /**
+     * Saves the tickets as a new batch using the configured layout, together with their route
+     * aggregates. The aggregates are written first, so a batch visible as the latest always has them.
+     * If any write fails, the aggregates and tickets already written for the batch are deleted
+     * before the failure is rethrown, so no orphaned documents are left behind.
+     *
+     * @param tickets    The tickets to persist. Must not be empty.
+     * @param aggregates The aggregates computed from exactly these tickets, or {@code null} to store none.
+     * @return The id of the new batch.
+     */
+    public String saveBatch(final List<Ticket> tickets, final RouteAggregates aggregates) {
+        this.ensureIndexes();
+        final String batchId = new ObjectId().toHexString();
+        try {
+            return this.writeBatch(batchId, tickets, aggregates);
+        } catch (RuntimeException e) {
+            this.deletePartialBatch(batchId, e);
+            throw e;
+        }
+    }
+
+    private String writeBatch(final String batchId, final List<Ticket> tickets, final RouteAggregates aggregates) {
+        if (aggregates != null) {
+            aggregateRepository.insert(aggregates.all().stream()
+                    .map(aggregate -> RouteAggregateDocument.of(batchId, aggregate))
+                    .toList());
+        }
+        if (!PER_TICKET_LAYOUT.equals(layout)) {
+            return ticketRepository.save(new TicketDocument(batchId, Instant.now(), tickets)).id();
+        }
+        final List<TicketRecordDocument> chunk = new ArrayList<>(bulkBatchSize);
+        long sequence = 0;
+        long written = 0;
+        for (Ticket ticket : tickets) {
+            if (ticket.segments().isEmpty()) {
+                continue;
+            }
+            chunk.add(TicketRecordDocument.of(batchId, sequence++, ticket));
+            if (chunk.size() == bulkBatchSize) {
+                written += this.insertUnordered(chunk);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            written += this.insertUnordered(chunk);
+        }
+        batchRepository.save(new TicketBatchDocument(batchId, Instant.now(), written));
+        log.info("Stored batch {} as {} ticket documents.", batchId, written);
+        return batchId;
+    }
+
+    /**
+     * Loads the most recently uploaded batch, preferring the per-ticket layout.
+     *
+     * @return The indexed dataset of the newest batch, or empty if MongoDB holds no data.
+     */
+    public Optional<TicketDataset> loadLatest() {
+        final Optional<String> latestBatchId = this.latestPerTicketBatchId();
+        if (latestBatchId.isPresent()) {
+            return Optional.of(this.loadBatch(latestBatchId.get()));
+        }
+        return ticketRepository.findTopByOrderByUploadedAtDesc().map(document -> new TicketDataset(document.tickets()));
+    }
+
+    /**
+     * Finds the newest batch if it is stored in the per-ticket layout, i.e. if it can be queried
+     * server-side. Both lookups are served by the {@code uploadedAt} indexes.
+     *
+     * @return The id of the newest batch, or empty if MongoDB is empty or the newest batch is a legacy document.
+     */
+    public Optional<String> latestPerTicketBatchId() {
+        final Optional<TicketBatchDocument> latestBatch = batchRepository.findTopByOrderByUploadedAtDesc();
+        if (latestBatch.isEmpty()) {
+            return Optional.empty();
+        }
+        final Optional<TicketDocument> latestLegacy = ticketRepository.findTopByOrderByUploadedAtDesc();
+        if (latestLegacy.isPresent() && latestLegacy.get().uploadedAt().isAfter(latestBatch.get().uploadedAt())) {
+            return Optional.empty();
+        }
+        return Optional.of(latestBatch.get().id());
+    }
+
+    /**
+     * Finds the id of the most recently uploaded batch, whatever layout it was written with.
+     *
+     * @return The id of the newest batch, or empty if MongoDB holds no data.
+     */
+    public Optional<String> latestBatchId() {
+        return this.latestPerTicketBatchId()
+                .or(() -> ticketRepository.findTopByOrderByUploadedAtDesc().map(TicketDocument::id));
+    }
+
+    /**
+     * Loads the route aggregates stored with a batch, whatever layout it was written with.
+     *
+     * @param batchId The id of the batch.
+     * @return The aggregates, or empty if the batch was stored without them.
+     */
+    public Optional<RouteAggregates> findAggregates(final String batchId) {
+        final List<RouteAggregateDocument> documents = aggregateRepository.findByBatchId(batchId);
+        if (documents.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(RouteAggregates.of(documents.stream().map(RouteAggregateDocument::toAggregate).toList()));
+    }
+
+    /**
+     * Loads a previously stored batch by id, whatever layout it was written with.
+     *
+     * @param batchId The id of a per-ticket batch or of a legacy {@link TicketDocument}.
+     * @return The indexed dataset, or empty if the batch no longer exists.
+     */
+    public Optional<TicketDataset> findBatch(final String batchId) {
+        if (batchRepository.existsById(batchId)) {
+            return Optional.of(this.loadBatch(batchId));
+        }
+        return ticketRepository.findById(batchId).map(document -> new TicketDataset(document.tickets()));
+    }
+
+    /**
+     * Streams all tickets of a per-ticket batch into a new dataset in their original order.
+     *
+     * @param batchId The id of the batch.
+     * @return The indexed dataset.
+     */
+    public TicketDataset loadBatch(final String batchId) {
+        final TicketDataset dataset = new TicketDataset();
+        try (Stream<TicketRecordDocument> records = recordRepository.streamByBatchIdOrderBySequenceAsc(batchId)) {
+            records.map(TicketRecordDocument::ticket).forEach(dataset::add);
+        }
+        log.info("Loaded {} tickets of batch {} from MongoDB.", dataset.size(), batchId);
+        return dataset;
+    }
+
+    /**
+     * Removes what a failed {@link #saveBatch} wrote. The manifest is written last, so the batch was never visible.
+     */
+    private void ensureIndexes() {
+        if (indexesEnsured) {
+            return;
+        }
+        synchronized (this) {
+            if (indexesEnsured) {
+                return;
+            }
+            final IndexResolver resolver =
+                    new MongoPersistentEntityIndexResolver(mongoTemplate.getConverter().getMappingContext());
+            for (Class<?> type : INDEXED_DOCUMENTS) {
+                final IndexOperations indexOps = mongoTemplate.indexOps(type);
+                resolver.resolveIndexFor(type).forEach(indexOps::ensureIndex);
+            }
+            indexesEnsured = true;
+        }
+    }
+
+    private void deletePartialBatch(final String batchId, final RuntimeException failure) {
+        try {
+            aggregateRepository.deleteByBatchId(batchId);
+            recordRepository.deleteByBatchId(batchId);
+            log.warn("Deleted the partially written batch {} after a failed save.", batchId);
+        } catch (RuntimeException cleanupFailure) {
+            log.error("Failed to delete the partially written batch {}.", batchId, cleanupFailure);
+            failure.addSuppressed(cleanupFailure);
+        }
+    }
+
+    private int insertUnordered(final List<TicketRecordDocument> chunk) {
+        return mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, TicketRecordDocument.class)
+                .insert(chunk)
+                .execute()
+                .getInsertedCount();
+    }
+}
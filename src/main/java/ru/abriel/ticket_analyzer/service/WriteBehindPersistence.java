@@ -0,0 +1,204 @@
+package ru.abriel.ticket_analyzer.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs persistence work behind the analysis, so results are printed as soon as the data is parsed.
+ * <p>
+ * Writes are executed one at a time, in submission order, on a single background thread, which
+ * keeps "newest batch" semantics identical to the synchronous path. The queue holds at most
+ * {@code app.storage.write-behind.queue-capacity} pending writes; further submissions block the
+ * caller until a slot frees up, which bounds the number of parsed batches held only for persistence.
+ * Each write is itself batched by {@link TicketStorageService}.
+ * <p>
+ * {@link #flush()} must be called before the process exits; it waits for all pending writes and
+ * reports the outcome. With {@code app.storage.write-behind.enabled=false} every write runs inline,
+ * as before, and its failure propagates to the caller.
+ */
+@Slf4j
+@Component
+public class WriteBehindPersistence {
+
+    /**
+     * Enables asynchronous persistence. Configured by {@code app.storage.write-behind.enabled}.
+     */
+    @Value("${app.storage.write-behind.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * The maximum number of writes waiting in the queue. Configured by {@code app.storage.write-behind.queue-capacity}.
+     */
+    @Value("${app.storage.write-behind.queue-capacity:4}")
+    private int queueCapacity;
+
+    /**
+     * How long {@link #flush()} waits for pending writes. Configured by {@code app.storage.write-behind.flush-timeout-seconds}.
+     */
+    @Value("${app.storage.write-behind.flush-timeout-seconds:300}")
+    private long flushTimeoutSeconds;
+
+    private ThreadPoolExecutor executor;
+    private final List<String> failures = new ArrayList<>();
+    private int succeeded;
+    /**
+     * Whether a write submitted since the previous deferred action failed. Reset by every deferred action.
+     */
+    private boolean writeFailedSinceLastAction;
+
+    /**
+     * Queues a write, or runs it inline if write-behind is disabled.
+     *
+     * @param description A short description used in the report, e.g. "save 1000 tickets".
+     * @param write       The write to execute.
+     */
+    public void submit(final String description, final Runnable write) {
+        if (!enabled) {
+            write.run();
+            return;
+        }
+        this.executor().execute(() -> this.runWrite(description, write));
+    }
+
+    /**
+     * Queues an action that depends on the data written so far, e.g. a cache keyed by the newest batch.
+     * The action runs after every previously submitted write. It depends on the writes submitted since
+     * the previous deferred action, and is skipped only if one of those failed; earlier failures are
+     * still reported by {@link #flush()} but no longer affect later actions.
+     *
+     * @param description A short description used in the log.
+     * @param action      The action to execute.
+     */
+    public void afterPendingWrites(final String description, final Runnable action) {
+        if (!enabled) {
+            action.run();
+            return;
+        }
+        this.executor().execute(() -> {
+            if (this.takeWriteFailure()) {
+                log.warn("[Persistence]: Skipping '{}' because an earlier write failed.", description);
+                return;
+            }
+            try {
+                action.run();
+            } catch (Exception e) {
+                log.warn("[Persistence]: '{}' failed: {}", description, e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Waits for all pending writes and reports the outcome. Later submissions start a new writer.
+     *
+     * @return The outcome of every write submitted since the previous flush.
+     */
+    public PersistenceReport flush() {
+        final ThreadPoolExecutor current;
+        synchronized (this) {
+            current = executor;
+            executor = null;
+        }
+        boolean timedOut = false;
+        if (current != null) {
+            current.shutdown();
+            try {
+                timedOut = !current.awaitTermination(flushTimeoutSeconds, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                timedOut = true;
+            }
+        }
+        final PersistenceReport report;
+        synchronized (this) {
+            report = new PersistenceReport(succeeded, List.copyOf(failures), timedOut);
+            succeeded = 0;
+            failures.clear();
+            writeFailedSinceLastAction = false;
+        }
+        if (report.timedOut()) {
+            log.error("[Persistence]: Pending writes did not finish within {} s. Data may not be persisted.", flushTimeoutSeconds);
+        } else if (!report.failures().isEmpty()) {
+            log.error("[Persistence]: {} of {} writes failed: {}", report.failures().size(),
+                    report.succeeded() + report.failures().size(), report.failures());
+        } else if (report.succeeded() > 0) {
+            log.info("[Persistence]: All {} writes completed successfully.", report.succeeded());
+        }
+        return report;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        this.flush();
+    }
+
+    private synchronized ThreadPoolExecutor executor() {
+        if (executor == null) {
+            executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    runnable -> new Thread(runnable, "write-behind"),
+                    WriteBehindPersistence::waitForSlot);
+        }
+        return executor;
+    }
+
+    private void runWrite(final String description, final Runnable write) {
+        try {
+            write.run();
+            synchronized (this) {
+                succeeded++;
+            }
+        } catch (Exception e) {
+            log.error("[Persistence]: Write '{}' failed.", description, e);
+            synchronized (this) {
+                failures.add(description + ": " + e.getMessage());
+                writeFailedSinceLastAction = true;
+            }
+        }
+    }
+
+    private synchronized boolean takeWriteFailure() {
+        final boolean failed = writeFailedSinceLastAction;
+        writeFailedSinceLastAction = false;
+        return failed;
+    }
+
+    /**
+     * Applies back-pressure: the submitting thread waits until the writer frees a queue slot.
+     */
+    private static void waitForSlot(final Runnable task, final ThreadPoolExecutor executor) {
+        if (executor.isShutdown()) {
+            throw new RejectedExecutionException("Write-behind executor is shut down.");
+        }
+        try {
+            executor.getQueue().put(task);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for a write-behind slot.", e);
+        }
+    }
+
+    /**
+     * The outcome of the writes submitted between two flushes.
+     *
+     * @param succeeded The number of writes that completed.
+     * @param failures  A description of every failed write.
+     * @param timedOut  Whether the flush gave up waiting for pending writes.
+     */
+    public record PersistenceReport(int succeeded, List<String> failures, boolean timedOut) {
+
+        /**
+         * @return {@code true} if every write completed.
+         */
+        public boolean isSuccessful() {
+            return failures.isEmpty() && !timedOut;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package ru.abriel.ticket_analyzer.service.aggregation;
+
+import ru.abriel.ticket_analyzer.domain.model.money.Price;
+import ru.abriel.ticket_analyzer.domain.model.money.PriceHistogram;
+import ru.abriel.ticket_analyzer.domain.model.ticket.RouteAggregates;
+import ru.abriel.ticket_analyzer.domain.model.ticket.RouteCarrierAggregate;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Computes route metrics from the per-(route, carrier) {@link RouteAggregates} maintained at ingest
+ * time, without visiting a single ticket. The cost is proportional to the number of carriers and
+ * distinct prices of the route.
+ * <p>
+ * The result is identical to the analysis of the route's tickets: the average and median are
+ * rounded like {@link PriceStatisticsAccumulator} does on its minor-unit path. Where that path
+ * would switch to {@link BigDecimal}, no result is returned, so the caller falls back
+ * to the tickets.
+ */
+public class AggregatedRouteAnalyzer {
+
+    private AggregatedRouteAnalyzer() {
+        throw new RuntimeException("Utility Class!");
+    }
+
+    /**
+     * @param aggregates  The aggregates of a dataset or stored batch.
+     * @param origin      The origin city name or IATA code.
+     * @param destination The destination city name or IATA code.
+     * @return The computed metrics; an empty result if no ticket matched the route. Absent if the
+     *         route's prices cannot be aggregated exactly in minor units.
+     */
+    public static Optional<RouteAnalysisResult> analyze(final RouteAggregates aggregates, final String origin,
+                                                        final String destination) {
+        return analyze(aggregates.findRoute(origin, destination));
+    }
+
+    /**
+     * @param routeAggregates The aggregates of one route, one per carrier and airport pair.
+     * @return The computed metrics, or empty if an aggregate is inexact or a sum overflows.
+     */
+    public static Optional<RouteAnalysisResult> analyze(final List<RouteCarrierAggregate> routeAggregates) {
+        final CarrierMinDurationAccumulator minDurations = new CarrierMinDurationAccumulator();
+        final PriceHistogram prices = new PriceHistogram();
+        long count = 0;
+        long priceSum = 0;
+        try {
+            for (RouteCarrierAggregate aggregate : routeAggregates) {
+                if (!aggregate.isExact()) {
+                    return Optional.empty();
+                }
+                minDurations.accept(aggregate.carrierName(), aggregate.minJourney());
+                prices.merge(aggregate.prices());
+                count += aggregate.count();
+                priceSum = Math.addExact(priceSum, aggregate.priceSumMinorUnits());
+            }
+            if (count == 0) {
+                return Optional.of(new RouteAnalysisResult(0, minDurations.result(), BigDecimal.ZERO));
+            }
+            final long average = PriceStatisticsAccumulator.divideHalfUp(priceSum, count);
+            final long median = count % 2 != 0
+                    ? prices.valueAt(count / 2)
+                    : PriceStatisticsAccumulator.divideHalfUp(
+                            Math.addExact(prices.valueAt(count / 2 - 1), prices.valueAt(count / 2)), 2);
+            final long difference = Math.abs(Math.subtractExact(average, median));
+            return Optional.of(new RouteAnalysisResult(count, minDurations.result(), Price.fromMinorUnits(difference)));
+        } catch (ArithmeticException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package ru.abriel.ticket_analyzer.service.aggregation;
+
+import ru.abriel.ticket_analyzer.domain.model.geography.GeoPoint;
+import ru.abriel.ticket_analyzer.shared.util.GeoCalculator;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Memoizes the estimated pure air time per origin/destination pair.
+ * <p>
+ * A data source usually has only a handful of distinct airport pairs per route, so each pair costs
+ * one great-circle evaluation however many tickets and analyses fly it. Instances are cached with
+ * the loaded data of a source and shared by concurrent analyses; see
+ * {@link ru.abriel.ticket_analyzer.domain.model.ticket.DataProviderService#getAirTimeEstimates}.
+ */
+public class AirTimeEstimates {
+
+    private final GeoCalculator geoCalculator;
+    private final Map<AirportPair, Optional<Duration>> estimates = new ConcurrentHashMap<>();
+
+    public AirTimeEstimates(final GeoCalculator geoCalculator) {
+        this.geoCalculator = geoCalculator;
+    }
+
+    /**
+     * @param origin      The location of the origin airport. May be null.
+     * @param destination The location of the destination airport. May be null.
+     * @return The estimated air time, or empty if either location is missing or has NaN coordinates.
+     */
+    public Optional<Duration> estimate(final GeoPoint origin, final GeoPoint destination) {
+        return estimates.computeIfAbsent(new AirportPair(origin, destination), pair ->
+                origin != null && origin.isValid() && destination != null && destination.isValid()
+                        ? Optional.of(geoCalculator.estimateFlightTime(origin, destination))
+                        : Optional.empty());
+    }
+
+    /**
+     * @return The number of distinct pairs evaluated so far.
+     */
+    public int evaluatedPairs() {
+        return estimates.size();
+    }
+
+    private record AirportPair(GeoPoint origin, GeoPoint destination) {}
+}
@@ -0,0 +1,41 @@
+package ru.abriel.ticket_analyzer.service.aggregation;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tracks, per carrier, the share of journey time spent in the air.
+ * <p>
+ * The ratio is the summed estimated air time divided by the summed journey time of the carrier's
+ * tickets; the rest of the journey is lost to stops and time on the ground. Tickets with an unknown
+ * air time or a non-positive journey time are left out. Carriers are reported in first-seen order.
+ */
+public class AirTimeRatioAccumulator {
+
+    private final Map<String, long[]> secondsByCarrier = new LinkedHashMap<>();
+
+    /**
+     * @param carrierName The carrier of the ticket.
+     * @param journey     The journey time of the ticket.
+     * @param airTime     The estimated air time of the ticket.
+     */
+    public void accept(final String carrierName, final Duration journey, final Duration airTime) {
+        if (journey.isNegative() || journey.isZero()) {
+            return;
+        }
+        final long[] seconds = secondsByCarrier.computeIfAbsent(carrierName, carrier -> new long[2]);
+        seconds[0] += airTime.getSeconds();
+        seconds[1] += journey.getSeconds();
+    }
+
+    /**
+     * @return A read-only map from carrier name to the ratio of air time to journey time.
+     */
+    public Map<String, Double> result() {
+        final Map<String, Double> ratios = new LinkedHashMap<>();
+        secondsByCarrier.forEach((carrier, seconds) -> ratios.put(carrier, (double) seconds[0] / seconds[1]));
+        return Collections.unmodifiableMap(ratios);
+    }
+}
@@ -0,0 +1,130 @@
+package ru.abriel.ticket_analyzer.service.aggregation;
+
+import ru.abriel.ticket_analyzer.domain.model.money.Price;
+import ru.abriel.ticket_analyzer.domain.model.ticket.Ticket;
+import ru.abriel.ticket_analyzer.shared.util.KllLongSketch;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The bounded-memory counterpart of {@link RouteAnalysisAccumulator} for tickets already selected
+ * for a route.
+ * <p>
+ * Instead of holding every price for an exact median, it keeps one {@link KllLongSketch} of prices
+ * and one of journey times per carrier. The route's median comes from merging the carriers' price
+ * sketches, so memory grows with the number of carriers, not tickets. Count, average and minimum
+ * durations stay exact. Prices are sketched in minor units, rounding any finer digits half up.
+ */
+public class ApproximateRouteAccumulator implements TicketAccumulator<ApproximateRouteAccumulator> {
+
+    private final int sketchK;
+    private final CarrierMinDurationAccumulator minDurations = new CarrierMinDurationAccumulator();
+    private final Map<String, CarrierSketches> carriers = new LinkedHashMap<>();
+    private long matched;
+    private long minorSum;
+
+    /**
+     * The part of the price sum that no longer fits into {@link #minorSum}.
+     */
+    private BigDecimal overflowSum = BigDecimal.ZERO;
+
+    /**
+     * @param sketchK The accuracy parameter of the sketches, see {@link KllLongSketch#KllLongSketch(int)}.
+     */
+    public ApproximateRouteAccumulator(final int sketchK) {
+        this.sketchK = sketchK;
+    }
+
+    @Override
+    public void accept(final Ticket ticket) {
+        this.accept(ticket.carrierName(), CarrierMinDurationAccumulator.journeyDuration(ticket),
+                ticket.price().amount().movePointRight(Price.MINOR_UNIT_SCALE).setScale(0, RoundingMode.HALF_UP).longValueExact());
+    }
+
+    /**
+     * Folds an already decomposed ticket into the metrics, e.g. a row of columnar tickets.
+     *
+     * @param carrierName      The carrier name.
+     * @param journey          The journey duration.
+     * @param priceMinorUnits  The price in minor units.
+     */
+    public void accept(final String carrierName, final Duration journey, final long priceMinorUnits) {
+        matched++;
+        minDurations.accept(carrierName, journey);
+        final CarrierSketches sketches = carriers.computeIfAbsent(carrierName, name -> new CarrierSketches(sketchK));
+        sketches.prices().add(priceMinorUnits);
+        sketches.journeySeconds().add(journey.getSeconds());
+        try {
+            minorSum = Math.addExact(minorSum, priceMinorUnits);
+        } catch (ArithmeticException e) {
+            overflowSum = overflowSum.add(BigDecimal.valueOf(minorSum));
+            minorSum = priceMinorUnits;
+        }
+    }
+
+    @Override
+    public ApproximateRouteAccumulator combine(final ApproximateRouteAccumulator other) {
+        matched += other.matched;
+        minDurations.combine(other.minDurations);
+        other.carriers.forEach((carrier, sketches) -> {
+            final CarrierSketches own = carriers.computeIfAbsent(carrier, name -> new CarrierSketches(sketchK));
+            own.prices().merge(sketches.prices());
+            own.journeySeconds().merge(sketches.journeySeconds());
+        });
+        overflowSum = overflowSum.add(other.overflowSum);
+        try {
+            minorSum = Math.addExact(minorSum, other.minorSum);
+        } catch (ArithmeticException e) {
+            overflowSum = overflowSum.add(BigDecimal.valueOf(minorSum));
+            minorSum = other.minorSum;
+        }
+        return this;
+    }
+
+    /**
+     * @return The metrics over all accepted tickets. The median and percentiles are estimates.
+     */
+    public ApproximateRouteResult result() {
+        if (matched == 0) {
+            return new ApproximateRouteResult(0, minDurations.result(), BigDecimal.ZERO, Map.of());
+        }
+        final KllLongSketch routePrices = new KllLongSketch(sketchK);
+        final Map<String, CarrierPercentiles> percentiles = new LinkedHashMap<>();
+        carriers.forEach((carrier, sketches) -> {
+            routePrices.merge(sketches.prices());
+            percentiles.put(carrier, sketches.percentiles());
+        });
+
+        final BigDecimal sum = overflowSum.add(BigDecimal.valueOf(minorSum)).movePointLeft(Price.MINOR_UNIT_SCALE);
+        final BigDecimal average = sum.divide(BigDecimal.valueOf(matched), Price.MINOR_UNIT_SCALE, RoundingMode.HALF_UP);
+        final BigDecimal median;
+        if (matched % 2 != 0) {
+            median = Price.fromMinorUnits(routePrices.valueAt(matched / 2));
+        } else {
+            median = Price.fromMinorUnits(routePrices.valueAt(matched / 2 - 1))
+                    .add(Price.fromMinorUnits(routePrices.valueAt(matched / 2)))
+                    .divide(BigDecimal.valueOf(2), Price.MINOR_UNIT_SCALE, RoundingMode.HALF_UP);
+        }
+        return new ApproximateRouteResult(matched, minDurations.result(), average.subtract(median).abs(), percentiles);
+    }
+
+    private record CarrierSketches(KllLongSketch prices, KllLongSketch journeySeconds) {
+
+        CarrierSketches(final int sketchK) {
+            this(new KllLongSketch(sketchK), new KllLongSketch(sketchK));
+        }
+
+        CarrierPercentiles percentiles() {
+            return new CarrierPercentiles(
+                    Price.fromMinorUnits(prices.quantile(0.5)),
+                    Price.fromMinorUnits(prices.quantile(0.9)),
+                    Price.fromMinorUnits(prices.quantile(0.99)),
+                    Duration.ofSeconds(journeySeconds.quantile(0.5)),
+                    Duration.ofSeconds(journeySeconds.quantile(0.9)),
+                    Duration.ofSeconds(journeySeconds.quantile(0.99)));
+        }
+    }
+}
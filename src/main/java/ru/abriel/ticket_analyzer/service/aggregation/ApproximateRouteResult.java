@@ -0,0 +1,29 @@
+package ru.abriel.ticket_analyzer.service.aggregation;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * The metrics of a single route computed with quantile sketches.
+ *
+ * @param ticketCount     The number of tickets that matched the route.
+ * @param minJourneyTimes The exact minimum journey duration per carrier name, sorted by carrier name.
+ * @param priceDifference The difference between the exact average and the estimated median price.
+ * @param percentiles     The estimated price and journey-time percentiles per carrier name, sorted by carrier name.
+ */
+public record ApproximateRouteResult(long ticketCount, Map<String, Duration> minJourneyTimes, BigDecimal priceDifference,
+                                     Map<String, CarrierPercentiles> percentiles) {
+
+    public ApproximateRouteResult {
+        minJourneyTimes = RouteAnalysisResult.sortedByCarrier(minJourneyTimes);
+        percentiles = RouteAnalysisResult.sortedByCarrier(percentiles);
+    }
+
+    /**
+     * @return {@code true} if no ticket matched the route.
+     */
+    public boolean isEmpty() {
+        return ticketCount == 0;
+    }
+}
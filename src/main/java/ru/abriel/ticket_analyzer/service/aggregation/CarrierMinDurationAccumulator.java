@@ -0,0 +1,61 @@
+package ru.abriel.ticket_analyzer.service.aggregation;
+
+import ru.abriel.ticket_analyzer.domain.model.ticket.Ticket;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tracks the minimum journey duration for every carrier.
+ * The journey runs from the departure of the first segment to the arrival of the last one.
+ */
+public class CarrierMinDurationAccumulator implements TicketAccumulator<CarrierMinDurationAccumulator> {
+
+    private final Map<String, Duration> minDurations = new HashMap<>();
+
+    @Override
+    public void accept(final Ticket ticket) {
+        this.accept(ticket.carrierName(), journeyDuration(ticket));
+    }
+
+    /**
+     * Folds an already computed journey duration into the aggregate.
+     *
+     * @param carrierName The carrier the duration belongs to.
+     * @param duration    The journey duration.
+     */
+    public void accept(final String carrierName, final Duration duration) {
+        minDurations.merge(carrierName, duration, CarrierMinDurationAccumulator::min);
+    }
+
+    @Override
+    public CarrierMinDurationAccumulator combine(final CarrierMinDurationAccumulator other) {
+        other.minDurations.forEach(this::accept);
+        return this;
+    }
+
+    /**
+     * @return A read-only view of the map from carrier name to the shortest journey seen for it.
+     */
+    public Map<String, Duration> result() {
+        return Collections.unmodifiableMap(minDurations);
+    }
+
+    /**
+     * Calculates the total journey time of a ticket, including any stops.
+     *
+     * @param ticket A ticket with at least one segment.
+     * @return The duration between the first departure and the last arrival.
+     */
+    public static Duration journeyDuration(final Ticket ticket) {
+        final ZonedDateTime departure = ticket.segments().get(0).departure();
+        final ZonedDateTime arrival = ticket.segments().get(ticket.segments().size() - 1).arrival();
+        return Duration.between(departure, arrival);
+    }
+
+    private static Duration min(final Duration a, final Duration b) {
+        return a.compareTo(b) <= 0 ? a : b;
+    }
+}
@@ -0,0 +1,17 @@
+package ru.abriel.ticket_analyzer.service.aggregation;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+/**
+ * Estimated price and journey-time percentiles of one carrier on a route.
+ *
+ * @param priceP50   The estimated median price.
+ * @param priceP90   The estimated 90th percentile price.
+ * @param priceP99   The estimated 99th percentile price.
+ * @param journeyP50 The estimated median journey duration.
+ * @param journeyP90 The estimated 90th percentile journey duration.
+ * @param journeyP99 The estimated 99th percentile journey duration.
+ */
+public record CarrierPercentiles(BigDecimal priceP50, BigDecimal priceP90, BigDecimal priceP99,
+                                 Duration journeyP50, Duration journeyP90, Duration journeyP99) {}
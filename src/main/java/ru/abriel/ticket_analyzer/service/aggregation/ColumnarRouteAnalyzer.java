@@ -0,0 +1,165 @@
+package ru.abriel.ticket_analyzer.service.aggregation;
+
+import ru.abriel.ticket_analyzer.domain.model.ticket.ColumnarTickets;
+import ru.abriel.ticket_analyzer.domain.model.ticket.RouteIndex;
+import java.time.Duration;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Computes route metrics directly on {@link ColumnarTickets}, without materializing any {@link
+ * ru.abriel.ticket_analyzer.domain.model.ticket.Ticket}.
+ * <p>
+ * The route is resolved once against the airport dictionary, so the row scan compares primitive
+ * ids only. Matching follows {@link ru.abriel.ticket_analyzer.domain.model.ticket.TicketDataset#findRoute}:
+ * city names first, IATA codes if no city matches. Carriers are reported in the order they are first
+ * met, which keeps the result identical to the object-based analysis.
+ */
+public class ColumnarRouteAnalyzer {
+
+    private ColumnarRouteAnalyzer() {
+        throw new RuntimeException("Utility Class!");
+    }
+
+    /**
+     * @param tickets     The columnar tickets.
+     * @param origin      The origin city name or IATA code.
+     * @param destination The destination city name or IATA code.
+     * @return The computed metrics. Empty if no row matched the route.
+     */
+    public static RouteAnalysisResult analyze(final ColumnarTickets tickets, final String origin, final String destination) {
+        return analyze(tickets, origin, destination, ParallelAggregator.sequential());
+    }
+
+    /**
+     * Computes the metrics like {@link #analyze(ColumnarTickets, String, String)}, scanning partitions
+     * of the rows in parallel. The result is identical to the sequential scan.
+     *
+     * @param tickets     The columnar tickets.
+     * @param origin      The origin city name or IATA code.
+     * @param destination The destination city name or IATA code.
+     * @param aggregator  The aggregator that partitions the rows.
+     * @return The computed metrics. Empty if no row matched the route.
+     */
+    public static RouteAnalysisResult analyze(final ColumnarTickets tickets, final String origin, final String destination,
+                                              final ParallelAggregator aggregator) {
+        final RouteAnalysisResult byCity = analyze(tickets,
+                matchingAirports(tickets, tickets::airportCity, origin),
+                matchingAirports(tickets, tickets::airportCity, destination), aggregator);
+        if (!byCity.isEmpty()) {
+            return byCity;
+        }
+        return analyze(tickets,
+                matchingAirports(tickets, tickets::airportCode, origin),
+                matchingAirports(tickets, tickets::airportCode, destination), aggregator);
+    }
+
+    /**
+     * Finds the rows of a route, matching like {@link #analyze(ColumnarTickets, String, String)}.
+     *
+     * @param tickets     The columnar tickets.
+     * @param origin      The origin city name or IATA code.
+     * @param destination The destination city name or IATA code.
+     * @return The matching rows in ascending order. Empty if none match.
+     */
+    public static int[] findRoute(final ColumnarTickets tickets, final String origin, final String destination) {
+        final int[] byCity = findRows(tickets,
+                matchingAirports(tickets, tickets::airportCity, origin),
+                matchingAirports(tickets, tickets::airportCity, destination));
+        if (byCity.length > 0) {
+            return byCity;
+        }
+        return findRows(tickets,
+                matchingAirports(tickets, tickets::airportCode, origin),
+                matchingAirports(tickets, tickets::airportCode, destination));
+    }
+
+    private static int[] findRows(final ColumnarTickets tickets, final boolean[] origins, final boolean[] destinations) {
+        final IntStream.Builder rows = IntStream.builder();
+        final int size = tickets.size();
+        for (int row = 0; row < size; row++) {
+            if (origins[tickets.originAirportId(row)] && destinations[tickets.destinationAirportId(row)]) {
+                rows.add(row);
+            }
+        }
+        return rows.build().toArray();
+    }
+
+    private static RouteAnalysisResult analyze(final ColumnarTickets tickets, final boolean[] origins, final boolean[] destinations,
+                                               final ParallelAggregator aggregator) {
+        final Partial partial = aggregator.aggregate(tickets.size(),
+                (from, to) -> new Partial(tickets.carrierCount()).scan(tickets, origins, destinations, from, to),
+                Partial::combine);
+
+        final CarrierMinDurationAccumulator minDurations = new CarrierMinDurationAccumulator();
+        for (int i = 0; i < partial.carriersSeen; i++) {
+            final int carrier = partial.firstSeenOrder[i];
+            minDurations.accept(tickets.carrierName(carrier), Duration.ofSeconds(partial.minSeconds[carrier]));
+        }
+        return new RouteAnalysisResult(partial.matched, minDurations.result(), partial.prices.priceDifference());
+    }
+
+    private static boolean[] matchingAirports(final ColumnarTickets tickets, final IntFunction<String> name, final String wanted) {
+        final String key = RouteIndex.normalize(wanted);
+        final boolean[] matches = new boolean[tickets.airportCount()];
+        for (int id = 0; id < matches.length; id++) {
+            matches[id] = key.equals(RouteIndex.normalize(name.apply(id)));
+        }
+        return matches;
+    }
+
+    /**
+     * The metrics of the matching rows of one range, indexed by carrier id.
+     */
+    private static final class Partial {
+
+        private final PriceStatisticsAccumulator prices = new PriceStatisticsAccumulator();
+        private final long[] minSeconds;
+        private final boolean[] seen;
+        private final int[] firstSeenOrder;
+        private int carriersSeen;
+        private long matched;
+
+        private Partial(final int carrierCount) {
+            this.minSeconds = new long[carrierCount];
+            this.seen = new boolean[carrierCount];
+            this.firstSeenOrder = new int[carrierCount];
+        }
+
+        private Partial scan(final ColumnarTickets tickets, final boolean[] origins, final boolean[] destinations,
+                             final int from, final int to) {
+            for (int row = from; row < to; row++) {
+                if (!origins[tickets.originAirportId(row)] || !destinations[tickets.destinationAirportId(row)]) {
+                    continue;
+                }
+                matched++;
+                this.acceptDuration(tickets.carrierId(row), tickets.arrivalEpochSecond(row) - tickets.departureEpochSecond(row));
+                prices.acceptMinorUnits(tickets.priceMinorUnits(row));
+            }
+            return this;
+        }
+
+        private void acceptDuration(final int carrier, final long seconds) {
+            if (!seen[carrier]) {
+                seen[carrier] = true;
+                firstSeenOrder[carriersSeen++] = carrier;
+                minSeconds[carrier] = seconds;
+            } else if (seconds < minSeconds[carrier]) {
+                minSeconds[carrier] = seconds;
+            }
+        }
+
+        /**
+         * Merges the partial of the following range, keeping the carriers in first-seen order.
+         */
+        private Partial combine(final Partial next) {
+            matched += next.matched;
+            for (int i = 0; i < next.carriersSeen; i++) {
+                final int carrier = next.firstSeenOrder[i];
+                this.acceptDuration(carrier, next.minSeconds[carrier]);
+            }
+            prices.combine(next.prices);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package ru.abriel.ticket_analyzer.service.aggregation;
+
+import ru.abriel.ticket_analyzer.domain.model.ticket.RouteIndex;
+import ru.abriel.ticket_analyzer.domain.model.ticket.Ticket;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groups tickets by city route and feeds every group into its own {@link RouteAnalysisAccumulator},
+ * so the metrics of any number of routes come out of a single pass over the tickets.
+ * <p>
+ * The accumulator either tracks a fixed list of requested routes, ignoring all others, or
+ * discovers every route present in the data.
+ */
+public class MultiRouteAccumulator implements TicketAccumulator<MultiRouteAccumulator> {
+
+    private final boolean discoverRoutes;
+    private final Map<RouteIndex.RouteKey, Group> groups = new LinkedHashMap<>();
+
+    /**
+     * Raw city name to normalized name. City names repeat on almost every ticket, so this avoids
+     * normalizing the same string millions of times.
+     */
+    private final Map<String, String> normalizedNames = new HashMap<>();
+
+    private MultiRouteAccumulator(final boolean discoverRoutes) {
+        this.discoverRoutes = discoverRoutes;
+    }
+
+    /**
+     * Creates an accumulator for a fixed list of routes. Duplicate routes are reported once.
+     *
+     * @param routes The routes to analyze, in the order they should be reported.
+     * @return The accumulator.
+     */
+    public static MultiRouteAccumulator forRoutes(final Collection<RouteQuery> routes) {
+        final MultiRouteAccumulator accumulator = new MultiRouteAccumulator(false);
+        routes.forEach(route -> accumulator.groups.putIfAbsent(route.key(), new Group(route)));
+        return accumulator;
+    }
+
+    /**
+     * Creates an accumulator that reports every route found in the data.
+     *
+     * @return The accumulator.
+     */
+    public static MultiRouteAccumulator allRoutes() {
+        return new MultiRouteAccumulator(true);
+    }
+
+    @Override
+    public void accept(final Ticket ticket) {
+        if (ticket.segments().isEmpty()) {
+            return;
+        }
+        final String originCity = ticket.segments().get(0).origin().city();
+        final String destinationCity = ticket.segments().get(ticket.segments().size() - 1).destination().city();
+        final RouteIndex.RouteKey key = new RouteIndex.RouteKey(this.normalized(originCity), this.normalized(destinationCity));
+        Group group = groups.get(key);
+        if (group == null) {
+            if (!discoverRoutes) {
+                return;
+            }
+            group = new Group(new RouteQuery(originCity, destinationCity));
+            groups.put(key, group);
+        }
+        group.accumulator.accept(ticket);
+    }
+
+    @Override
+    public MultiRouteAccumulator combine(final MultiRouteAccumulator other) {
+        other.groups.forEach((key, otherGroup) -> {
+            final Group group = groups.get(key);
+            if (group == null) {
+                groups.put(key, otherGroup);
+            } else {
+                group.accumulator.combine(otherGroup.accumulator);
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Builds the reports. Requested routes keep their order; discovered routes are sorted by
+     * origin and destination so the output is stable between runs.
+     *
+     * @return One report per route.
+     */
+    public List<RouteReport> results() {
+        final List<RouteReport> reports = new ArrayList<>(groups.size());
+        groups.values().forEach(group -> reports.add(new RouteReport(group.route, group.accumulator.result())));
+        if (discoverRoutes) {
+            reports.sort(Comparator.comparing((RouteReport report) -> report.route().origin())
+                    .thenComparing(report -> report.route().destination()));
+        }
+        return reports;
+    }
+
+    private String normalized(final String name) {
+        return normalizedNames.computeIfAbsent(name == null ? "" : name, RouteIndex::normalize);
+    }
+
+    private static final class Group {
+        private final RouteQuery route;
+        private final RouteAnalysisAccumulator accumulator = RouteAnalysisAccumulator.unfiltered();
+
+        private Group(final RouteQuery route) {
+            this.route = route;
+        }
+    }
+}
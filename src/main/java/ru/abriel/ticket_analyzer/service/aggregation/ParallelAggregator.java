@@ -0,0 +1,158 @@
+package ru.abriel.ticket_analyzer.service.aggregation;
+
+import ru.abriel.ticket_analyzer.domain.model.ticket.Ticket;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+
+/**
+ * Runs a single-pass aggregation over an indexed source, such as a ticket list or the rows of
+ * columnar tickets, on a dedicated fork-join pool.
+ * <p>
+ * The source is split into fixed partitions of {@code partitionSize} elements. Every partition
+ * folds its elements into its own partial aggregate, so no state is shared while scanning, and
+ * the partial of a right-hand range is always combined into that of its left-hand neighbour.
+ * Partition boundaries and the order of combination depend only on the size of the source, never
+ * on thread timing, so the result is deterministic; for accumulators whose {@code combine} is
+ * exact, such as {@link RouteAnalysisAccumulator}, it is identical to a sequential pass.
+ * <p>
+ * Sources of at most one partition, and all sources if the parallelism is one, are aggregated on
+ * the calling thread.
+ */
+public class ParallelAggregator implements AutoCloseable {
+
+    private final int parallelism;
+    private final int partitionSize;
+    private ForkJoinPool pool;
+
+    /**
+     * @param parallelism   The number of worker threads. Zero or a negative value means "one per available core".
+     * @param partitionSize The number of elements aggregated by one task.
+     */
+    public ParallelAggregator(final int parallelism, final int partitionSize) {
+        if (partitionSize < 1) {
+            throw new IllegalArgumentException("Partition size must be positive: " + partitionSize);
+        }
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.partitionSize = partitionSize;
+    }
+
+    /**
+     * Creates an aggregator that always runs on the calling thread.
+     *
+     * @return The sequential aggregator.
+     */
+    public static ParallelAggregator sequential() {
+        return new ParallelAggregator(1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return The number of worker threads.
+     */
+    public int parallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Folds every ticket of a list into an accumulator.
+     *
+     * @param tickets The tickets. The list must support fast random access and must not change meanwhile.
+     * @param factory Creates an empty accumulator for every partition.
+     * @param <A>     The accumulator type.
+     * @return The accumulator holding all tickets.
+     */
+    public <A extends TicketAccumulator<A>> A aggregate(final List<Ticket> tickets, final Supplier<A> factory) {
+        return this.aggregate(tickets.size(), (from, to) -> {
+            final A accumulator = factory.get();
+            for (int i = from; i < to; i++) {
+                accumulator.accept(tickets.get(i));
+            }
+            return accumulator;
+        }, A::combine);
+    }
+
+    /**
+     * Aggregates the index range {@code [0, size)}.
+     *
+     * @param size    The number of elements.
+     * @param leaf    Aggregates one partition {@code [from, to)} into a new partial.
+     * @param combine Merges the partial of the right-hand range into the one of the left-hand range.
+     * @param <P>     The type of the partial aggregates.
+     * @return The aggregate of the whole range.
+     */
+    public <P> P aggregate(final int size, final RangeAggregation<P> leaf, final BinaryOperator<P> combine) {
+        if (parallelism == 1 || size <= partitionSize) {
+            return leaf.aggregate(0, size);
+        }
+        return this.pool().invoke(new PartitionTask<>(0, size, leaf, combine, partitionSize));
+    }
+
+    @Override
+    public synchronized void close() {
+        if (pool != null) {
+            pool.shutdownNow();
+            pool = null;
+        }
+    }
+
+    private synchronized ForkJoinPool pool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(parallelism);
+        }
+        return pool;
+    }
+
+    /**
+     * Aggregates one partition of an indexed source.
+     *
+     * @param <P> The type of the partial aggregate.
+     */
+    @FunctionalInterface
+    public interface RangeAggregation<P> {
+
+        /**
+         * @param from The first index, inclusive.
+         * @param to   The last index, exclusive.
+         * @return The partial aggregate of the range.
+         */
+        P aggregate(int from, int to);
+    }
+
+    /**
+     * Splits its range at a partition boundary until a single partition is left.
+     */
+    private static final class PartitionTask<P> extends RecursiveTask<P> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+        private final RangeAggregation<P> leaf;
+        private final BinaryOperator<P> combine;
+        private final int partitionSize;
+
+        private PartitionTask(final int from, final int to, final RangeAggregation<P> leaf, final BinaryOperator<P> combine,
+                              final int partitionSize) {
+            this.from = from;
+            this.to = to;
+            this.leaf = leaf;
+            this.combine = combine;
+            this.partitionSize = partitionSize;
+        }
+
+        @Override
+        protected P compute() {
+            final int partitions = (int) (((long) to - from + partitionSize - 1) / partitionSize);
+            if (partitions <= 1) {
+                return leaf.aggregate(from, to);
+            }
+            final int middle = from + partitions / 2 * partitionSize;
+            final PartitionTask<P> right = new PartitionTask<>(middle, to, leaf, combine, partitionSize);
+            right.fork();
+            final P left = new PartitionTask<>(from, middle, leaf, combine, partitionSize).compute();
+            return combine.apply(left, right.join());
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package ru.abriel.ticket_analyzer.service.aggregation;
+
+import ru.abriel.ticket_analyzer.domain.model.money.Price;
+import ru.abriel.ticket_analyzer.domain.model.ticket.Ticket;
+import ru.abriel.ticket_analyzer.shared.util.LongSelection;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Collects the running price sum and count together with the state needed for the median,
+ * and derives the absolute difference between the average and the median price.
+ * <p>
+ * Prices are held as {@code long} minor units in a primitive array, the sum is exact long
+ * arithmetic and the median comes from a linear-time selection. {@link BigDecimal} is only
+ * created for the final result. If a price has more than two decimal places, or a sum would
+ * overflow, the accumulator switches permanently to an equivalent {@link BigDecimal} path.
+ */
+public class PriceStatisticsAccumulator implements TicketAccumulator<PriceStatisticsAccumulator> {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private long[] minorUnits = new long[INITIAL_CAPACITY];
+    private int size;
+    private long minorSum;
+
+    /**
+     * The exact fallback, {@code null} while every price fits the fixed-point fast path.
+     */
+    private List<BigDecimal> decimalPrices;
+    private BigDecimal decimalSum;
+
+    @Override
+    public void accept(final Ticket ticket) {
+        this.accept(ticket.price());
+    }
+
+    /**
+     * Folds a single price into the statistics.
+     *
+     * @param price The price to add. Cannot be null.
+     */
+    public void accept(final Price price) {
+        if (decimalPrices == null) {
+            try {
+                this.acceptMinorUnits(price.toMinorUnits());
+                return;
+            } catch (ArithmeticException e) {
+                this.switchToDecimal();
+            }
+        }
+        decimalPrices.add(price.amount());
+        decimalSum = decimalSum.add(price.amount());
+    }
+
+    /**
+     * Folds a price already expressed in minor units into the statistics.
+     *
+     * @param amountMinorUnits The price in minor units.
+     */
+    public void acceptMinorUnits(final long amountMinorUnits) {
+        if (decimalPrices != null) {
+            final BigDecimal amount = Price.fromMinorUnits(amountMinorUnits);
+            decimalPrices.add(amount);
+            decimalSum = decimalSum.add(amount);
+            return;
+        }
+        final long newSum;
+        try {
+            newSum = Math.addExact(minorSum, amountMinorUnits);
+        } catch (ArithmeticException e) {
+            this.switchToDecimal();
+            this.acceptMinorUnits(amountMinorUnits);
+            return;
+        }
+        if (size == minorUnits.length) {
+            minorUnits = Arrays.copyOf(minorUnits, size * 2);
+        }
+        minorUnits[size++] = amountMinorUnits;
+        minorSum = newSum;
+    }
+
+    @Override
+    public PriceStatisticsAccumulator combine(final PriceStatisticsAccumulator other) {
+        if (other.decimalPrices != null) {
+            this.switchToDecimal();
+            decimalPrices.addAll(other.decimalPrices);
+            decimalSum = decimalSum.add(other.decimalSum);
+            return this;
+        }
+        if (decimalPrices == null && size + other.size > minorUnits.length) {
+            minorUnits = Arrays.copyOf(minorUnits, Math.max(size + other.size, size * 2));
+        }
+        for (int i = 0; i < other.size; i++) {
+            this.acceptMinorUnits(other.minorUnits[i]);
+        }
+        return this;
+    }
+
+    /**
+     * @return The number of prices seen so far.
+     */
+    public long count() {
+        return decimalPrices != null ? decimalPrices.size() : size;
+    }
+
+    /**
+     * Calculates {@code |average - median|}. The average is rounded to two decimal places
+     * (HALF_UP), and so is the median of an even-sized sample.
+     *
+     * @return The absolute difference, or {@link BigDecimal#ZERO} if no prices were seen.
+     */
+    public BigDecimal priceDifference() {
+        if (this.count() == 0) return BigDecimal.ZERO;
+        if (decimalPrices == null) {
+            try {
+                return Price.fromMinorUnits(Math.abs(Math.subtractExact(this.averageMinorUnits(), this.medianMinorUnits())));
+            } catch (ArithmeticException e) {
+                this.switchToDecimal();
+            }
+        }
+        return this.decimalPriceDifference();
+    }
+
+    private long averageMinorUnits() {
+        return divideHalfUp(minorSum, size);
+    }
+
+    private long medianMinorUnits() {
+        final long[] work = Arrays.copyOf(minorUnits, size);
+        final int upper = size / 2;
+        final long upperMedian = LongSelection.select(work, size, upper);
+        if (size % 2 != 0) {
+            return upperMedian;
+        }
+        // After selection every element left of 'upper' is <= upperMedian, so its maximum is the lower median.
+        final long lowerMedian = LongSelection.max(work, 0, upper);
+        return divideHalfUp(Math.addExact(lowerMedian, upperMedian), 2);
+    }
+
+    /**
+     * Integer division rounding half away from zero, the same as {@link RoundingMode#HALF_UP}.
+     */
+    static long divideHalfUp(final long dividend, final long divisor) {
+        final long quotient = dividend / divisor;
+        final long remainder = Math.abs(dividend % divisor);
+        return remainder >= divisor - remainder ? quotient + Long.signum(dividend) : quotient;
+    }
+
+    private void switchToDecimal() {
+        if (decimalPrices != null) {
+            return;
+        }
+        decimalPrices = new ArrayList<>(Math.max(size, INITIAL_CAPACITY));
+        decimalSum = BigDecimal.ZERO;
+        for (int i = 0; i < size; i++) {
+            final BigDecimal amount = Price.fromMinorUnits(minorUnits[i]);
+            decimalPrices.add(amount);
+            decimalSum = decimalSum.add(amount);
+        }
+        minorUnits = new long[0];
+        size = 0;
+        minorSum = 0;
+    }
+
+    private BigDecimal decimalPriceDifference() {
+        final List<BigDecimal> sorted = new ArrayList<>(decimalPrices);
+        Collections.sort(sorted);
+        final int count = sorted.size();
+        final BigDecimal average = decimalSum.divide(new BigDecimal(count), 2, RoundingMode.HALF_UP);
+
+        final BigDecimal median;
+        if (count % 2 == 0) {
+            median = sorted.get(count / 2 - 1).add(sorted.get(count / 2)).divide(new BigDecimal(2), 2, RoundingMode.HALF_UP);
+        } else {
+            median = sorted.get(count / 2);
+        }
+
+        return average.subtract(median).abs();
+    }
+}
@@ -0,0 +1,100 @@
+package ru.abriel.ticket_analyzer.service.aggregation;
+
+import ru.abriel.ticket_analyzer.domain.model.ticket.Ticket;
+import java.util.function.Predicate;
+import java.util.stream.Collector;
+
+/**
+ * The composite accumulator behind a route analysis.
+ * <p>
+ * It filters tickets by route and forwards every match to the per-carrier duration and the price
+ * statistics accumulators, so the ticket source is touched exactly once and no intermediate list
+ * of matching tickets is built. This works the same for an in-memory list and for a streamed source.
+ * When the tickets were already selected, e.g. through a route index, use {@link #unfiltered()}.
+ */
+public class RouteAnalysisAccumulator implements TicketAccumulator<RouteAnalysisAccumulator> {
+
+    private final Predicate<Ticket> filter;
+    private final CarrierMinDurationAccumulator minDurations = new CarrierMinDurationAccumulator();
+    private final PriceStatisticsAccumulator priceStatistics = new PriceStatisticsAccumulator();
+    private long matched;
+
+    /**
+     * @param originCity      The origin city of the route, compared case-insensitively.
+     * @param destinationCity The destination city of the route, compared case-insensitively.
+     */
+    public RouteAnalysisAccumulator(final String originCity, final String destinationCity) {
+        this(ticket -> matchesRoute(ticket, originCity, destinationCity));
+    }
+
+    private RouteAnalysisAccumulator(final Predicate<Ticket> filter) {
+        this.filter = filter;
+    }
+
+    /**
+     * Creates an accumulator that aggregates every ticket it is given.
+     *
+     * @return An accumulator without a route filter.
+     */
+    public static RouteAnalysisAccumulator unfiltered() {
+        return new RouteAnalysisAccumulator(ticket -> true);
+    }
+
+    /**
+     * Creates a {@link Collector} so a ticket stream can be reduced directly into a result.
+     *
+     * @param originCity      The origin city of the route.
+     * @param destinationCity The destination city of the route.
+     * @return A collector producing the {@link RouteAnalysisResult}.
+     */
+    public static Collector<Ticket, RouteAnalysisAccumulator, RouteAnalysisResult> collector(
+            final String originCity, final String destinationCity) {
+        return Collector.of(
+                () -> new RouteAnalysisAccumulator(originCity, destinationCity),
+                RouteAnalysisAccumulator::accept,
+                RouteAnalysisAccumulator::combine,
+                RouteAnalysisAccumulator::result);
+    }
+
+    @Override
+    public void accept(final Ticket ticket) {
+        this.acceptIfMatches(ticket);
+    }
+
+    /**
+     * Folds the ticket into all metrics if it belongs to the route.
+     *
+     * @param ticket The ticket to check.
+     * @return {@code true} if the ticket matched the route and was aggregated.
+     */
+    public boolean acceptIfMatches(final Ticket ticket) {
+        if (!filter.test(ticket)) {
+            return false;
+        }
+        matched++;
+        minDurations.accept(ticket);
+        priceStatistics.accept(ticket);
+        return true;
+    }
+
+    @Override
+    public RouteAnalysisAccumulator combine(final RouteAnalysisAccumulator other) {
+        matched += other.matched;
+        minDurations.combine(other.minDurations);
+        priceStatistics.combine(other.priceStatistics);
+        return this;
+    }
+
+    /**
+     * @return The metrics computed over all accepted tickets.
+     */
+    public RouteAnalysisResult result() {
+        return new RouteAnalysisResult(matched, minDurations.result(), priceStatistics.priceDifference());
+    }
+
+    private static boolean matchesRoute(final Ticket ticket, final String originCity, final String destinationCity) {
+        return !ticket.segments().isEmpty() &&
+                originCity.equalsIgnoreCase(ticket.segments().get(0).origin().city()) &&
+                destinationCity.equalsIgnoreCase(ticket.segments().get(ticket.segments().size() - 1).destination().city());
+    }
+}
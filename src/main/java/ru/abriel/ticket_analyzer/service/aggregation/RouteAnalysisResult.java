@@ -0,0 +1,39 @@
+package ru.abriel.ticket_analyzer.service.aggregation;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The computed metrics for a single route.
+ *
+ * @param ticketCount     The number of tickets that matched the route.
+ * @param minJourneyTimes The minimum journey duration per carrier name, sorted by carrier name whichever
+ *                        path computed it, so the report lists carriers in the same order every time.
+ * @param priceDifference The absolute difference between the average and the median price.
+ */
+public record RouteAnalysisResult(long ticketCount, Map<String, Duration> minJourneyTimes, BigDecimal priceDifference) {
+
+    public RouteAnalysisResult {
+        minJourneyTimes = sortedByCarrier(minJourneyTimes);
+    }
+
+    /**
+     * Copies a per-carrier map into carrier name order; a missing name sorts first.
+     */
+    static <V> Map<String, V> sortedByCarrier(final Map<String, V> byCarrier) {
+        final Map<String, V> sorted = new TreeMap<>(Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+        sorted.putAll(byCarrier);
+        return Collections.unmodifiableMap(sorted);
+    }
+
+    /**
+     * @return {@code true} if no ticket matched the route.
+     */
+    public boolean isEmpty() {
+        return ticketCount == 0;
+    }
+}
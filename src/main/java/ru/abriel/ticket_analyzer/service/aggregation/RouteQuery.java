@@ -0,0 +1,19 @@
+package ru.abriel.ticket_analyzer.service.aggregation;
+
+import ru.abriel.ticket_analyzer.domain.model.ticket.RouteIndex;
+
+/**
+ * A route requested for analysis, as typed by the user.
+ *
+ * @param origin      The origin city name.
+ * @param destination The destination city name.
+ */
+public record RouteQuery(String origin, String destination) {
+
+    /**
+     * @return The normalized key used to group tickets of this route.
+     */
+    public RouteIndex.RouteKey key() {
+        return RouteIndex.RouteKey.of(origin, destination);
+    }
+}
@@ -0,0 +1,9 @@
+package ru.abriel.ticket_analyzer.service.aggregation;
+
+/**
+ * The analysis result of one route in a multi-route run.
+ *
+ * @param route  The route, with the names as they were requested or first seen in the data.
+ * @param result The computed metrics. Empty if no ticket matched the route.
+ */
+public record RouteReport(RouteQuery route, RouteAnalysisResult result) {}
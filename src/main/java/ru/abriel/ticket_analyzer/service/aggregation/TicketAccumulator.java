@@ -0,0 +1,30 @@
+package ru.abriel.ticket_analyzer.service.aggregation;
+
+import ru.abriel.ticket_analyzer.domain.model.ticket.Ticket;
+
+/**
+ * Contract for a mutable, single-pass aggregate over {@link Ticket} objects.
+ * <p>
+ * Accumulators are composable: a parent accumulator forwards every accepted ticket to its
+ * children, so one pass over the data updates all metrics at once. Two accumulators of the
+ * same type built over disjoint parts of the data can be merged with {@link #combine}.
+ *
+ * @param <A> The concrete accumulator type, used to keep {@link #combine} type-safe.
+ */
+public interface TicketAccumulator<A extends TicketAccumulator<A>> {
+
+    /**
+     * Folds a single ticket into this aggregate.
+     *
+     * @param ticket The ticket to add. Cannot be null.
+     */
+    void accept(Ticket ticket);
+
+    /**
+     * Merges the state of another accumulator into this one.
+     *
+     * @param other An accumulator built over a disjoint part of the data.
+     * @return This accumulator, for chaining.
+     */
+    A combine(A other);
+}
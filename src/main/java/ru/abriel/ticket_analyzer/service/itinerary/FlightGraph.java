@@ -0,0 +1,609 @@
+package ru.abriel.ticket_analyzer.service.itinerary;
+
+import ru.abriel.ticket_analyzer.domain.model.flight.AirportInfo;
+import ru.abriel.ticket_analyzer.domain.model.flight.FlightSegment;
+import ru.abriel.ticket_analyzer.domain.model.money.Price;
+import ru.abriel.ticket_analyzer.domain.model.ticket.RouteIndex;
+import ru.abriel.ticket_analyzer.domain.model.ticket.Ticket;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.IntFunction;
+
+/**
+ * An immutable, time-dependent flight graph for itinerary searches.
+ * <p>
+ * Every ticket is one edge from the origin of its first segment to the destination of its last
+ * segment: a ticket is priced and bought as a whole, so a connecting ticket cannot be boarded or
+ * left at an intermediate stop. Edges are kept in primitive arrays sorted by departure, and every
+ * airport has a compressed adjacency list of its outgoing edges, also sorted by departure, so the
+ * edges that can still be caught after an arrival are a suffix found by binary search.
+ * <p>
+ * Airports are nodes by IATA code and city, as in the data. A connection needs at least the
+ * minimum connection time between an arrival and the next departure at the same airport; the
+ * first departure of a journey only has to be at or after the requested time.
+ * <p>
+ * The graph is built once and can then be queried from many threads: every search keeps its
+ * state to itself.
+ */
+public final class FlightGraph {
+
+    private static final long UNREACHED = Long.MAX_VALUE;
+    private static final int NONE = -1;
+
+    private final Duration minConnection;
+    private final long minConnectionSeconds;
+    private final int edgeCount;
+    private final int[] origins;
+    private final int[] destinations;
+    private final long[] departures;
+    private final long[] arrivals;
+    private final long[] prices;
+    private final Ticket[] tickets;
+    private final String[] airportCodes;
+    private final String[] airportCities;
+
+    /**
+     * The outgoing edges of airport {@code a} are {@code outEdges[outStart[a] .. outStart[a + 1])}.
+     */
+    private final int[] outStart;
+    private final int[] outEdges;
+    private final long[] outDepartures;
+
+    private FlightGraph(final List<Ticket> routable, final long[] priceList, final List<String[]> airports,
+                        final int[] originList, final int[] destinationList, final Duration minConnection) {
+        this.minConnection = minConnection;
+        this.minConnectionSeconds = minConnection.getSeconds();
+        this.edgeCount = routable.size();
+        this.airportCodes = airports.stream().map(airport -> airport[0]).toArray(String[]::new);
+        this.airportCities = airports.stream().map(airport -> airport[1]).toArray(String[]::new);
+
+        final long[] unsortedDepartures = new long[edgeCount];
+        for (int i = 0; i < edgeCount; i++) {
+            unsortedDepartures[i] = routable.get(i).segments().get(0).departure().toEpochSecond();
+        }
+        final int[] order = sortedByDeparture(unsortedDepartures);
+
+        this.origins = new int[edgeCount];
+        this.destinations = new int[edgeCount];
+        this.departures = new long[edgeCount];
+        this.arrivals = new long[edgeCount];
+        this.prices = new long[edgeCount];
+        this.tickets = new Ticket[edgeCount];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            final int source = order[edge];
+            final List<FlightSegment> segments = routable.get(source).segments();
+            origins[edge] = originList[source];
+            destinations[edge] = destinationList[source];
+            departures[edge] = unsortedDepartures[source];
+            arrivals[edge] = segments.get(segments.size() - 1).arrival().toEpochSecond();
+            prices[edge] = priceList[source];
+            tickets[edge] = routable.get(source);
+        }
+
+        // Counting sort of the edges by origin; stable, so every list stays sorted by departure.
+        this.outStart = new int[airportCodes.length + 1];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            outStart[origins[edge] + 1]++;
+        }
+        for (int airport = 0; airport < airportCodes.length; airport++) {
+            outStart[airport + 1] += outStart[airport];
+        }
+        this.outEdges = new int[edgeCount];
+        this.outDepartures = new long[edgeCount];
+        final int[] fill = Arrays.copyOf(outStart, airportCodes.length);
+        for (int edge = 0; edge < edgeCount; edge++) {
+            final int slot = fill[origins[edge]]++;
+            outEdges[slot] = edge;
+            outDepartures[slot] = departures[edge];
+        }
+    }
+
+    /**
+     * Builds the graph of the given tickets. Tickets without segments, and tickets whose price has
+     * more than two decimal places, are left out.
+     *
+     * @param tickets       The tickets.
+     * @param minConnection The minimum time between an arrival and a connecting departure.
+     * @return The graph.
+     */
+    public static FlightGraph of(final Collection<Ticket> tickets, final Duration minConnection) {
+        final List<Ticket> routable = new ArrayList<>(tickets.size());
+        final long[] priceList = new long[tickets.size()];
+        final int[] originList = new int[tickets.size()];
+        final int[] destinationList = new int[tickets.size()];
+        final Map<List<String>, Integer> airportIds = new HashMap<>();
+        // The mapper shares one instance per airport, so most lookups stop at the identity map.
+        final Map<AirportInfo, Integer> knownInstances = new IdentityHashMap<>();
+        final List<String[]> airports = new ArrayList<>();
+        for (Ticket ticket : tickets) {
+            if (ticket.segments().isEmpty()) {
+                continue;
+            }
+            final long price;
+            try {
+                price = ticket.price().toMinorUnits();
+            } catch (ArithmeticException e) {
+                continue;
+            }
+            final FlightSegment first = ticket.segments().get(0);
+            final FlightSegment last = ticket.segments().get(ticket.segments().size() - 1);
+            final int edge = routable.size();
+            priceList[edge] = price;
+            originList[edge] = knownInstances.computeIfAbsent(first.origin(), airport -> airportId(airportIds, airports, airport));
+            destinationList[edge] = knownInstances.computeIfAbsent(last.destination(), airport -> airportId(airportIds, airports, airport));
+            routable.add(ticket);
+        }
+        return new FlightGraph(routable, priceList, airports, originList, destinationList, minConnection);
+    }
+
+    /**
+     * @return The number of edges, i.e. of routable tickets.
+     */
+    public int edgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * @return The number of airports.
+     */
+    public int airportCount() {
+        return airportCodes.length;
+    }
+
+    /**
+     * @return The minimum connection time the graph was built with.
+     */
+    public Duration minConnection() {
+        return minConnection;
+    }
+
+    /**
+     * Finds the best itinerary by the given criterion.
+     *
+     * @see #fastest(String, String, Instant)
+     * @see #cheapest(String, String, Instant)
+     */
+    public Optional<Itinerary> find(final ItineraryCriterion criterion, final String origin, final String destination,
+                                    final Instant departAfter) {
+        return switch (criterion) {
+            case FASTEST -> this.fastest(origin, destination, departAfter);
+            case CHEAPEST -> this.cheapest(origin, destination, departAfter);
+        };
+    }
+
+    /**
+     * Finds the itinerary with the shortest total journey time, from the first departure to the
+     * last arrival. Among equally short ones, the one arriving first is chosen.
+     * <p>
+     * This is a profile connection scan: the edges departing at or after {@code departAfter} are
+     * scanned once, latest first, and every airport keeps the Pareto set of (departure, earliest
+     * arrival at the destination) pairs. Edges and pairs lasting longer than the shortest journey
+     * found so far are skipped without a lookup, so once a short journey is known most of the scan
+     * is a pass over two primitive columns.
+     *
+     * @param origin      The origin city name or IATA code.
+     * @param destination The destination city name or IATA code.
+     * @param departAfter The earliest first departure, or {@code null} for no limit.
+     * @return The itinerary, or empty if the destination cannot be reached.
+     */
+    public Optional<Itinerary> fastest(final String origin, final String destination, final Instant departAfter) {
+        final Endpoints endpoints = this.endpoints(origin, destination);
+        if (endpoints == null) {
+            return Optional.empty();
+        }
+        final int firstEdge = lowerBound(departures, 0, edgeCount, epochSecond(departAfter));
+        final boolean[] isOrigin = endpoints.origins();
+        final boolean[] isDestination = endpoints.destinations();
+        final Profile[] profiles = new Profile[airportCodes.length];
+        final Entries entries = new Entries();
+        // The shortest journey from an origin found so far. A journey using an edge lasts at least
+        // as long as the edge and everything after it, so longer edges and entries cannot improve it.
+        long bound = Long.MAX_VALUE;
+
+        for (int edge = edgeCount - 1; edge >= firstEdge; edge--) {
+            final int from = origins[edge];
+            if (isDestination[from] || arrivals[edge] - departures[edge] > bound) {
+                continue;
+            }
+            final int to = destinations[edge];
+            long arrival = UNREACHED;
+            int next = NONE;
+            if (isDestination[to]) {
+                arrival = arrivals[edge];
+            } else if (profiles[to] != null) {
+                final int caught = profiles[to].lastCatchable(arrivals[edge] + minConnectionSeconds);
+                if (caught >= 0) {
+                    next = profiles[to].entries[caught];
+                    arrival = profiles[to].arrivals[caught];
+                }
+            }
+            if (arrival == UNREACHED || arrival - departures[edge] > bound) {
+                continue;
+            }
+            if (isOrigin[from]) {
+                bound = Math.min(bound, arrival - departures[edge]);
+            }
+            if (profiles[from] == null) {
+                profiles[from] = new Profile();
+            } else if (profiles[from].lastArrival() <= arrival) {
+                continue;
+            }
+            profiles[from].add(departures[edge], arrival, entries.add(edge, next));
+        }
+
+        Profile bestProfile = null;
+        int best = NONE;
+        for (int airport = 0; airport < airportCodes.length; airport++) {
+            final Profile profile = profiles[airport];
+            if (!endpoints.origins()[airport] || profile == null) {
+                continue;
+            }
+            for (int i = 0; i < profile.size; i++) {
+                if (bestProfile == null || profile.isFaster(i, bestProfile, best)) {
+                    bestProfile = profile;
+                    best = i;
+                }
+            }
+        }
+        if (bestProfile == null) {
+            return Optional.empty();
+        }
+        final List<Integer> path = new ArrayList<>();
+        for (int entry = bestProfile.entries[best]; entry != NONE; entry = entries.next[entry]) {
+            path.add(entries.edges[entry]);
+        }
+        return Optional.of(this.itinerary(path));
+    }
+
+    /**
+     * Finds the itinerary with the lowest total price. Among equally cheap ones, the one arriving
+     * first is chosen.
+     * <p>
+     * This is Dijkstra's algorithm over edges rather than airports, since the edges that can be
+     * caught depend on the arrival time. Labels are settled by price; when an airport is reached,
+     * only its edges that no cheaper label has already caught are added, so every edge enters the
+     * queue at most once and the search stops at the first settled edge reaching the destination.
+     *
+     * @param origin      The origin city name or IATA code.
+     * @param destination The destination city name or IATA code.
+     * @param departAfter The earliest first departure, or {@code null} for no limit.
+     * @return The itinerary, or empty if the destination cannot be reached.
+     */
+    public Optional<Itinerary> cheapest(final String origin, final String destination, final Instant departAfter) {
+        final Endpoints endpoints = this.endpoints(origin, destination);
+        if (endpoints == null) {
+            return Optional.empty();
+        }
+        final LabelQueue queue = new LabelQueue();
+        // The outgoing edges from coveredFrom[a] on have already been queued.
+        final int[] coveredFrom = Arrays.copyOfRange(outStart, 1, outStart.length);
+        final long start = epochSecond(departAfter);
+        for (int airport = 0; airport < airportCodes.length; airport++) {
+            if (endpoints.origins()[airport]) {
+                this.queueCatchable(queue, coveredFrom, airport, start, 0, NONE);
+            }
+        }
+        while (!queue.isEmpty()) {
+            final int label = queue.poll();
+            final int edge = queue.edge(label);
+            final int to = destinations[edge];
+            if (endpoints.destinations()[to]) {
+                final List<Integer> path = new ArrayList<>();
+                for (int l = label; l != NONE; l = queue.previous(l)) {
+                    path.add(queue.edge(l));
+                }
+                Collections.reverse(path);
+                return Optional.of(this.itinerary(path));
+            }
+            this.queueCatchable(queue, coveredFrom, to, arrivals[edge] + minConnectionSeconds, queue.cost(label), label);
+        }
+        return Optional.empty();
+    }
+
+    private void queueCatchable(final LabelQueue queue, final int[] coveredFrom, final int airport, final long earliest,
+                                final long cost, final int previous) {
+        final int from = lowerBound(outDepartures, outStart[airport], coveredFrom[airport], earliest);
+        for (int slot = from; slot < coveredFrom[airport]; slot++) {
+            final int edge = outEdges[slot];
+            queue.add(edge, cost + prices[edge], arrivals[edge], previous);
+        }
+        coveredFrom[airport] = Math.min(coveredFrom[airport], from);
+    }
+
+    private Itinerary itinerary(final List<Integer> path) {
+        final List<Ticket> legs = new ArrayList<>(path.size());
+        long total = 0;
+        for (int edge : path) {
+            legs.add(tickets[edge]);
+            total += prices[edge];
+        }
+        return new Itinerary(List.copyOf(legs), Price.fromMinorUnits(total));
+    }
+
+    /**
+     * Resolves both ends like {@link ru.abriel.ticket_analyzer.domain.model.ticket.TicketDataset#findRoute}:
+     * by city name, or by IATA code if no airport is in a city of that name.
+     *
+     * @return The endpoints, or {@code null} if either end is unknown or both ends share an airport.
+     */
+    private Endpoints endpoints(final String origin, final String destination) {
+        final boolean[] originAirports = this.matchingAirports(origin);
+        final boolean[] destinationAirports = this.matchingAirports(destination);
+        if (originAirports == null || destinationAirports == null) {
+            return null;
+        }
+        for (int airport = 0; airport < airportCodes.length; airport++) {
+            if (originAirports[airport] && destinationAirports[airport]) {
+                return null;
+            }
+        }
+        return new Endpoints(originAirports, destinationAirports);
+    }
+
+    private boolean[] matchingAirports(final String name) {
+        final boolean[] byCity = this.matchingAirports(name, id -> airportCities[id]);
+        return byCity != null ? byCity : this.matchingAirports(name, id -> airportCodes[id]);
+    }
+
+    private boolean[] matchingAirports(final String name, final IntFunction<String> attribute) {
+        final String key = RouteIndex.normalize(name);
+        final boolean[] matches = new boolean[airportCodes.length];
+        boolean any = false;
+        for (int airport = 0; airport < matches.length; airport++) {
+            if (RouteIndex.normalize(attribute.apply(airport)).equals(key)) {
+                matches[airport] = true;
+                any = true;
+            }
+        }
+        return any ? matches : null;
+    }
+
+    private static int airportId(final Map<List<String>, Integer> ids, final List<String[]> airports, final AirportInfo airport) {
+        return ids.computeIfAbsent(Arrays.asList(airport.code(), airport.city()), key -> {
+            airports.add(new String[] {airport.code(), airport.city()});
+            return airports.size() - 1;
+        });
+    }
+
+    private static long epochSecond(final Instant instant) {
+        return instant == null ? Long.MIN_VALUE : instant.getEpochSecond() + (instant.getNano() > 0 ? 1 : 0);
+    }
+
+    /**
+     * @return The first index in {@code [from, to)} whose value is at least {@code key}, or {@code to}.
+     */
+    private static int lowerBound(final long[] sorted, final int from, final int to, final long key) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (sorted[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return The indices of the values in ascending order; equal values keep their input order.
+     */
+    private static int[] sortedByDeparture(final long[] values) {
+        final int size = values.length;
+        final long min = Arrays.stream(values).min().orElse(0);
+        final long max = Arrays.stream(values).max().orElse(0);
+        final int[] order = new int[size];
+        if (max - min >= 0 && max - min < Integer.MAX_VALUE) {
+            // Offset and index packed into one long, so a primitive sort does the work.
+            final long[] keys = new long[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = (values[i] - min) << 32 | i;
+            }
+            Arrays.parallelSort(keys);
+            for (int i = 0; i < size; i++) {
+                order[i] = (int) keys[i];
+            }
+            return order;
+        }
+        final Integer[] boxed = new Integer[size];
+        Arrays.setAll(boxed, i -> i);
+        Arrays.sort(boxed, (left, right) -> Long.compare(values[left], values[right]));
+        for (int i = 0; i < size; i++) {
+            order[i] = boxed[i];
+        }
+        return order;
+    }
+
+    private record Endpoints(boolean[] origins, boolean[] destinations) {}
+
+    /**
+     * The Pareto profile of one airport in a fastest search: pairs of a departure and the earliest
+     * arrival at the destination when departing then, added in decreasing order of both, with the
+     * search entry each pair came from.
+     */
+    private static final class Profile {
+
+        private long[] departures = new long[8];
+        private long[] arrivals = new long[8];
+        private int[] entries = new int[8];
+        private int size;
+
+        void add(final long departure, final long arrival, final int entry) {
+            if (size == departures.length) {
+                departures = Arrays.copyOf(departures, size * 2);
+                arrivals = Arrays.copyOf(arrivals, size * 2);
+                entries = Arrays.copyOf(entries, size * 2);
+            }
+            departures[size] = departure;
+            arrivals[size] = arrival;
+            entries[size++] = entry;
+        }
+
+        long lastArrival() {
+            return arrivals[size - 1];
+        }
+
+        /**
+         * Searches backwards from the end, where the pairs just added are: a connection usually
+         * arrives shortly after the departures scanned last, so the answer is near the end.
+         *
+         * @return The index of the pair that arrives first among those departing at or after
+         *         {@code earliest}, i.e. the last of them, or {@code -1} if there is none.
+         */
+        int lastCatchable(final long earliest) {
+            // Galloping: widen the window until its start departs at or after earliest.
+            int high = size;
+            int step = 1;
+            int low = size - 1;
+            while (low >= 0 && departures[low] < earliest) {
+                high = low;
+                low -= step;
+                step <<= 1;
+            }
+            if (low < 0) {
+                if (departures[0] < earliest) {
+                    return -1;
+                }
+                low = 0;
+            }
+            // Now departures[low] >= earliest and departures[high] < earliest (or high == size).
+            low++;
+            while (low < high) {
+                final int middle = (low + high) >>> 1;
+                if (departures[middle] >= earliest) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low - 1;
+        }
+
+        boolean isFaster(final int index, final Profile other, final int otherIndex) {
+            final long duration = arrivals[index] - departures[index];
+            final long otherDuration = other.arrivals[otherIndex] - other.departures[otherIndex];
+            return duration != otherDuration ? duration < otherDuration : arrivals[index] < other.arrivals[otherIndex];
+        }
+    }
+
+    /**
+     * The entries of a fastest search: the edge taken and the entry to continue with, or
+     * {@code NONE} if the edge reaches the destination.
+     */
+    private static final class Entries {
+
+        private int[] edges = new int[1024];
+        private int[] next = new int[1024];
+        private int size;
+
+        int add(final int edge, final int nextEntry) {
+            if (size == edges.length) {
+                edges = Arrays.copyOf(edges, size * 2);
+                next = Arrays.copyOf(next, size * 2);
+            }
+            edges[size] = edge;
+            next[size] = nextEntry;
+            return size++;
+        }
+    }
+
+    /**
+     * A binary min-heap of search labels ordered by cost, arrival and edge, with the labels kept
+     * in growable primitive arrays. A label is an edge caught at a total cost after a previous label.
+     */
+    private static final class LabelQueue {
+
+        private int[] labelEdges = new int[64];
+        private long[] labelCosts = new long[64];
+        private long[] labelArrivals = new long[64];
+        private int[] labelPrevious = new int[64];
+        private int labels;
+        private int[] heap = new int[64];
+        private int heapSize;
+
+        void add(final int edge, final long cost, final long arrival, final int previous) {
+            if (labels == labelEdges.length) {
+                final int capacity = labels * 2;
+                labelEdges = Arrays.copyOf(labelEdges, capacity);
+                labelCosts = Arrays.copyOf(labelCosts, capacity);
+                labelArrivals = Arrays.copyOf(labelArrivals, capacity);
+                labelPrevious = Arrays.copyOf(labelPrevious, capacity);
+            }
+            labelEdges[labels] = edge;
+            labelCosts[labels] = cost;
+            labelArrivals[labels] = arrival;
+            labelPrevious[labels] = previous;
+            if (heapSize == heap.length) {
+                heap = Arrays.copyOf(heap, heapSize * 2);
+            }
+            int child = heapSize++;
+            while (child > 0) {
+                final int parent = (child - 1) >>> 1;
+                if (!this.before(labels, heap[parent])) {
+                    break;
+                }
+                heap[child] = heap[parent];
+                child = parent;
+            }
+            heap[child] = labels++;
+        }
+
+        int poll() {
+            final int top = heap[0];
+            final int last = heap[--heapSize];
+            int parent = 0;
+            while (true) {
+                int child = 2 * parent + 1;
+                if (child >= heapSize) {
+                    break;
+                }
+                if (child + 1 < heapSize && this.before(heap[child + 1], heap[child])) {
+                    child++;
+                }
+                if (!this.before(heap[child], last)) {
+                    break;
+                }
+                heap[parent] = heap[child];
+                parent = child;
+            }
+            heap[parent] = last;
+            return top;
+        }
+
+        boolean isEmpty() {
+            return heapSize == 0;
+        }
+
+        int edge(final int label) {
+            return labelEdges[label];
+        }
+
+        long cost(final int label) {
+            return labelCosts[label];
+        }
+
+        int previous(final int label) {
+            return labelPrevious[label];
+        }
+
+        private boolean before(final int label, final int other) {
+            if (labelCosts[label] != labelCosts[other]) {
+                return labelCosts[label] < labelCosts[other];
+            }
+            if (labelArrivals[label] != labelArrivals[other]) {
+                return labelArrivals[label] < labelArrivals[other];
+            }
+            return labelEdges[label] < labelEdges[other];
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package ru.abriel.ticket_analyzer.service.itinerary;
+
+import ru.abriel.ticket_analyzer.domain.model.flight.FlightSegment;
+import ru.abriel.ticket_analyzer.domain.model.ticket.Ticket;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * A journey made of one or more tickets, each boarded at the airport where the previous one lands.
+ *
+ * @param tickets    The tickets in travel order.
+ * @param totalPrice The sum of the ticket prices.
+ */
+public record Itinerary(List<Ticket> tickets, BigDecimal totalPrice) {
+
+    /**
+     * @return All flight segments of the journey in travel order.
+     */
+    public List<FlightSegment> segments() {
+        return tickets.stream().flatMap(ticket -> ticket.segments().stream()).toList();
+    }
+
+    /**
+     * @return The first departure.
+     */
+    public ZonedDateTime departure() {
+        return tickets.get(0).segments().get(0).departure();
+    }
+
+    /**
+     * @return The last arrival.
+     */
+    public ZonedDateTime arrival() {
+        final List<FlightSegment> last = tickets.get(tickets.size() - 1).segments();
+        return last.get(last.size() - 1).arrival();
+    }
+
+    /**
+     * @return The time from the first departure to the last arrival.
+     */
+    public Duration duration() {
+        return Duration.between(this.departure(), this.arrival());
+    }
+}
@@ -0,0 +1,11 @@
+package ru.abriel.ticket_analyzer.service.itinerary;
+
+/**
+ * What an itinerary search optimizes.
+ */
+public enum ItineraryCriterion {
+    /** The shortest time from the first departure to the last arrival. */
+    FASTEST,
+    /** The lowest total price of all tickets. */
+    CHEAPEST
+}
@@ -0,0 +1,83 @@
+package ru.abriel.ticket_analyzer.service.itinerary;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.abriel.ticket_analyzer.domain.model.ticket.DataProviderService;
+import ru.abriel.ticket_analyzer.domain.model.ticket.TicketDataset;
+import ru.abriel.ticket_analyzer.presentation.ConsoleWriter;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Answers itinerary queries: the fastest or cheapest way between two cities, possibly over
+ * several tickets with connections in between.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ItineraryService {
+
+    private final DataProviderService dataProvider;
+
+    private final ConsoleWriter consoleWriter;
+
+    /**
+     * The minimum time between an arrival and a connecting departure at the same airport.
+     * Configured by {@code app.itinerary.min-connection-minutes}.
+     */
+    @Value("${app.itinerary.min-connection-minutes:60}")
+    private long minConnectionMinutes;
+
+    /**
+     * Finds the best itinerary between two cities and prints it.
+     *
+     * @param filePath    The optional user-provided data file.
+     * @param origin      The origin city name or IATA code.
+     * @param destination The destination city name or IATA code.
+     * @param criterion   What to optimize.
+     * @param departAfter The earliest first departure, or {@code null} for no limit.
+     */
+    public void findAndPrintItinerary(final Optional<Path> filePath, final String origin, final String destination,
+                                      final ItineraryCriterion criterion, final Instant departAfter) {
+        log.info("Itinerary search started: {} -> {} ({}).", origin, destination, criterion);
+
+        final TicketDataset dataset = dataProvider.getDataset(filePath);
+        if (dataset.isEmpty()) {
+            consoleWriter.printError("No data available for analysis. Terminating.");
+            return;
+        }
+        final FlightGraph graph = this.buildGraph(dataset);
+
+        final long started = System.nanoTime();
+        final Optional<Itinerary> itinerary = graph.find(criterion, origin, destination, departAfter);
+        log.info("Itinerary search finished in {} ms.", Duration.ofNanos(System.nanoTime() - started).toMillis());
+
+        if (itinerary.isEmpty()) {
+            consoleWriter.printError("No itinerary found for the specified route.");
+            return;
+        }
+        consoleWriter.printItinerary(itinerary.get());
+    }
+
+    /**
+     * Builds the flight graph of a dataset with the configured minimum connection time.
+     *
+     * @param dataset The loaded dataset.
+     * @return The graph, ready for any number of queries.
+     */
+    public FlightGraph buildGraph(final TicketDataset dataset) {
+        final long started = System.nanoTime();
+        final FlightGraph graph = FlightGraph.of(dataset.tickets(), Duration.ofMinutes(minConnectionMinutes));
+        log.info("Built flight graph of {} tickets between {} airports in {} ms.", graph.edgeCount(), graph.airportCount(),
+                Duration.ofNanos(System.nanoTime() - started).toMillis());
+        if (graph.edgeCount() < dataset.size()) {
+            log.warn("{} tickets without segments or with sub-kopeck prices are not part of the flight graph.",
+                    dataset.size() - graph.edgeCount());
+        }
+        return graph;
+    }
+}
@@ -0,0 +1,385 @@
+package ru.abriel.ticket_analyzer.service.snapshot;
+
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import ru.abriel.ticket_analyzer.domain.model.flight.FlightSegment;
+import ru.abriel.ticket_analyzer.domain.model.ticket.ColumnarTickets;
+import ru.abriel.ticket_analyzer.domain.model.ticket.Ticket;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The binary snapshot format: a compact, versioned, memory-mappable copy of a ticket dataset.
+ * <p>
+ * Layout, all numbers little-endian:
+ * <pre>
+ *   long   MAGIC
+ *   int    VERSION
+ *   int    header length in bytes
+ *   header: source fingerprint, row count, carrier dictionary, airport dictionary (code, city)
+ *   padding to an 8-byte boundary
+ *   long[rows] price in minor units
+ *   long[rows] first departure, epoch seconds
+ *   long[rows] last arrival, epoch seconds
+ *   int[rows]  carrier id
+ *   int[rows]  origin airport id
+ *   int[rows]  destination airport id
+ * </pre>
+ * The columns are mapped read-only on open and accessed in place, so opening a snapshot costs
+ * the header only, however many rows it holds. Readers reject files with another magic or
+ * version, which is how a format change invalidates old snapshots.
+ */
+public final class TicketSnapshotFile implements ColumnarTickets {
+
+    static final long MAGIC = 0x31504E5354454B54L; // "TKETSNP1" read as little-endian ASCII
+    static final int VERSION = 1;
+
+    private static final int PREAMBLE_BYTES = Long.BYTES + Integer.BYTES + Integer.BYTES;
+    private static final int WRITE_BUFFER_BYTES = 1 << 16;
+
+    private final String fingerprint;
+    private final int rows;
+    private final String[] carriers;
+    private final String[] airportCodes;
+    private final String[] airportCities;
+    private final LongBuffer prices;
+    private final LongBuffer departures;
+    private final LongBuffer arrivals;
+    private final IntBuffer carrierIds;
+    private final IntBuffer originIds;
+    private final IntBuffer destinationIds;
+
+    private TicketSnapshotFile(final String fingerprint, final String[] carriers, final String[] airportCodes,
+                               final String[] airportCities, final FileChannel channel, final long columnsOffset,
+                               final int rows) throws IOException {
+        this.fingerprint = fingerprint;
+        this.rows = rows;
+        this.carriers = carriers;
+        this.airportCodes = airportCodes;
+        this.airportCities = airportCities;
+        final long longColumnBytes = (long) rows * Long.BYTES;
+        final long intColumnBytes = (long) rows * Integer.BYTES;
+        final long intColumnsOffset = columnsOffset + 3 * longColumnBytes;
+        this.prices = mapLongs(channel, columnsOffset, rows);
+        this.departures = mapLongs(channel, columnsOffset + longColumnBytes, rows);
+        this.arrivals = mapLongs(channel, columnsOffset + 2 * longColumnBytes, rows);
+        this.carrierIds = mapInts(channel, intColumnsOffset, rows);
+        this.originIds = mapInts(channel, intColumnsOffset + intColumnBytes, rows);
+        this.destinationIds = mapInts(channel, intColumnsOffset + 2 * intColumnBytes, rows);
+    }
+
+    /**
+     * Writes a snapshot of the tickets. The file is written next to the target and moved into place,
+     * so readers never see a partially written snapshot.
+     *
+     * @param target      The snapshot file to create or replace.
+     * @param fingerprint The fingerprint of the source data, checked by readers before use.
+     * @param tickets     The tickets. Tickets without segments are not routable and are left out.
+     * @return {@code false} if the tickets cannot be represented exactly (a price with more than two
+     *         decimal places, or times with sub-second precision), in which case nothing is written.
+     * @throws IOException if the file cannot be written.
+     */
+    public static boolean write(final Path target, final String fingerprint, final Collection<Ticket> tickets) throws IOException {
+        final Map<String, Integer> carrierIds = new HashMap<>();
+        final Map<List<String>, Integer> airportIds = new HashMap<>();
+        final List<String> carriers = new ArrayList<>();
+        final List<List<String>> airports = new ArrayList<>();
+
+        final int capacity = tickets.size();
+        final long[] prices = new long[capacity];
+        final long[] departures = new long[capacity];
+        final long[] arrivals = new long[capacity];
+        final int[] carrierColumn = new int[capacity];
+        final int[] originColumn = new int[capacity];
+        final int[] destinationColumn = new int[capacity];
+        int rows = 0;
+
+        for (Ticket ticket : tickets) {
+            if (ticket.segments().isEmpty()) {
+                continue;
+            }
+            final FlightSegment first = ticket.segments().get(0);
+            final FlightSegment last = ticket.segments().get(ticket.segments().size() - 1);
+            if (first.departure().getNano() != 0 || last.arrival().getNano() != 0) {
+                return false;
+            }
+            try {
+                prices[rows] = ticket.price().toMinorUnits();
+            } catch (ArithmeticException e) {
+                return false;
+            }
+            departures[rows] = first.departure().toEpochSecond();
+            arrivals[rows] = last.arrival().toEpochSecond();
+            carrierColumn[rows] = carrierIds.computeIfAbsent(ticket.carrierName(), name -> {
+                carriers.add(name);
+                return carriers.size() - 1;
+            });
+            originColumn[rows] = dictionaryId(airportIds, airports, first.origin().code(), first.origin().city());
+            destinationColumn[rows] = dictionaryId(airportIds, airports, last.destination().code(), last.destination().city());
+            rows++;
+        }
+
+        final byte[] header = header(fingerprint, rows, carriers, airports);
+        Files.createDirectories(target.toAbsolutePath().getParent());
+        final Path temporary = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                final ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.putLong(MAGIC).putInt(VERSION).putInt(header.length);
+                final ColumnWriter writer = new ColumnWriter(channel, buffer);
+                writer.put(header);
+                writer.put(new byte[padding(PREAMBLE_BYTES + header.length)]);
+                writer.putLongs(prices, rows);
+                writer.putLongs(departures, rows);
+                writer.putLongs(arrivals, rows);
+                writer.putInts(carrierColumn, rows);
+                writer.putInts(originColumn, rows);
+                writer.putInts(destinationColumn, rows);
+                writer.flush();
+                channel.force(false);
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        return true;
+    }
+
+    /**
+     * Opens and maps a snapshot if it exists, has the current format and matches the fingerprint.
+     *
+     * @param path        The snapshot file.
+     * @param fingerprint The fingerprint of the current source data.
+     * @return The mapped snapshot, or empty if the file is missing, stale or of another format.
+     * @throws IOException if the file exists but cannot be read.
+     */
+    public static Optional<TicketSnapshotFile> open(final Path path, final String fingerprint) throws IOException {
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < PREAMBLE_BYTES) {
+                return Optional.empty();
+            }
+            final ByteBuffer preamble = channel.map(FileChannel.MapMode.READ_ONLY, 0, PREAMBLE_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            if (preamble.getLong() != MAGIC || preamble.getInt() != VERSION) {
+                return Optional.empty();
+            }
+            final int headerLength = preamble.getInt();
+            final DataInputStream header = new DataInputStream(new ByteBufferBackedInputStream(
+                    channel.map(FileChannel.MapMode.READ_ONLY, PREAMBLE_BYTES, headerLength)));
+            if (!fingerprint.equals(readString(header))) {
+                return Optional.empty();
+            }
+            final int rows = header.readInt();
+            final String[] carriers = new String[header.readInt()];
+            for (int i = 0; i < carriers.length; i++) {
+                carriers[i] = readString(header);
+            }
+            final int airportCount = header.readInt();
+            final String[] codes = new String[airportCount];
+            final String[] cities = new String[airportCount];
+            for (int i = 0; i < airportCount; i++) {
+                codes[i] = readString(header);
+                cities[i] = readString(header);
+            }
+            final long columnsOffset = PREAMBLE_BYTES + headerLength + padding(PREAMBLE_BYTES + headerLength);
+            if (channel.size() != columnsOffset + (long) rows * (3 * Long.BYTES + 3 * Integer.BYTES)) {
+                return Optional.empty();
+            }
+            // The mappings stay valid after the channel is closed.
+            return Optional.of(new TicketSnapshotFile(fingerprint, carriers, codes, cities, channel, columnsOffset, rows));
+        }
+    }
+
+    /**
+     * @return The fingerprint of the source data this snapshot was written from.
+     */
+    public String fingerprint() {
+        return fingerprint;
+    }
+
+    @Override
+    public int size() {
+        return rows;
+    }
+
+    @Override
+    public long priceMinorUnits(final int row) {
+        return prices.get(row);
+    }
+
+    @Override
+    public long departureEpochSecond(final int row) {
+        return departures.get(row);
+    }
+
+    @Override
+    public long arrivalEpochSecond(final int row) {
+        return arrivals.get(row);
+    }
+
+    @Override
+    public int carrierId(final int row) {
+        return carrierIds.get(row);
+    }
+
+    @Override
+    public int originAirportId(final int row) {
+        return originIds.get(row);
+    }
+
+    @Override
+    public int destinationAirportId(final int row) {
+        return destinationIds.get(row);
+    }
+
+    @Override
+    public int carrierCount() {
+        return carriers.length;
+    }
+
+    @Override
+    public String carrierName(final int carrierId) {
+        return carriers[carrierId];
+    }
+
+    @Override
+    public int airportCount() {
+        return airportCodes.length;
+    }
+
+    @Override
+    public String airportCode(final int airportId) {
+        return airportCodes[airportId];
+    }
+
+    @Override
+    public String airportCity(final int airportId) {
+        return airportCities[airportId];
+    }
+
+    private static int dictionaryId(final Map<List<String>, Integer> ids, final List<List<String>> entries,
+                                    final String code, final String city) {
+        return ids.computeIfAbsent(Arrays.asList(code, city), key -> {
+            entries.add(key);
+            return entries.size() - 1;
+        });
+    }
+
+    private static byte[] header(final String fingerprint, final int rows, final List<String> carriers,
+                                 final List<List<String>> airports) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        writeString(out, fingerprint);
+        out.writeInt(rows);
+        out.writeInt(carriers.size());
+        for (String carrier : carriers) {
+            writeString(out, carrier);
+        }
+        out.writeInt(airports.size());
+        for (List<String> airport : airports) {
+            writeString(out, airport.get(0));
+            writeString(out, airport.get(1));
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes a length-prefixed UTF-8 string. A length of -1 stands for null.
+     */
+    private static void writeString(final DataOutputStream out, final String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(final DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    private static int padding(final int position) {
+        return (Long.BYTES - position % Long.BYTES) % Long.BYTES;
+    }
+
+    private static LongBuffer mapLongs(final FileChannel channel, final long offset, final int count) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, (long) count * Long.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+    }
+
+    private static IntBuffer mapInts(final FileChannel channel, final long offset, final int count) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, (long) count * Integer.BYTES)
+                .order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+
+    /**
+     * Streams primitive columns to a channel through one reusable buffer.
+     */
+    private record ColumnWriter(FileChannel channel, ByteBuffer buffer) {
+
+        void put(final byte[] bytes) throws IOException {
+            int offset = 0;
+            while (offset < bytes.length) {
+                this.ensureRemaining(1);
+                final int length = Math.min(buffer.remaining(), bytes.length - offset);
+                buffer.put(bytes, offset, length);
+                offset += length;
+            }
+        }
+
+        void putLongs(final long[] values, final int count) throws IOException {
+            for (int i = 0; i < count; i++) {
+                this.ensureRemaining(Long.BYTES);
+                buffer.putLong(values[i]);
+            }
+        }
+
+        void putInts(final int[] values, final int count) throws IOException {
+            for (int i = 0; i < count; i++) {
+                this.ensureRemaining(Integer.BYTES);
+                buffer.putInt(values[i]);
+            }
+        }
+
+        void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        private void ensureRemaining(final int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                this.flush();
+            }
+        }
+    }
+}
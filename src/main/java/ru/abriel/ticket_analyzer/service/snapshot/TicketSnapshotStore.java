@@ -0,0 +1,137 @@
+package ru.abriel.ticket_analyzer.service.snapshot;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.abriel.ticket_analyzer.domain.model.ticket.ColumnarTickets;
+import ru.abriel.ticket_analyzer.domain.model.ticket.TicketDataset;
+import ru.abriel.ticket_analyzer.service.TicketStorageService;
+import ru.abriel.ticket_analyzer.shared.exception.DataSourceNotFoundException;
+import ru.abriel.ticket_analyzer.shared.util.ContentHasher;
+import ru.abriel.ticket_analyzer.shared.util.TicketSourceFiles;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * The local on-disk snapshot tier in front of MongoDB and the JSON sources.
+ * <p>
+ * Every data source gets one {@link TicketSnapshotFile} in {@code app.snapshot.dir}. A snapshot is
+ * only used while its fingerprint matches the current source:
+ * <ul>
+ *     <li>a user-provided file is identified by its path, size and modification time;</li>
+ *     <li>the "no file" pipeline is identified by the id of the newest batch in MongoDB, so any
+ *     new ingest invalidates it.</li>
+ * </ul>
+ * Snapshot failures never fail an analysis; they are logged and the regular pipeline is used.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TicketSnapshotStore {
+
+    private static final String LATEST_SNAPSHOT = "latest";
+    private static final String SNAPSHOT_EXTENSION = ".snap";
+
+    private final TicketStorageService ticketStorage;
+
+    /**
+     * Enables the snapshot tier. Configured by {@code app.snapshot.enabled}.
+     */
+    @Value("${app.snapshot.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * The directory holding the snapshot files. Configured by {@code app.snapshot.dir}.
+     */
+    @Value("${app.snapshot.dir:${java.io.tmpdir}/ticket-analyzer/snapshots}")
+    private Path directory;
+
+    /**
+     * Opens the snapshot of a source if it is still current.
+     *
+     * @param source The normalized path of a user-provided file, directory or glob, or empty for the "no file" pipeline.
+     * @return The mapped snapshot, or empty if there is none or the source changed since it was written.
+     */
+    public Optional<ColumnarTickets> find(final Optional<Path> source) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        try {
+            final Optional<String> fingerprint = this.fingerprint(source);
+            if (fingerprint.isEmpty()) {
+                return Optional.empty();
+            }
+            final Optional<TicketSnapshotFile> snapshot = TicketSnapshotFile.open(this.snapshotPath(source), fingerprint.get());
+            snapshot.ifPresent(file -> log.info("Strategy: Using binary snapshot ({} tickets).", file.size()));
+            return snapshot.map(ColumnarTickets.class::cast);
+        } catch (Exception e) {
+            log.warn("Failed to read snapshot, using the regular pipeline: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes the snapshot of a freshly loaded source. Must be called after the data was persisted,
+     * so the fingerprint of the "no file" pipeline refers to the batch just saved.
+     *
+     * @param source  The normalized path of a user-provided file, or empty for the "no file" pipeline.
+     * @param dataset The loaded dataset.
+     */
+    public void save(final Optional<Path> source, final TicketDataset dataset) {
+        if (!enabled || dataset.isEmpty()) {
+            return;
+        }
+        try {
+            final Optional<String> fingerprint = this.fingerprint(source);
+            if (fingerprint.isEmpty()) {
+                return;
+            }
+            final Path target = this.snapshotPath(source);
+            if (TicketSnapshotFile.open(target, fingerprint.get()).isPresent()) {
+                return;
+            }
+            if (TicketSnapshotFile.write(target, fingerprint.get(), dataset.tickets())) {
+                log.info("Wrote binary snapshot {} ({} bytes).", target, Files.size(target));
+            } else {
+                log.info("Dataset cannot be represented exactly in a snapshot. Skipping snapshot.");
+            }
+        } catch (Exception e) {
+            log.warn("Failed to write snapshot: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Identifies the current version of a source without reading its content.
+     *
+     * @param source The normalized path of a user-provided file, directory or glob, or empty for the "no file" pipeline.
+     * @return The fingerprint, or empty if MongoDB holds no batch or the file cannot be accessed.
+     */
+    public Optional<String> fingerprint(final Optional<Path> source) {
+        if (source.isEmpty()) {
+            return ticketStorage.latestBatchId().map(batchId -> "batch:" + batchId);
+        }
+        final Path path = source.get();
+        if (TicketSourceFiles.isMultiFile(path)) {
+            try {
+                return Optional.of("files:" + TicketSourceFiles.list(path).fingerprint());
+            } catch (DataSourceNotFoundException e) {
+                return Optional.empty();
+            }
+        }
+        try {
+            return Optional.of("file:" + path + '|' + Files.size(path) + '|' + Files.getLastModifiedTime(path).toMillis());
+        } catch (IOException e) {
+            return Optional.empty();
+        }
+    }
+
+    private Path snapshotPath(final Optional<Path> source) {
+        final String name = source
+                .map(path -> "file-" + ContentHasher.sha256(path.toString()).substring(0, 16))
+                .orElse(LATEST_SNAPSHOT);
+        return directory.resolve(name + SNAPSHOT_EXTENSION);
+    }
+}
@@ -0,0 +1,212 @@
+package ru.abriel.ticket_analyzer.shared.util;
+
+import ru.abriel.ticket_analyzer.domain.model.flight.AirportInfo;
+import ru.abriel.ticket_analyzer.domain.model.geography.GeoPoint;
+import ru.abriel.ticket_analyzer.domain.model.geography.Latitude;
+import ru.abriel.ticket_analyzer.domain.model.geography.Longitude;
+import ru.abriel.ticket_analyzer.shared.exception.TicketAnalyzerException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reference data about airports: city, time zone and coordinates by IATA code.
+ * <p>
+ * The airports are kept in an integer-indexed table. A three-letter code is mapped to its row
+ * through a dense {@code 26 * 26 * 26} index, so a lookup is a few arithmetic operations and one
+ * array access. Every row holds one shared {@link AirportInfo}, which the mapper hands out for every
+ * ticket of that airport instead of allocating a copy per ticket.
+ * <p>
+ * Airports missing from the table get {@link #UNKNOWN_ZONE} and NaN coordinates; their instances
+ * are shared as well. The default registry is loaded once from the {@value #RESOURCE} classpath
+ * resource, with the columns {@code code,city,timezone,latitude,longitude}.
+ */
+public final class AirportRegistry {
+
+    /**
+     * The classpath resource the default registry is loaded from.
+     */
+    public static final String RESOURCE = "airports.csv";
+
+    /**
+     * The zone assumed for airports missing from the registry.
+     */
+    public static final ZoneId UNKNOWN_ZONE = ZoneOffset.UTC;
+
+    private static final GeoPoint UNKNOWN_LOCATION = new GeoPoint(new Longitude(Double.NaN), new Latitude(Double.NaN));
+    private static final int LETTERS = 26;
+    private static final int NOT_FOUND = -1;
+
+    private final String[] codes;
+    private final String[] cities;
+    private final ZoneId[] zones;
+    private final AirportInfo[] airports;
+    private final int[] codeIndex = new int[LETTERS * LETTERS * LETTERS];
+    private final Map<AirportKey, AirportInfo> variants = new ConcurrentHashMap<>();
+
+    private AirportRegistry(final List<String[]> rows) {
+        final int size = rows.size();
+        this.codes = new String[size];
+        this.cities = new String[size];
+        this.zones = new ZoneId[size];
+        this.airports = new AirportInfo[size];
+        Arrays.fill(codeIndex, NOT_FOUND);
+        for (int id = 0; id < size; id++) {
+            final String[] row = rows.get(id);
+            final int slot = slot(row[0]);
+            if (slot == NOT_FOUND || codeIndex[slot] != NOT_FOUND) {
+                throw new TicketAnalyzerException("Invalid or duplicate airport code in registry: " + row[0]);
+            }
+            codeIndex[slot] = id;
+            codes[id] = row[0];
+            cities[id] = row[1];
+            zones[id] = ZoneId.of(row[2]);
+            airports[id] = new AirportInfo(codes[id], cities[id], zones[id], new GeoPoint(
+                    new Longitude(Double.parseDouble(row[4])), new Latitude(Double.parseDouble(row[3]))));
+        }
+    }
+
+    /**
+     * @return The registry loaded from {@value #RESOURCE}.
+     */
+    public static AirportRegistry defaultRegistry() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Reads a registry from CSV. Blank lines and lines starting with {@code #} are ignored.
+     *
+     * @param input The CSV content, in UTF-8.
+     * @return The registry.
+     * @throws TicketAnalyzerException if the content cannot be read or a row is invalid.
+     */
+    public static AirportRegistry load(final InputStream input) {
+        final List<String[]> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                final String[] row = line.split(",", -1);
+                if (row.length != 5) {
+                    throw new TicketAnalyzerException("Airport row must be 'code,city,timezone,latitude,longitude', but was: " + line);
+                }
+                for (int i = 0; i < row.length; i++) {
+                    row[i] = row[i].strip();
+                }
+                rows.add(row);
+            }
+            return new AirportRegistry(rows);
+        } catch (IOException e) {
+            throw new TicketAnalyzerException("Failed to read airport registry.", e);
+        } catch (RuntimeException e) {
+            if (e instanceof TicketAnalyzerException) {
+                throw e;
+            }
+            throw new TicketAnalyzerException("Invalid airport registry: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return The number of airports in the registry.
+     */
+    public int size() {
+        return codes.length;
+    }
+
+    /**
+     * @param code An IATA code.
+     * @return The row of the airport, or {@code -1} if it is not registered.
+     */
+    public int indexOf(final String code) {
+        final int slot = slot(code);
+        return slot == NOT_FOUND ? NOT_FOUND : codeIndex[slot];
+    }
+
+    /**
+     * @param code An IATA code.
+     * @return The shared instance of a registered airport.
+     */
+    public Optional<AirportInfo> find(final String code) {
+        final int id = this.indexOf(code);
+        return id == NOT_FOUND ? Optional.empty() : Optional.of(airports[id]);
+    }
+
+    /**
+     * @param code An IATA code.
+     * @return The zone of a registered airport, or {@link #UNKNOWN_ZONE}.
+     */
+    public ZoneId zoneOf(final String code) {
+        final int id = this.indexOf(code);
+        return id == NOT_FOUND ? UNKNOWN_ZONE : zones[id];
+    }
+
+    /**
+     * Returns the shared airport for a code and city as they appear in the data.
+     * <p>
+     * A registered airport whose city matches is returned as is. Otherwise the city
+     * of the data is kept, since routes are matched on it, together with the registered zone and
+     * coordinates, or {@link #UNKNOWN_ZONE} and NaN coordinates for an unknown code. Such variants
+     * are created once and then shared too.
+     *
+     * @param code The IATA code from the data.
+     * @param city The city name from the data.
+     * @return The airport.
+     */
+    public AirportInfo resolve(final String code, final String city) {
+        final int id = this.indexOf(code);
+        if (id != NOT_FOUND && cities[id].equals(city)) {
+            return airports[id];
+        }
+        return variants.computeIfAbsent(new AirportKey(code, city), key -> id == NOT_FOUND
+                ? new AirportInfo(code, city, UNKNOWN_ZONE, UNKNOWN_LOCATION)
+                : new AirportInfo(code, city, zones[id], airports[id].location()));
+    }
+
+    /**
+     * @return The index slot of an upper-case three-letter code, or {@code -1}.
+     */
+    private static int slot(final String code) {
+        if (code == null || code.length() != 3) {
+            return NOT_FOUND;
+        }
+        int slot = 0;
+        for (int i = 0; i < 3; i++) {
+            final int letter = code.charAt(i) - 'A';
+            if (letter < 0 || letter >= LETTERS) {
+                return NOT_FOUND;
+            }
+            slot = slot * LETTERS + letter;
+        }
+        return slot;
+    }
+
+    private record AirportKey(String code, String city) {}
+
+    private static final class DefaultHolder {
+
+        private static final AirportRegistry INSTANCE = loadDefault();
+
+        private static AirportRegistry loadDefault() {
+            try (InputStream input = AirportRegistry.class.getClassLoader().getResourceAsStream(RESOURCE)) {
+                if (input == null) {
+                    throw new TicketAnalyzerException("Airport registry resource not found: " + RESOURCE);
+                }
+                return load(input);
+            } catch (IOException e) {
+                throw new TicketAnalyzerException("Failed to read airport registry.", e);
+            }
+        }
+    }
+}
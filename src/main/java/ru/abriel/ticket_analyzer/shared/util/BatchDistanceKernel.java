@@ -0,0 +1,19 @@
+package ru.abriel.ticket_analyzer.shared.util;
+
+/**
+ * An optional accelerated implementation of the batch great-circle distance of {@link GeoCalculator}.
+ * <p>
+ * Implementations may cover only a leading part of the arrays; {@link GeoCalculator} computes the
+ * remaining pairs with its scalar formula.
+ */
+interface BatchDistanceKernel {
+
+    /**
+     * Computes the distances of a leading run of pairs. Coordinates are in degrees.
+     *
+     * @return The number of pairs computed, starting at index 0.
+     */
+    int distancesMeters(double[] originLatitudes, double[] originLongitudes,
+                        double[] destinationLatitudes, double[] destinationLongitudes,
+                        double[] distances, int count, double earthRadiusMeters);
+}
@@ -0,0 +1,60 @@
+package ru.abriel.ticket_analyzer.shared.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * A utility class for computing content fingerprints of source files.
+ */
+public class ContentHasher {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private ContentHasher() {
+        throw new RuntimeException("Utility Class!");
+    }
+
+    /**
+     * Computes the SHA-256 of a file, reading it in fixed-size blocks so memory use does not
+     * depend on the file size.
+     *
+     * @param path The file to hash.
+     * @return The hex-encoded digest.
+     * @throws IOException if the file cannot be read.
+     */
+    public static String sha256(final Path path) throws IOException {
+        final MessageDigest digest = newSha256();
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream stream = Files.newInputStream(path)) {
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Computes the SHA-256 of a string's UTF-8 bytes.
+     *
+     * @param text The text to hash.
+     * @return The hex-encoded digest.
+     */
+    public static String sha256(final String text) {
+        return HexFormat.of().formatHex(newSha256().digest(text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is required by every Java platform", e);
+        }
+    }
+}
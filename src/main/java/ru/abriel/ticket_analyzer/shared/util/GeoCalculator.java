@@ -17,6 +17,14 @@ public class GeoCalculator {
      */
     private static final double EARTH_RADIUS_METERS = 6372795.0;
 
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+    private static final String VECTOR_KERNEL_CLASS = "ru.abriel.ticket_analyzer.shared.util.VectorizedGeoKernel";
+
+    /**
+     * The Vector API kernel, or {@code null} if the module is not in the boot layer or the kernel was not built.
+     */
+    private static final BatchDistanceKernel VECTOR_KERNEL = loadVectorKernel();
+
     /**
      * The average cruise speed of a commercial aircraft in km/h.
      * This value can be configured in the application.yml file using the key {@code app.avg-cruise-speed-kmph}.
@@ -36,30 +44,105 @@ public class GeoCalculator {
      * @return An estimated flight {@link Duration}.
      */
     public Duration estimateFlightTime(final GeoPoint origin, final GeoPoint destination) {
-        final double distanceMeters = this.calculateDistanceMeters(origin, destination);
+        return Duration.ofMinutes(this.toFlightMinutes(this.calculateDistanceMeters(origin, destination)));
+    }
+
+    /**
+     * Estimates the pure flight time for whole arrays of coordinate pairs, e.g. one pair per ticket.
+     * <p>
+     * Equivalent to {@link #estimateFlightTime} per pair, without creating any object per pair.
+     * Coordinates are in degrees; a pair with a NaN coordinate gets {@code -1}.
+     *
+     * @param originLatitudes       The latitudes of the origins.
+     * @param originLongitudes      The longitudes of the origins.
+     * @param destinationLatitudes  The latitudes of the destinations.
+     * @param destinationLongitudes The longitudes of the destinations.
+     * @param minutes               Receives the estimated flight time in whole minutes.
+     * @param count                 The number of pairs, starting at index 0 of every array.
+     */
+    public void estimateFlightMinutes(final double[] originLatitudes, final double[] originLongitudes,
+                                      final double[] destinationLatitudes, final double[] destinationLongitudes,
+                                      final long[] minutes, final int count) {
+        final double[] distances = new double[count];
+        calculateDistancesMeters(originLatitudes, originLongitudes, destinationLatitudes, destinationLongitudes, distances, count);
+        for (int i = 0; i < count; i++) {
+            minutes[i] = Double.isNaN(distances[i]) ? -1 : this.toFlightMinutes(distances[i]);
+        }
+    }
+
+    /**
+     * Calculates great-circle distances for whole arrays of coordinate pairs.
+     * <p>
+     * Uses the JDK Vector API when the {@code jdk.incubator.vector} module is present at run time
+     * (start the JVM with {@code --add-modules jdk.incubator.vector}), otherwise a scalar loop with
+     * the same formula as {@link #estimateFlightTime}. The vectorized trigonometry may differ from
+     * {@link Math} in the last bit. Coordinates are in degrees; a pair with a NaN coordinate gets NaN.
+     *
+     * @param originLatitudes       The latitudes of the origins.
+     * @param originLongitudes      The longitudes of the origins.
+     * @param destinationLatitudes  The latitudes of the destinations.
+     * @param destinationLongitudes The longitudes of the destinations.
+     * @param distances             Receives the distances in meters.
+     * @param count                 The number of pairs, starting at index 0 of every array.
+     */
+    public static void calculateDistancesMeters(final double[] originLatitudes, final double[] originLongitudes,
+                                                final double[] destinationLatitudes, final double[] destinationLongitudes,
+                                                final double[] distances, final int count) {
+        final int done = VECTOR_KERNEL != null
+                ? VECTOR_KERNEL.distancesMeters(originLatitudes, originLongitudes,
+                        destinationLatitudes, destinationLongitudes, distances, count, EARTH_RADIUS_METERS)
+                : 0;
+        for (int i = done; i < count; i++) {
+            distances[i] = distanceMeters(Math.toRadians(originLatitudes[i]), Math.toRadians(originLongitudes[i]),
+                    Math.toRadians(destinationLatitudes[i]), Math.toRadians(destinationLongitudes[i]));
+        }
+    }
+
+    /**
+     * @return {@code true} if batch distances are computed by the Vector API kernel.
+     */
+    static boolean isVectorized() {
+        return VECTOR_KERNEL != null;
+    }
+
+    /**
+     * The kernel lives in its own source root and is only loaded, by name, once the module is known
+     * to be present, so neither this class nor a JVM without the module ever links against it.
+     */
+    private static BatchDistanceKernel loadVectorKernel() {
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            return null;
+        }
+        try {
+            return (BatchDistanceKernel) Class.forName(VECTOR_KERNEL_CLASS).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+
+    private long toFlightMinutes(final double distanceMeters) {
         final double distanceKm = distanceMeters / 1000.0;
         final double hours = distanceKm / averageCruiseSpeedKmph;
-        return Duration.ofMinutes((long) (hours * 60));
+        return (long) (hours * 60);
     }
 
     /**
      * Calculates the great-circle distance between two points on the Earth's surface
      * using the Haversine formula.
-     * <p>
-     * This is a private helper method that contains the core mathematical logic.
-     * All parameters are expected to be valid and non-null.
      *
      * @param origin The starting {@link GeoPoint}, containing longitude and latitude.
      * @param destination The ending {@link GeoPoint}, containing longitude and latitude.
      * @return The distance in meters as a double.
      */
     private double calculateDistanceMeters(final GeoPoint origin, final GeoPoint destination) {
-        // Convert all degree-based values to radians for trigonometric functions.
-        final double lat1Rad = origin.latitude().toRadians();
-        final double lon1Rad = origin.longitude().toRadians();
-        final double lat2Rad = destination.latitude().toRadians();
-        final double lon2Rad = destination.longitude().toRadians();
+        return distanceMeters(origin.latitude().toRadians(), origin.longitude().toRadians(),
+                destination.latitude().toRadians(), destination.longitude().toRadians());
+    }
 
+    /**
+     * The core formula, on coordinates already converted to radians.
+     */
+    private static double distanceMeters(final double lat1Rad, final double lon1Rad, final double lat2Rad, final double lon2Rad) {
         // Pre-calculate sines and cosines for performance and readability.
         final double cosLat1 = Math.cos(lat1Rad);
         final double cosLat2 = Math.cos(lat2Rad);
@@ -71,9 +154,10 @@ public class GeoCalculator {
         final double cosDeltaLon = Math.cos(deltaLon);
         final double sinDeltaLon = Math.sin(deltaLon);
 
-        // Apply the Haversine formula components.
-        final double y = Math.sqrt(Math.pow(cosLat2 * sinDeltaLon, 2)
-                + Math.pow(cosLat1 * sinLat2 - sinLat1 * cosLat2 * cosDeltaLon, 2));
+        // Apply the Haversine formula components. Squares are plain products; Math.pow is far slower.
+        final double a = cosLat2 * sinDeltaLon;
+        final double b = cosLat1 * sinLat2 - sinLat1 * cosLat2 * cosDeltaLon;
+        final double y = Math.sqrt(a * a + b * b);
         final double x = sinLat1 * sinLat2 + cosLat1 * cosLat2 * cosDeltaLon;
 
         // Calculate the angular distance in radians.
@@ -82,4 +166,4 @@ public class GeoCalculator {
         // Convert angular distance to meters using the Earth's radius.
         return angularDistance * EARTH_RADIUS_METERS;
     }
-}
\ No newline at end of file
+}
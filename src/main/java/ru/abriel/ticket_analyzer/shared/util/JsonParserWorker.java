@@ -1,23 +1,46 @@
 package ru.abriel.ticket_analyzer.shared.util;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import ru.abriel.ticket_analyzer.domain.model.ticket.Ticket;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import ru.abriel.ticket_analyzer.domain.model.ticket.TicketsWrapper;
-import ru.abriel.ticket_analyzer.dto.TicketsWrapperInputDto;
+import ru.abriel.ticket_analyzer.dto.TicketInputDto;
 import ru.abriel.ticket_analyzer.shared.exception.DataSourceNotFoundException;
 import ru.abriel.ticket_analyzer.shared.exception.JsonParsingException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Objects;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import java.util.zip.GZIPInputStream;
 
 /**
  * A utility component responsible for parsing JSON data streams into domain models.
  * This class encapsulates all logic related to the Jackson library and the
  * specific structure of the input JSON file.
+ * <p>
+ * Two layouts are understood and told apart by the first root object: a document whose root
+ * {@code tickets} field holds the array of tickets, and newline-delimited JSON (NDJSON) with one
+ * ticket object per line. Either may be gzip-compressed; compression is detected from the magic
+ * bytes and decoded while parsing, never to disk.
  */
 @Slf4j
 @Component
@@ -30,28 +53,329 @@ public class JsonParserWorker {
      */
     private final ObjectMapper objectMapper;
 
+    /**
+     * The name of the root field holding the array of tickets.
+     */
+    private static final String TICKETS_FIELD = "tickets";
+
+    /**
+     * The buffer size for reading and decompressing input streams.
+     */
+    private static final int BUFFER_BYTES = 64 * 1024;
+
     /**
      * Parses a JSON InputStream into a list of clean {@link Ticket} domain objects.
+     * <p>
+     * The list is filled through {@link #parseStreaming(InputStream, Consumer)}, so only the
+     * resulting domain objects are kept in memory, never the intermediate DTO tree.
      *
      * @param dataStream The InputStream containing the JSON data.
      * @return A list of {@link Ticket} objects.
      * @throws JsonParsingException if any parsing or mapping error occurs.
      */
     public List<Ticket> parse(InputStream dataStream) {
-        try {
-            TicketsWrapperInputDto wrapperDto = objectMapper.readValue(dataStream, TicketsWrapperInputDto.class);
-            if (wrapperDto == null || wrapperDto.tickets() == null) {
-                throw new JsonParsingException("Root 'tickets' array is missing or null.", null);
+        final List<Ticket> tickets = new ArrayList<>();
+        this.parseStreaming(dataStream, tickets::add);
+        return tickets;
+    }
+
+    /**
+     * Walks the root {@code tickets} array, or the lines of an NDJSON stream, token by token and
+     * hands every successfully mapped {@link Ticket} to the given consumer.
+     * <p>
+     * Only one {@link TicketInputDto} is materialized at a time, so peak memory does not grow
+     * with the size of the input. Records that cannot be mapped are skipped, exactly as in
+     * {@link #parse(InputStream)}.
+     *
+     * @param dataStream The InputStream containing the JSON data, optionally gzip-compressed.
+     *                   It is NOT closed by this method; only the parser and decompressor are released.
+     * @param consumer   The callback receiving each mapped ticket in input order.
+     * @return The number of tickets handed to the consumer.
+     * @throws JsonParsingException if the stream is malformed or the root array is missing.
+     */
+    public long parseStreaming(final InputStream dataStream, final Consumer<Ticket> consumer) {
+        try (TicketCursor cursor = this.openTickets(dataStream)) {
+            long count = 0;
+            Ticket ticket;
+            while ((ticket = cursor.next()) != null) {
+                consumer.accept(ticket);
+                count++;
+            }
+            log.debug("[JsonParser]: Streamed {} tickets.", count);
+            return count;
+        } catch (JsonParsingException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new JsonParsingException("Failed to parse JSON stream. Check for malformed data.", e);
+        }
+    }
+
+    /**
+     * Parses a bare JSON array of ticket objects (no {@code tickets} wrapper) and hands every
+     * mapped {@link Ticket} to the consumer. Used by {@link ParallelTicketFileParser} to process
+     * slices of the root array independently.
+     *
+     * @param arrayStream The InputStream whose root element is the array of tickets.
+     * @param consumer    The callback receiving each mapped ticket in input order.
+     * @return The number of tickets handed to the consumer.
+     * @throws JsonParsingException if the slice is malformed.
+     */
+    long parseTicketArray(final InputStream arrayStream, final Consumer<Ticket> consumer) {
+        try (JsonParser parser = objectMapper.getFactory().createParser(arrayStream)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParsingException("Ticket slice must be a JSON array.", null);
+            }
+            final ObjectReader dtoReader = objectMapper.readerFor(TicketInputDto.class);
+            long count = 0;
+            Ticket ticket;
+            while ((ticket = nextTicket(parser, dtoReader)) != null) {
+                consumer.accept(ticket);
+                count++;
+            }
+            return count;
+        } catch (JsonParsingException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new JsonParsingException("Failed to parse JSON stream. Check for malformed data.", e);
+        }
+    }
+
+    /**
+     * Parses a run of NDJSON lines and hands every mapped {@link Ticket} to the consumer. Used by
+     * {@link ParallelTicketFileParser} to process slices of an NDJSON file independently.
+     *
+     * @param linesStream The uncompressed InputStream of whole ticket lines.
+     * @param consumer    The callback receiving each mapped ticket in input order.
+     * @return The number of tickets handed to the consumer.
+     * @throws JsonParsingException if a line is malformed.
+     */
+    long parseTicketLines(final InputStream linesStream, final Consumer<Ticket> consumer) {
+        try (TicketCursor cursor = new TicketCursor(objectMapper.getFactory().createParser(linesStream), true, null, false)) {
+            long count = 0;
+            Ticket ticket;
+            while ((ticket = cursor.next()) != null) {
+                consumer.accept(ticket);
+                count++;
             }
+            return count;
+        } catch (JsonParsingException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new JsonParsingException("Failed to parse JSON stream. Check for malformed data.", e);
+        }
+    }
 
-            return wrapperDto.tickets().stream()
-                    .map(TicketMapper::fromDto)
-                    .filter(Objects::nonNull)
-                    .collect(Collectors.toList());
+    /**
+     * Locates the opening bracket of the root {@code tickets} array.
+     *
+     * @param dataStream The uncompressed InputStream containing the JSON data, positioned at its start.
+     * @return The byte offset of the {@code [} character relative to the start of the stream,
+     *         or {@code -1} if the stream is NDJSON.
+     * @throws JsonParsingException if the root array is missing or the header is malformed.
+     */
+    long locateTicketsArray(final InputStream dataStream) {
+        try (TicketCursor cursor = this.openTickets(dataStream)) {
+            return cursor.lines ? -1 : cursor.parser.currentTokenLocation().getByteOffset();
+        } catch (JsonParsingException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new JsonParsingException("Failed to parse JSON stream. Check for malformed data.", e);
+        }
+    }
 
+    /**
+     * Returns a lazy, sequential {@link Stream} of tickets read from the root {@code tickets} array
+     * or the lines of an NDJSON stream.
+     * <p>
+     * Nothing is read until a terminal operation pulls elements. The underlying Jackson parser is
+     * released when the returned stream is closed, so callers should use try-with-resources.
+     * The InputStream itself stays owned by the caller.
+     *
+     * @param dataStream The InputStream containing the JSON data, optionally gzip-compressed.
+     * @return A stream of mapped {@link Ticket} objects in input order.
+     * @throws JsonParsingException if the stream is malformed or the root array is missing.
+     */
+    public Stream<Ticket> streamTickets(final InputStream dataStream) {
+        final TicketCursor cursor;
+        try {
+            cursor = this.openTickets(dataStream);
+        } catch (JsonParsingException e) {
+            throw e;
         } catch (Exception e) {
             throw new JsonParsingException("Failed to parse JSON stream. Check for malformed data.", e);
         }
+        final Spliterator<Ticket> spliterator = new Spliterators.AbstractSpliterator<>(
+                Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+            private boolean exhausted;
+
+            @Override
+            public boolean tryAdvance(final Consumer<? super Ticket> action) {
+                if (exhausted) {
+                    return false;
+                }
+                try {
+                    final Ticket ticket = cursor.next();
+                    if (ticket == null) {
+                        exhausted = true;
+                        return false;
+                    }
+                    action.accept(ticket);
+                    return true;
+                } catch (IOException e) {
+                    throw new JsonParsingException("Failed to parse JSON stream. Check for malformed data.", e);
+                }
+            }
+        };
+        return StreamSupport.stream(spliterator, false).onClose(() -> {
+            try {
+                cursor.close();
+            } catch (IOException e) {
+                log.warn("[JsonParser]: Failed to release JSON parser: {}", e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Returns the stream itself, or a decompressing view of it if it starts with the gzip magic bytes.
+     *
+     * @param dataStream The raw InputStream, positioned at its start.
+     * @return A stream of the uncompressed content.
+     * @throws IOException if the header cannot be read.
+     */
+    public static InputStream decoded(final InputStream dataStream) throws IOException {
+        final InputStream buffered = dataStream.markSupported() ? dataStream : new BufferedInputStream(dataStream, BUFFER_BYTES);
+        buffered.mark(2);
+        final int magic = buffered.read() | buffered.read() << 8;
+        buffered.reset();
+        return magic == GZIPInputStream.GZIP_MAGIC ? new GZIPInputStream(buffered, BUFFER_BYTES) : buffered;
+    }
+
+    /**
+     * Wraps a caller-owned stream so that closing the wrapper leaves it open.
+     */
+    private static InputStream closeShielded(final InputStream dataStream) {
+        return new FilterInputStream(dataStream) {
+            @Override
+            public void close() {
+                // The stream belongs to the caller.
+            }
+        };
+    }
+
+    /**
+     * @param path A ticket file.
+     * @return {@code true} if the file starts with the gzip magic bytes.
+     * @throws IOException if the file cannot be read.
+     */
+    public static boolean isCompressed(final Path path) throws IOException {
+        try (InputStream stream = Files.newInputStream(path)) {
+            return (stream.read() | stream.read() << 8) == GZIPInputStream.GZIP_MAGIC;
+        }
+    }
+
+    /**
+     * Creates a parser and detects the layout from the first root object. The caller's stream is
+     * shielded from Jackson's {@code AUTO_CLOSE_SOURCE}, so closing the cursor releases the parser
+     * and any decompressor but leaves the stream itself open. If it has a
+     * {@code tickets} field, the parser is advanced to the opening bracket of that array; any other
+     * root fields are skipped without being materialized. Otherwise the input is NDJSON if the object
+     * has ticket fields, and is then mapped right away, or if another root value follows it. A single
+     * object without either, such as a misspelled wrapper, is rejected like a missing array.
+     */
+    private TicketCursor openTickets(final InputStream dataStream) throws IOException {
+        final JsonParser parser = objectMapper.getFactory().createParser(decoded(closeShielded(dataStream)));
+        try {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParsingException("Root element must be a JSON object.", null);
+            }
+            // Fields seen before 'tickets' are kept, in case the object turns out to be an NDJSON line.
+            final TokenBuffer firstLine = new TokenBuffer(parser);
+            final Set<String> ticketFields = this.ticketFields();
+            boolean ticketLine = false;
+            firstLine.writeStartObject();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String fieldName = parser.currentName();
+                ticketLine |= ticketFields.contains(fieldName);
+                final JsonToken value = parser.nextToken();
+                if (TICKETS_FIELD.equals(fieldName)) {
+                    if (value != JsonToken.START_ARRAY) {
+                        throw new JsonParsingException("Root 'tickets' array is missing or null.", null);
+                    }
+                    return new TicketCursor(parser, false, null, false);
+                }
+                firstLine.writeFieldName(fieldName);
+                firstLine.copyCurrentStructure(parser);
+            }
+            firstLine.writeEndObject();
+            if (!ticketLine) {
+                if (parser.nextToken() == null) {
+                    throw new JsonParsingException("Root 'tickets' array is missing or null.", null);
+                }
+                // The first line is no ticket; reading goes on at the root value just found.
+                return new TicketCursor(parser, true, null, true);
+            }
+            try (JsonParser lineParser = firstLine.asParser()) {
+                final TicketInputDto first = objectMapper.readerFor(TicketInputDto.class).readValue(lineParser);
+                return new TicketCursor(parser, true, TicketMapper.fromDto(first), false);
+            }
+        } catch (IOException | RuntimeException e) {
+            parser.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return The JSON names of the {@link TicketInputDto} properties.
+     */
+    private Set<String> ticketFields() {
+        return objectMapper.getDeserializationConfig()
+                .introspect(objectMapper.constructType(TicketInputDto.class))
+                .findProperties().stream()
+                .map(BeanPropertyDefinition::getName)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Reads root values of an NDJSON stream until one maps to a valid {@link Ticket}.
+     *
+     * @param atCurrentToken Whether to start at the parser's current token instead of the next one.
+     * @return The next mapped ticket, or {@code null} at the end of the stream.
+     */
+    private static Ticket nextLine(final JsonParser parser, final ObjectReader dtoReader, final boolean atCurrentToken)
+            throws IOException {
+        JsonToken token = atCurrentToken ? parser.currentToken() : parser.nextToken();
+        while (token != null) {
+            if (token == JsonToken.START_OBJECT) {
+                final Ticket ticket = TicketMapper.fromDto(dtoReader.readValue(parser));
+                if (ticket != null) {
+                    return ticket;
+                }
+            } else if (token != JsonToken.VALUE_NULL) {
+                throw new JsonParsingException("Unexpected token in NDJSON stream: " + token, null);
+            }
+            token = parser.nextToken();
+        }
+        return null;
+    }
+
+    /**
+     * Reads array elements until one maps to a valid {@link Ticket}.
+     *
+     * @return The next mapped ticket, or {@code null} once the array is exhausted.
+     */
+    private static Ticket nextTicket(final JsonParser parser, final ObjectReader dtoReader) throws IOException {
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == JsonToken.START_OBJECT) {
+                final Ticket ticket = TicketMapper.fromDto(dtoReader.readValue(parser));
+                if (ticket != null) {
+                    return ticket;
+                }
+            } else if (token != JsonToken.VALUE_NULL) {
+                throw new JsonParsingException("Unexpected token inside 'tickets' array: " + token, null);
+            }
+        }
+        return null;
     }
 
     /**
@@ -73,4 +397,53 @@ public class JsonParserWorker {
             throw new DataSourceNotFoundException("Could not find any ticket data source (File, MongoDB, or internal resource)");
         }
     }
+
+    /**
+     * Reads the tickets of either layout from a parser positioned by {@link #openTickets(InputStream)}.
+     */
+    private final class TicketCursor implements Closeable {
+
+        private final JsonParser parser;
+        private final boolean lines;
+        private final ObjectReader dtoReader = objectMapper.readerFor(TicketInputDto.class);
+
+        /**
+         * The already mapped first NDJSON line, handed out before reading on.
+         */
+        private Ticket pending;
+
+        /**
+         * Whether the parser already stands on the next NDJSON root value.
+         */
+        private boolean atRootValue;
+
+        private TicketCursor(final JsonParser parser, final boolean lines, final Ticket pending, final boolean atRootValue) {
+            this.parser = parser;
+            this.lines = lines;
+            this.pending = pending;
+            this.atRootValue = atRootValue;
+        }
+
+        /**
+         * @return The next mapped ticket, or {@code null} once the input is exhausted.
+         */
+        private Ticket next() throws IOException {
+            if (pending != null) {
+                final Ticket ticket = pending;
+                pending = null;
+                return ticket;
+            }
+            if (!lines) {
+                return nextTicket(parser, dtoReader);
+            }
+            final boolean atCurrentToken = atRootValue;
+            atRootValue = false;
+            return nextLine(parser, dtoReader, atCurrentToken);
+        }
+
+        @Override
+        public void close() throws IOException {
+            parser.close();
+        }
+    }
 }
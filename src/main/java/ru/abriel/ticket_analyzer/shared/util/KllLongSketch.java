@@ -0,0 +1,290 @@
+package ru.abriel.ticket_analyzer.shared.util;
+
+import java.util.Arrays;
+
+/**
+ * A KLL quantile sketch (Karnin, Lang, Liberty) over {@code long} values, e.g. prices in minor
+ * units or durations in seconds.
+ * <p>
+ * Values enter level 0. When the sketch is full, a level is sorted and every other item is promoted
+ * to the next level with twice the weight, so the sketch holds roughly {@code 3k} values however
+ * many were added. Sketches of disjoint parts of the data merge into a sketch of the whole with
+ * the same guarantees, so partial sketches can be built per carrier, batch or worker and combined.
+ * <p>
+ * The error of a quantile is bounded in rank: with {@code k = 200} the returned value's rank is
+ * within about 1.7% of {@link #count()} of the requested rank with 99% confidence; the error
+ * shrinks in proportion to {@code 1/k}. Until the first compaction, i.e. for up to {@code k}
+ * values, every value is kept and quantiles are exact. Compactions pick their offset from a fixed
+ * seeded generator, so the same input in the same order always yields the same sketch.
+ * <p>
+ * Not safe for concurrent modification.
+ */
+public final class KllLongSketch {
+
+    /**
+     * The default accuracy parameter, about 1.7% rank error.
+     */
+    public static final int DEFAULT_K = 200;
+
+    private static final int MIN_K = 8;
+    private static final double CAPACITY_DECAY = 2.0 / 3.0;
+
+    private final int k;
+    private long[][] levels = new long[1][];
+    private int[] sizes = new int[1];
+    private int retained;
+    private int maxRetained;
+    private long count;
+    private long min = Long.MAX_VALUE;
+    private long max = Long.MIN_VALUE;
+    private long seed = 0x9E3779B97F4A7C15L;
+
+    /**
+     * The retained values sorted with their weights, {@code null} after every change.
+     */
+    private long[] sortedValues;
+    private long[] cumulativeWeights;
+
+    /**
+     * Creates a sketch with the {@link #DEFAULT_K default} accuracy.
+     */
+    public KllLongSketch() {
+        this(DEFAULT_K);
+    }
+
+    /**
+     * @param k The accuracy parameter; larger values give smaller errors and use more memory.
+     * @throws IllegalArgumentException if {@code k} is below 8.
+     */
+    public KllLongSketch(final int k) {
+        if (k < MIN_K) {
+            throw new IllegalArgumentException("Sketch parameter k must be at least " + MIN_K + ": " + k);
+        }
+        this.k = k;
+        this.levels[0] = new long[this.capacity(0)];
+        this.maxRetained = this.capacity(0);
+    }
+
+    /**
+     * Adds a value.
+     *
+     * @param value The value.
+     */
+    public void add(final long value) {
+        this.append(0, value);
+        count++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+        sortedValues = null;
+        while (retained >= maxRetained) {
+            this.compress();
+        }
+    }
+
+    /**
+     * Adds all values of another sketch. The other sketch is not modified.
+     *
+     * @param other A sketch over a disjoint part of the data, ideally with the same {@code k}.
+     * @return This sketch.
+     */
+    public KllLongSketch merge(final KllLongSketch other) {
+        if (other.count == 0) {
+            return this;
+        }
+        while (levels.length < other.levels.length) {
+            this.addLevel();
+        }
+        for (int level = 0; level < other.levels.length; level++) {
+            for (int i = 0; i < other.sizes[level]; i++) {
+                this.append(level, other.levels[level][i]);
+            }
+        }
+        count += other.count;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        sortedValues = null;
+        while (retained >= maxRetained) {
+            this.compress();
+        }
+        return this;
+    }
+
+    /**
+     * @return The number of values added.
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * @return The number of values the sketch currently holds.
+     */
+    public int retained() {
+        return retained;
+    }
+
+    /**
+     * @return The exact smallest value added.
+     * @throws IllegalStateException if the sketch is empty.
+     */
+    public long min() {
+        this.requireValues();
+        return min;
+    }
+
+    /**
+     * @return The exact largest value added.
+     * @throws IllegalStateException if the sketch is empty.
+     */
+    public long max() {
+        this.requireValues();
+        return max;
+    }
+
+    /**
+     * Estimates the value at a rank of the sorted values.
+     *
+     * @param rank The zero-based rank, below {@link #count()}.
+     * @return The estimated value; exact while nothing was compacted.
+     * @throws IndexOutOfBoundsException if the rank is out of range.
+     */
+    public long valueAt(final long rank) {
+        if (rank < 0 || rank >= count) {
+            throw new IndexOutOfBoundsException("Rank " + rank + " of " + count + " values.");
+        }
+        if (rank == 0) {
+            return min;
+        }
+        if (rank == count - 1) {
+            return max;
+        }
+        this.sortRetained();
+        int low = 0;
+        int high = cumulativeWeights.length - 1;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (cumulativeWeights[middle] > rank) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return sortedValues[low];
+    }
+
+    /**
+     * Estimates a quantile as the value at rank {@code floor(fraction * (count - 1))}.
+     *
+     * @param fraction The quantile in {@code [0, 1]}, e.g. {@code 0.9} for the 90th percentile.
+     * @return The estimated value.
+     * @throws IllegalArgumentException if the fraction is outside {@code [0, 1]}.
+     * @throws IllegalStateException    if the sketch is empty.
+     */
+    public long quantile(final double fraction) {
+        if (!(fraction >= 0 && fraction <= 1)) {
+            throw new IllegalArgumentException("Quantile must be within [0, 1]: " + fraction);
+        }
+        this.requireValues();
+        return this.valueAt((long) Math.floor(fraction * (count - 1)));
+    }
+
+    private void requireValues() {
+        if (count == 0) {
+            throw new IllegalStateException("The sketch is empty.");
+        }
+    }
+
+    /**
+     * Compacts the lowest level that is at capacity, halving its items into the level above.
+     */
+    private void compress() {
+        for (int level = 0; level < levels.length; level++) {
+            if (sizes[level] < this.capacity(level)) {
+                continue;
+            }
+            if (level + 1 == levels.length) {
+                this.addLevel();
+            }
+            final long[] items = levels[level];
+            final int size = sizes[level];
+            Arrays.sort(items, 0, size);
+            // An odd item stays behind, so no weight is lost.
+            final int start = size % 2;
+            final int offset = (this.nextSeed() & 1) == 0 ? 0 : 1;
+            for (int i = start + offset; i < size; i += 2) {
+                this.append(level + 1, items[i]);
+            }
+            sizes[level] = start;
+            retained -= size - start;
+            return;
+        }
+    }
+
+    private void append(final int level, final long value) {
+        if (sizes[level] == levels[level].length) {
+            levels[level] = Arrays.copyOf(levels[level], Math.max(2, levels[level].length * 2));
+        }
+        levels[level][sizes[level]++] = value;
+        retained++;
+    }
+
+    private void addLevel() {
+        final int height = levels.length + 1;
+        levels = Arrays.copyOf(levels, height);
+        sizes = Arrays.copyOf(sizes, height);
+        levels[height - 1] = new long[0];
+        int total = 0;
+        for (int level = 0; level < height; level++) {
+            total += this.capacity(level);
+        }
+        maxRetained = total;
+    }
+
+    /**
+     * The capacity of a level: {@code k} at the top, decaying by 2/3 per level below it, at least 2.
+     */
+    private int capacity(final int level) {
+        final int depth = levels.length - level - 1;
+        return Math.max(2, (int) Math.ceil(k * Math.pow(CAPACITY_DECAY, depth)));
+    }
+
+    private void sortRetained() {
+        if (sortedValues != null) {
+            return;
+        }
+        final long[] values = new long[retained];
+        final long[] weights = new long[retained];
+        int size = 0;
+        for (int level = 0; level < levels.length; level++) {
+            final long[] items = Arrays.copyOf(levels[level], sizes[level]);
+            Arrays.sort(items);
+            // Merge the sorted level into the sorted prefix, back to front.
+            int i = size - 1;
+            int j = items.length - 1;
+            int target = size + items.length - 1;
+            final long weight = 1L << level;
+            while (j >= 0) {
+                if (i >= 0 && values[i] > items[j]) {
+                    values[target] = values[i];
+                    weights[target--] = weights[i--];
+                } else {
+                    values[target] = items[j--];
+                    weights[target--] = weight;
+                }
+            }
+            size += items.length;
+        }
+        for (int i = 1; i < size; i++) {
+            weights[i] += weights[i - 1];
+        }
+        cumulativeWeights = weights;
+        sortedValues = values;
+    }
+
+    private long nextSeed() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 7;
+        seed ^= seed << 17;
+        return seed;
+    }
+}
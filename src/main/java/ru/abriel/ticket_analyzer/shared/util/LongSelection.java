@@ -0,0 +1,100 @@
+package ru.abriel.ticket_analyzer.shared.util;
+
+import java.util.Arrays;
+
+/**
+ * A utility class with linear-time order statistics over primitive {@code long} arrays.
+ * <p>
+ * Selection is an introselect: a quickselect with median-of-three pivots that falls back to a
+ * full sort once the partitioning depth shows adversarial input, which bounds the worst case
+ * by {@code O(n log n)} while the expected cost stays {@code O(n)}.
+ */
+public class LongSelection {
+
+    private LongSelection() {
+        throw new RuntimeException("Utility Class!");
+    }
+
+    /**
+     * Finds the k-th smallest element of {@code values[0, size)}. The range is reordered in place
+     * so that every element before {@code k} is not greater, and every element after it is not
+     * smaller, than the returned value.
+     *
+     * @param values The array to select from. Its first {@code size} elements are reordered.
+     * @param size   The number of meaningful elements.
+     * @param k      The zero-based rank to find, {@code 0 <= k < size}.
+     * @return The k-th smallest value.
+     */
+    public static long select(final long[] values, final int size, final int k) {
+        if (k < 0 || k >= size) {
+            throw new IllegalArgumentException("Rank " + k + " is outside of [0, " + size + ")");
+        }
+        int left = 0;
+        int right = size - 1;
+        int depthLimit = 2 * (32 - Integer.numberOfLeadingZeros(size));
+        while (right > left) {
+            if (depthLimit-- == 0) {
+                Arrays.sort(values, left, right + 1);
+                return values[k];
+            }
+            final long pivot = values[medianOfThree(values, left, right)];
+            // Three-way partition: [left, lt) < pivot, [lt, gt] == pivot, (gt, right] > pivot.
+            // Keeping equal keys together makes runs of duplicate prices cost a single pass.
+            int lt = left;
+            int gt = right;
+            int i = left;
+            while (i <= gt) {
+                if (values[i] < pivot) {
+                    swap(values, lt++, i++);
+                } else if (values[i] > pivot) {
+                    swap(values, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+            if (k < lt) {
+                right = lt - 1;
+            } else if (k > gt) {
+                left = gt + 1;
+            } else {
+                return pivot;
+            }
+        }
+        return values[k];
+    }
+
+    /**
+     * Finds the largest element of {@code values[from, to)}.
+     *
+     * @param values The array to scan.
+     * @param from   The first index, inclusive.
+     * @param to     The last index, exclusive. Must be greater than {@code from}.
+     * @return The maximum value of the range.
+     */
+    public static long max(final long[] values, final int from, final int to) {
+        long max = values[from];
+        for (int i = from + 1; i < to; i++) {
+            if (values[i] > max) {
+                max = values[i];
+            }
+        }
+        return max;
+    }
+
+    private static int medianOfThree(final long[] values, final int left, final int right) {
+        final int middle = (left + right) >>> 1;
+        final long a = values[left];
+        final long b = values[middle];
+        final long c = values[right];
+        if (a < b) {
+            return b < c ? middle : (a < c ? right : left);
+        }
+        return a < c ? left : (b < c ? right : middle);
+    }
+
+    private static void swap(final long[] values, final int i, final int j) {
+        final long tmp = values[i];
+        values[i] = values[j];
+        values[j] = tmp;
+    }
+}
@@ -0,0 +1,282 @@
+package ru.abriel.ticket_analyzer.shared.util;
+
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.abriel.ticket_analyzer.domain.model.ticket.Ticket;
+import ru.abriel.ticket_analyzer.shared.exception.JsonParsingException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * A utility component that parses one large ticket file on several cores.
+ * <p>
+ * The file is memory-mapped and scanned once on the calling thread to find the boundaries of
+ * the objects inside the root {@code tickets} array. Every run of objects of roughly
+ * {@code app.ingest.parallel.chunk-size-bytes} is handed to a fork-join pool as soon as its
+ * boundary is known, so parsing overlaps with scanning. Each worker parses its slice as a bare
+ * JSON array through {@link JsonParserWorker}, which keeps the mapping rules identical to the
+ * sequential path.
+ * <p>
+ * NDJSON files are sliced the same way, with the ticket objects at the root of the file; each
+ * slice is a run of whole lines. Compressed files cannot be sliced and must be parsed sequentially.
+ * <p>
+ * The pool is created on first use and shared by all calls until the component is closed.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ParallelTicketFileParser implements AutoCloseable {
+
+    /**
+     * The size of a single mapping used by the boundary scanner. Mappings are limited to 2 GB
+     * by the JDK, so larger files are scanned window by window.
+     */
+    private static final long SCAN_WINDOW_BYTES = 256L * 1024 * 1024;
+
+    private static final byte[] ARRAY_OPEN = "[".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] ARRAY_CLOSE = "]".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL_LITERAL = "null".getBytes(StandardCharsets.US_ASCII);
+
+    private final JsonParserWorker jsonParser;
+
+    /**
+     * The target size of one slice of the {@code tickets} array handed to a worker.
+     * Configured by {@code app.ingest.parallel.chunk-size-bytes}.
+     */
+    @Value("${app.ingest.parallel.chunk-size-bytes:8388608}")
+    private int chunkSizeBytes;
+
+    /**
+     * The number of worker threads. Zero or a negative value means "one per available core".
+     * Configured by {@code app.ingest.parallel.parallelism}.
+     */
+    @Value("${app.ingest.parallel.parallelism:0}")
+    private int parallelism;
+
+    /**
+     * The size of one mapping of the boundary scanner, {@link #SCAN_WINDOW_BYTES} outside of tests.
+     */
+    private long scanWindowBytes = SCAN_WINDOW_BYTES;
+
+    private ForkJoinPool pool;
+
+    /**
+     * Parses the given JSON file into {@link Ticket} domain objects using all configured workers.
+     *
+     * @param path          The path to an uncompressed JSON file with a root {@code tickets} array, or an NDJSON file.
+     * @param preserveOrder If {@code true}, the result keeps the order of the input file.
+     *                      Otherwise slices are appended as soon as they finish, which avoids
+     *                      waiting on a slow slice at the head of the file.
+     * @return A list of {@link Ticket} objects.
+     * @throws JsonParsingException if the file cannot be read or any slice is malformed.
+     */
+    public List<Ticket> parse(final Path path, final boolean preserveOrder) {
+        final ForkJoinPool pool = this.pool();
+        final List<ForkJoinTask<List<Ticket>>> tasks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long arrayStart = this.locateTicketsArray(path);
+            final boolean lines = arrayStart < 0;
+            final List<List<Ticket>> completed = Collections.synchronizedList(new ArrayList<>());
+
+            this.scanSlices(channel, arrayStart, (start, end) ->
+                    tasks.add(pool.submit(() -> {
+                        final List<Ticket> slice = this.parseSlice(channel, start, end, lines);
+                        if (!preserveOrder) {
+                            completed.add(slice);
+                        }
+                        return slice;
+                    })));
+
+            final List<List<Ticket>> slices = new ArrayList<>(tasks.size());
+            for (ForkJoinTask<List<Ticket>> task : tasks) {
+                slices.add(task.get());
+            }
+            final List<List<Ticket>> ordered = preserveOrder ? slices : completed;
+            final List<Ticket> tickets = new ArrayList<>(ordered.stream().mapToInt(List::size).sum());
+            ordered.forEach(tickets::addAll);
+            log.info("[ParallelParser]: Parsed {} tickets from {} slices on {} workers.",
+                    tickets.size(), tasks.size(), pool.getParallelism());
+            return tickets;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof JsonParsingException parsingException) {
+                throw parsingException;
+            }
+            throw new JsonParsingException("Failed to parse ticket file in parallel: " + path, e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JsonParsingException("Parallel parsing was interrupted: " + path, e);
+        } catch (IOException e) {
+            throw new JsonParsingException("Failed to read ticket file: " + path, e);
+        } finally {
+            // The pool outlives this call, so slices still queued after a failure must not keep running.
+            tasks.forEach(task -> task.cancel(true));
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (pool != null) {
+            pool.shutdownNow();
+            pool = null;
+        }
+    }
+
+    private synchronized ForkJoinPool pool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        }
+        return pool;
+    }
+
+    private long locateTicketsArray(final Path path) throws IOException {
+        try (InputStream header = Files.newInputStream(path)) {
+            return jsonParser.locateTicketsArray(header);
+        }
+    }
+
+    /**
+     * Walks the array byte by byte, tracking string and nesting state, and reports every
+     * run of complete top-level objects that reached the configured slice size. An
+     * {@code arrayStart} of {@code -1} scans an NDJSON file, whose objects end with the file.
+     * Anything else at the top level except separators and {@code null} is rejected, because
+     * bytes between two slices are never seen by the slice parsers.
+     */
+    private void scanSlices(final FileChannel channel, final long arrayStart, final SliceSink sink) throws IOException {
+        final long fileSize = channel.size();
+        int depth = 0;
+        boolean inString = false;
+        boolean escaped = false;
+        long sliceStart = -1;
+        long lastObjectEnd = -1;
+        int nullMatched = 0;
+
+        for (long windowStart = arrayStart + 1; windowStart < fileSize; windowStart += scanWindowBytes) {
+            final int windowSize = (int) Math.min(scanWindowBytes, fileSize - windowStart);
+            final MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowSize);
+            for (int i = 0; i < windowSize; i++) {
+                final byte b = window.get(i);
+                if (inString) {
+                    if (escaped) {
+                        escaped = false;
+                    } else if (b == '\\') {
+                        escaped = true;
+                    } else if (b == '"') {
+                        inString = false;
+                    }
+                    continue;
+                }
+                if (nullMatched > 0) {
+                    // A top-level null is skipped by the sequential parser, so it is accepted here as well.
+                    if (b != NULL_LITERAL[nullMatched]) {
+                        throw this.unexpectedAtTopLevel(b, arrayStart);
+                    }
+                    nullMatched = (nullMatched + 1) % NULL_LITERAL.length;
+                    continue;
+                }
+                switch (b) {
+                    case '"' -> {
+                        if (depth == 0) {
+                            throw this.unexpectedAtTopLevel(b, arrayStart);
+                        }
+                        inString = true;
+                    }
+                    case '{', '[' -> {
+                        if (depth == 0 && sliceStart < 0) {
+                            sliceStart = windowStart + i;
+                        }
+                        depth++;
+                    }
+                    case '}', ']' -> {
+                        if (depth == 0) {
+                            if (arrayStart < 0) {
+                                throw new JsonParsingException("Unexpected '" + (char) b + "' between NDJSON lines.", null);
+                            }
+                            // The closing bracket of the tickets array itself.
+                            if (sliceStart >= 0) {
+                                sink.accept(sliceStart, lastObjectEnd);
+                            }
+                            return;
+                        }
+                        depth--;
+                        if (depth == 0) {
+                            lastObjectEnd = windowStart + i + 1;
+                            if (lastObjectEnd - sliceStart >= chunkSizeBytes) {
+                                sink.accept(sliceStart, lastObjectEnd);
+                                sliceStart = -1;
+                            }
+                        }
+                    }
+                    case ' ', '\t', '\r', '\n' -> {
+                        // Whitespace needs no tracking.
+                    }
+                    case ',' -> {
+                        if (depth == 0 && arrayStart < 0) {
+                            throw this.unexpectedAtTopLevel(b, arrayStart);
+                        }
+                    }
+                    default -> {
+                        // Scalars other than null are only valid inside a ticket, as on the sequential path.
+                        if (depth == 0) {
+                            if (b != NULL_LITERAL[0]) {
+                                throw this.unexpectedAtTopLevel(b, arrayStart);
+                            }
+                            nullMatched = 1;
+                        }
+                    }
+                }
+            }
+        }
+        if (arrayStart >= 0 || depth != 0 || inString || nullMatched > 0) {
+            throw new JsonParsingException("Unexpected end of file inside 'tickets' array.", null);
+        }
+        if (sliceStart >= 0) {
+            sink.accept(sliceStart, lastObjectEnd);
+        }
+    }
+
+    private JsonParsingException unexpectedAtTopLevel(final byte b, final long arrayStart) {
+        final String where = arrayStart < 0 ? "between NDJSON lines." : "at the top level of the 'tickets' array.";
+        return new JsonParsingException("Unexpected '" + (char) b + "' " + where, null);
+    }
+
+    private List<Ticket> parseSlice(final FileChannel channel, final long start, final long end, final boolean lines)
+            throws IOException {
+        final MappedByteBuffer slice = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        final List<Ticket> tickets = new ArrayList<>();
+        if (lines) {
+            jsonParser.parseTicketLines(new ByteBufferBackedInputStream(slice), tickets::add);
+            return tickets;
+        }
+        final InputStream arrayStream = new SequenceInputStream(Collections.enumeration(List.of(
+                new ByteArrayInputStream(ARRAY_OPEN),
+                new ByteBufferBackedInputStream(slice),
+                new ByteArrayInputStream(ARRAY_CLOSE))));
+        jsonParser.parseTicketArray(arrayStream, tickets::add);
+        return tickets;
+    }
+
+    /**
+     * Receives the byte range {@code [start, end)} of a run of complete array elements.
+     */
+    @FunctionalInterface
+    private interface SliceSink {
+        void accept(long start, long end);
+    }
+}
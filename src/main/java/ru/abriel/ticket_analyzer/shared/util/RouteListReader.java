@@ -0,0 +1,69 @@
+package ru.abriel.ticket_analyzer.shared.util;
+
+import ru.abriel.ticket_analyzer.service.aggregation.RouteQuery;
+import ru.abriel.ticket_analyzer.shared.exception.DataSourceNotFoundException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A utility class that reads the list of routes for a multi-route analysis.
+ * <p>
+ * The file is UTF-8 text with one route per line: the origin and destination city separated by
+ * {@code ;}, {@code ,} or a tab. Blank lines and lines starting with {@code #} are ignored.
+ */
+public class RouteListReader {
+
+    private RouteListReader() {
+        throw new RuntimeException("Utility Class!");
+    }
+
+    /**
+     * Reads all routes from the given file.
+     *
+     * @param path The routes file.
+     * @return The routes in file order.
+     * @throws DataSourceNotFoundException if the file cannot be read or a line is malformed.
+     */
+    public static List<RouteQuery> read(final Path path) {
+        final List<RouteQuery> routes = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                final String trimmed = (lineNumber == 1 ? line.replace("\uFEFF", "") : line).strip();
+                if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+                    continue;
+                }
+                final Optional<RouteQuery> route = parse(trimmed);
+                if (route.isEmpty()) {
+                    throw new DataSourceNotFoundException("Malformed route at " + path + ":" + lineNumber + ": " + line);
+                }
+                routes.add(route.get());
+            }
+        } catch (IOException e) {
+            throw new DataSourceNotFoundException("Failed to read routes file: " + path + " " + e.getMessage());
+        }
+        return routes;
+    }
+
+    /**
+     * Parses a single route in the same format as a line of the routes file.
+     *
+     * @param text The origin and destination separated by {@code ;}, {@code ,} or a tab.
+     * @return The route, or empty if the text is not exactly two non-blank names.
+     */
+    public static Optional<RouteQuery> parse(final String text) {
+        final String[] parts = text.split("[;,\\t]");
+        if (parts.length != 2 || parts[0].isBlank() || parts[1].isBlank()) {
+            return Optional.empty();
+        }
+        return Optional.of(new RouteQuery(parts[0].strip(), parts[1].strip()));
+    }
+}
@@ -0,0 +1,181 @@
+package ru.abriel.ticket_analyzer.shared.util;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Writes synthetic ticket files in the input schema ({@code TicketsWrapperInputDto}) for load and
+ * scaling tests.
+ * <p>
+ * Records are streamed to disk one by one, so the file size is limited only by the disk. The same
+ * settings always produce the same file. Departure and arrival are written on the local clocks of
+ * their airports, with the zones of {@link AirportRegistry}, so the mapped flight durations are
+ * exactly the generated ones. A configurable share of records is malformed in ways the
+ * application must tolerate record by record (unparseable or missing dates and times), so such
+ * files still parse as a whole.
+ */
+public class TicketDataGenerator {
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("dd.MM.yy");
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("H:mm");
+    private static final int MIN_FLIGHT_MINUTES = 5 * 60;
+    private static final int FLIGHT_MINUTES_RANGE = 10 * 60;
+    private static final int MINUTES_PER_STOP = 90;
+    private static final AirportRegistry AIRPORTS = AirportRegistry.defaultRegistry();
+
+    private final Settings settings;
+
+    public TicketDataGenerator(final Settings settings) {
+        if (settings.routes().isEmpty() || settings.carriers().isEmpty()) {
+            throw new IllegalArgumentException("At least one route and one carrier are required.");
+        }
+        this.settings = settings;
+    }
+
+    /**
+     * Writes the configured number of tickets to a file, replacing it if it exists.
+     *
+     * @param target The file to write.
+     * @return The number of malformed records written.
+     * @throws IOException if the file cannot be written.
+     */
+    public long write(final Path target) throws IOException {
+        final Random random = new Random(settings.seed());
+        long malformed = 0;
+        try (JsonGenerator generator = new JsonFactory().createGenerator(target.toFile(), JsonEncoding.UTF8)) {
+            generator.writeStartObject();
+            generator.writeArrayFieldStart("tickets");
+            for (long i = 0; i < settings.count(); i++) {
+                if (this.writeTicket(generator, random)) {
+                    malformed++;
+                }
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+        return malformed;
+    }
+
+    /**
+     * @return {@code true} if the record was written malformed.
+     */
+    private boolean writeTicket(final JsonGenerator generator, final Random random) throws IOException {
+        final Route route = settings.routes().get(random.nextInt(settings.routes().size()));
+        final int stops = random.nextInt(settings.maxStops() + 1);
+        final LocalDateTime departure = settings.firstDeparture().atStartOfDay()
+                .plusMinutes(random.nextInt(Math.max(1, settings.departureDays()) * 24 * 60));
+        final long flightMinutes = MIN_FLIGHT_MINUTES + random.nextInt(FLIGHT_MINUTES_RANGE) + (long) stops * MINUTES_PER_STOP;
+        // Local times, as in real data: the arrival is on the destination's clock.
+        final LocalDateTime arrival = departure.atZone(AIRPORTS.zoneOf(route.originCode()))
+                .plusMinutes(flightMinutes)
+                .withZoneSameInstant(AIRPORTS.zoneOf(route.destinationCode()))
+                .toLocalDateTime();
+
+        String departureDate = departure.format(DATE);
+        String departureTime = departure.format(TIME);
+        String arrivalDate = arrival.format(DATE);
+        String arrivalTime = arrival.format(TIME);
+        final boolean malformed = random.nextDouble() < settings.malformedRate();
+        if (malformed) {
+            switch (random.nextInt(4)) {
+                case 0 -> departureDate = "32.13.18";
+                case 1 -> departureTime = "25:61";
+                case 2 -> arrivalDate = null;
+                default -> arrivalTime = "";
+            }
+        }
+
+        generator.writeStartObject();
+        generator.writeStringField("origin", route.originCode());
+        generator.writeStringField("origin_name", route.originName());
+        generator.writeStringField("destination", route.destinationCode());
+        generator.writeStringField("destination_name", route.destinationName());
+        generator.writeStringField("departure_date", departureDate);
+        generator.writeStringField("departure_time", departureTime);
+        generator.writeStringField("arrival_date", arrivalDate);
+        generator.writeStringField("arrival_time", arrivalTime);
+        generator.writeStringField("carrier", settings.carriers().get(random.nextInt(settings.carriers().size())));
+        generator.writeNumberField("stops", stops);
+        generator.writeNumberField("price", this.nextPrice(random));
+        generator.writeEndObject();
+        return malformed;
+    }
+
+    private BigDecimal nextPrice(final Random random) {
+        final double mean = settings.priceMean();
+        final double spread = settings.priceSpread();
+        final double price = switch (settings.priceDistribution()) {
+            case UNIFORM -> mean - spread + random.nextDouble() * 2 * spread;
+            case NORMAL -> mean + spread * random.nextGaussian();
+            case LOGNORMAL -> {
+                final double sigma = spread / mean;
+                yield mean * Math.exp(sigma * random.nextGaussian() - sigma * sigma / 2);
+            }
+        };
+        return BigDecimal.valueOf(Math.max(1, Math.round(price)));
+    }
+
+    /**
+     * The shape of the prices.
+     */
+    public enum PriceDistribution {
+        /** Evenly spread over {@code mean ± spread}. */
+        UNIFORM,
+        /** Gaussian with standard deviation {@code spread}. */
+        NORMAL,
+        /** Right-skewed, with the given mean and a relative spread of {@code spread / mean}. */
+        LOGNORMAL
+    }
+
+    /**
+     * A route tickets are generated for.
+     *
+     * @param originCode      The IATA code of the origin airport.
+     * @param originName      The origin city name.
+     * @param destinationCode The IATA code of the destination airport.
+     * @param destinationName The destination city name.
+     */
+    public record Route(String originCode, String originName, String destinationCode, String destinationName) {
+
+        /**
+         * Parses a route written as {@code ORIGIN_CODE;Origin city;DESTINATION_CODE;Destination city}.
+         *
+         * @throws IllegalArgumentException if the text does not have four non-blank parts.
+         */
+        public static Route parse(final String text) {
+            final String[] parts = text.split(";");
+            if (parts.length != 4 || List.of(parts).stream().anyMatch(String::isBlank)) {
+                throw new IllegalArgumentException("Route must be 'CODE;City;CODE;City', but was: " + text);
+            }
+            return new Route(parts[0].strip(), parts[1].strip(), parts[2].strip(), parts[3].strip());
+        }
+    }
+
+    /**
+     * The generator configuration.
+     *
+     * @param count             The number of tickets to write.
+     * @param routes            The routes, chosen with equal probability.
+     * @param carriers          The carrier codes, chosen with equal probability.
+     * @param maxStops          The maximum number of stops; every stop adds to the journey time.
+     * @param priceDistribution The shape of the prices.
+     * @param priceMean         The mean price.
+     * @param priceSpread       The half-width (uniform) or standard deviation of the prices.
+     * @param malformedRate     The share of records, between 0 and 1, written with broken dates or times.
+     * @param seed              The random seed.
+     * @param firstDeparture    The first possible departure day.
+     * @param departureDays     The number of days departures are spread over.
+     */
+    public record Settings(long count, List<Route> routes, List<String> carriers, int maxStops,
+                           PriceDistribution priceDistribution, double priceMean, double priceSpread,
+                           double malformedRate, long seed, LocalDate firstDeparture, int departureDays) {}
+}
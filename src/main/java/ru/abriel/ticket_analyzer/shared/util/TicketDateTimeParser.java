@@ -0,0 +1,181 @@
+package ru.abriel.ticket_analyzer.shared.util;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+
+/**
+ * A parser for the fixed {@code dd.MM.yy H:mm} date and time pair of the input files.
+ * <p>
+ * The digits are read straight from the two strings, without concatenating them or going through
+ * the general-purpose {@link DateTimeFormatter} machinery. Resolved dates are kept in a small
+ * direct-mapped cache keyed by the packed day, month and year, since a file holds few distinct
+ * dates. The zone offset of a day without a transition is cached per zone and day, which lets the
+ * result be built from the known offset instead of asking the zone rules for the valid offsets.
+ * <p>
+ * Anything outside the common shape (other widths, out-of-range fields, 24:00, a day the month does
+ * not have, a day with a zone transition) is passed to {@link #FORMATTER}, so results and errors
+ * are exactly those of {@code ZonedDateTime.of(LocalDateTime.parse(date + " " + time, FORMATTER), zone)}.
+ * <p>
+ * The caches hold immutable entries and tolerate races: a lost update only means recomputing an entry.
+ */
+public final class TicketDateTimeParser {
+
+    /**
+     * The format of the input files; also the fallback for input the fast path does not handle.
+     */
+    public static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yy H:mm");
+
+    private static final int CACHE_SIZE = 256;
+    private static final int CACHE_MASK = CACHE_SIZE - 1;
+
+    /**
+     * The base year of the two-digit {@code yy} field, as used by {@link DateTimeFormatter}.
+     */
+    private static final int BASE_YEAR = 2000;
+
+    private static final LocalTime[] MINUTES_OF_DAY = new LocalTime[24 * 60];
+
+    static {
+        for (int minute = 0; minute < MINUTES_OF_DAY.length; minute++) {
+            MINUTES_OF_DAY[minute] = LocalTime.of(minute / 60, minute % 60);
+        }
+    }
+
+    private static final DateEntry[] DATES = new DateEntry[CACHE_SIZE];
+    private static final OffsetEntry[] OFFSETS = new OffsetEntry[CACHE_SIZE];
+
+    private TicketDateTimeParser() {
+        throw new RuntimeException("Utility Class!");
+    }
+
+    /**
+     * Parses a date and a time of the input format in the given zone.
+     *
+     * @param date A date such as {@code 12.05.18}.
+     * @param time A time such as {@code 6:20} or {@code 16:20}.
+     * @param zone The zone of the local date and time.
+     * @return The zoned date and time.
+     * @throws java.time.format.DateTimeParseException if the input is not a valid date and time.
+     */
+    public static ZonedDateTime parse(final String date, final String time, final ZoneId zone) {
+        final LocalDate localDate = parseDate(date);
+        final int minuteOfDay = parseMinuteOfDay(time);
+        if (localDate == null || minuteOfDay < 0) {
+            return ZonedDateTime.of(LocalDateTime.parse(date + " " + time, FORMATTER), zone);
+        }
+        final LocalDateTime localDateTime = LocalDateTime.of(localDate, MINUTES_OF_DAY[minuteOfDay]);
+        final ZoneOffset offset = fixedOffset(zone, localDate);
+        return offset != null
+                ? ZonedDateTime.ofInstant(localDateTime, offset, zone)
+                : ZonedDateTime.of(localDateTime, zone);
+    }
+
+    /**
+     * @return The date, or {@code null} if the input needs the formatter.
+     */
+    private static LocalDate parseDate(final String date) {
+        if (date == null || date.length() != 8 || date.charAt(2) != '.' || date.charAt(5) != '.') {
+            return null;
+        }
+        final int day = twoDigits(date, 0);
+        final int month = twoDigits(date, 3);
+        final int year = twoDigits(date, 6);
+        if (day < 1 || month < 1 || month > 12 || year < 0) {
+            return null;
+        }
+        final int key = (year * 100 + month) * 100 + day;
+        final int slot = (key ^ (key >>> 8)) & CACHE_MASK;
+        final DateEntry cached = DATES[slot];
+        if (cached != null && cached.key() == key) {
+            return cached.date();
+        }
+        if (day > 28 && day > YearMonth.of(BASE_YEAR + year, month).lengthOfMonth()) {
+            // The formatter adjusts or rejects such days depending on its resolver style.
+            return null;
+        }
+        final LocalDate resolved = LocalDate.of(BASE_YEAR + year, month, day);
+        DATES[slot] = new DateEntry(key, resolved);
+        return resolved;
+    }
+
+    /**
+     * @return The minute of the day, or {@code -1} if the input needs the formatter.
+     */
+    private static int parseMinuteOfDay(final String time) {
+        if (time == null) {
+            return -1;
+        }
+        final int hour;
+        final int colon;
+        if (time.length() == 4) {
+            hour = digit(time.charAt(0));
+            colon = 1;
+        } else if (time.length() == 5) {
+            hour = twoDigits(time, 0);
+            colon = 2;
+        } else {
+            return -1;
+        }
+        if (time.charAt(colon) != ':') {
+            return -1;
+        }
+        final int minute = twoDigits(time, colon + 1);
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59) {
+            return -1;
+        }
+        return hour * 60 + minute;
+    }
+
+    /**
+     * @return The offset that holds for the whole local day, or {@code null} if the day has a transition.
+     */
+    private static ZoneOffset fixedOffset(final ZoneId zone, final LocalDate date) {
+        final long epochDay = date.toEpochDay();
+        final int slot = (int) (epochDay ^ zone.hashCode()) & CACHE_MASK;
+        final OffsetEntry cached = OFFSETS[slot];
+        if (cached != null && cached.epochDay() == epochDay && cached.zone().equals(zone)) {
+            return cached.offset();
+        }
+        final ZoneOffset offset = resolveFixedOffset(zone.getRules(), date);
+        OFFSETS[slot] = new OffsetEntry(zone, epochDay, offset);
+        return offset;
+    }
+
+    private static ZoneOffset resolveFixedOffset(final ZoneRules rules, final LocalDate date) {
+        if (rules.isFixedOffset()) {
+            return rules.getOffset(Instant.EPOCH);
+        }
+        final LocalDateTime startOfDay = date.atStartOfDay();
+        if (rules.getTransition(startOfDay) != null) {
+            return null;
+        }
+        final ZoneOffset offset = rules.getOffset(startOfDay);
+        final ZoneOffsetTransition next = rules.nextTransition(startOfDay.toInstant(offset));
+        final boolean transitionDuringDay = next != null
+                && next.getInstant().isBefore(startOfDay.plusDays(1).toInstant(offset));
+        return transitionDuringDay ? null : offset;
+    }
+
+    private static int twoDigits(final String text, final int index) {
+        final int tens = digit(text.charAt(index));
+        final int ones = digit(text.charAt(index + 1));
+        return tens < 0 || ones < 0 ? -1 : tens * 10 + ones;
+    }
+
+    private static int digit(final char c) {
+        return c >= '0' && c <= '9' ? c - '0' : -1;
+    }
+
+    private record DateEntry(int key, LocalDate date) {}
+
+    private record OffsetEntry(ZoneId zone, long epochDay, ZoneOffset offset) {}
+}
@@ -2,27 +2,26 @@ package ru.abriel.ticket_analyzer.shared.util;
 
 import ru.abriel.ticket_analyzer.domain.model.flight.AirportInfo;
 import ru.abriel.ticket_analyzer.domain.model.flight.FlightSegment;
-import ru.abriel.ticket_analyzer.domain.model.geography.GeoPoint;
-import ru.abriel.ticket_analyzer.domain.model.geography.Latitude;
-import ru.abriel.ticket_analyzer.domain.model.geography.Longitude;
 import ru.abriel.ticket_analyzer.domain.model.money.Price;
 import ru.abriel.ticket_analyzer.domain.model.ticket.Ticket;
 import ru.abriel.ticket_analyzer.dto.TicketInputDto;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
+import ru.abriel.ticket_analyzer.dto.TicketSegmentInputDto;
 import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 /**
  * A utility class for mapping "dirty" DTOs to "clean" Domain Models.
  * This is the Anti-Corruption Layer for our application.
+ * <p>
+ * A ticket with a {@code segments} list is mapped leg by leg; otherwise its top-level fields
+ * describe a single segment from the first origin to the last destination.
  */
 public class TicketMapper {
 
-    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yy H:mm");
-    private static final ZoneId VVO_ZONE = ZoneId.of("Asia/Vladivostok");
-    private static final ZoneId TLV_ZONE = ZoneId.of("Asia/Tel_Aviv");
+    private static final AirportRegistry AIRPORTS = AirportRegistry.defaultRegistry();
+
     private TicketMapper() {
         throw new RuntimeException("Utility Class!");
     }
@@ -31,20 +30,12 @@ public class TicketMapper {
         try {
             Price price = new Price(dto.price(), "RUB");
 
-            // Use NaN for missing coordinates instead of null.
-            GeoPoint originLocation = new GeoPoint(new Longitude(Double.NaN), new Latitude(Double.NaN));
-            AirportInfo origin = new AirportInfo(dto.origin(), dto.originName(), VVO_ZONE, originLocation);
-
-            GeoPoint destLocation = new GeoPoint(new Longitude(Double.NaN), new Latitude(Double.NaN));
-            AirportInfo destination = new AirportInfo(dto.destination(), dto.destinationName(), TLV_ZONE, destLocation);
-
-            LocalDateTime departureLdt = LocalDateTime.parse(dto.departureDate() + " " + dto.departureTime(), FORMATTER);
-            ZonedDateTime departureZdt = ZonedDateTime.of(departureLdt, VVO_ZONE);
+            if (dto.segments() != null && !dto.segments().isEmpty()) {
+                return new Ticket(price, dto.carrier(), "UNKNOWN", mapSegments(dto.segments()));
+            }
 
-            LocalDateTime arrivalLdt = LocalDateTime.parse(dto.arrivalDate() + " " + dto.arrivalTime(), FORMATTER);
-            ZonedDateTime arrivalZdt = ZonedDateTime.of(arrivalLdt, TLV_ZONE);
-
-            FlightSegment segment = new FlightSegment(origin, departureZdt, destination, arrivalZdt);
+            FlightSegment segment = mapSegment(dto.origin(), dto.originName(), dto.destination(), dto.destinationName(),
+                    dto.departureDate(), dto.departureTime(), dto.arrivalDate(), dto.arrivalTime());
 
             return new Ticket(price, dto.carrier(), "UNKNOWN", Collections.singletonList(segment));
 
@@ -53,4 +44,37 @@ public class TicketMapper {
             return null;
         }
     }
+
+    private static List<FlightSegment> mapSegments(List<TicketSegmentInputDto> dtos) {
+        List<FlightSegment> segments = new ArrayList<>(dtos.size());
+        for (TicketSegmentInputDto dto : dtos) {
+            FlightSegment segment = mapSegment(dto.origin(), dto.originName(), dto.destination(), dto.destinationName(),
+                    dto.departureDate(), dto.departureTime(), dto.arrivalDate(), dto.arrivalTime());
+            if (!segments.isEmpty()) {
+                FlightSegment previous = segments.get(segments.size() - 1);
+                if (!previous.destination().code().equals(segment.origin().code())) {
+                    throw new IllegalArgumentException("Segment from " + segment.origin().code()
+                            + " does not continue from " + previous.destination().code());
+                }
+                if (segment.departure().isBefore(previous.arrival())) {
+                    throw new IllegalArgumentException("Segment from " + segment.origin().code()
+                            + " departs before the previous segment arrives");
+                }
+            }
+            segments.add(segment);
+        }
+        return Collections.unmodifiableList(segments);
+    }
+
+    private static FlightSegment mapSegment(String originCode, String originName, String destinationCode, String destinationName,
+                                            String departureDate, String departureTime, String arrivalDate, String arrivalTime) {
+        // Shared per airport; unknown airports get UTC and NaN coordinates.
+        AirportInfo origin = AIRPORTS.resolve(originCode, originName);
+        AirportInfo destination = AIRPORTS.resolve(destinationCode, destinationName);
+
+        ZonedDateTime departureZdt = TicketDateTimeParser.parse(departureDate, departureTime, origin.timezone());
+        ZonedDateTime arrivalZdt = TicketDateTimeParser.parse(arrivalDate, arrivalTime, destination.timezone());
+
+        return new FlightSegment(origin, departureZdt, destination, arrivalZdt);
+    }
 }
@@ -0,0 +1,120 @@
+package ru.abriel.ticket_analyzer.shared.util;
+
+import ru.abriel.ticket_analyzer.shared.exception.DataSourceNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * A utility class that resolves a source made of several ticket files: a directory, whose
+ * JSON and NDJSON files, plain or gzip-compressed, are read, or a glob pattern such as {@code /feeds/2018-05-*}{@code /*.json},
+ * where {@code **} also crosses directories.
+ * <p>
+ * Files are listed in path order, so the same files always yield the same ticket order. A listing
+ * carries a fingerprint of the paths, sizes and modification times of its files, which changes
+ * whenever a file is added, removed or modified, without reading any content.
+ */
+public class TicketSourceFiles {
+
+    /**
+     * The files read from a directory source.
+     */
+    public static final String DIRECTORY_PATTERN = "*.{json,ndjson,jsonl,json.gz,ndjson.gz,jsonl.gz}";
+
+    private static final String GLOB_CHARACTERS = "*?[{";
+
+    private TicketSourceFiles() {
+        throw new RuntimeException("Utility Class!");
+    }
+
+    /**
+     * @param source A user-provided source path.
+     * @return {@code true} if the source is a directory or a glob pattern rather than a single file.
+     */
+    public static boolean isMultiFile(final Path source) {
+        return Files.isDirectory(source) || isGlob(source.toString());
+    }
+
+    /**
+     * Lists the regular files of a directory or glob source.
+     *
+     * @param source An absolute, normalized directory or glob pattern.
+     * @return The files in path order with their fingerprint. The file list may be empty.
+     * @throws DataSourceNotFoundException if the directories cannot be read.
+     */
+    public static Listing list(final Path source) {
+        final Path base;
+        final PathMatcher matcher;
+        final int maxDepth;
+        if (Files.isDirectory(source)) {
+            base = source;
+            matcher = FileSystems.getDefault().getPathMatcher("glob:" + source.resolve(DIRECTORY_PATTERN));
+            maxDepth = 1;
+        } else {
+            base = globBase(source);
+            matcher = FileSystems.getDefault().getPathMatcher("glob:" + source);
+            maxDepth = source.toString().contains("**") ? Integer.MAX_VALUE : source.getNameCount() - base.getNameCount();
+        }
+        if (!Files.isDirectory(base)) {
+            return new Listing(List.of(), 0, Instant.EPOCH, ContentHasher.sha256(""));
+        }
+        try (Stream<Path> paths = Files.walk(base, maxDepth)) {
+            final List<Path> files = paths
+                    .filter(path -> matcher.matches(path) && Files.isRegularFile(path))
+                    .sorted()
+                    .toList();
+            long totalBytes = 0;
+            Instant lastModified = Instant.EPOCH;
+            final StringBuilder identity = new StringBuilder();
+            for (Path file : files) {
+                final long size = Files.size(file);
+                final Instant modified = Files.getLastModifiedTime(file).toInstant();
+                totalBytes += size;
+                lastModified = modified.isAfter(lastModified) ? modified : lastModified;
+                identity.append(file).append('|').append(size).append('|').append(modified.toEpochMilli()).append('\n');
+            }
+            return new Listing(files, totalBytes, lastModified, ContentHasher.sha256(identity.toString()));
+        } catch (IOException | UncheckedIOException e) {
+            throw new DataSourceNotFoundException("Failed to list ticket files of " + source + ": " + e.getMessage());
+        }
+    }
+
+    private static boolean isGlob(final String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (GLOB_CHARACTERS.indexOf(text.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The longest leading part of a pattern without glob characters, where the walk starts.
+     */
+    private static Path globBase(final Path pattern) {
+        Path base = pattern.getRoot();
+        for (Path name : pattern) {
+            if (isGlob(name.toString())) {
+                break;
+            }
+            base = base == null ? name : base.resolve(name);
+        }
+        return base == null ? Path.of("") : base;
+    }
+
+    /**
+     * The files of a multi-file source.
+     *
+     * @param files        The regular files in path order.
+     * @param totalBytes   The sum of the file sizes.
+     * @param lastModified The latest modification time of any file.
+     * @param fingerprint  The hex-encoded SHA-256 of the paths, sizes and modification times.
+     */
+    public record Listing(List<Path> files, long totalBytes, Instant lastModified, String fingerprint) {}
+}
@@ -0,0 +1,108 @@
+package ru.abriel.ticket_analyzer.benchmark;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.abriel.ticket_analyzer.domain.model.ticket.Ticket;
+import ru.abriel.ticket_analyzer.dto.TicketInputDto;
+import ru.abriel.ticket_analyzer.shared.util.TicketMapper;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic ticket data for the benchmarks.
+ * <p>
+ * Most tickets are on the Vladivostok - Tel Aviv route of the bundled data set, the rest are spread
+ * over a few other routes, so route filtering has something to reject. The same size always yields
+ * the same data, which keeps results comparable between runs.
+ */
+final class BenchmarkData {
+
+	static final String ORIGIN_CITY = "Владивосток";
+	static final String DESTINATION_CITY = "Тель-Авив";
+
+	private static final String[][] AIRPORTS = {
+			{"VVO", ORIGIN_CITY}, {"TLV", DESTINATION_CITY}, {"UFA", "Уфа"}, {"LRN", "Ларнака"}};
+	private static final String[] CARRIERS = {"TK", "S7", "SU", "BA"};
+	private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("dd.MM.yy");
+	private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("H:mm");
+	private static final LocalDateTime FIRST_DEPARTURE = LocalDateTime.of(2018, 5, 1, 0, 0);
+
+	private BenchmarkData() {
+	}
+
+	/**
+	 * @return {@code count} input records.
+	 */
+	static List<TicketInputDto> dtos(final int count) {
+		final Random random = new Random(42);
+		final List<TicketInputDto> dtos = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			dtos.add(dto(random));
+		}
+		return dtos;
+	}
+
+	/**
+	 * @return {@code count} domain tickets, mapped exactly as the application maps its input.
+	 */
+	static List<Ticket> tickets(final int count) {
+		final Random random = new Random(42);
+		final List<Ticket> tickets = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			tickets.add(TicketMapper.fromDto(dto(random)));
+		}
+		return tickets;
+	}
+
+	/**
+	 * Writes a ticket file in the input schema. Records are streamed out, so even the largest
+	 * sizes never exist in memory as a whole.
+	 *
+	 * @return A temporary file; the caller deletes it.
+	 */
+	static Path writeJson(final int count) throws IOException {
+		final Path file = Files.createTempFile("tickets-" + count + "-", ".json");
+		final ObjectMapper mapper = new ObjectMapper();
+		final Random random = new Random(42);
+		try (JsonGenerator generator = mapper.getFactory().createGenerator(file.toFile(), JsonEncoding.UTF8)) {
+			generator.writeStartObject();
+			generator.writeArrayFieldStart("tickets");
+			for (int i = 0; i < count; i++) {
+				generator.writeObject(dto(random));
+			}
+			generator.writeEndArray();
+			generator.writeEndObject();
+		}
+		return file;
+	}
+
+	private static TicketInputDto dto(final Random random) {
+		final String[] origin;
+		final String[] destination;
+		if (random.nextInt(10) < 8) {
+			origin = AIRPORTS[0];
+			destination = AIRPORTS[1];
+		} else {
+			origin = AIRPORTS[2 + random.nextInt(2)];
+			destination = AIRPORTS[random.nextInt(2)];
+		}
+		final LocalDateTime departure = FIRST_DEPARTURE.plusMinutes(random.nextInt(30 * 24 * 60));
+		final LocalDateTime arrival = departure.plusMinutes(5 * 60 + random.nextInt(15 * 60));
+		return new TicketInputDto(
+				origin[0], origin[1], destination[0], destination[1],
+				departure.format(DATE), departure.format(TIME),
+				arrival.format(DATE), arrival.format(TIME),
+				CARRIERS[random.nextInt(CARRIERS.length)],
+				random.nextInt(4),
+				BigDecimal.valueOf(10_000 + random.nextInt(10_000)),
+				null);
+	}
+}
@@ -0,0 +1,95 @@
+package ru.abriel.ticket_analyzer.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.abriel.ticket_analyzer.domain.model.geography.GeoPoint;
+import ru.abriel.ticket_analyzer.domain.model.geography.Latitude;
+import ru.abriel.ticket_analyzer.domain.model.geography.Longitude;
+import ru.abriel.ticket_analyzer.shared.util.GeoCalculator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link GeoCalculator#estimateFlightTime} over random airport pairs, one call per ticket,
+ * against the batch {@link GeoCalculator#estimateFlightMinutes} with its scalar and Vector API kernels.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class GeoCalculatorBenchmark {
+
+	@Param({"1000", "10000", "100000", "1000000"})
+	private int tickets;
+
+	private GeoCalculator geoCalculator;
+	private GeoPoint[] origins;
+	private GeoPoint[] destinations;
+	private double[] originLatitudes;
+	private double[] originLongitudes;
+	private double[] destinationLatitudes;
+	private double[] destinationLongitudes;
+	private long[] minutes;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		geoCalculator = new GeoCalculator();
+		ReflectionTestUtils.setField(geoCalculator, "averageCruiseSpeedKmph", 850.0);
+		final Random random = new Random(42);
+		origins = new GeoPoint[tickets];
+		destinations = new GeoPoint[tickets];
+		for (int i = 0; i < tickets; i++) {
+			origins[i] = randomPoint(random);
+			destinations[i] = randomPoint(random);
+		}
+		originLatitudes = new double[tickets];
+		originLongitudes = new double[tickets];
+		destinationLatitudes = new double[tickets];
+		destinationLongitudes = new double[tickets];
+		minutes = new long[tickets];
+		for (int i = 0; i < tickets; i++) {
+			originLatitudes[i] = origins[i].latitude().value();
+			originLongitudes[i] = origins[i].longitude().value();
+			destinationLatitudes[i] = destinations[i].latitude().value();
+			destinationLongitudes[i] = destinations[i].longitude().value();
+		}
+	}
+
+	@Benchmark
+	public void estimateFlightTime(final Blackhole blackhole) {
+		for (int i = 0; i < tickets; i++) {
+			blackhole.consume(geoCalculator.estimateFlightTime(origins[i], destinations[i]));
+		}
+	}
+
+	@Benchmark
+	public long[] batchScalar() {
+		geoCalculator.estimateFlightMinutes(originLatitudes, originLongitudes, destinationLatitudes, destinationLongitudes, minutes, tickets);
+		return minutes;
+	}
+
+	@Benchmark
+	@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g", "--add-modules=jdk.incubator.vector"})
+	public long[] batchVectorized() {
+		geoCalculator.estimateFlightMinutes(originLatitudes, originLongitudes, destinationLatitudes, destinationLongitudes, minutes, tickets);
+		return minutes;
+	}
+
+	private static GeoPoint randomPoint(final Random random) {
+		return new GeoPoint(new Longitude(random.nextDouble() * 360 - 180), new Latitude(random.nextDouble() * 180 - 90));
+	}
+}
@@ -0,0 +1,68 @@
+package ru.abriel.ticket_analyzer.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.abriel.ticket_analyzer.domain.model.ticket.Ticket;
+import ru.abriel.ticket_analyzer.shared.util.JsonParserWorker;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link JsonParserWorker#parse} from a file, including DTO mapping, per whole file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class JsonParsingBenchmark {
+
+	@Param({"1000", "10000", "100000", "1000000"})
+	private int tickets;
+
+	private JsonParserWorker parser;
+	private Path file;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		parser = new JsonParserWorker(new ObjectMapper());
+		file = BenchmarkData.writeJson(tickets);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		Files.deleteIfExists(file);
+	}
+
+	@Benchmark
+	public List<Ticket> parse() throws IOException {
+		try (InputStream stream = Files.newInputStream(file)) {
+			return parser.parse(stream);
+		}
+	}
+
+	@Benchmark
+	public long parseStreaming(final Blackhole blackhole) throws IOException {
+		try (InputStream stream = Files.newInputStream(file)) {
+			return parser.parseStreaming(stream, blackhole::consume);
+		}
+	}
+}
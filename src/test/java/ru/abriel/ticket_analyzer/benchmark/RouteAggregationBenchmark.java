@@ -0,0 +1,83 @@
+package ru.abriel.ticket_analyzer.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.abriel.ticket_analyzer.domain.model.ticket.Ticket;
+import ru.abriel.ticket_analyzer.domain.model.ticket.TicketDataset;
+import ru.abriel.ticket_analyzer.domain.model.ticket.TicketStore;
+import ru.abriel.ticket_analyzer.service.FlightAnalysisService;
+import ru.abriel.ticket_analyzer.service.aggregation.ParallelAggregator;
+import ru.abriel.ticket_analyzer.service.aggregation.RouteAnalysisResult;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the route aggregation of {@link FlightAnalysisService}: the minimum journey time per
+ * carrier and the average/median price difference, as a filtering scan over all tickets, through
+ * the route index of a {@link TicketDataset} and as a column scan of a {@link TicketStore}.
+ * Index and column scans are measured on the calling thread and on one fork-join worker per core.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class RouteAggregationBenchmark {
+
+	@Param({"1000", "10000", "100000", "1000000"})
+	private int tickets;
+
+	/**
+	 * The analysis parallelism; 0 means one worker per core.
+	 */
+	@Param({"1", "0"})
+	private int parallelism;
+
+	private ParallelAggregator aggregator;
+	private FlightAnalysisService analysisService;
+	private List<Ticket> ticketList;
+	private TicketDataset dataset;
+	private TicketStore store;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		// Only the pure aggregation methods are measured; they use none of the collaborators.
+		aggregator = new ParallelAggregator(parallelism, 65_536);
+		analysisService = new FlightAnalysisService(null, null, null, null, null, aggregator);
+		ticketList = BenchmarkData.tickets(tickets);
+		dataset = new TicketDataset(ticketList);
+		store = TicketStore.of(ticketList).orElseThrow();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		aggregator.close();
+	}
+
+	@Benchmark
+	public RouteAnalysisResult scan() {
+		return analysisService.analyze(ticketList.stream(), BenchmarkData.ORIGIN_CITY, BenchmarkData.DESTINATION_CITY);
+	}
+
+	@Benchmark
+	public RouteAnalysisResult indexed() {
+		return analysisService.analyze(dataset, BenchmarkData.ORIGIN_CITY, BenchmarkData.DESTINATION_CITY);
+	}
+
+	@Benchmark
+	public RouteAnalysisResult columnar() {
+		return analysisService.analyze(store, BenchmarkData.ORIGIN_CITY, BenchmarkData.DESTINATION_CITY);
+	}
+}
@@ -0,0 +1,48 @@
+package ru.abriel.ticket_analyzer.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.abriel.ticket_analyzer.dto.TicketInputDto;
+import ru.abriel.ticket_analyzer.shared.util.TicketMapper;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link TicketMapper#fromDto} over already deserialized records, per whole batch.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class TicketMappingBenchmark {
+
+	@Param({"1000", "10000", "100000", "1000000"})
+	private int tickets;
+
+	private List<TicketInputDto> dtos;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		dtos = BenchmarkData.dtos(tickets);
+	}
+
+	@Benchmark
+	public void mapAll(final Blackhole blackhole) {
+		for (TicketInputDto dto : dtos) {
+			blackhole.consume(TicketMapper.fromDto(dto));
+		}
+	}
+}
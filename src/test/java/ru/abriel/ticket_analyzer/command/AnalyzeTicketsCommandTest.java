@@ -0,0 +1,58 @@
+package ru.abriel.ticket_analyzer.command;
+
+import org.junit.jupiter.api.Test;
+import picocli.CommandLine;
+import ru.abriel.ticket_analyzer.presentation.AnalysisServer;
+import ru.abriel.ticket_analyzer.service.FlightAnalysisService;
+import ru.abriel.ticket_analyzer.service.itinerary.ItineraryService;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class AnalyzeTicketsCommandTest {
+
+	private final FlightAnalysisService analysisService = mock(FlightAnalysisService.class);
+	private final AnalysisServer analysisServer = mock(AnalysisServer.class);
+	private final ItineraryService itineraryService = mock(ItineraryService.class);
+
+	@Test
+	void rejectsOptionsOfDifferentModes() {
+		assertThat(this.execute("tickets.json", "--routes-file", "routes.txt", "--all-routes"))
+				.contains("--routes-file cannot be combined with --all-routes.");
+		assertThat(this.execute("tickets.json", "Владивосток", "Тель-Авив", "--all-routes"))
+				.contains("--routes-file/--all-routes cannot be combined with origin and destination cities.");
+		assertThat(this.execute("tickets.json", "Владивосток", "Тель-Авив", "--export", "report.csv"))
+				.contains("--export can only be used with --routes-file or --all-routes.");
+		assertThat(this.execute("tickets.json", "--all-routes", "--air-time-ratio"))
+				.contains("--routes-file/--all-routes cannot be combined with --air-time-ratio.");
+		assertThat(this.execute("tickets.json", "--all-routes", "--itinerary", "FASTEST"))
+				.contains("cannot be combined with --itinerary.");
+		assertThat(this.execute("tickets.json", "Владивосток", "Тель-Авив", "--depart-after", "2018-05-12T00:00:00Z"))
+				.contains("--depart-after can only be used with --itinerary.");
+		assertThat(this.execute("tickets.json", "--routes-file", "routes.txt", "--approximate"))
+				.contains("--routes-file/--all-routes cannot be combined with --approximate.");
+		assertThat(this.execute("tickets.json", "Владивосток", "Тель-Авив", "--itinerary", "CHEAPEST", "--approximate"))
+				.contains("--itinerary cannot be combined with --approximate.");
+		assertThat(this.execute("tickets.json", "--serve", "--export", "report.csv"))
+				.contains("--serve cannot be combined with --export.");
+		assertThat(this.execute("tickets.json", "--serve", "--port", "7070", "--socket", "analyzer.sock"))
+				.contains("--port cannot be combined with --socket.");
+
+		verifyNoInteractions(analysisService, analysisServer, itineraryService);
+	}
+
+	/**
+	 * Runs the command, expects a usage error and returns what was printed to standard error.
+	 */
+	private String execute(final String... args) {
+		final StringWriter err = new StringWriter();
+		final CommandLine commandLine = new CommandLine(new AnalyzeTicketsCommand(analysisService, analysisServer, itineraryService));
+		commandLine.setErr(new PrintWriter(err));
+
+		assertThat(commandLine.execute(args)).isEqualTo(CommandLine.ExitCode.USAGE);
+		return err.toString();
+	}
+}
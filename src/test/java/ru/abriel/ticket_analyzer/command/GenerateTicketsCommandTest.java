@@ -0,0 +1,63 @@
+package ru.abriel.ticket_analyzer.command;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import picocli.CommandLine;
+import ru.abriel.ticket_analyzer.domain.model.ticket.Ticket;
+import ru.abriel.ticket_analyzer.shared.util.JsonParserWorker;
+import ru.abriel.ticket_analyzer.shared.util.TicketDataGenerator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class GenerateTicketsCommandTest {
+
+	private static final int COUNT = 2_000;
+
+	@TempDir
+	Path dir;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void writesASeededFileWhoseMalformedRecordsAreRejectedOneByOne() throws IOException {
+		final Path file = dir.resolve("out/tickets.json");
+		final GenerateTicketsCommand command = new GenerateTicketsCommand();
+		final CommandLine commandLine = new CommandLine(command);
+
+		assertThat(commandLine.execute("-o", file.toString(), "-n", String.valueOf(COUNT), "--malformed-rate", "0.1", "--seed", "7"))
+				.isEqualTo(CommandLine.ExitCode.OK);
+
+		// The harness writes its files through the same generator and settings.
+		final GeneratorOptions options = (GeneratorOptions) ReflectionTestUtils.getField(command, "generatorOptions");
+		final Path regenerated = dir.resolve("regenerated.json");
+		final long malformed = new TicketDataGenerator(options.settings(COUNT)).write(regenerated);
+
+		assertThat(Files.mismatch(file, regenerated)).isEqualTo(-1L);
+		assertThat(objectMapper.readTree(file.toFile()).get("tickets")).hasSize(COUNT);
+		assertThat(malformed).isBetween(COUNT / 20L, COUNT / 5L);
+		assertThat(this.parse(file)).hasSize(COUNT - (int) malformed);
+	}
+
+	@Test
+	void writesOnlyWellFormedRecordsByDefault() throws IOException {
+		final Path file = dir.resolve("tickets.json");
+
+		assertThat(new CommandLine(new GenerateTicketsCommand()).execute("-o", file.toString(), "-n", "500"))
+				.isEqualTo(CommandLine.ExitCode.OK);
+
+		assertThat(this.parse(file)).hasSize(500);
+	}
+
+	private List<Ticket> parse(final Path file) throws IOException {
+		try (InputStream in = Files.newInputStream(file)) {
+			return new JsonParserWorker(objectMapper).parse(in);
+		}
+	}
+}
@@ -0,0 +1,80 @@
+package ru.abriel.ticket_analyzer.presentation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import ru.abriel.ticket_analyzer.domain.model.ticket.DataProviderService;
+import ru.abriel.ticket_analyzer.domain.model.ticket.TicketDataset;
+import ru.abriel.ticket_analyzer.service.FlightAnalysisService;
+import ru.abriel.ticket_analyzer.service.aggregation.RouteAnalysisResult;
+import ru.abriel.ticket_analyzer.service.itinerary.ItineraryService;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AnalysisServerTest {
+
+	private static final Logger LOG = LoggerFactory.getLogger(AnalysisServerTest.class);
+
+	private final InputStream originalIn = System.in;
+	private final PrintStream originalOut = System.out;
+	private final PrintStream originalErr = System.err;
+
+	@AfterEach
+	void restoreStreams() {
+		System.setIn(originalIn);
+		System.setOut(originalOut);
+		System.setErr(originalErr);
+	}
+
+	@Test
+	void stdinSessionWritesOnlyFramesToStandardOutput() {
+		final DataProviderService dataProvider = mock(DataProviderService.class);
+		final FlightAnalysisService analysisService = mock(FlightAnalysisService.class);
+		final TicketDataset dataset = new TicketDataset();
+		when(dataProvider.sourceFingerprint(any())).thenReturn(Optional.empty());
+		when(dataProvider.getDataset(any())).thenAnswer(invocation -> {
+			LOG.info("[Persistence]: loading, as the real pipeline logs");
+			System.out.println("stray console output");
+			return dataset;
+		});
+		when(dataProvider.reloadDataset(any())).thenReturn(dataset);
+		when(analysisService.analyze(eq(dataset), eq("Владивосток"), eq("Тель-Авив")))
+				.thenReturn(new RouteAnalysisResult(2, Map.of("TK", Duration.ofHours(5)), new BigDecimal("350.00")));
+		final AnalysisServer server = new AnalysisServer(dataProvider, analysisService, mock(ItineraryService.class), new ConsoleWriter());
+
+		final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+		final ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+		System.setIn(new ByteArrayInputStream("status\nanalyze Владивосток;Тель-Авив\nreload\nfly\nquit\n".getBytes(StandardCharsets.UTF_8)));
+		System.setOut(new PrintStream(stdout, true, StandardCharsets.UTF_8));
+		System.setErr(new PrintStream(stderr, true, StandardCharsets.UTF_8));
+		server.serveStdin(Optional.empty());
+
+		final List<String> lines = stdout.toString(StandardCharsets.UTF_8).lines().toList();
+		int frames = 0;
+		for (int i = 0; i < lines.size(); i++, frames++) {
+			final String header = lines.get(i);
+			if (header.startsWith("OK ")) {
+				i += Integer.parseInt(header.substring(3));
+			} else {
+				assertThat(header).startsWith("ERR ");
+			}
+		}
+		assertThat(frames).isEqualTo(5);
+		assertThat(stderr.toString(StandardCharsets.UTF_8)).contains("stray console output");
+	}
+}
@@ -0,0 +1,167 @@
+package ru.abriel.ticket_analyzer.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.ConnectionString;
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.MongoDBContainer;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.SimpleMongoClientDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import ru.abriel.ticket_analyzer.configuration.ApplicationConfig;
+import ru.abriel.ticket_analyzer.domain.model.money.Price;
+import ru.abriel.ticket_analyzer.domain.model.ticket.Ticket;
+import ru.abriel.ticket_analyzer.domain.model.ticket.TicketRecordDocument;
+import ru.abriel.ticket_analyzer.service.aggregation.RouteAnalysisAccumulator;
+import ru.abriel.ticket_analyzer.service.aggregation.RouteAnalysisResult;
+import ru.abriel.ticket_analyzer.shared.util.JsonParserWorker;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Compares the MongoDB aggregation pipeline with the in-JVM accumulator path.
+ * <p>
+ * Runs against the mongod named by the {@code MONGODB_TEST_URI} environment variable if set, and
+ * otherwise against a {@code mongo:6.0} container, the version of {@code docker-compose.yml},
+ * started once for the class. The test is only skipped when neither is available.
+ */
+class TicketAnalyticsRepositoryTest {
+
+	private static final String BATCH_ID = "test-batch";
+
+	private static MongoDBContainer container;
+
+	private MongoClient client;
+	private MongoTemplate mongoTemplate;
+	private TicketAnalyticsRepository repository;
+	private List<Ticket> tickets;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		client = MongoClients.create(MongoClientSettings.builder()
+				.applyConnectionString(new ConnectionString(connectionString()))
+				.applyToClusterSettings(cluster -> cluster.serverSelectionTimeout(10, TimeUnit.SECONDS))
+				.build());
+		client.getDatabase("admin").runCommand(new Document("ping", 1));
+
+		final SimpleMongoClientDatabaseFactory factory =
+				new SimpleMongoClientDatabaseFactory(client, "ticket_analyzer_test_" + UUID.randomUUID().toString().replace("-", ""));
+		final MongoCustomConversions conversions = new ApplicationConfig().customMongoConversions();
+		final MongoMappingContext mappingContext = new MongoMappingContext();
+		mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+		mappingContext.afterPropertiesSet();
+		final MappingMongoConverter converter = new MappingMongoConverter(new DefaultDbRefResolver(factory), mappingContext);
+		converter.setCustomConversions(conversions);
+		converter.afterPropertiesSet();
+		mongoTemplate = new MongoTemplate(factory, converter);
+		repository = new TicketAnalyticsRepository(mongoTemplate);
+
+		try (InputStream stream = Files.newInputStream(Path.of("src/input_data/base_data.json"))) {
+			tickets = new JsonParserWorker(new ObjectMapper()).parse(stream);
+		}
+		// Widen the sample with odd-sized, fractional and duplicate prices.
+		final Random random = new Random(7);
+		final List<Ticket> widened = new ArrayList<>(tickets);
+		for (int i = 0; i < 501; i++) {
+			final Ticket template = tickets.get(random.nextInt(tickets.size()));
+			final BigDecimal amount = BigDecimal.valueOf(random.nextInt(40_000), random.nextInt(3));
+			widened.add(new Ticket(new Price(amount, "RUB"), template.carrierCode(), template.carrierCode(), template.segments()));
+		}
+		tickets = widened;
+		for (int i = 0; i < tickets.size(); i++) {
+			mongoTemplate.insert(TicketRecordDocument.of(BATCH_ID, i, tickets.get(i)));
+		}
+	}
+
+	private static synchronized String connectionString() {
+		final String configured = System.getenv("MONGODB_TEST_URI");
+		if (configured != null && !configured.isBlank()) {
+			return configured;
+		}
+		if (container == null) {
+			assumeTrue(DockerClientFactory.instance().isDockerAvailable(), "Neither MONGODB_TEST_URI nor Docker is available");
+			container = new MongoDBContainer("mongo:6.0");
+			// Stopped by the Testcontainers reaper when the test JVM exits.
+			container.start();
+		}
+		return container.getConnectionString();
+	}
+
+	@AfterEach
+	void tearDown() {
+		if (mongoTemplate != null) {
+			mongoTemplate.getDb().drop();
+		}
+		if (client != null) {
+			client.close();
+		}
+	}
+
+	@Test
+	void pipelineMatchesInJvmAnalysis() {
+		for (String[] route : new String[][]{{"Владивосток", "Тель-Авив"}, {"VVO", "TLV"}, {"Уфа", "Тель-Авив"}, {"Нигде", "Никуда"}}) {
+			final RouteAnalysisResult serverSide = repository.analyzeRoute(BATCH_ID, route[0], route[1]);
+			final RouteAnalysisResult inJvm = this.inJvm(route[0], route[1]);
+
+			assertThat(serverSide.ticketCount()).isEqualTo(inJvm.ticketCount());
+			assertThat(serverSide.minJourneyTimes()).isEqualTo(inJvm.minJourneyTimes());
+			assertThat(serverSide.priceDifference()).isEqualByComparingTo(inJvm.priceDifference());
+		}
+	}
+
+	@Test
+	void medianMatchesForEvenAndOddRouteSizes() {
+		final Ticket template = this.inJvmTickets("Владивосток", "Тель-Авив").get(0);
+		for (int added = 0; added < 2; added++) {
+			final RouteAnalysisResult serverSide = repository.analyzeRoute(BATCH_ID, "Владивосток", "Тель-Авив");
+			final RouteAnalysisResult inJvm = this.inJvm("Владивосток", "Тель-Авив");
+
+			assertThat(serverSide.ticketCount()).isEqualTo(inJvm.ticketCount());
+			assertThat(serverSide.priceDifference()).isEqualByComparingTo(inJvm.priceDifference());
+
+			final Ticket extra = new Ticket(new Price(new BigDecimal("12345.67"), "RUB"), template.carrierCode(),
+					template.carrierName(), template.segments());
+			mongoTemplate.insert(TicketRecordDocument.of(BATCH_ID, tickets.size(), extra));
+			tickets.add(extra);
+		}
+	}
+
+	private List<Ticket> inJvmTickets(final String origin, final String destination) {
+		return tickets.stream()
+				.filter(t -> t.segments().get(0).origin().city().equals(origin)
+						&& t.segments().get(t.segments().size() - 1).destination().city().equals(destination))
+				.toList();
+	}
+
+	private RouteAnalysisResult inJvm(final String origin, final String destination) {
+		final RouteAnalysisResult byCity = tickets.stream().collect(RouteAnalysisAccumulator.collector(origin, destination));
+		if (!byCity.isEmpty()) {
+			return byCity;
+		}
+		final RouteAnalysisAccumulator byCode = RouteAnalysisAccumulator.unfiltered();
+		tickets.stream()
+				.filter(t -> t.segments().get(0).origin().code().equalsIgnoreCase(origin)
+						&& t.segments().get(t.segments().size() - 1).destination().code().equalsIgnoreCase(destination))
+				.forEach(byCode::accept);
+		return byCode.result();
+	}
+}
@@ -0,0 +1,104 @@
+package ru.abriel.ticket_analyzer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.io.ResourceLoader;
+import ru.abriel.ticket_analyzer.domain.model.ticket.IngestedSourceDocument;
+import ru.abriel.ticket_analyzer.domain.model.ticket.TicketDataset;
+import ru.abriel.ticket_analyzer.repository.IngestedSourceRepository;
+import ru.abriel.ticket_analyzer.service.aggregation.AirTimeEstimates;
+import ru.abriel.ticket_analyzer.service.snapshot.TicketSnapshotStore;
+import ru.abriel.ticket_analyzer.shared.util.ContentHasher;
+import ru.abriel.ticket_analyzer.shared.util.GeoCalculator;
+import ru.abriel.ticket_analyzer.shared.util.JsonParserWorker;
+import ru.abriel.ticket_analyzer.shared.util.ParallelTicketFileParser;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DataProviderServiceImplTest {
+
+	@TempDir
+	Path dir;
+
+	private final TicketStorageService ticketStorage = mock(TicketStorageService.class);
+	private final IngestedSourceRepository ingestedSources = mock(IngestedSourceRepository.class);
+	private final WriteBehindPersistence writeBehind = mock(WriteBehindPersistence.class);
+	private DataProviderServiceImpl dataProvider;
+
+	@BeforeEach
+	void setUp() {
+		dataProvider = new DataProviderServiceImpl(ticketStorage, ingestedSources, new JsonParserWorker(new ObjectMapper()),
+				mock(ParallelTicketFileParser.class), mock(ResourceLoader.class), mock(TicketSnapshotStore.class), writeBehind,
+				mock(MultiFileIngestor.class), mock(GeoCalculator.class));
+	}
+
+	@Test
+	void anUnchangedFileKeepsTheNoFileCacheAndQueuesNoSnapshot() throws IOException {
+		final Path file = Files.writeString(dir.resolve("tickets.json"), "{\"tickets\": []}");
+		final TicketDataset latest = new TicketDataset();
+		when(ticketStorage.loadLatest()).thenReturn(Optional.of(latest));
+		when(ingestedSources.findFirstByPathAndSizeAndLastModified(eq(file.toString()), anyLong(), any(Instant.class)))
+				.thenReturn(Optional.of(IngestedSourceDocument.of("hash", file.toString(), 15, Instant.now(), "b1", Instant.now())));
+		when(ticketStorage.findBatch("b1")).thenReturn(Optional.of(new TicketDataset()));
+
+		assertThat(dataProvider.getDataset(Optional.empty())).isSameAs(latest);
+		dataProvider.getDataset(Optional.of(file));
+
+		assertThat(dataProvider.getDataset(Optional.empty())).isSameAs(latest);
+		verify(ticketStorage, times(1)).loadLatest();
+		verify(writeBehind, never()).afterPendingWrites(anyString(), any());
+		verify(writeBehind, never()).submit(anyString(), any());
+	}
+
+	@Test
+	void keepsAirTimeEstimatesPerSourceUntilItIsReleased() {
+		final Path file = dir.resolve("tickets.json");
+
+		final AirTimeEstimates fileEstimates = dataProvider.getAirTimeEstimates(Optional.of(file));
+		assertThat(dataProvider.getAirTimeEstimates(Optional.of(dir.resolve("other/../tickets.json")))).isSameAs(fileEstimates);
+		assertThat(dataProvider.getAirTimeEstimates(Optional.empty())).isNotSameAs(fileEstimates);
+
+		dataProvider.releaseDataset(Optional.of(file));
+
+		assertThat(dataProvider.getAirTimeEstimates(Optional.of(file))).isNotSameAs(fileEstimates);
+	}
+
+	@Test
+	void aCopyOfIngestedContentKeepsTheRecordOfTheOriginalPath() throws IOException {
+		final Path original = Files.writeString(dir.resolve("a.json"), "{\"tickets\": []}");
+		final Path copy = Files.writeString(dir.resolve("b.json"), "{\"tickets\": []}");
+		final String contentHash = ContentHasher.sha256(copy);
+		final IngestedSourceDocument originalRecord =
+				IngestedSourceDocument.of(contentHash, original.toString(), 15, Instant.now(), "b1", Instant.now());
+		when(ingestedSources.findFirstByPathAndSizeAndLastModified(anyString(), anyLong(), any(Instant.class)))
+				.thenReturn(Optional.empty());
+		when(ingestedSources.findFirstByContentHash(contentHash)).thenReturn(Optional.of(originalRecord));
+		when(ticketStorage.findBatch("b1")).thenReturn(Optional.of(new TicketDataset()));
+
+		dataProvider.getDataset(Optional.of(copy));
+
+		final ArgumentCaptor<IngestedSourceDocument> saved = ArgumentCaptor.forClass(IngestedSourceDocument.class);
+		verify(ingestedSources).save(saved.capture());
+		assertThat(saved.getValue().path()).isEqualTo(copy.toString());
+		assertThat(saved.getValue().contentHash()).isEqualTo(contentHash);
+		assertThat(saved.getValue().batchId()).isEqualTo("b1");
+		assertThat(saved.getValue().id()).isNotEqualTo(originalRecord.id());
+	}
+}
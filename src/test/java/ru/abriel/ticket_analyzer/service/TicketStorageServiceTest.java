@@ -0,0 +1,114 @@
+package ru.abriel.ticket_analyzer.service;
+
+import com.mongodb.bulk.BulkWriteResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.abriel.ticket_analyzer.domain.model.flight.AirportInfo;
+import ru.abriel.ticket_analyzer.domain.model.flight.FlightSegment;
+import ru.abriel.ticket_analyzer.domain.model.geography.GeoPoint;
+import ru.abriel.ticket_analyzer.domain.model.geography.Latitude;
+import ru.abriel.ticket_analyzer.domain.model.geography.Longitude;
+import ru.abriel.ticket_analyzer.domain.model.money.Price;
+import ru.abriel.ticket_analyzer.domain.model.ticket.Ticket;
+import ru.abriel.ticket_analyzer.domain.model.ticket.TicketRecordDocument;
+import ru.abriel.ticket_analyzer.repository.RouteAggregateRepository;
+import ru.abriel.ticket_analyzer.repository.TicketBatchRepository;
+import ru.abriel.ticket_analyzer.repository.TicketDocumentRepository;
+import ru.abriel.ticket_analyzer.repository.TicketRecordRepository;
+import java.math.BigDecimal;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TicketStorageServiceTest {
+
+	private final MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+	private final BulkOperations bulk = mock(BulkOperations.class);
+	private final IndexOperations recordIndexes = mock(IndexOperations.class);
+	private final TicketBatchRepository batchRepository = mock(TicketBatchRepository.class);
+	private final TicketRecordRepository recordRepository = mock(TicketRecordRepository.class);
+	private final RouteAggregateRepository aggregateRepository = mock(RouteAggregateRepository.class);
+	private TicketStorageService storage;
+
+	@BeforeEach
+	void setUp() {
+		final MongoMappingContext mappingContext = new MongoMappingContext();
+		mappingContext.setSimpleTypeHolder(new MongoCustomConversions(List.of()).getSimpleTypeHolder());
+		when(mongoTemplate.getConverter()).thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext));
+		when(mongoTemplate.indexOps(any(Class.class))).thenReturn(mock(IndexOperations.class));
+		when(mongoTemplate.indexOps(TicketRecordDocument.class)).thenReturn(recordIndexes);
+		when(mongoTemplate.bulkOps(any(BulkOperations.BulkMode.class), eq(TicketRecordDocument.class))).thenReturn(bulk);
+		when(bulk.insert(anyList())).thenReturn(bulk);
+		storage = new TicketStorageService(mongoTemplate, batchRepository, recordRepository,
+				mock(TicketDocumentRepository.class), aggregateRepository);
+		ReflectionTestUtils.setField(storage, "layout", "per-ticket");
+		ReflectionTestUtils.setField(storage, "bulkBatchSize", 2);
+	}
+
+	@Test
+	void createsTheAnnotatedIndexesOnceBeforeTheFirstWrite() {
+		final BulkWriteResult result = mock(BulkWriteResult.class);
+		when(result.getInsertedCount()).thenReturn(1);
+		when(bulk.execute()).thenReturn(result);
+
+		storage.saveBatch(tickets(1));
+		storage.saveBatch(tickets(1));
+
+		final ArgumentCaptor<IndexDefinition> indexes = ArgumentCaptor.forClass(IndexDefinition.class);
+		verify(recordIndexes, atLeastOnce()).ensureIndex(indexes.capture());
+		assertThat(indexes.getAllValues()).extracting(index -> index.getIndexOptions().getString("name"))
+				.contains("batch_sequence", "batch_city_route_carrier", "batch_code_route_carrier");
+		verify(mongoTemplate, times(1)).indexOps(TicketRecordDocument.class);
+	}
+
+	@Test
+	void deletesThePartialBatchWhenABulkInsertFails() {
+		final BulkWriteResult firstChunk = mock(BulkWriteResult.class);
+		final IllegalStateException failure = new IllegalStateException("connection lost");
+		when(firstChunk.getInsertedCount()).thenReturn(2);
+		when(bulk.execute()).thenReturn(firstChunk).thenThrow(failure);
+
+		assertThatThrownBy(() -> storage.saveBatch(tickets(3))).isSameAs(failure);
+
+		verify(batchRepository, never()).save(any());
+		verify(recordRepository).deleteByBatchId(any());
+		verify(aggregateRepository).deleteByBatchId(any());
+	}
+
+	private static List<Ticket> tickets(final int count) {
+		final GeoPoint unknown = new GeoPoint(new Longitude(Double.NaN), new Latitude(Double.NaN));
+		final AirportInfo origin = new AirportInfo("VVO", "Владивосток", ZoneId.of("Asia/Vladivostok"), unknown);
+		final AirportInfo destination = new AirportInfo("TLV", "Тель-Авив", ZoneId.of("Asia/Jerusalem"), unknown);
+		final ZonedDateTime departure = ZonedDateTime.parse("2018-05-12T00:00:00Z");
+		final List<Ticket> tickets = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			final FlightSegment segment = new FlightSegment(origin, departure, destination, departure.plusHours(6 + i));
+			tickets.add(new Ticket(new Price(BigDecimal.valueOf(10_000 + i), "RUB"), "TK", "TK",
+					new ArrayList<>(List.of(segment))));
+		}
+		return tickets;
+	}
+}
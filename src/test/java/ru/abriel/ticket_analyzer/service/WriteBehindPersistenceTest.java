@@ -0,0 +1,38 @@
+package ru.abriel.ticket_analyzer.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WriteBehindPersistenceTest {
+
+	private final WriteBehindPersistence writeBehind = new WriteBehindPersistence();
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(writeBehind, "enabled", true);
+		ReflectionTestUtils.setField(writeBehind, "queueCapacity", 4);
+		ReflectionTestUtils.setField(writeBehind, "flushTimeoutSeconds", 10L);
+	}
+
+	@Test
+	void skipsOnlyTheActionWhoseWriteFailed() {
+		final List<String> actions = new ArrayList<>();
+
+		writeBehind.submit("save first", () -> {
+			throw new IllegalStateException("connection lost");
+		});
+		writeBehind.afterPendingWrites("snapshot first", () -> actions.add("first"));
+		writeBehind.submit("save second", () -> { });
+		writeBehind.afterPendingWrites("snapshot second", () -> actions.add("second"));
+		final WriteBehindPersistence.PersistenceReport report = writeBehind.flush();
+
+		assertThat(actions).containsExactly("second");
+		assertThat(report.succeeded()).isEqualTo(1);
+		assertThat(report.failures()).containsExactly("save first: connection lost");
+	}
+}
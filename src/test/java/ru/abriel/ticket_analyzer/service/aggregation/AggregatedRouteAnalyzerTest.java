@@ -0,0 +1,78 @@
+package ru.abriel.ticket_analyzer.service.aggregation;
+
+import org.junit.jupiter.api.Test;
+import ru.abriel.ticket_analyzer.domain.model.money.PriceHistogram;
+import ru.abriel.ticket_analyzer.domain.model.ticket.RouteCarrierAggregate;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AggregatedRouteAnalyzerTest {
+
+	@Test
+	void mergedHistogramsMatchSinglePassOverAllPrices() {
+		final Random random = new Random(7);
+		for (int iteration = 0; iteration < 500; iteration++) {
+			final PriceStatisticsAccumulator reference = new PriceStatisticsAccumulator();
+			final List<RouteCarrierAggregate> aggregates = new ArrayList<>();
+			final int carriers = 1 + random.nextInt(4);
+			for (int carrier = 0; carrier < carriers; carrier++) {
+				final PriceHistogram prices = new PriceHistogram();
+				long sum = 0;
+				final int size = 1 + random.nextInt(200);
+				for (int i = 0; i < size; i++) {
+					final long price = random.nextInt(50) * 100L + random.nextInt(3);
+					prices.add(price);
+					reference.acceptMinorUnits(price);
+					sum += price;
+				}
+				aggregates.add(RouteCarrierAggregate.restore("A", "B", "AAA", "BBB", "C" + carrier, size,
+						Duration.ofMinutes(60 + carrier), sum, prices, true));
+			}
+
+			final RouteAnalysisResult result = AggregatedRouteAnalyzer.analyze(aggregates).orElseThrow();
+
+			assertThat(result.ticketCount()).isEqualTo(reference.count());
+			assertThat(result.priceDifference()).isEqualTo(reference.priceDifference());
+		}
+	}
+
+	@Test
+	void reportsShortestJourneyPerCarrier() {
+		final List<RouteCarrierAggregate> aggregates = List.of(
+				RouteCarrierAggregate.restore("A", "B", "AAA", "BBB", "S7", 1, Duration.ofHours(3), 100,
+						PriceHistogram.of(new long[]{100}, new long[]{1}), true),
+				RouteCarrierAggregate.restore("a", "b", "AAA", "BBB", "S7", 1, Duration.ofHours(2), 300,
+						PriceHistogram.of(new long[]{300}, new long[]{1}), true));
+
+		final RouteAnalysisResult result = AggregatedRouteAnalyzer.analyze(aggregates).orElseThrow();
+
+		assertThat(result.minJourneyTimes()).isEqualTo(Map.of("S7", Duration.ofHours(2)));
+		assertThat(result.priceDifference()).isEqualByComparingTo("0");
+	}
+
+	@Test
+	void listsCarriersInNameOrder() {
+		final List<RouteCarrierAggregate> aggregates = new ArrayList<>();
+		for (String carrier : List.of("TK", "BA", "SU", "S7")) {
+			aggregates.add(RouteCarrierAggregate.restore("A", "B", "AAA", "BBB", carrier, 1, Duration.ofHours(2), 100,
+					PriceHistogram.of(new long[]{100}, new long[]{1}), true));
+		}
+
+		final RouteAnalysisResult result = AggregatedRouteAnalyzer.analyze(aggregates).orElseThrow();
+
+		assertThat(result.minJourneyTimes().keySet()).containsExactly("BA", "S7", "SU", "TK");
+	}
+
+	@Test
+	void declinesInexactAggregates() {
+		final RouteCarrierAggregate inexact = RouteCarrierAggregate.restore("A", "B", "AAA", "BBB", "S7", 1,
+				Duration.ofHours(1), 0, null, false);
+
+		assertThat(AggregatedRouteAnalyzer.analyze(List.of(inexact))).isEmpty();
+	}
+}
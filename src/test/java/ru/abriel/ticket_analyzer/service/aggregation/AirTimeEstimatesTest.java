@@ -0,0 +1,68 @@
+package ru.abriel.ticket_analyzer.service.aggregation;
+
+import org.junit.jupiter.api.Test;
+import ru.abriel.ticket_analyzer.domain.model.geography.GeoPoint;
+import ru.abriel.ticket_analyzer.domain.model.geography.Latitude;
+import ru.abriel.ticket_analyzer.domain.model.geography.Longitude;
+import ru.abriel.ticket_analyzer.shared.util.GeoCalculator;
+import java.time.Duration;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AirTimeEstimatesTest {
+
+	private static final GeoPoint VVO = point(131.9, 43.4);
+	private static final GeoPoint TLV = point(34.9, 32.0);
+	private static final GeoPoint OVB = point(82.7, 55.0);
+
+	private final GeoCalculator geoCalculator = mock(GeoCalculator.class);
+	private final AirTimeEstimates estimates = new AirTimeEstimates(geoCalculator);
+
+	@Test
+	void evaluatesEachAirportPairOnce() {
+		when(geoCalculator.estimateFlightTime(VVO, TLV)).thenReturn(Duration.ofMinutes(600));
+		when(geoCalculator.estimateFlightTime(VVO, OVB)).thenReturn(Duration.ofMinutes(270));
+
+		for (int i = 0; i < 3; i++) {
+			assertThat(estimates.estimate(VVO, TLV)).contains(Duration.ofMinutes(600));
+			// Equal coordinates are the same pair, whichever ticket they came from.
+			assertThat(estimates.estimate(point(131.9, 43.4), OVB)).contains(Duration.ofMinutes(270));
+		}
+
+		assertThat(estimates.evaluatedPairs()).isEqualTo(2);
+		verify(geoCalculator, times(1)).estimateFlightTime(VVO, TLV);
+		verify(geoCalculator, times(1)).estimateFlightTime(VVO, OVB);
+	}
+
+	@Test
+	void evaluatesEachAirportPairOnceUnderConcurrentUse() {
+		when(geoCalculator.estimateFlightTime(VVO, TLV)).thenReturn(Duration.ofMinutes(600));
+
+		IntStream.range(0, 1_000).parallel().forEach(i -> assertThat(estimates.estimate(VVO, TLV)).isPresent());
+
+		verify(geoCalculator, times(1)).estimateFlightTime(VVO, TLV);
+	}
+
+	@Test
+	void skipsMissingAndNaNCoordinates() {
+		final GeoPoint unknown = point(Double.NaN, Double.NaN);
+
+		assertThat(estimates.estimate(VVO, unknown)).isEmpty();
+		assertThat(estimates.estimate(point(Double.NaN, 32.0), TLV)).isEmpty();
+		assertThat(estimates.estimate(null, TLV)).isEmpty();
+		assertThat(estimates.estimate(VVO, null)).isEmpty();
+
+		verify(geoCalculator, never()).estimateFlightTime(any(), any());
+	}
+
+	private static GeoPoint point(final double longitude, final double latitude) {
+		return new GeoPoint(new Longitude(longitude), new Latitude(latitude));
+	}
+}
@@ -0,0 +1,39 @@
+package ru.abriel.ticket_analyzer.service.aggregation;
+
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class AirTimeRatioAccumulatorTest {
+
+	@Test
+	void dividesSummedAirTimeBySummedJourneyTimePerCarrier() {
+		final AirTimeRatioAccumulator accumulator = new AirTimeRatioAccumulator();
+		accumulator.accept("TK", Duration.ofHours(10), Duration.ofHours(6));
+		accumulator.accept("S7", Duration.ofHours(8), Duration.ofHours(6));
+		accumulator.accept("TK", Duration.ofHours(14), Duration.ofHours(6));
+
+		assertThat(accumulator.result()).containsOnlyKeys("TK", "S7");
+		assertThat(accumulator.result().keySet()).containsExactly("TK", "S7");
+		assertThat(accumulator.result().get("TK")).isCloseTo(0.5, within(1e-12));
+		assertThat(accumulator.result().get("S7")).isCloseTo(0.75, within(1e-12));
+	}
+
+	@Test
+	void skipsNonPositiveJourneys() {
+		final AirTimeRatioAccumulator accumulator = new AirTimeRatioAccumulator();
+		accumulator.accept("TK", Duration.ZERO, Duration.ofHours(6));
+		accumulator.accept("S7", Duration.ofHours(-2), Duration.ofHours(6));
+		accumulator.accept("S7", Duration.ofHours(4), Duration.ofHours(3));
+
+		assertThat(accumulator.result()).containsOnlyKeys("S7");
+		assertThat(accumulator.result().get("S7")).isCloseTo(0.75, within(1e-12));
+	}
+
+	@Test
+	void isEmptyWithoutTickets() {
+		assertThat(new AirTimeRatioAccumulator().result()).isEmpty();
+	}
+}
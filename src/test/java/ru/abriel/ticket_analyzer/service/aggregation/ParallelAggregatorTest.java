@@ -0,0 +1,94 @@
+package ru.abriel.ticket_analyzer.service.aggregation;
+
+import org.junit.jupiter.api.Test;
+import ru.abriel.ticket_analyzer.domain.model.flight.AirportInfo;
+import ru.abriel.ticket_analyzer.domain.model.flight.FlightSegment;
+import ru.abriel.ticket_analyzer.domain.model.money.Price;
+import ru.abriel.ticket_analyzer.domain.model.ticket.Ticket;
+import ru.abriel.ticket_analyzer.shared.util.AirportRegistry;
+import java.math.BigDecimal;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ParallelAggregatorTest {
+
+	private static final AirportRegistry AIRPORTS = AirportRegistry.defaultRegistry();
+	private static final AirportInfo[] CITIES = {
+			AIRPORTS.resolve("VVO", "Владивосток"), AIRPORTS.resolve("TLV", "Тель-Авив"), AIRPORTS.resolve("UFA", "Уфа")};
+	private static final String[] CARRIERS = {"TK", "S7", "SU", "BA", "U6"};
+	private static final ZonedDateTime DAY = ZonedDateTime.parse("2018-05-12T00:00:00Z");
+
+	@Test
+	void partitionedRouteAnalysisEqualsSequentialPass() {
+		final List<Ticket> tickets = tickets(20_000);
+		final RouteAnalysisAccumulator sequential = RouteAnalysisAccumulator.unfiltered();
+		tickets.forEach(sequential::accept);
+
+		try (ParallelAggregator aggregator = new ParallelAggregator(4, 997)) {
+			final RouteAnalysisResult parallel = aggregator.aggregate(tickets, RouteAnalysisAccumulator::unfiltered).result();
+
+			assertThat(parallel.ticketCount()).isEqualTo(sequential.result().ticketCount());
+			assertThat(parallel.priceDifference()).isEqualTo(sequential.result().priceDifference());
+			assertThat(parallel.minJourneyTimes()).containsExactlyEntriesOf(sequential.result().minJourneyTimes());
+		}
+	}
+
+	@Test
+	void partitionedMultiRouteAnalysisEqualsSequentialPass() {
+		final List<Ticket> tickets = tickets(20_000);
+		final MultiRouteAccumulator sequential = MultiRouteAccumulator.allRoutes();
+		tickets.forEach(sequential::accept);
+
+		try (ParallelAggregator aggregator = new ParallelAggregator(3, 1_000)) {
+			assertThat(aggregator.aggregate(tickets, MultiRouteAccumulator::allRoutes).results())
+					.isEqualTo(sequential.results());
+		}
+	}
+
+	@Test
+	void combinesPartitionsInSourceOrder() {
+		try (ParallelAggregator aggregator = new ParallelAggregator(4, 3)) {
+			final List<Integer> indexes = aggregator.aggregate(100, (from, to) -> {
+				final List<Integer> partition = new ArrayList<>();
+				for (int i = from; i < to; i++) {
+					partition.add(i);
+				}
+				return partition;
+			}, (left, right) -> {
+				left.addAll(right);
+				return left;
+			});
+
+			assertThat(indexes).hasSize(100).isSorted();
+		}
+	}
+
+	private static List<Ticket> tickets(final int count) {
+		final Random random = new Random(17);
+		final List<Ticket> tickets = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			final AirportInfo origin = CITIES[random.nextInt(CITIES.length)];
+			final AirportInfo destination = CITIES[(indexOf(origin) + 1 + random.nextInt(CITIES.length - 1)) % CITIES.length];
+			final ZonedDateTime departure = DAY.plusMinutes(random.nextInt(10_000));
+			final FlightSegment segment = new FlightSegment(origin, departure, destination,
+					departure.plusMinutes(60 + random.nextInt(900)));
+			final String carrier = CARRIERS[random.nextInt(CARRIERS.length)];
+			tickets.add(new Ticket(new Price(BigDecimal.valueOf(random.nextInt(5_000_000), 2), "RUB"), carrier, carrier,
+					new ArrayList<>(List.of(segment))));
+		}
+		return tickets;
+	}
+
+	private static int indexOf(final AirportInfo airport) {
+		for (int i = 0; i < CITIES.length; i++) {
+			if (CITIES[i] == airport) {
+				return i;
+			}
+		}
+		throw new IllegalArgumentException(airport.code());
+	}
+}
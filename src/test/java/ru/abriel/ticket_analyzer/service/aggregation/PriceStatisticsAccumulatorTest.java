@@ -0,0 +1,69 @@
+package ru.abriel.ticket_analyzer.service.aggregation;
+
+import org.junit.jupiter.api.Test;
+import ru.abriel.ticket_analyzer.domain.model.money.Price;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PriceStatisticsAccumulatorTest {
+
+	@Test
+	void fixedPointPathMatchesDecimalReference() {
+		final Random random = new Random(42);
+		for (int iteration = 0; iteration < 2_000; iteration++) {
+			final List<BigDecimal> prices = new ArrayList<>();
+			final int size = 1 + random.nextInt(50);
+			for (int i = 0; i < size; i++) {
+				prices.add(BigDecimal.valueOf(random.nextInt(100_000), random.nextInt(3)));
+			}
+			assertThat(accumulate(prices).priceDifference()).isEqualByComparingTo(reference(prices));
+		}
+	}
+
+	@Test
+	void fallsBackToDecimalsForSubMinorUnitPrices() {
+		final List<BigDecimal> prices = List.of(new BigDecimal("10.005"), new BigDecimal("3"), new BigDecimal("7.5"), new BigDecimal("1"));
+		assertThat(accumulate(prices).priceDifference()).isEqualByComparingTo(reference(prices));
+	}
+
+	@Test
+	void combinedPartialsEqualSinglePass() {
+		final List<BigDecimal> prices = List.of(BigDecimal.valueOf(12400), BigDecimal.valueOf(13100), BigDecimal.valueOf(11000), BigDecimal.valueOf(13100));
+		final PriceStatisticsAccumulator left = accumulate(prices.subList(0, 1));
+		final PriceStatisticsAccumulator right = accumulate(prices.subList(1, prices.size()));
+		assertThat(left.combine(right).priceDifference()).isEqualByComparingTo(reference(prices));
+		assertThat(left.count()).isEqualTo(4);
+	}
+
+	@Test
+	void emptyAccumulatorYieldsZero() {
+		assertThat(new PriceStatisticsAccumulator().priceDifference()).isEqualByComparingTo(BigDecimal.ZERO);
+	}
+
+	private static PriceStatisticsAccumulator accumulate(final List<BigDecimal> prices) {
+		final PriceStatisticsAccumulator accumulator = new PriceStatisticsAccumulator();
+		prices.forEach(amount -> accumulator.accept(new Price(amount, "RUB")));
+		return accumulator;
+	}
+
+	/**
+	 * The original sort-based BigDecimal implementation.
+	 */
+	private static BigDecimal reference(final List<BigDecimal> prices) {
+		final List<BigDecimal> sorted = new ArrayList<>(prices);
+		Collections.sort(sorted);
+		final int size = sorted.size();
+		final BigDecimal sum = sorted.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+		final BigDecimal average = sum.divide(new BigDecimal(size), 2, RoundingMode.HALF_UP);
+		final BigDecimal median = size % 2 == 0
+				? sorted.get(size / 2 - 1).add(sorted.get(size / 2)).divide(new BigDecimal(2), 2, RoundingMode.HALF_UP)
+				: sorted.get(size / 2);
+		return average.subtract(median).abs();
+	}
+}
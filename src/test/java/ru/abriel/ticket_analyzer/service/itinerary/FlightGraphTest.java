@@ -0,0 +1,91 @@
+package ru.abriel.ticket_analyzer.service.itinerary;
+
+import org.junit.jupiter.api.Test;
+import ru.abriel.ticket_analyzer.domain.model.flight.AirportInfo;
+import ru.abriel.ticket_analyzer.domain.model.flight.FlightSegment;
+import ru.abriel.ticket_analyzer.domain.model.money.Price;
+import ru.abriel.ticket_analyzer.domain.model.ticket.Ticket;
+import ru.abriel.ticket_analyzer.shared.util.AirportRegistry;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FlightGraphTest {
+
+	private static final AirportRegistry AIRPORTS = AirportRegistry.defaultRegistry();
+	private static final AirportInfo VVO = AIRPORTS.resolve("VVO", "Владивосток");
+	private static final AirportInfo OVB = AIRPORTS.resolve("OVB", "Новосибирск");
+	private static final AirportInfo UFA = AIRPORTS.resolve("UFA", "Уфа");
+	private static final AirportInfo TLV = AIRPORTS.resolve("TLV", "Тель-Авив");
+	private static final ZonedDateTime DAY = ZonedDateTime.parse("2018-05-12T00:00:00Z");
+
+	@Test
+	void connectsTicketsWithMinimumConnectionTime() {
+		final List<Ticket> tickets = List.of(
+				ticket("S7", 20_000, leg(VVO, 0, OVB, 6)),
+				ticket("SU", 15_000, leg(OVB, 6.5, TLV, 12)),
+				ticket("TK", 16_000, leg(OVB, 7, TLV, 13)));
+		final FlightGraph graph = FlightGraph.of(tickets, Duration.ofHours(1));
+
+		final Itinerary fastest = graph.fastest("Владивосток", "Тель-Авив", null).orElseThrow();
+
+		// The 6:30 departure leaves only 30 minutes to connect.
+		assertThat(fastest.tickets()).extracting(Ticket::carrierCode).containsExactly("S7", "TK");
+		assertThat(fastest.totalPrice()).isEqualByComparingTo("36000");
+		assertThat(fastest.duration()).isEqualTo(Duration.ofHours(13));
+	}
+
+	@Test
+	void fastestAndCheapestDiffer() {
+		final List<Ticket> tickets = List.of(
+				ticket("S7", 50_000, leg(VVO, 1, TLV, 13)),
+				ticket("U6", 9_000, leg(VVO, 0, UFA, 8)),
+				ticket("U6", 10_000, leg(UFA, 20, TLV, 25)));
+		final FlightGraph graph = FlightGraph.of(tickets, Duration.ofHours(1));
+
+		assertThat(graph.find(ItineraryCriterion.FASTEST, "VVO", "TLV", null).orElseThrow().totalPrice()).isEqualByComparingTo("50000");
+		final Itinerary cheapest = graph.find(ItineraryCriterion.CHEAPEST, "VVO", "TLV", null).orElseThrow();
+		assertThat(cheapest.totalPrice()).isEqualByComparingTo("19000");
+		assertThat(cheapest.segments()).hasSize(2);
+	}
+
+	@Test
+	void boardsConnectingTicketsOnlyAtTheirFirstOrigin() {
+		final List<Ticket> tickets = List.of(
+				ticket("S7", 30_000, leg(VVO, 0, OVB, 6), leg(OVB, 8, TLV, 14)),
+				ticket("SU", 5_000, leg(UFA, 1, OVB, 4)));
+		final FlightGraph graph = FlightGraph.of(tickets, Duration.ofHours(1));
+
+		assertThat(graph.fastest("Владивосток", "Тель-Авив", null)).get()
+				.extracting(itinerary -> itinerary.segments().size()).isEqualTo(2);
+		assertThat(graph.cheapest("Уфа", "Тель-Авив", null)).isEmpty();
+	}
+
+	@Test
+	void respectsTheEarliestDeparture() {
+		final List<Ticket> tickets = List.of(
+				ticket("S7", 20_000, leg(VVO, 0, TLV, 10)),
+				ticket("S7", 25_000, leg(VVO, 24, TLV, 36)));
+		final FlightGraph graph = FlightGraph.of(tickets, Duration.ofHours(1));
+
+		final Itinerary later = graph.cheapest("Владивосток", "Тель-Авив", DAY.plusHours(1).toInstant()).orElseThrow();
+
+		assertThat(later.departure().toInstant()).isEqualTo(DAY.plusHours(24).toInstant());
+		assertThat(graph.fastest("Владивосток", "Тель-Авив", DAY.plusDays(2).toInstant())).isEmpty();
+	}
+
+	private static Ticket ticket(final String carrier, final long price, final FlightSegment... segments) {
+		return new Ticket(new Price(BigDecimal.valueOf(price), "RUB"), carrier, "UNKNOWN", new ArrayList<>(List.of(segments)));
+	}
+
+	private static FlightSegment leg(final AirportInfo origin, final double departureHour, final AirportInfo destination,
+									 final double arrivalHour) {
+		return new FlightSegment(
+				origin, DAY.plusMinutes((long) (departureHour * 60)).withZoneSameInstant(origin.timezone()),
+				destination, DAY.plusMinutes((long) (arrivalHour * 60)).withZoneSameInstant(destination.timezone()));
+	}
+}
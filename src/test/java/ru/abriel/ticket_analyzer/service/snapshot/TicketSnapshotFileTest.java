@@ -0,0 +1,84 @@
+package ru.abriel.ticket_analyzer.service.snapshot;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.abriel.ticket_analyzer.domain.model.flight.AirportInfo;
+import ru.abriel.ticket_analyzer.domain.model.flight.FlightSegment;
+import ru.abriel.ticket_analyzer.domain.model.money.Price;
+import ru.abriel.ticket_analyzer.domain.model.ticket.Ticket;
+import ru.abriel.ticket_analyzer.domain.model.ticket.TicketDataset;
+import ru.abriel.ticket_analyzer.service.aggregation.ColumnarRouteAnalyzer;
+import ru.abriel.ticket_analyzer.service.aggregation.RouteAnalysisAccumulator;
+import ru.abriel.ticket_analyzer.service.aggregation.RouteAnalysisResult;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TicketSnapshotFileTest {
+
+	private static final ZoneId VVO_ZONE = ZoneId.of("Asia/Vladivostok");
+	private static final ZoneId TLV_ZONE = ZoneId.of("Asia/Tel_Aviv");
+	private static final AirportInfo VVO = new AirportInfo("VVO", "Владивосток", VVO_ZONE, null);
+	private static final AirportInfo TLV = new AirportInfo("TLV", "Тель-Авив", TLV_ZONE, null);
+	private static final AirportInfo UFA = new AirportInfo("UFA", "Уфа", VVO_ZONE, null);
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void snapshotAnalysisMatchesDatasetAnalysis() throws Exception {
+		final TicketDataset dataset = new TicketDataset(List.of(
+				ticket("TK", "Turkish", VVO, 16, TLV, 22, "12400"),
+				ticket("S7", "S7", VVO, 6, TLV, 16, "13100.50"),
+				ticket("SU", "Aeroflot", UFA, 9, TLV, 18, "11000"),
+				ticket("TK", "Turkish", VVO, 12, TLV, 17, "17400"),
+				ticket("BA", null, VVO, 10, TLV, 20, "9000")));
+		final Path file = directory.resolve("data.snap");
+
+		assertThat(TicketSnapshotFile.write(file, "fingerprint", dataset.tickets())).isTrue();
+		final TicketSnapshotFile snapshot = TicketSnapshotFile.open(file, "fingerprint").orElseThrow();
+
+		assertThat(snapshot.size()).isEqualTo(5);
+		for (String[] route : new String[][]{{"владивосток", "ТЕЛЬ-АВИВ"}, {"UFA", "tlv"}, {"Уфа", "Владивосток"}}) {
+			final RouteAnalysisResult expected = analyze(dataset, route[0], route[1]);
+			final RouteAnalysisResult actual = ColumnarRouteAnalyzer.analyze(snapshot, route[0], route[1]);
+			assertThat(actual).isEqualTo(expected);
+			assertThat(actual.minJourneyTimes().keySet()).containsExactlyElementsOf(expected.minJourneyTimes().keySet());
+		}
+	}
+
+	@Test
+	void staleFingerprintIsRejected() throws Exception {
+		final Path file = directory.resolve("data.snap");
+		TicketSnapshotFile.write(file, "batch:1", List.of(ticket("TK", "Turkish", VVO, 16, TLV, 22, "12400")));
+
+		assertThat(TicketSnapshotFile.open(file, "batch:2")).isEmpty();
+		assertThat(TicketSnapshotFile.open(directory.resolve("missing.snap"), "batch:1")).isEmpty();
+	}
+
+	@Test
+	void inexactPricesAreNotSnapshotted() throws Exception {
+		final Path file = directory.resolve("data.snap");
+
+		assertThat(TicketSnapshotFile.write(file, "fingerprint", List.of(ticket("TK", "Turkish", VVO, 16, TLV, 22, "10.005")))).isFalse();
+		assertThat(file).doesNotExist();
+	}
+
+	private static RouteAnalysisResult analyze(final TicketDataset dataset, final String origin, final String destination) {
+		final RouteAnalysisAccumulator accumulator = RouteAnalysisAccumulator.unfiltered();
+		dataset.findRoute(origin, destination).forEach(accumulator::accept);
+		return accumulator.result();
+	}
+
+	private static Ticket ticket(final String code, final String carrier, final AirportInfo origin, final int departureHour,
+								 final AirportInfo destination, final int arrivalHour, final String price) {
+		final FlightSegment segment = new FlightSegment(
+				origin, ZonedDateTime.of(2018, 5, 12, departureHour, 20, 0, 0, origin.timezone()),
+				destination, ZonedDateTime.of(2018, 5, 12, arrivalHour, 20, 0, 0, destination.timezone()));
+		return new Ticket(new Price(new BigDecimal(price), "RUB"), code, carrier, List.of(segment));
+	}
+}
@@ -0,0 +1,54 @@
+package ru.abriel.ticket_analyzer.shared.util;
+
+import org.junit.jupiter.api.Test;
+import ru.abriel.ticket_analyzer.domain.model.flight.AirportInfo;
+import ru.abriel.ticket_analyzer.shared.exception.TicketAnalyzerException;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AirportRegistryTest {
+
+	private final AirportRegistry registry = AirportRegistry.defaultRegistry();
+
+	@Test
+	void resolvesRegisteredAirportsToSharedInstances() {
+		final AirportInfo vvo = registry.resolve("VVO", "Владивосток");
+
+		assertThat(vvo.timezone()).isEqualTo(ZoneId.of("Asia/Vladivostok"));
+		assertThat(vvo.location().isValid()).isTrue();
+		assertThat(registry.resolve("VVO", "Владивосток")).isSameAs(vvo);
+		assertThat(registry.find("TLV")).get().extracting(AirportInfo::city).isEqualTo("Тель-Авив");
+	}
+
+	@Test
+	void keepsTheCityOfTheDataAndSharesVariants() {
+		final AirportInfo variant = registry.resolve("VVO", "Vladivostok");
+
+		assertThat(variant.city()).isEqualTo("Vladivostok");
+		assertThat(variant.timezone()).isEqualTo(ZoneId.of("Asia/Vladivostok"));
+		assertThat(registry.resolve("VVO", "Vladivostok")).isSameAs(variant);
+	}
+
+	@Test
+	void fallsBackForUnknownAirports() {
+		final AirportInfo unknown = registry.resolve("XXQ", "Нигде");
+
+		assertThat(registry.indexOf("XXQ")).isEqualTo(-1);
+		assertThat(registry.indexOf("vvo")).isEqualTo(-1);
+		assertThat(unknown.timezone()).isEqualTo(AirportRegistry.UNKNOWN_ZONE);
+		assertThat(unknown.location().isValid()).isFalse();
+		assertThat(registry.resolve("XXQ", "Нигде")).isSameAs(unknown);
+	}
+
+	@Test
+	void rejectsDuplicateCodes() {
+		final String csv = "AAA,A,UTC,0,0\nAAA,B,UTC,0,0\n";
+
+		assertThatThrownBy(() -> AirportRegistry.load(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8))))
+				.isInstanceOf(TicketAnalyzerException.class);
+	}
+}
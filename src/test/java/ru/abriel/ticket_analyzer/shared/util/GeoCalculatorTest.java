@@ -0,0 +1,88 @@
+package ru.abriel.ticket_analyzer.shared.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.abriel.ticket_analyzer.domain.model.geography.GeoPoint;
+import ru.abriel.ticket_analyzer.domain.model.geography.Latitude;
+import ru.abriel.ticket_analyzer.domain.model.geography.Longitude;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class GeoCalculatorTest {
+
+	@Test
+	void batchEstimateMatchesSinglePairEstimate() {
+		final GeoCalculator geoCalculator = new GeoCalculator();
+		ReflectionTestUtils.setField(geoCalculator, "averageCruiseSpeedKmph", 850.0);
+		final Random random = new Random(42);
+		final int count = 10_001;
+		final double[] originLatitudes = new double[count];
+		final double[] originLongitudes = new double[count];
+		final double[] destinationLatitudes = new double[count];
+		final double[] destinationLongitudes = new double[count];
+		for (int i = 0; i < count; i++) {
+			originLatitudes[i] = random.nextDouble() * 180 - 90;
+			originLongitudes[i] = random.nextDouble() * 360 - 180;
+			destinationLatitudes[i] = random.nextDouble() * 180 - 90;
+			destinationLongitudes[i] = random.nextDouble() * 360 - 180;
+		}
+		originLatitudes[7] = Double.NaN;
+
+		final long[] minutes = new long[count];
+		geoCalculator.estimateFlightMinutes(originLatitudes, originLongitudes, destinationLatitudes, destinationLongitudes, minutes, count);
+
+		assertThat(minutes[7]).isEqualTo(-1);
+		for (int i = 0; i < count; i++) {
+			if (i == 7) {
+				continue;
+			}
+			final long single = geoCalculator.estimateFlightTime(
+					new GeoPoint(new Longitude(originLongitudes[i]), new Latitude(originLatitudes[i])),
+					new GeoPoint(new Longitude(destinationLongitudes[i]), new Latitude(destinationLatitudes[i]))).toMinutes();
+			// The vectorized kernel may round differently in the last bit, which can move a truncated minute.
+			assertThat(minutes[i]).isCloseTo(single, within(1L));
+		}
+	}
+
+	@Test
+	void fallsBackToTheScalarKernelWithoutTheVectorModule() {
+		// Surefire starts the test JVM without --add-modules jdk.incubator.vector.
+		assumeTrue(ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty(), "Vector module is present");
+		final GeoCalculator geoCalculator = new GeoCalculator();
+		ReflectionTestUtils.setField(geoCalculator, "averageCruiseSpeedKmph", 850.0);
+		final Random random = new Random(7);
+		final int count = 1_000;
+		final double[][] coordinates = new double[4][count];
+		for (int i = 0; i < count; i++) {
+			coordinates[0][i] = random.nextDouble() * 180 - 90;
+			coordinates[1][i] = random.nextDouble() * 360 - 180;
+			coordinates[2][i] = random.nextDouble() * 180 - 90;
+			coordinates[3][i] = random.nextDouble() * 360 - 180;
+		}
+
+		final long[] minutes = new long[count];
+		geoCalculator.estimateFlightMinutes(coordinates[0], coordinates[1], coordinates[2], coordinates[3], minutes, count);
+
+		assertThat(GeoCalculator.isVectorized()).isFalse();
+		for (int i = 0; i < count; i++) {
+			final long single = geoCalculator.estimateFlightTime(
+					new GeoPoint(new Longitude(coordinates[1][i]), new Latitude(coordinates[0][i])),
+					new GeoPoint(new Longitude(coordinates[3][i]), new Latitude(coordinates[2][i]))).toMinutes();
+			// The scalar loop runs the very same formula, so not even a truncated minute may differ.
+			assertThat(minutes[i]).isEqualTo(single);
+		}
+	}
+
+	@Test
+	void knownDistanceIsReproduced() {
+		final double[] distances = new double[1];
+		// Vladivostok - Tel Aviv, roughly 8 300 km along the great circle.
+		GeoCalculator.calculateDistancesMeters(new double[] {43.3990}, new double[] {132.1480},
+				new double[] {32.0114}, new double[] {34.8867}, distances, 1);
+
+		assertThat(distances[0]).isBetween(8_000_000.0, 8_600_000.0);
+	}
+}
@@ -0,0 +1,116 @@
+package ru.abriel.ticket_analyzer.shared.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import ru.abriel.ticket_analyzer.domain.model.ticket.Ticket;
+import ru.abriel.ticket_analyzer.shared.exception.JsonParsingException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JsonParserWorkerTest {
+
+	private static final String FIRST = """
+			{"origin": "VVO", "origin_name": "Владивосток", "destination": "TLV", "destination_name": "Тель-Авив",
+			 "departure_date": "12.05.18", "departure_time": "16:20", "arrival_date": "12.05.18", "arrival_time": "22:10",
+			 "carrier": "TK", "stops": 3, "price": 12400}""".replace("\n", "");
+
+	private static final String SECOND = """
+			{"origin": "VVO", "origin_name": "Владивосток", "destination": "TLV", "destination_name": "Тель-Авив",
+			 "departure_date": "12.05.18", "departure_time": "17:20", "arrival_date": "12.05.18", "arrival_time": "23:50",
+			 "carrier": "S7", "stops": 1, "price": 13100}""".replace("\n", "");
+
+	private final JsonParserWorker worker = new JsonParserWorker(new ObjectMapper());
+
+	@Test
+	void streamsTheTicketsArrayWhereverItIsInTheRootObject() {
+		final String json = "{\"source\": {\"feed\": [1, 2]}, \"tickets\": [" + FIRST + ", null, " + SECOND + "], \"count\": 2}";
+
+		final List<Ticket> tickets = this.parse(json);
+		try (Stream<Ticket> stream = worker.streamTickets(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)))) {
+			assertThat(stream.toList()).isEqualTo(tickets);
+		}
+		assertThat(tickets).hasSize(2);
+		assertThat(tickets).extracting(Ticket::carrierCode).containsExactly("TK", "S7");
+	}
+
+	@Test
+	void readsDocumentsAndNdjsonAlike() {
+		final List<Ticket> document = this.parse("{\"source\": {\"feed\": [1, 2]}, \"tickets\": [" + FIRST + ", " + SECOND + "]}");
+		final List<Ticket> lines = this.parse(FIRST + "\n\n" + SECOND + "\n");
+
+		assertThat(document).hasSize(2);
+		assertThat(lines).isEqualTo(document);
+	}
+
+	@Test
+	void readsNdjsonOnlyFromTicketLinesOrSeveralRootValues() {
+		assertThat(this.parse("{\"meta\": {}}\n" + FIRST + "\n")).hasSize(1);
+		assertThatThrownBy(() -> this.parse("{}")).isInstanceOf(JsonParsingException.class)
+				.hasMessage("Root 'tickets' array is missing or null.");
+		assertThatThrownBy(() -> this.parse("{\"ticket\": [" + FIRST + "]}")).isInstanceOf(JsonParsingException.class)
+				.hasMessage("Root 'tickets' array is missing or null.");
+		assertThatThrownBy(() -> this.parse("{\"meta\": {}}")).isInstanceOf(JsonParsingException.class)
+				.hasMessage("Root 'tickets' array is missing or null.");
+	}
+
+	@Test
+	void decompressesGzipStreams() throws IOException {
+		final String ndjson = FIRST + "\n" + SECOND + "\n";
+
+		assertThat(worker.parse(new ByteArrayInputStream(gzip(ndjson)))).isEqualTo(this.parse(ndjson));
+	}
+
+	@Test
+	void leavesTheCallersStreamOpen() throws IOException {
+		final TrackingStream plain = new TrackingStream((FIRST + "\n").getBytes(StandardCharsets.UTF_8));
+		final TrackingStream compressed = new TrackingStream(gzip(FIRST + "\n"));
+
+		worker.parseStreaming(plain, ticket -> { });
+		worker.streamTickets(compressed).close();
+
+		assertThat(plain.closed).isFalse();
+		assertThat(compressed.closed).isFalse();
+	}
+
+	@Test
+	void rejectsMalformedInput() {
+		assertThatThrownBy(() -> this.parse("{\"tickets\": null}")).isInstanceOf(JsonParsingException.class);
+		assertThatThrownBy(() -> this.parse("{\"tickets\": [" + FIRST + ", 42]}")).isInstanceOf(JsonParsingException.class);
+		assertThatThrownBy(() -> this.parse("{\"tickets\": [" + FIRST)).isInstanceOf(JsonParsingException.class);
+		assertThatThrownBy(() -> this.parse(FIRST + "\n42\n")).isInstanceOf(JsonParsingException.class);
+	}
+
+	private List<Ticket> parse(final String json) {
+		return worker.parse(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)));
+	}
+
+	private static byte[] gzip(final String text) throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+			out.write(text.getBytes(StandardCharsets.UTF_8));
+		}
+		return bytes.toByteArray();
+	}
+
+	private static final class TrackingStream extends ByteArrayInputStream {
+
+		private boolean closed;
+
+		private TrackingStream(final byte[] bytes) {
+			super(bytes);
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+	}
+}
@@ -0,0 +1,95 @@
+package ru.abriel.ticket_analyzer.shared.util;
+
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KllLongSketchTest {
+
+	@Test
+	void isExactUntilTheFirstCompaction() {
+		final KllLongSketch sketch = new KllLongSketch(200);
+		final long[] values = new Random(3).longs(150, 0, 10_000).toArray();
+		Arrays.stream(values).forEach(sketch::add);
+		Arrays.sort(values);
+
+		for (int rank = 0; rank < values.length; rank++) {
+			assertThat(sketch.valueAt(rank)).isEqualTo(values[rank]);
+		}
+	}
+
+	@Test
+	void keepsRankErrorAndMemoryBounded() {
+		final Random random = new Random(11);
+		final KllLongSketch sketch = new KllLongSketch(200);
+		final long[] values = new long[500_000];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = (long) (random.nextGaussian() * 10_000);
+			sketch.add(values[i]);
+		}
+		Arrays.sort(values);
+
+		assertThat(sketch.retained()).isLessThan(1_000);
+		assertThat(sketch.min()).isEqualTo(values[0]);
+		assertThat(sketch.max()).isEqualTo(values[values.length - 1]);
+		for (double fraction : new double[]{0.01, 0.1, 0.5, 0.9, 0.99}) {
+			assertThat(rankError(values, sketch.quantile(fraction), fraction)).isLessThan(0.017);
+		}
+	}
+
+	@Test
+	void mergedSketchesCoverAllValues() {
+		final Random random = new Random(5);
+		final KllLongSketch merged = new KllLongSketch(200);
+		final long[] values = new long[300_000];
+		for (int part = 0; part < 3; part++) {
+			final KllLongSketch partial = new KllLongSketch(200);
+			for (int i = part * 100_000; i < (part + 1) * 100_000; i++) {
+				values[i] = random.nextInt(1_000_000) + part * 500_000L;
+				partial.add(values[i]);
+			}
+			merged.merge(partial);
+		}
+		Arrays.sort(values);
+
+		assertThat(merged.count()).isEqualTo(values.length);
+		for (double fraction : new double[]{0.1, 0.5, 0.9}) {
+			assertThat(rankError(values, merged.quantile(fraction), fraction)).isLessThan(0.017);
+		}
+	}
+
+	@Test
+	void rejectsQueriesOnAnEmptySketch() {
+		assertThatThrownBy(() -> new KllLongSketch().quantile(0.5)).isInstanceOf(IllegalStateException.class);
+	}
+
+	/**
+	 * The distance between the requested rank and the nearest rank of the returned value, as a share of all values.
+	 */
+	private static double rankError(final long[] sorted, final long value, final double fraction) {
+		final int first = lowerBound(sorted, value);
+		final int last = lowerBound(sorted, value + 1) - 1;
+		final long target = (long) Math.floor(fraction * (sorted.length - 1));
+		if (target >= first && target <= last) {
+			return 0;
+		}
+		return (double) Math.min(Math.abs(target - first), Math.abs(target - last)) / sorted.length;
+	}
+
+	private static int lowerBound(final long[] sorted, final long value) {
+		int low = 0;
+		int high = sorted.length;
+		while (low < high) {
+			final int middle = (low + high) >>> 1;
+			if (sorted[middle] < value) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+}
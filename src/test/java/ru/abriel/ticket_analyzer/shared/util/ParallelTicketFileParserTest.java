@@ -0,0 +1,149 @@
+package ru.abriel.ticket_analyzer.shared.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+import ru.abriel.ticket_analyzer.domain.model.ticket.Ticket;
+import ru.abriel.ticket_analyzer.shared.exception.JsonParsingException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ParallelTicketFileParserTest {
+
+	private static final String SEGMENTS = """
+			, "segments": [
+			 {"origin": "VVO", "origin_name": "Владивосток", "destination": "OVB", "destination_name": "Новосибирск",
+			  "departure_date": "12.05.18", "departure_time": "16:20", "arrival_date": "12.05.18", "arrival_time": "17:50"},
+			 {"origin": "OVB", "origin_name": "Новосибирск", "destination": "TLV", "destination_name": "Тель-Авив",
+			  "departure_date": "12.05.18", "departure_time": "19:30", "arrival_date": "13.05.18", "arrival_time": "1:10"}]
+			""".replace("\n", "");
+
+	@TempDir
+	Path dir;
+
+	private final JsonParserWorker worker = new JsonParserWorker(new ObjectMapper());
+	private ParallelTicketFileParser parser;
+
+	@BeforeEach
+	void setUp() {
+		parser = new ParallelTicketFileParser(worker);
+		// Tiny slices and scan windows put boundaries inside strings, escapes and nested values.
+		ReflectionTestUtils.setField(parser, "chunkSizeBytes", 1);
+		ReflectionTestUtils.setField(parser, "parallelism", 3);
+		ReflectionTestUtils.setField(parser, "scanWindowBytes", 7L);
+	}
+
+	@AfterEach
+	void tearDown() {
+		parser.close();
+	}
+
+	@Test
+	void matchesTheSequentialParserOnTrickyDocuments() throws IOException {
+		final String tickets = IntStream.range(0, 12).mapToObj(ParallelTicketFileParserTest::ticket)
+				.collect(Collectors.joining(",\n  "));
+		final Path file = this.write("tickets.json", """
+				{"meta": {"note": "brackets ] } { [ and \\"quotes\\"", "feeds": [[1, 2], {"id": "}"}]},
+				 "tickets": [
+				  %s
+				 ]}
+				""".formatted(tickets));
+
+		final List<Ticket> parallel = parser.parse(file, true);
+
+		assertThat(parallel).hasSize(12).isEqualTo(this.sequential(file));
+		assertThat(parser.parse(file, false)).containsExactlyInAnyOrderElementsOf(parallel);
+		ReflectionTestUtils.setField(parser, "chunkSizeBytes", 1500);
+		assertThat(parser.parse(file, true)).isEqualTo(parallel);
+	}
+
+	@Test
+	void matchesTheSequentialParserOnNdjson() throws IOException {
+		final String lines = IntStream.range(0, 9).mapToObj(ParallelTicketFileParserTest::ticket)
+				.collect(Collectors.joining("\n\n"));
+		final Path file = this.write("tickets.ndjson", lines + "\n");
+
+		assertThat(parser.parse(file, true)).hasSize(9).isEqualTo(this.sequential(file));
+	}
+
+	@Test
+	void returnsNothingForAnEmptyArray() throws IOException {
+		final Path file = this.write("empty.json", "{\"meta\": {}, \"tickets\": [ ]}");
+
+		assertThat(parser.parse(file, true)).isEmpty();
+		assertThat(this.sequential(file)).isEmpty();
+	}
+
+	@Test
+	void reusesOnePoolAcrossCalls() throws IOException {
+		final Path file = this.write("tickets.json", "{\"tickets\": [" + ticket(0) + ", " + ticket(1) + "]}");
+
+		parser.parse(file, true);
+		final Object pool = ReflectionTestUtils.getField(parser, "pool");
+		parser.parse(file, false);
+
+		assertThat(pool).isNotNull().isSameAs(ReflectionTestUtils.getField(parser, "pool"));
+	}
+
+	@Test
+	void treatsTopLevelScalarsLikeTheSequentialParser() throws IOException {
+		final Path nulls = this.write("nulls.json", "{\"tickets\": [null, " + ticket(0) + ", null, " + ticket(1) + "]}");
+		final Path number = this.write("number.json", "{\"tickets\": [" + ticket(0) + ", 42, " + ticket(1) + "]}");
+		final Path string = this.write("string.ndjson", ticket(0) + "\n\"x\"\n" + ticket(1) + "\n");
+
+		assertThat(parser.parse(nulls, true)).hasSize(2).isEqualTo(this.sequential(nulls));
+		for (final int chunkSizeBytes : new int[] {1, 1500}) {
+			// Between two slices and inside one slice.
+			ReflectionTestUtils.setField(parser, "chunkSizeBytes", chunkSizeBytes);
+			assertThatThrownBy(() -> parser.parse(number, true)).isInstanceOf(JsonParsingException.class);
+			assertThatThrownBy(() -> parser.parse(string, true)).isInstanceOf(JsonParsingException.class);
+		}
+		assertThatThrownBy(() -> this.sequential(number)).isInstanceOf(JsonParsingException.class);
+		assertThatThrownBy(() -> this.sequential(string)).isInstanceOf(JsonParsingException.class);
+	}
+
+	@Test
+	void rejectsTruncatedAndMalformedFiles() throws IOException {
+		final String complete = "{\"tickets\": [" + ticket(0) + ", " + ticket(1) + "]}";
+		final Path truncated = this.write("truncated.json", complete.substring(0, complete.length() - 40));
+		final Path unclosed = this.write("unclosed.json", complete.substring(0, complete.length() - 2));
+		final Path malformed = this.write("malformed.json", complete.replace("\"price\": 1", "\"price\": oops"));
+		final Path strayBracket = this.write("stray.ndjson", ticket(0) + "\n]\n" + ticket(1) + "\n");
+		final Path misspelled = this.write("misspelled.json", complete.replace("\"tickets\"", "\"ticket\""));
+
+		assertThatThrownBy(() -> parser.parse(truncated, true)).isInstanceOf(JsonParsingException.class);
+		assertThatThrownBy(() -> parser.parse(unclosed, true)).isInstanceOf(JsonParsingException.class);
+		assertThatThrownBy(() -> parser.parse(malformed, true)).isInstanceOf(JsonParsingException.class);
+		assertThatThrownBy(() -> parser.parse(strayBracket, true)).isInstanceOf(JsonParsingException.class);
+		assertThatThrownBy(() -> parser.parse(misspelled, true)).isInstanceOf(JsonParsingException.class);
+	}
+
+	private static String ticket(final int index) {
+		return """
+				{"origin": "VVO", "origin_name": "Владивосток {%1$d}", "destination": "TLV", "destination_name": "Тель-Авив ]\\"",
+				 "departure_date": "12.05.18", "departure_time": "16:20", "arrival_date": "13.05.18", "arrival_time": "1:10",
+				 "carrier": "S7 \\\\ [%1$d]", "stops": 1, "price": 1%1$d000%2$s}""".formatted(index, index % 2 == 0 ? SEGMENTS : "")
+				.replace("\n", "");
+	}
+
+	private Path write(final String name, final String content) throws IOException {
+		return Files.writeString(dir.resolve(name), content);
+	}
+
+	private List<Ticket> sequential(final Path file) throws IOException {
+		try (InputStream in = Files.newInputStream(file)) {
+			return worker.parse(in);
+		}
+	}
+}
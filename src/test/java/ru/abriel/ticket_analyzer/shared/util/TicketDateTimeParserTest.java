@@ -0,0 +1,64 @@
+package ru.abriel.ticket_analyzer.shared.util;
+
+import org.junit.jupiter.api.Test;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TicketDateTimeParserTest {
+
+	private static final List<ZoneId> ZONES = List.of(
+			ZoneId.of("Asia/Vladivostok"), ZoneId.of("Asia/Tel_Aviv"), ZoneId.of("America/New_York"), ZoneId.of("UTC"));
+
+	private static final List<String> TIMES = List.of(
+			"0:00", "00:00", "9:05", "16:20", "23:59", "24:00", "2:30", "12:60", "7:5", "012:30", " 1:00");
+
+	@Test
+	void matchesFormatterForEveryDateAndZone() {
+		for (ZoneId zone : ZONES) {
+			for (int year = 0; year < 100; year++) {
+				for (int month = 0; month <= 13; month++) {
+					for (int day = 0; day <= 32; day++) {
+						final String date = "%02d.%02d.%02d".formatted(day, month, year);
+						for (String time : TIMES) {
+							assertThat(outcome(() -> TicketDateTimeParser.parse(date, time, zone)))
+									.as("%s %s %s", date, time, zone)
+									.isEqualTo(outcome(() -> reference(date, time, zone)));
+						}
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	void matchesFormatterForMalformedInput() {
+		final ZoneId zone = ZONES.get(0);
+		for (String date : new String[] {null, "", "1.05.18", "12-05-18", "12.05.2018", "ab.05.18"}) {
+			assertThat(outcome(() -> TicketDateTimeParser.parse(date, "16:20", zone)))
+					.isEqualTo(outcome(() -> reference(date, "16:20", zone)));
+		}
+		assertThat(outcome(() -> TicketDateTimeParser.parse("12.05.18", null, zone)))
+				.isEqualTo(outcome(() -> reference("12.05.18", null, zone)));
+	}
+
+	private static ZonedDateTime reference(final String date, final String time, final ZoneId zone) {
+		return ZonedDateTime.of(LocalDateTime.parse(date + " " + time, TicketDateTimeParser.FORMATTER), zone);
+	}
+
+	private static Object outcome(final ParseCall call) {
+		try {
+			return call.parse();
+		} catch (RuntimeException e) {
+			return e.getClass().getName() + ": " + e.getMessage();
+		}
+	}
+
+	@FunctionalInterface
+	private interface ParseCall {
+		ZonedDateTime parse();
+	}
+}
@@ -0,0 +1,61 @@
+package ru.abriel.ticket_analyzer.shared.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TicketSourceFilesTest {
+
+	@TempDir
+	Path dir;
+
+	@Test
+	void listsTheJsonFilesOfADirectoryInPathOrder() throws IOException {
+		Files.writeString(dir.resolve("b.json"), "{}");
+		Files.writeString(dir.resolve("a.json"), "{}");
+		Files.writeString(dir.resolve("notes.txt"), "x");
+		Files.createDirectories(dir.resolve("nested"));
+		Files.writeString(dir.resolve("nested/c.json"), "{}");
+
+		final TicketSourceFiles.Listing listing = TicketSourceFiles.list(dir);
+
+		assertThat(TicketSourceFiles.isMultiFile(dir)).isTrue();
+		assertThat(listing.files()).containsExactly(dir.resolve("a.json"), dir.resolve("b.json"));
+		assertThat(listing.totalBytes()).isEqualTo(4);
+	}
+
+	@Test
+	void matchesGlobsAcrossDirectories() throws IOException {
+		Files.createDirectories(dir.resolve("2018-05-12"));
+		Files.createDirectories(dir.resolve("2018-05-13/late"));
+		Files.writeString(dir.resolve("2018-05-12/tickets.json"), "{}");
+		Files.writeString(dir.resolve("2018-05-13/tickets.json"), "{}");
+		Files.writeString(dir.resolve("2018-05-13/late/tickets.json"), "{}");
+
+		final Path oneLevel = dir.resolve("2018-05-*/*.json");
+		final Path anyLevel = dir.resolve("**/tickets.json");
+
+		assertThat(TicketSourceFiles.isMultiFile(oneLevel)).isTrue();
+		assertThat(TicketSourceFiles.list(oneLevel).files()).containsExactly(
+				dir.resolve("2018-05-12/tickets.json"), dir.resolve("2018-05-13/tickets.json"));
+		assertThat(TicketSourceFiles.list(anyLevel).files()).hasSize(3);
+		assertThat(TicketSourceFiles.list(dir.resolve("missing/*.json")).files()).isEmpty();
+	}
+
+	@Test
+	void fingerprintChangesWhenAFileIsAddedOrModified() throws IOException {
+		Files.writeString(dir.resolve("a.json"), "{}");
+		final String before = TicketSourceFiles.list(dir).fingerprint();
+
+		assertThat(TicketSourceFiles.list(dir).fingerprint()).isEqualTo(before);
+		Files.writeString(dir.resolve("b.json"), "{}");
+		final String added = TicketSourceFiles.list(dir).fingerprint();
+		assertThat(added).isNotEqualTo(before);
+		Files.writeString(dir.resolve("b.json"), "{ }");
+		assertThat(TicketSourceFiles.list(dir).fingerprint()).isNotEqualTo(added);
+	}
+}